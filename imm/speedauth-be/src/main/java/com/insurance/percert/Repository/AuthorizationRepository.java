@@ -1,21 +1,55 @@
 package com.insurance.percert.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import com.insurance.percert.model.Authorization;
+import com.insurance.percert.model.PatientEntity;
 
 public interface AuthorizationRepository extends JpaRepository<Authorization, Long> {
 
     Optional<Authorization> findTopByOrderByUniqueAuthIdDesc();
 
+    // uniqueAuthIds with the longest first: for AUTH + digits that is numeric order, where a plain
+    // string sort would keep AUTH999 above AUTH1000
+    @Query("SELECT a.uniqueAuthId FROM Authorization a WHERE a.uniqueAuthId LIKE 'AUTH%' "
+            + "ORDER BY LENGTH(a.uniqueAuthId) DESC, a.uniqueAuthId DESC")
+    List<String> findHighestUniqueAuthIds(Pageable page);
+
     Optional<Authorization> findByProviderName(String providerName);
 
     Optional<Authorization> findByAuthorizationId(Long requestId);
 
     // Optional<Authorization> findByUniqueAuthIdDesc();
 
+    // Batch CPT validation: the payer and order are needed for every row
+    @Query("SELECT a FROM Authorization a LEFT JOIN FETCH a.insurance LEFT JOIN FETCH a.order WHERE a.authorizationId IN :ids")
+    List<Authorization> findForCptValidation(@Param("ids") Collection<Long> ids);
+
+    // Claim pre-adjudication: authorizationId, patientId, procedureCodeAuth, order CPT, order J-code,
+    // start, end and units of every approved authorization with both dates set
+    @Query("SELECT a.authorizationId, p.patientId, a.procedureCodeAuth, o.orderCptCode, o.orderJCode, "
+            + "a.authorizationStartDate, a.authorizationEndDate, a.units FROM Authorization a JOIN a.patient p "
+            + "LEFT JOIN a.order o WHERE LOWER(a.approvalStatus) = 'approved' "
+            + "AND a.authorizationStartDate IS NOT NULL AND a.authorizationEndDate IS NOT NULL")
+    List<Object[]> findApprovedWindows();
+
+    // Orders among the given ids that already have an authorization
+    @Query("SELECT DISTINCT a.order.orderId FROM Authorization a WHERE a.order.orderId IN :orderIds")
+    List<Long> findOrderIdsWithAuthorization(@Param("orderIds") Collection<Long> orderIds);
+
+    // Patient merge: moves every authorization of the duplicate record to the survivor
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Authorization a SET a.patient = :survivor WHERE a.patient = :duplicate")
+    int reassignPatient(@Param("duplicate") PatientEntity duplicate, @Param("survivor") PatientEntity survivor);
+
 
 
 
@@ -1,9 +1,26 @@
 package com.insurance.percert.Repository;
 
+import java.util.Collection;
+import java.util.List;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import com.insurance.percert.model.ClaimEntity;
 
 public interface ClaimRepository extends JpaRepository<ClaimEntity, Long> {
-    
+
+    // authorizationId, total units, for claims billed under an authorization
+    // other than the excluded ones; denied and voided claims use nothing
+    @Query("SELECT c.authorizationId, SUM(c.units) FROM ClaimEntity c WHERE c.authorizationId IS NOT NULL "
+            + "AND c.claimId NOT IN :excluded AND (c.claimStatus IS NULL OR UPPER(c.claimStatus) NOT IN ('DENIED', 'VOID', 'REJECTED')) "
+            + "GROUP BY c.authorizationId")
+    List<Object[]> sumUnitsByAuthorization(@Param("excluded") Collection<Long> excluded);
+
+    // Patient merge: moves every claim of the duplicate record to the survivor
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE ClaimEntity c SET c.patientId = :survivor WHERE c.patientId = :duplicate")
+    int reassignPatient(@Param("duplicate") Long duplicate, @Param("survivor") Long survivor);
 }
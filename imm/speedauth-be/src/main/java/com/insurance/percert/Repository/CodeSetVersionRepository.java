@@ -0,0 +1,18 @@
+package com.insurance.percert.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import com.insurance.percert.model.CodeSetVersionEntity;
+
+public interface CodeSetVersionRepository extends JpaRepository<CodeSetVersionEntity, Long> {
+
+    Optional<CodeSetVersionEntity> findByCodeSystemAndEffectiveFrom(String codeSystem, LocalDate effectiveFrom);
+
+    List<CodeSetVersionEntity> findByStatusNot(String status);
+
+    List<CodeSetVersionEntity> findAllByOrderByCodeSystemAscEffectiveFromAsc();
+}
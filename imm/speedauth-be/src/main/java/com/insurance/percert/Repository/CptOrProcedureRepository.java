@@ -2,6 +2,7 @@ package com.insurance.percert.Repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import java.util.*;
 import com.insurance.percert.model.CptOrProcedureEntity;
 
@@ -10,5 +11,12 @@ public interface CptOrProcedureRepository extends JpaRepository<CptOrProcedureEn
     
      @Query("SELECT DISTINCT cptCode FROM CptOrProcedureEntity")
     List<String> findAllCptCodes();
+
+    // drugId, cptCode pairs for the drug crosswalk
+    @Query("SELECT c.drug.drugId, c.cptCode FROM CptOrProcedureEntity c WHERE c.drug IS NOT NULL AND c.cptCode IS NOT NULL")
+    List<Object[]> findDrugLinks();
+
+    @Query("SELECT c.cptCode FROM CptOrProcedureEntity c WHERE c.drug.drugId = :drugId AND c.cptCode IS NOT NULL")
+    List<String> findCodesByDrugId(@Param("drugId") Long drugId);
     
 }
@@ -1,10 +1,14 @@
 package com.insurance.percert.Repository;
 
 import java.util.List;
+import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import com.insurance.percert.model.DrugEntity;
+import com.insurance.percert.model.DrugSummaryDTO;
 
 public interface DrugRepository extends JpaRepository<DrugEntity, Long>{
     
@@ -16,4 +20,10 @@ public interface DrugRepository extends JpaRepository<DrugEntity, Long>{
 
     List<DrugEntity> findByDrugDescription(String description);
 
+    @Query("SELECT new com.insurance.percert.model.DrugSummaryDTO(d.drugId, d.drugName, d.procedureCode, d.drugDescription) FROM DrugEntity d")
+    List<DrugSummaryDTO> findNameIndexRows();
+
+    @Query("SELECT new com.insurance.percert.model.DrugSummaryDTO(d.drugId, d.drugName, d.procedureCode, d.drugDescription) FROM DrugEntity d WHERE d.drugId = :drugId")
+    Optional<DrugSummaryDTO> findSummary(@Param("drugId") Long drugId);
+
 }
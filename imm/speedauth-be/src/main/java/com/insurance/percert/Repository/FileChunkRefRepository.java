@@ -0,0 +1,26 @@
+package com.insurance.percert.Repository;
+
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.insurance.percert.model.FileChunkRefEntity;
+
+public interface FileChunkRefRepository extends JpaRepository<FileChunkRefEntity, Long> {
+
+    @Query("SELECT r.chunkHash FROM FileChunkRefEntity r WHERE r.file.id = :fileId ORDER BY r.chunkIndex")
+    List<String> findChunkHashesByFileId(@Param("fileId") Long fileId);
+
+    // Manifest entries overlapping the byte range [start, end], for range reads
+    @Query("SELECT r FROM FileChunkRefEntity r WHERE r.file.id = :fileId "
+            + "AND r.chunkOffset <= :end AND r.chunkOffset + r.length > :start ORDER BY r.chunkIndex")
+    List<FileChunkRefEntity> findInRange(@Param("fileId") Long fileId, @Param("start") long start,
+            @Param("end") long end);
+
+    @Modifying
+    @Query("DELETE FROM FileChunkRefEntity r WHERE r.file.id = :fileId")
+    int deleteByFileId(@Param("fileId") Long fileId);
+}
@@ -0,0 +1,63 @@
+package com.insurance.percert.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.insurance.percert.model.FileChunkEntity;
+
+import jakarta.persistence.LockModeType;
+
+public interface FileChunkRepository extends JpaRepository<FileChunkEntity, Long> {
+
+    Optional<FileChunkEntity> findByHash(String hash);
+
+    List<FileChunkEntity> findByHashIn(Collection<String> hashes);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM FileChunkEntity c WHERE c.id = :id")
+    Optional<FileChunkEntity> findByIdForUpdate(@Param("id") Long id);
+
+    @Modifying
+    @Query("UPDATE FileChunkEntity c SET c.unreferencedAt = null, c.refCount = c.refCount + 1 WHERE c.hash = :hash")
+    int incrementRefCount(@Param("hash") String hash);
+
+    // Stamps the moment the last reference goes. unreferencedAt is assigned first so
+    // the CASE sees the old count on databases that apply SET clauses in order
+    @Modifying
+    @Query("UPDATE FileChunkEntity c SET c.unreferencedAt = CASE WHEN c.refCount = 1 THEN :now ELSE c.unreferencedAt END, "
+            + "c.refCount = c.refCount - 1 WHERE c.hash = :hash AND c.refCount > 0")
+    int decrementRefCount(@Param("hash") String hash, @Param("now") LocalDateTime now);
+
+    // Chunks that lost their last reference before the cutoff, and chunks created
+    // before it that no upload ever committed a reference to
+    @Query("SELECT c FROM FileChunkEntity c WHERE c.refCount = 0 AND (c.unreferencedAt < :cutoff "
+            + "OR (c.unreferencedAt IS NULL AND c.createdAt < :cutoff))")
+    List<FileChunkEntity> findUnreferenced(@Param("cutoff") LocalDateTime cutoff, Pageable pageable);
+
+    // Only removes the row if nothing re-referenced it since it was selected for collection
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM FileChunkEntity c WHERE c.id = :id AND c.refCount = 0")
+    int deleteIfUnreferenced(@Param("id") Long id);
+
+    @Query("SELECT c FROM FileChunkEntity c WHERE c.encrypted IS NULL OR c.encrypted = false")
+    List<FileChunkEntity> findUnencrypted(Pageable pageable);
+
+    @Query("SELECT c FROM FileChunkEntity c WHERE c.plaintextRetiredAt < :cutoff")
+    List<FileChunkEntity> findRetiredPlaintext(@Param("cutoff") LocalDateTime cutoff, Pageable pageable);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE FileChunkEntity c SET c.plaintextRetiredAt = null WHERE c.id = :id")
+    int clearRetiredPlaintext(@Param("id") Long id);
+}
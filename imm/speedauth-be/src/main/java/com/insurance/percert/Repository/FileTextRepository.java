@@ -0,0 +1,25 @@
+package com.insurance.percert.Repository;
+
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.insurance.percert.model.FileTextEntity;
+
+public interface FileTextRepository extends JpaRepository<FileTextEntity, Long> {
+
+    List<FileTextEntity> findByPatientIdAndStatus(Long patientId, String status);
+
+    // Uploads whose extraction never ran (queue overflow, restart, or pre-existing files)
+    @Query("SELECT f.id FROM FileEntity f WHERE NOT EXISTS (SELECT 1 FROM FileTextEntity t WHERE t.fileId = f.id)")
+    List<Long> findFileIdsWithoutText(Pageable pageable);
+
+    // Patient merge: extracted text follows its file to the surviving record
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE FileTextEntity t SET t.patientId = :survivorId WHERE t.patientId = :duplicateId")
+    int reassignPatient(@Param("duplicateId") Long duplicateId, @Param("survivorId") Long survivorId);
+}
@@ -1,7 +1,29 @@
 package com.insurance.percert.Repository;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
 import com.insurance.percert.model.FileEntity;
+import com.insurance.percert.model.FileSummaryDTO;
+import com.insurance.percert.model.PatientEntity;
 
 
 public interface FileUploadRepository extends JpaRepository<FileEntity, Long> {
-}
\ No newline at end of file
+
+    @Query("SELECT new com.insurance.percert.model.FileSummaryDTO(f.id, f.fileName, f.fileType, f.medicalFileType, f.fileSize, f.uploadTime) "
+            + "FROM FileEntity f WHERE f.patient.patientId = :patientId ORDER BY f.uploadTime")
+    List<FileSummaryDTO> findSummariesByPatientId(@Param("patientId") Long patientId);
+
+    // Files uploaded before the chunk store, still holding their content in the row
+    @Query("SELECT f.id FROM FileEntity f WHERE f.data IS NOT NULL")
+    List<Long> findIdsWithLegacyData(Pageable pageable);
+
+    // Patient merge: moves every file of the duplicate record to the survivor
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE FileEntity f SET f.patient = :survivor WHERE f.patient = :duplicate")
+    int reassignPatient(@Param("duplicate") PatientEntity duplicate, @Param("survivor") PatientEntity survivor);
+}
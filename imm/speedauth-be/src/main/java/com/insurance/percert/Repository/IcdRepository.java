@@ -4,6 +4,7 @@ import java.util.List;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import com.insurance.percert.model.IcdEntity;
 
@@ -11,5 +12,17 @@ public interface IcdRepository extends  JpaRepository<IcdEntity, Long> {
 
     @Query("SELECT DISTINCT icdCode from IcdEntity")
     List<String> findAllIcdCodes();
+
+    // code, description, shortDescription, billable of every row; codes linked
+    // to several drugs repeat and are collapsed by the autocomplete index
+    @Query("SELECT i.icdCode, i.description, i.shortDescription, i.billable FROM IcdEntity i WHERE i.icdCode IS NOT NULL")
+    List<Object[]> findCatalogRows();
+
+    // drugId, icdCode pairs for the drug crosswalk
+    @Query("SELECT i.drug.drugId, i.icdCode FROM IcdEntity i WHERE i.drug IS NOT NULL AND i.icdCode IS NOT NULL")
+    List<Object[]> findDrugLinks();
+
+    @Query("SELECT i.icdCode FROM IcdEntity i WHERE i.drug.drugId = :drugId AND i.icdCode IS NOT NULL")
+    List<String> findCodesByDrugId(@Param("drugId") Long drugId);
     
 }
@@ -1,9 +1,11 @@
 package com.insurance.percert.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 import com.insurance.percert.model.Insurance;
 
@@ -12,8 +14,14 @@ public interface InsuranceRepository extends JpaRepository<Insurance, Long> {
 
     Optional<Insurance> findByCustomInsuranceId(String customInsuranceId);
 
+    List<Insurance> findByCustomInsuranceIdIn(Collection<String> customInsuranceIds);
+
     Optional<Insurance> findByPayerNameIgnoreCase(String payerName);
 
     List<Insurance> findByPayerNameContainingIgnoreCase(String payerName);
 
+    // id, customInsuranceId, payerName for every payer; loads the name index
+    @Query("SELECT i.insuranceId, i.customInsuranceId, i.payerName FROM Insurance i")
+    List<Object[]> findNameIndexRows();
+
 }
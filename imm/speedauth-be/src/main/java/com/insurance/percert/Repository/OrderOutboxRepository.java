@@ -0,0 +1,35 @@
+package com.insurance.percert.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import com.insurance.percert.model.OrderOutboxEntity;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+
+public interface OrderOutboxRepository extends JpaRepository<OrderOutboxEntity, Long> {
+
+    // Oldest unhandled events, locked with SKIP LOCKED (lock timeout -2) so
+    // pollers on other instances take the next events instead of waiting
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT e FROM OrderOutboxEntity e WHERE e.processedAt IS NULL AND e.attempts < :maxAttempts ORDER BY e.id")
+    List<OrderOutboxEntity> findPending(@Param("maxAttempts") int maxAttempts, Pageable page);
+
+    @Modifying
+    @Query("UPDATE OrderOutboxEntity e SET e.attempts = e.attempts + 1, e.lastError = :error WHERE e.id = :id")
+    int recordFailure(@Param("id") Long id, @Param("error") String error);
+
+    @Modifying
+    @Query("DELETE FROM OrderOutboxEntity e WHERE e.processedAt < :cutoff")
+    int deleteProcessedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
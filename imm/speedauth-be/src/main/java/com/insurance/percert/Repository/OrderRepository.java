@@ -3,16 +3,34 @@ package com.insurance.percert.Repository;
 import java.util.List;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import com.insurance.percert.model.Order;
+import com.insurance.percert.model.OrderSummaryDTO;
 
 public interface OrderRepository extends JpaRepository<Order, Long> {
 
     // List<Order> findByPatient_CustomPatientId(String uniquePatientNumber);
-    List<Order> findByUniquepatientI(String uniquepatientI);
-    List<Order> findByProviderNpiNumber(String providerNpiNumber);
-    List<Order> findByProviderNameIgnoreCase(String providerName);
 
-    List<Order> findByIcddrugname(String icddrugname);
-    List<Order> findByIcddrugnameContainingIgnoreCase(String term);
+    // Finders return active orders only: deleteOrderpartly soft-deletes, and
+    // OrderIndexMigration indexes just the live rows for these lookups
+    List<Order> findByDeletedStatusFalse();
+    List<Order> findByUniquepatientIAndDeletedStatusFalse(String uniquepatientI);
+    List<Order> findByProviderNpiNumberAndDeletedStatusFalse(String providerNpiNumber);
+    List<Order> findByProviderNameIgnoreCaseAndDeletedStatusFalse(String providerName);
+    List<Order> findByIcddrugnameAndDeletedStatusFalse(String icddrugname);
+    List<Order> findByIcddrugnameContainingIgnoreCaseAndDeletedStatusFalse(String term);
+
+    // Active orders with a drug name; loads the type-ahead index
+    @Query("SELECT new com.insurance.percert.model.OrderSummaryDTO(o.orderId, o.icddrugname, o.uniquepatientI, o.orderDate, o.fromDateOfService) "
+            + "FROM Order o WHERE o.deletedStatus = false AND o.icddrugname IS NOT NULL")
+    List<OrderSummaryDTO> findNameIndexRows();
+
+    // Patient merge: orders reference patients by customPatientId
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Order o SET o.uniquepatientI = :survivor WHERE o.uniquepatientI = :duplicate")
+    int reassignPatient(@Param("duplicate") String duplicateCustomPatientId,
+            @Param("survivor") String survivorCustomPatientId);
 }
@@ -0,0 +1,37 @@
+package com.insurance.percert.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.insurance.percert.model.PatientMergeCandidateEntity;
+
+public interface PatientMergeCandidateRepository extends JpaRepository<PatientMergeCandidateEntity, Long> {
+
+    List<PatientMergeCandidateEntity> findByStatusOrderByScoreDesc(String status, Pageable pageable);
+
+    // survivor id, duplicate id of every pair someone has already rejected
+    @Query("SELECT c.survivorPatientId, c.duplicatePatientId FROM PatientMergeCandidateEntity c WHERE c.status = 'REJECTED'")
+    List<Object[]> findRejectedPairs();
+
+    @Modifying
+    @Query("DELETE FROM PatientMergeCandidateEntity c WHERE c.status = 'PENDING'")
+    int deletePending();
+
+    // Only a pending candidate can be resolved, so two reviewers cannot act on the same pair
+    @Modifying
+    @Query("UPDATE PatientMergeCandidateEntity c SET c.status = :status, c.resolvedAt = :resolvedAt "
+            + "WHERE c.id = :id AND c.status = 'PENDING'")
+    int resolve(@Param("id") Long id, @Param("status") String status, @Param("resolvedAt") LocalDateTime resolvedAt);
+
+    // Other pending pairs that mention a record which has just been merged away
+    @Modifying
+    @Query("UPDATE PatientMergeCandidateEntity c SET c.status = 'SUPERSEDED', c.resolvedAt = :resolvedAt "
+            + "WHERE c.status = 'PENDING' AND (c.survivorPatientId = :patientId OR c.duplicatePatientId = :patientId)")
+    int supersedePendingFor(@Param("patientId") Long patientId, @Param("resolvedAt") LocalDateTime resolvedAt);
+}
@@ -1,8 +1,10 @@
 package com.insurance.percert.Repository;
 
+import java.util.Collection;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 import com.insurance.percert.model.PatientEntity;
 import java.util.List;
@@ -12,11 +14,24 @@ public interface PatientRepository extends JpaRepository<PatientEntity, Long> {
 
     Optional<PatientEntity> findByCustomPatientId(String customPatientId);
 
+    List<PatientEntity> findByCustomPatientIdIn(Collection<String> customPatientIds);
+
     Optional<PatientEntity> findByPatientId(Long patientId);
 
     // Find patients by partial name (case-insensitive)
 List<PatientEntity> findByFullNameContainingIgnoreCase(String name);
 
+    // id, customPatientId, fullName, firstName, lastName, dateOfBirth for every
+    // patient; loads the name and match indexes
+    @Query("SELECT p.patientId, p.customPatientId, p.fullName, p.firstName, p.lastName, p.dateOfBirth FROM PatientEntity p")
+    List<Object[]> findNameIndexRows();
+
+    // id, customPatientId, fullName, firstName, lastName, dateOfBirth, gender,
+    // primaryPolicyNumber, secondaryPolicyNumber; input to the duplicate detection job
+    @Query("SELECT p.patientId, p.customPatientId, p.fullName, p.firstName, p.lastName, p.dateOfBirth, p.gender, "
+            + "p.primaryPolicyNumber, p.secondaryPolicyNumber FROM PatientEntity p")
+    List<Object[]> findDedupRows();
+
 
 
 }
@@ -1,9 +1,11 @@
 package com.insurance.percert.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 import com.insurance.percert.model.ProviderEntity;
 
@@ -13,10 +15,16 @@ public interface ProviderRepository extends JpaRepository<ProviderEntity, Long>
 
     Optional<ProviderEntity> findByNpiNumber(String npiNumber);
 
+    List<ProviderEntity> findByNpiNumberIn(Collection<String> npiNumbers);
+
     ProviderEntity findByProviderNameIgnoreCase(String providerName);
 
     List<ProviderEntity> findByProviderNameContainingIgnoreCase(String providerName);
 
+    // id, npiNumber, providerName for every provider; loads the name index
+    @Query("SELECT p.providerId, p.npiNumber, p.providerName FROM ProviderEntity p")
+    List<Object[]> findNameIndexRows();
+
 
 
 }
@@ -0,0 +1,13 @@
+package com.insurance.percert.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import com.insurance.percert.model.UploadSessionEntity;
+
+public interface UploadSessionRepository extends JpaRepository<UploadSessionEntity, String> {
+
+    List<UploadSessionEntity> findByLastActivityAtBefore(LocalDateTime cutoff);
+}
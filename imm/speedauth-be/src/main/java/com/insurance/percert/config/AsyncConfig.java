@@ -0,0 +1,85 @@
+package com.insurance.percert.config;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Enables the background jobs (file store garbage collection and similar
+ * housekeeping tasks) declared with @Scheduled on our services, and defines the
+ * bounded pools used for work moved off the request thread.
+ */
+@Configuration
+@EnableScheduling
+public class AsyncConfig {
+
+    // CPU-bound PDF parsing; the queue is bounded so a burst of uploads cannot
+    // exhaust memory, and rejected files are picked up by the backfill sweep.
+    @Bean(name = "textExtractionExecutor")
+    public ThreadPoolTaskExecutor textExtractionExecutor(
+            @Value("${file.text.extraction-threads:0}") int threads,
+            @Value("${file.text.extraction-queue:500}") int queueCapacity) {
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("text-extract-");
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.initialize();
+        return executor;
+    }
+
+    // Code set releases are parsed one at a time (each load already uses the
+    // common pool to split its file); extra registrations wait in the queue.
+    @Bean(name = "codeSetLoadExecutor")
+    public ThreadPoolTaskExecutor codeSetLoadExecutor(@Value("${codeset.load-queue:64}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("codeset-load-");
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.initialize();
+        return executor;
+    }
+
+    // BCrypt for sign-in and sign-up. Hashing is deliberately slow, so it gets
+    // its own few threads; when the queue is full the caller is answered with
+    // 503 rather than letting a sign-in burst take every core.
+    @Bean(name = "passwordHashExecutor")
+    public ThreadPoolTaskExecutor passwordHashExecutor(
+            @Value("${auth.password.hash-threads:0}") int threads,
+            @Value("${auth.password.hash-queue:64}") int queueCapacity) {
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("password-hash-");
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.initialize();
+        return executor;
+    }
+
+    // Fans type-ahead lookups out across the in-memory indexes. Tasks are short,
+    // so when the queue is full the request thread just runs the lookup itself.
+    @Bean(name = "searchExecutor")
+    public ThreadPoolTaskExecutor searchExecutor(
+            @Value("${search.suggest.threads:0}") int threads,
+            @Value("${search.suggest.queue:1000}") int queueCapacity) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("search-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.initialize();
+        return executor;
+    }
+}
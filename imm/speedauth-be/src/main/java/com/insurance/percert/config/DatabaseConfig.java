@@ -40,7 +40,8 @@ public class DatabaseConfig {
         String dbName = dbUri.getPath().replaceFirst("/", "");
         
         // Convert to JDBC format
-        String jdbcUrl = String.format("jdbc:postgresql://%s:%d/%s", host, port, dbName);
+        // reWriteBatchedInserts turns JDBC insert batches into multi-row INSERTs
+        String jdbcUrl = String.format("jdbc:postgresql://%s:%d/%s?reWriteBatchedInserts=true", host, port, dbName);
         
         // Set system property for Hibernate dialect (PostgreSQL)
         System.setProperty("spring.jpa.properties.hibernate.dialect", 
@@ -0,0 +1,123 @@
+package com.insurance.percert.config;
+
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.insurance.percert.util.SqlIdentifiers;
+
+/**
+ * Creates the indexes behind the active-order finders once the schema is up
+ * to date. PostgreSQL gets partial indexes over the live rows only (WHERE
+ * deleted_status = false), so soft-deleted orders cost nothing on the hot
+ * paths; MySQL has no partial indexes and gets composite ones that include
+ * deleted_status instead. Indexes that already exist are left alone, and a
+ * failure is logged rather than stopping the application.
+ */
+@Component
+public class OrderIndexMigration {
+
+    private static final String TABLE = "orders_details";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${orders.index-migration.enabled:true}")
+    private boolean enabled;
+
+    // columns: plain column names, or "upper:" + column for a case-insensitive lookup
+    private record ActiveIndex(String name, List<String> columns, boolean deletedRows) {
+    }
+
+    private static final List<ActiveIndex> INDEXES = List.of(
+            new ActiveIndex("idx_orders_active", List.of("order_id"), false),
+            new ActiveIndex("idx_orders_active_patient", List.of("uniquepatienti"), false),
+            new ActiveIndex("idx_orders_active_npi", List.of("provider_npi_number"), false),
+            new ActiveIndex("idx_orders_active_provider", List.of("upper:provider_name"), false),
+            new ActiveIndex("idx_orders_active_drug", List.of("icddrugname"), false),
+            // Archiver scan: deleted orders by deletion time
+            new ActiveIndex("idx_orders_deleted_at", List.of("deleted_at"), true));
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrate() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            String q = SqlIdentifiers.quoteString(jdbcTemplate);
+            String product = jdbcTemplate.execute(
+                    (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+            boolean postgres = product != null && product.toLowerCase(Locale.ROOT).contains("postgres");
+            Set<String> existing = existingIndexes();
+            String table = SqlIdentifiers.quote(q, TABLE);
+            String deletedStatus = SqlIdentifiers.quote(q, "deleted_status");
+            String deletedAt = SqlIdentifiers.quote(q, "deleted_at");
+
+            // Orders soft-deleted before deleted_at existed start their grace period now
+            int backfilled = jdbcTemplate.update("UPDATE " + table + " SET " + deletedAt + " = CURRENT_TIMESTAMP WHERE "
+                    + deletedStatus + " = true AND " + deletedAt + " IS NULL");
+            if (backfilled > 0) {
+                System.out.println("Backfilled deleted_at on " + backfilled + " soft-deleted orders");
+            }
+
+            for (ActiveIndex index : INDEXES) {
+                if (existing.contains(index.name().toLowerCase(Locale.ROOT))) {
+                    continue;
+                }
+                StringBuilder columns = new StringBuilder();
+                for (String column : index.columns()) {
+                    if (columns.length() > 0) {
+                        columns.append(", ");
+                    }
+                    columns.append(column.startsWith("upper:")
+                            // MySQL functional key parts need their own parentheses
+                            ? (postgres ? "" : "(") + "upper(" + SqlIdentifiers.quote(q, column.substring(6)) + ")"
+                                    + (postgres ? "" : ")")
+                            : SqlIdentifiers.quote(q, column));
+                }
+                String sql = postgres
+                        ? "CREATE INDEX " + index.name() + " ON " + table + " (" + columns + ") WHERE " + deletedStatus
+                                + " = " + index.deletedRows()
+                        : "CREATE INDEX " + index.name() + " ON " + table + " (" + deletedStatus + ", " + columns + ")";
+                try {
+                    long started = System.currentTimeMillis();
+                    jdbcTemplate.execute(sql);
+                    System.out.println("Created index " + index.name() + " on " + TABLE + " in "
+                            + (System.currentTimeMillis() - started) + " ms");
+                } catch (DataAccessException e) {
+                    System.err.println("Could not create index " + index.name() + ": " + e.getMostSpecificCause().getMessage());
+                }
+            }
+        } catch (DataAccessException e) {
+            System.err.println("Order index migration skipped: " + e.getMostSpecificCause().getMessage());
+        }
+    }
+
+    private Set<String> existingIndexes() {
+        return jdbcTemplate.execute((ConnectionCallback<Set<String>>) connection -> {
+            Set<String> names = new HashSet<>();
+            DatabaseMetaData metaData = connection.getMetaData();
+            try (ResultSet rs = metaData.getIndexInfo(connection.getCatalog(), null, TABLE, false, true)) {
+                while (rs.next()) {
+                    String name = rs.getString("INDEX_NAME");
+                    if (name != null) {
+                        names.add(name.toLowerCase(Locale.ROOT));
+                    }
+                }
+            }
+            return names;
+        });
+    }
+}
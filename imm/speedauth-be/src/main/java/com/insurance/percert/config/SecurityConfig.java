@@ -2,34 +2,54 @@ package com.insurance.percert.config;
 
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.HttpStatusEntryPoint;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+
+import com.insurance.percert.service.TokenService;
 
 /**
- * Basic security configuration that enables CORS and permits API endpoints.
- * This is important when the backend is called from a different origin
+ * Basic security configuration that enables CORS and requires sign-in.
+ * CORS is important when the backend is called from a different origin
  * (e.g. React frontend hosted on Render).
+ *
+ * Requests are stateless: a bearer access token is verified by
+ * TokenAuthenticationFilter and becomes the request's authentication. Only
+ * signing in, signing up, password resets and token refresh are open; every
+ * other endpoint answers 401 without a valid access token.
  */
 @Configuration
 public class SecurityConfig {
 
     @Bean
-    public SecurityFilterChain securityFilterChain(org.springframework.security.config.annotation.web.builders.HttpSecurity http) throws Exception {
+    public SecurityFilterChain securityFilterChain(HttpSecurity http, TokenService tokenService) throws Exception {
         http
                 // Disable CSRF for stateless REST-style APIs
                 .csrf(csrf -> csrf.disable())
                 // Enable CORS using the global CorsConfiguration (see CorsConfig)
                 .cors(Customizer.withDefaults())
-                // For now, allow all requests; tighten as needed later
+                // No HTTP session; every request brings its own token
+                .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+                .addFilterBefore(new TokenAuthenticationFilter(tokenService), UsernamePasswordAuthenticationFilter.class)
+                // 401 rather than the default 403, so clients know to sign in or refresh
+                .exceptionHandling(exceptions -> exceptions
+                        .authenticationEntryPoint(new HttpStatusEntryPoint(HttpStatus.UNAUTHORIZED)))
                 .authorizeHttpRequests(auth -> auth
-                        .requestMatchers("/user/**", "/orders/**", "/authorization/**", "/claim/**",
-                                "/patient/**", "/provider/**", "/practice/**", "/insurance/**", "/**")
+                        .requestMatchers("/auth/me").authenticated()
+                        .requestMatchers("/auth/**", "/error").permitAll()
+                        .requestMatchers(HttpMethod.POST, "/user/signup", "/user/signin", "/user/signinrole",
+                                "/user/forgot-password", "/user/reset-password", "/practice/signup",
+                                "/practice/signin", "/practice/forgot-password", "/practice/reset-password")
                         .permitAll()
+                        .requestMatchers(HttpMethod.OPTIONS, "/**").permitAll()
+                        .anyRequest().authenticated()
                 );
 
         return http.build();
     }
 }
-
-
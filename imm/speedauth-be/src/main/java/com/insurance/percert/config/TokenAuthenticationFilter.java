@@ -0,0 +1,67 @@
+package com.insurance.percert.config;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.insurance.percert.model.TokenClaimsDTO;
+import com.insurance.percert.service.TokenService;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Authenticates requests that carry an access token in the Authorization
+ * header. The token is checked against the cached signing keys only, so no
+ * request pays for a database lookup. Requests without a token pass through
+ * unauthenticated; a token that is present but invalid or expired is
+ * answered with 401 so the client knows to refresh.
+ *
+ * Not a bean on purpose: Spring Boot would also register it as a plain
+ * servlet filter. SecurityConfig adds it to the security chain instead.
+ */
+public class TokenAuthenticationFilter extends OncePerRequestFilter {
+
+    private static final String BEARER = "Bearer ";
+
+    private final TokenService tokenService;
+
+    public TokenAuthenticationFilter(TokenService tokenService) {
+        this.tokenService = tokenService;
+    }
+
+    // Sign-in and refresh must work while the client still holds an expired access token
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getServletPath();
+        return path.startsWith("/auth/") && !path.equals("/auth/me");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (header == null || !header.regionMatches(true, 0, BEARER, 0, BEARER.length())) {
+            chain.doFilter(request, response);
+            return;
+        }
+        TokenClaimsDTO claims = tokenService.verifyAccess(header.substring(BEARER.length()));
+        if (claims == null) {
+            response.setHeader(HttpHeaders.WWW_AUTHENTICATE, "Bearer error=\"invalid_token\"");
+            response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "Invalid or expired access token");
+            return;
+        }
+        String role = claims.getRole() == null ? "USER" : claims.getRole().trim().toUpperCase().replace(' ', '_');
+        UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(claims, null,
+                List.of(new SimpleGrantedAuthority("ROLE_" + role)));
+        SecurityContextHolder.getContext().setAuthentication(authentication);
+        chain.doFilter(request, response);
+    }
+}
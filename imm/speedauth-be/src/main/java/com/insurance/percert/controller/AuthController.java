@@ -0,0 +1,71 @@
+package com.insurance.percert.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.insurance.percert.model.Practice;
+import com.insurance.percert.model.TokenClaimsDTO;
+import com.insurance.percert.model.TokenResponseDTO;
+import com.insurance.percert.model.UserEntity;
+import com.insurance.percert.service.PracticeService;
+import com.insurance.percert.service.TokenService;
+import com.insurance.percert.service.UserService;
+
+@RestController
+@RequestMapping("/auth")
+@CrossOrigin(origins = "*")
+public class AuthController {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private PracticeService practiceService;
+
+    @Autowired
+    private TokenService tokenService;
+
+    // Same credentials as /user/signin; answers with an access and a refresh token
+    @PostMapping("/user/signin")
+    public TokenResponseDTO signInUser(@RequestParam String email, @RequestParam String password) {
+        UserEntity user = userService.signInUser(email, password);
+        if (user == null) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Invalid email or password");
+        }
+        return tokenService.issue(user);
+    }
+
+    // Same credentials as /practice/signin
+    @PostMapping("/practice/signin")
+    public TokenResponseDTO signInPractice(@RequestParam String email, @RequestParam String password) {
+        Practice practice = practiceService.signInPractice(email, password);
+        if (practice == null) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Invalid email or password");
+        }
+        return tokenService.issue(practice);
+    }
+
+    @PostMapping("/refresh")
+    public TokenResponseDTO refresh(@RequestParam String refreshToken) {
+        return tokenService.refresh(refreshToken);
+    }
+
+    // Who the bearer token on this request belongs to
+    @GetMapping("/me")
+    public TokenClaimsDTO me() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !(authentication.getPrincipal() instanceof TokenClaimsDTO claims)) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "No access token on this request");
+        }
+        return claims;
+    }
+}
@@ -3,6 +3,7 @@ package com.insurance.percert.controller;
 import java.io.IOException;
 import java.time.LocalDate;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -21,6 +22,8 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.insurance.percert.model.Authorization;
+import com.insurance.percert.model.AuthorizationUnitsDTO;
+import com.insurance.percert.model.CptAuthMatrixStatusDTO;
 import com.insurance.percert.model.PatientEntity;
 import com.insurance.percert.model.ProviderEntity;
 import com.insurance.percert.model.Insurance;
@@ -32,6 +35,8 @@ import com.insurance.percert.Repository.InsuranceRepository;
 import com.insurance.percert.Repository.PracticeRepository;
 import com.insurance.percert.Repository.OrderRepository;
 import com.insurance.percert.service.AuthorizationService;
+import com.insurance.percert.service.AuthorizationUnitsService;
+import com.insurance.percert.service.CptAuthMatrixService;
 import com.insurance.percert.service.EDIService;
 
 @RestController
@@ -44,6 +49,10 @@ public class AuthorizationController {
     @Autowired
     private EDIService ediService;
     @Autowired
+    private CptAuthMatrixService cptAuthMatrixService;
+    @Autowired
+    private AuthorizationUnitsService authorizationUnitsService;
+    @Autowired
     private PatientRepository patientRepository;
     @Autowired
     private ProviderRepository providerRepository;
@@ -157,6 +166,13 @@ public class AuthorizationController {
         return ResponseEntity.ok(authorizationService.getAuthorizationById(id));
     }
 
+    // Approved units, units taken by orders and what is left
+    @GetMapping("/{id}/units")
+    public ResponseEntity<AuthorizationUnitsDTO> getAuthorizationUnits(@PathVariable Long id) {
+        AuthorizationUnitsDTO units = authorizationUnitsService.getUnits(id);
+        return units == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(units);
+    }
+
     @GetMapping
     public ResponseEntity<List<Authorization>> getAllAuthorizations() {
         return ResponseEntity.ok(authorizationService.getAllAuthorizations());
@@ -797,6 +813,25 @@ public ResponseEntity<String> validateProviders(@RequestBody List<Long> requestI
         return ResponseEntity.ok("CPT Validation Status: " + status);
     }
 
+    @PostMapping("/checkcptvalidation/all")
+    public ResponseEntity<Map<Long, String>> validateCptForAll(@RequestBody List<Long> requestIds) {
+        Map<Long, String> statuses = new LinkedHashMap<>();
+        authorizationService.validateCptForAll(requestIds)
+                .forEach((id, required) -> statuses.put(id, required ? "Auth Required" : "Auth Not Required"));
+        return ResponseEntity.ok(statuses);
+    }
+
+    @GetMapping("/cptmatrix")
+    public CptAuthMatrixStatusDTO getCptMatrixStatus() {
+        return cptAuthMatrixService.getStatus();
+    }
+
+    // Re-reads the payer x CPT requirement CSV (cpt.auth-matrix.file)
+    @PostMapping("/cptmatrix/reload")
+    public CptAuthMatrixStatusDTO reloadCptMatrix() {
+        return cptAuthMatrixService.reload();
+    }
+
     @PostMapping("/uncheckcptvalidation/all")
     public ResponseEntity<String> invalidateCptForAll(@RequestBody List<Long> requestIds) {
         authorizationService.invalidateCptForAll(requestIds);
@@ -1,12 +1,28 @@
 package com.insurance.percert.controller;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.insurance.percert.model.ClaimCheckDTO;
 import com.insurance.percert.model.ClaimEntity;
+import com.insurance.percert.model.RemittanceResultDTO;
+import com.insurance.percert.service.Claim837Service;
+import com.insurance.percert.service.ClaimPreAdjudicationService;
 import com.insurance.percert.service.ClaimService;
+import com.insurance.percert.service.RemittanceService;
 
+import jakarta.servlet.http.HttpServletRequest;
+
+import java.io.IOException;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 
@@ -17,10 +33,17 @@ import java.util.Optional;
 public class ClaimController {
 
     private final ClaimService claimService;
+    private final ClaimPreAdjudicationService claimPreAdjudicationService;
+    private final Claim837Service claim837Service;
+    private final RemittanceService remittanceService;
 
     @Autowired
-    public ClaimController(ClaimService claimService) {
+    public ClaimController(ClaimService claimService, ClaimPreAdjudicationService claimPreAdjudicationService,
+            Claim837Service claim837Service, RemittanceService remittanceService) {
         this.claimService = claimService;
+        this.claimPreAdjudicationService = claimPreAdjudicationService;
+        this.claim837Service = claim837Service;
+        this.remittanceService = remittanceService;
     }
 
     @PostMapping
@@ -28,6 +51,53 @@ public class ClaimController {
         return ResponseEntity.ok(claimService.createClaim(claim));
     }
 
+    // Flags unauthorized, out-of-window and over-unit lines before the claims are submitted;
+    // with assign=true, lines that pass are saved with the authorization they fit
+    @PostMapping("/preadjudicate")
+    public ResponseEntity<List<ClaimCheckDTO>> preAdjudicate(@RequestBody List<Long> claimIds,
+            @RequestParam(value = "assign", defaultValue = "false") boolean assign) {
+        return ResponseEntity.ok(claimPreAdjudicationService.check(claimIds, assign));
+    }
+
+    // 837P (type=P) or 837I (type=I) file for the claims dated from..to (default today), for one practice or all
+    @GetMapping("/837")
+    public ResponseEntity<StreamingResponseBody> generate837(
+            @RequestParam(value = "type", defaultValue = Claim837Service.PROFESSIONAL) String type,
+            @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(value = "practiceId", required = false) Long practiceId) {
+        String claimType = type.trim().toUpperCase();
+        if (!Claim837Service.PROFESSIONAL.equals(claimType) && !Claim837Service.INSTITUTIONAL.equals(claimType)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "type must be P or I");
+        }
+        LocalDate start = from != null ? from : LocalDate.now();
+        LocalDate end = to != null ? to : start;
+        if (end.isBefore(start)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "to is before from");
+        }
+        // An interchange cannot be empty
+        if (claim837Service.countClaims(claimType, start, end, practiceId) == 0) {
+            return ResponseEntity.noContent().build();
+        }
+        StreamingResponseBody body = out -> claim837Service.write837(claimType, start, end, practiceId, out);
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.TEXT_PLAIN);
+        headers.setContentDisposition(ContentDisposition.builder("attachment")
+                .filename("claims-837" + claimType + "-" + start + (end.equals(start) ? "" : "_" + end) + ".x12").build());
+        return new ResponseEntity<>(body, headers, HttpStatus.OK);
+    }
+
+    // 835 remittance advice as the raw request body; claims it pays or denies are updated
+    @PostMapping("/835")
+    public ResponseEntity<RemittanceResultDTO> ingest835(HttpServletRequest request) {
+        try {
+            // Read the body straight off the socket; an 835 can run to hundreds of megabytes
+            return ResponseEntity.ok(remittanceService.ingest835(request.getInputStream()));
+        } catch (IOException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
     @GetMapping
     public ResponseEntity<List<ClaimEntity>> getAllClaims() {
         return ResponseEntity.ok(claimService.getAllClaims());
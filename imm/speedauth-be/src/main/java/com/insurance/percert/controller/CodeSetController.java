@@ -0,0 +1,57 @@
+package com.insurance.percert.controller;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.insurance.percert.model.CodeSetVersionEntity;
+import com.insurance.percert.model.CodeValidationDTO;
+import com.insurance.percert.service.CodeSetVersionService;
+
+// Versioned ICD-10-CM / CPT / HCPCS releases, validated by date of service
+@RestController
+@RequestMapping("/codesets")
+@CrossOrigin(origins = "http://localhost:3000")
+public class CodeSetController {
+
+    @Autowired
+    private CodeSetVersionService codeSetVersionService;
+
+    // Loads in the background; poll GET /codesets/versions for the status
+    @PostMapping("/versions")
+    public ResponseEntity<CodeSetVersionEntity> registerVersion(@RequestParam("system") String codeSystem,
+            @RequestParam("version") String version,
+            @RequestParam("effectiveFrom") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate effectiveFrom,
+            @RequestParam("file") String fileName) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(codeSetVersionService.register(codeSystem, version, effectiveFrom, fileName));
+    }
+
+    @GetMapping("/versions")
+    public List<CodeSetVersionEntity> getVersions() {
+        return codeSetVersionService.getVersions();
+    }
+
+    // ?date= defaults to today
+    @GetMapping("/{system}/{code}")
+    public CodeValidationDTO lookup(@PathVariable("system") String codeSystem, @PathVariable String code,
+            @RequestParam(value = "date", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        return codeSetVersionService.lookup(codeSystem, code, date != null ? date : LocalDate.now());
+    }
+
+    @GetMapping("/validate/order/{orderId}")
+    public List<CodeValidationDTO> validateOrder(@PathVariable Long orderId) {
+        return codeSetVersionService.validateOrder(orderId);
+    }
+}
@@ -1,15 +1,19 @@
 package com.insurance.percert.controller;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.insurance.percert.model.CptOrProcedureEntity;
+import com.insurance.percert.service.CatalogSnapshotService;
 import com.insurance.percert.service.CptOrProcedureService;
 import com.insurance.percert.service.IcdService;
 import java.util.*;
@@ -22,14 +26,20 @@ public class CptOrProcedureController {
     @Autowired
     private CptOrProcedureService cptOrProcedureService;
 
+    @Autowired
+    private CatalogSnapshotService catalogSnapshotService;
+
     @PostMapping("/create")
     public CptOrProcedureEntity createCpt(@RequestBody CptOrProcedureEntity cptEntity) {
         return cptOrProcedureService.createCpt(cptEntity);
     }
 
+    // Served from a pre-serialized snapshot; revalidate with If-None-Match
     @GetMapping("/getall")
-    public List<CptOrProcedureEntity> getAllCpt() {
-        return cptOrProcedureService.getAllCpt();
+    public ResponseEntity<byte[]> getAllCpt(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return catalogSnapshotService.getCptCatalog().toResponse(ifNoneMatch, acceptEncoding);
     }
 
     @GetMapping("/getbyid/{id}")
@@ -38,8 +48,10 @@ public class CptOrProcedureController {
     }
 
     @GetMapping("/getAllCptCodes")
-    public List<String> getAllCptCodes() {
-        return cptOrProcedureService.getAllCptCodes();
+    public ResponseEntity<byte[]> getAllCptCodes(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return catalogSnapshotService.getCptCodes().toResponse(ifNoneMatch, acceptEncoding);
     }
     
 }
@@ -0,0 +1,56 @@
+package com.insurance.percert.controller;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.insurance.percert.model.CrosswalkDrugDTO;
+import com.insurance.percert.model.DrugSummaryDTO;
+import com.insurance.percert.service.CrosswalkService;
+
+// Drug <-> ICD <-> CPT coverage lookups, served from memory
+@RestController
+@RequestMapping("/crosswalk")
+@CrossOrigin(origins = "http://localhost:3000")
+public class CrosswalkController {
+
+    @Autowired
+    private CrosswalkService crosswalkService;
+
+    @GetMapping("/drug/{drugId}")
+    public CrosswalkDrugDTO getDrug(@PathVariable Long drugId) {
+        CrosswalkDrugDTO drug = crosswalkService.getDrug(drugId);
+        if (drug == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Drug not found: " + drugId);
+        }
+        return drug;
+    }
+
+    // Drugs valid for ?icd=, ?cpt= or both together
+    @GetMapping("/drugs")
+    public List<DrugSummaryDTO> getDrugs(@RequestParam(value = "icd", required = false) String icdCode,
+            @RequestParam(value = "cpt", required = false) String cptCode) {
+        if ((icdCode == null || icdCode.isBlank()) && (cptCode == null || cptCode.isBlank())) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Give an icd code, a cpt code or both");
+        }
+        return crosswalkService.getDrugs(blankToNull(icdCode), blankToNull(cptCode));
+    }
+
+    // CPT codes used together with the ICD code on any drug
+    @GetMapping("/icd/{icdCode}/cpt")
+    public List<String> getCptCodesForIcd(@PathVariable String icdCode) {
+        return crosswalkService.getCptCodesForIcd(icdCode);
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value;
+    }
+}
@@ -16,7 +16,9 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.insurance.percert.model.DrugEntity;
+import com.insurance.percert.model.DrugSummaryDTO;
 import com.insurance.percert.service.DrugService;
+import com.insurance.percert.service.NameSearchService;
 
 import org.springframework.web.server.ResponseStatusException;
 
@@ -29,6 +31,9 @@ public class DrugController {
     @Autowired
     private DrugService drugService;
 
+    @Autowired
+    private NameSearchService nameSearchService;
+
     @PostMapping("/write")
     public DrugEntity createPatientData(@RequestBody DrugEntity drugEntity) {
         DrugEntity addData = drugService.createDrugData(drugEntity);
@@ -77,9 +82,11 @@ public class DrugController {
     // public List<DrugEntity> searchByName(@RequestParam("term") String term) {
     //     return drugService.searchByDrugName(term);
     // }
+    // Ranked by relevance across name, J-code and description; the last word also matches as a prefix
     @GetMapping("/search")
-    public List<DrugEntity> searchByName(@RequestParam("term") String term) {
-        List<DrugEntity> results = drugService.searchByDrugName(term);
+    public List<DrugSummaryDTO> searchByName(@RequestParam("term") String term,
+            @RequestParam(value = "limit", defaultValue = "20") int limit) {
+        List<DrugSummaryDTO> results = nameSearchService.searchDrugs(term, Math.min(Math.max(limit, 1), 100));
         if (results.isEmpty()) {
             throw new ResponseStatusException(
                 HttpStatus.NOT_FOUND,
@@ -93,8 +100,9 @@ public class DrugController {
 
 
     @GetMapping("/searchByDescription")
-    public List<DrugEntity> searchByDescription(@RequestParam("term") String term) {
-    List<DrugEntity> results = drugService.searchByDrugDescription(term);
+    public List<DrugSummaryDTO> searchByDescription(@RequestParam("term") String term,
+            @RequestParam(value = "limit", defaultValue = "20") int limit) {
+    List<DrugSummaryDTO> results = nameSearchService.searchDrugDescriptions(term, Math.min(Math.max(limit, 1), 100));
     if (results.isEmpty()) {
         throw new ResponseStatusException(
             HttpStatus.NOT_FOUND,
@@ -4,16 +4,29 @@ import com.insurance.percert.model.FileEntity;
 import com.insurance.percert.Repository.FileUploadRepository;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
 import org.springframework.http.*;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import com.insurance.percert.Repository.PatientRepository;
+import com.insurance.percert.model.DocumentSearchResultDTO;
 import com.insurance.percert.model.PatientEntity;
+import com.insurance.percert.model.UploadSessionEntity;
+import com.insurance.percert.service.DocumentTextService;
+import com.insurance.percert.service.FileStorageService;
+import com.insurance.percert.service.ResumableUploadService;
+
+import jakarta.servlet.http.HttpServletRequest;
 
 @RestController
 @RequestMapping("/file")
@@ -28,6 +41,15 @@ public class FileUploadController {
     @Autowired
     private PatientRepository patientRepository;
 
+    @Autowired
+    private FileStorageService fileStorageService;
+
+    @Autowired
+    private ResumableUploadService resumableUploadService;
+
+    @Autowired
+    private DocumentTextService documentTextService;
+
   @PostMapping("/upload")
 public ResponseEntity<String> uploadFile(
     @RequestParam("file") MultipartFile file,
@@ -46,12 +68,14 @@ public ResponseEntity<String> uploadFile(
         FileEntity fileEntity = new FileEntity();
         fileEntity.setFileName(file.getOriginalFilename());
         fileEntity.setFileType(file.getContentType());
-        fileEntity.setData(file.getBytes());
         fileEntity.setMedicalFileType(medicalFileType);
         fileEntity.setUploadTime(LocalDateTime.now());
         fileEntity.setPatient(patient); // ✅ Link to patient
 
-        fileRepository.save(fileEntity);
+        // Content goes to the deduplicating chunk store instead of the row itself
+        try (InputStream content = file.getInputStream()) {
+            fileStorageService.store(fileEntity, content);
+        }
 
         return ResponseEntity.ok("File uploaded successfully.");
     } catch (Exception e) {
@@ -61,15 +85,132 @@ public ResponseEntity<String> uploadFile(
 
 
   @GetMapping("/download/{id}")
-public ResponseEntity<byte[]> downloadFile(@PathVariable Long id) {
-    return fileRepository.findById(id).map(file -> {
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.parseMediaType(file.getFileType()));
-        headers.setContentDisposition(ContentDisposition.builder("attachment")
-                .filename(file.getFileName()).build());
-
-        return new ResponseEntity<>(file.getData(), headers, HttpStatus.OK);
-    }).orElse(ResponseEntity.status(HttpStatus.NOT_FOUND).build());
+public ResponseEntity<Resource> downloadFile(@PathVariable Long id,
+        @RequestHeader(value = HttpHeaders.RANGE, required = false) String range) throws IOException {
+    Optional<FileEntity> optionalFile = fileRepository.findById(id);
+    if (optionalFile.isEmpty()) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+    }
+    FileEntity file = optionalFile.get();
+
+    HttpHeaders headers = new HttpHeaders();
+    headers.setContentType(MediaType.parseMediaType(file.getFileType()));
+    headers.setContentDisposition(ContentDisposition.builder("attachment")
+            .filename(file.getFileName()).build());
+
+    // Single byte ranges are served from just the chunks they cover
+    Long size = file.getFileSize();
+    if (range != null && size != null) {
+        headers.set(HttpHeaders.ACCEPT_RANGES, "bytes");
+        List<HttpRange> ranges;
+        try {
+            ranges = HttpRange.parseRanges(range);
+        } catch (IllegalArgumentException e) {
+            ranges = List.of();
+        }
+        if (ranges.size() != 1 || size == 0) {
+            headers.set(HttpHeaders.CONTENT_RANGE, "bytes */" + size);
+            return new ResponseEntity<>(headers, HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE);
+        }
+        long start;
+        long end;
+        try {
+            start = ranges.get(0).getRangeStart(size);
+            end = ranges.get(0).getRangeEnd(size);
+        } catch (IllegalArgumentException e) {
+            headers.set(HttpHeaders.CONTENT_RANGE, "bytes */" + size);
+            return new ResponseEntity<>(headers, HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE);
+        }
+        headers.set(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + size);
+        headers.setContentLength(end - start + 1);
+        InputStream content = fileStorageService.openStream(id, start, end);
+        return new ResponseEntity<>(new InputStreamResource(content), headers, HttpStatus.PARTIAL_CONTENT);
+    }
+
+    if (size != null) {
+        headers.setContentLength(size);
+    }
+    InputStream content = fileStorageService.openStream(id);
+    return new ResponseEntity<>(new InputStreamResource(content), headers, HttpStatus.OK);
+}
+
+  @DeleteMapping("/{id}")
+public ResponseEntity<String> deleteFile(@PathVariable Long id) {
+    if (!fileRepository.existsById(id)) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body("File not found");
+    }
+    try {
+        fileStorageService.deleteFile(id);
+        return ResponseEntity.ok("File deleted successfully.");
+    } catch (Exception e) {
+        return ResponseEntity.status(500).body("Failed to delete file: " + e.getMessage());
+    }
+}
+
+  // Full-text search over one patient's extracted records
+  @GetMapping("/search")
+public ResponseEntity<List<DocumentSearchResultDTO>> searchDocuments(@RequestParam Long patientId,
+        @RequestParam String q, @RequestParam(defaultValue = "20") int limit) {
+    return ResponseEntity.ok(documentTextService.search(patientId, q, Math.min(Math.max(limit, 1), 100)));
+}
+
+    // Resumable uploads: create a session, PUT raw bytes at the committed offset
+    // (retrying from GET's offset after a dropped connection), then complete.
+
+  @PostMapping("/uploads")
+public ResponseEntity<Map<String, Object>> createUploadSession(
+    @RequestParam("patientId") Long patientId,
+    @RequestParam("fileName") String fileName,
+    @RequestParam(value = "fileType", defaultValue = MediaType.APPLICATION_OCTET_STREAM_VALUE) String fileType,
+    @RequestParam("medicalfiletype") String medicalFileType,
+    @RequestParam(value = "totalSize", required = false) Long totalSize) throws IOException {
+
+    UploadSessionEntity session = resumableUploadService.createSession(patientId, fileName, fileType,
+            medicalFileType, totalSize);
+    return ResponseEntity.status(HttpStatus.CREATED).body(uploadStatus(session));
+}
+
+  @PutMapping(value = "/uploads/{uploadId}", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+public ResponseEntity<Map<String, Object>> uploadChunk(
+    @PathVariable String uploadId,
+    @RequestParam("offset") long offset,
+    HttpServletRequest request) throws IOException {
+
+    // Read the body straight off the socket rather than buffering it as a multipart part
+    UploadSessionEntity session = resumableUploadService.appendChunk(uploadId, offset, request.getInputStream());
+    return ResponseEntity.ok()
+            .header("Upload-Offset", String.valueOf(session.getCommittedOffset()))
+            .body(uploadStatus(session));
+}
+
+  @GetMapping("/uploads/{uploadId}")
+public ResponseEntity<Map<String, Object>> getUploadSession(@PathVariable String uploadId) {
+    UploadSessionEntity session = resumableUploadService.getSession(uploadId);
+    return ResponseEntity.ok()
+            .header("Upload-Offset", String.valueOf(session.getCommittedOffset()))
+            .body(uploadStatus(session));
+}
+
+  @PostMapping("/uploads/{uploadId}/complete")
+public ResponseEntity<Map<String, Object>> completeUploadSession(@PathVariable String uploadId) throws IOException {
+    UploadSessionEntity session = resumableUploadService.completeSession(uploadId);
+    return ResponseEntity.ok(uploadStatus(session));
+}
+
+  @DeleteMapping("/uploads/{uploadId}")
+public ResponseEntity<Void> abortUploadSession(@PathVariable String uploadId) throws IOException {
+    resumableUploadService.abortSession(uploadId);
+    return ResponseEntity.noContent().build();
+}
+
+private Map<String, Object> uploadStatus(UploadSessionEntity session) {
+    Map<String, Object> body = new HashMap<>();
+    body.put("uploadId", session.getUploadId());
+    body.put("committedOffset", session.getCommittedOffset());
+    body.put("totalSize", session.getTotalSize());
+    body.put("status", session.getStatus());
+    body.put("fileId", session.getFileId());
+    return body;
 }
 }
 
@@ -4,15 +4,26 @@ import java.util.List;
 import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
 
+import com.insurance.percert.model.IcdCodeDTO;
 import com.insurance.percert.model.IcdEntity;
+import com.insurance.percert.model.IcdLoadResultDTO;
+import com.insurance.percert.service.CatalogSnapshotService;
+import com.insurance.percert.service.IcdCodeSetService;
+import com.insurance.percert.service.IcdLookupService;
 import com.insurance.percert.service.IcdService;
 
 
@@ -28,6 +39,15 @@ public class IcdController {
     @Autowired
     private IcdService icdservice;
 
+    @Autowired
+    private IcdCodeSetService icdCodeSetService;
+
+    @Autowired
+    private IcdLookupService icdLookupService;
+
+    @Autowired
+    private CatalogSnapshotService catalogSnapshotService;
+
 
     @PostMapping("/create")
     public IcdEntity createIcd(@RequestBody IcdEntity icdEntity) {
@@ -38,9 +58,12 @@ public class IcdController {
     }
     
 
+    // Served from a pre-serialized snapshot; revalidate with If-None-Match
     @GetMapping("/getall")
-    public List<IcdEntity> getAllIcd() {
-        return icdservice.getAllIcd();
+    public ResponseEntity<byte[]> getAllIcd(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return catalogSnapshotService.getIcdCatalog().toResponse(ifNoneMatch, acceptEncoding);
     }
 
     @GetMapping("/getbyid/{id}")
@@ -49,8 +72,62 @@ public class IcdController {
     }
 
     @GetMapping("/getAllIcdCodes")
-    public List<String> getAllIcdCodes() {
-        return icdservice.getAllIcdCodes();
+    public ResponseEntity<byte[]> getAllIcdCodes(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return catalogSnapshotService.getIcdCodes().toResponse(ifNoneMatch, acceptEncoding);
+    }
+
+    // Bulk (re)load of a CMS ICD-10-CM release file from icd.codeset.dir
+    @PostMapping("/load")
+    public IcdLoadResultDTO loadCodeSet(@RequestParam("file") String fileName) {
+        return icdCodeSetService.load(fileName);
+    }
+
+    // Type-ahead by code prefix ("S72.0") or description words ("fract femur")
+    @GetMapping("/suggest")
+    public List<IcdCodeDTO> suggest(@RequestParam("prefix") String prefix,
+            @RequestParam(value = "limit", defaultValue = "20") int limit,
+            @RequestParam(value = "billableOnly", defaultValue = "false") boolean billableOnly) {
+        return icdLookupService.suggest(prefix, Math.min(limit, 200), billableOnly);
+    }
+
+    @GetMapping("/code/{code}")
+    public IcdCodeDTO getCode(@PathVariable String code) {
+        IcdCodeDTO found = icdLookupService.getCode(code);
+        if (found == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Unknown ICD code " + code);
+        }
+        return found;
+    }
+
+    @GetMapping("/code/{code}/children")
+    public List<IcdCodeDTO> getChildren(@PathVariable String code,
+            @RequestParam(value = "billableOnly", defaultValue = "false") boolean billableOnly) {
+        List<IcdCodeDTO> children = icdLookupService.getChildren(code, billableOnly);
+        if (children == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Unknown ICD code " + code);
+        }
+        return children;
+    }
+
+    // Empty body for a top-level category
+    @GetMapping("/code/{code}/parent")
+    public IcdCodeDTO getParent(@PathVariable String code) {
+        if (icdLookupService.getCode(code) == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Unknown ICD code " + code);
+        }
+        return icdLookupService.getParent(code);
+    }
+
+    // Category down to the code, for breadcrumbs
+    @GetMapping("/code/{code}/path")
+    public List<IcdCodeDTO> getPath(@PathVariable String code) {
+        List<IcdCodeDTO> path = icdLookupService.getPath(code);
+        if (path.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Unknown ICD code " + code);
+        }
+        return path;
     }
     
 
@@ -1,9 +1,12 @@
 package com.insurance.percert.controller;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -16,10 +19,16 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.insurance.percert.model.Order;
+import com.insurance.percert.service.OrderArchiveService;
+import com.insurance.percert.service.OrderImportService;
+import com.insurance.percert.service.OrderOutboxService;
 import com.insurance.percert.service.OrderService;
 
+import jakarta.servlet.http.HttpServletRequest;
+
 @RestController
 @RequestMapping("/orders")
 @CrossOrigin(origins = "*") // CORS handled globally by CorsConfig
@@ -27,6 +36,15 @@ public class OrderController {
     @Autowired
     private OrderService orderService;
 
+    @Autowired
+    private OrderArchiveService orderArchiveService;
+
+    @Autowired
+    private OrderImportService orderImportService;
+
+    @Autowired
+    private OrderOutboxService orderOutboxService;
+
     // @Autowired
     // public OrderController(OrderService orderService) {
     // this.orderService = orderService;
@@ -112,6 +130,45 @@ public class OrderController {
         return new ResponseEntity<>(updatedOrder, HttpStatus.OK);
     }
 
+    // Bulk import from an EHR export: NDJSON (one Order per line) or CSV with a header of Order
+    // property names. The body is read as a stream and one NDJSON result per record is streamed back.
+    @PostMapping("/import")
+    public ResponseEntity<StreamingResponseBody> importOrders(
+            @RequestParam(value = "format", required = false) String format,
+            HttpServletRequest request) throws IOException {
+        String resolved = importFormat(format, request.getContentType());
+        InputStream body = request.getInputStream();
+        StreamingResponseBody results = out -> orderImportService.importOrders(body, resolved, out);
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType("application/x-ndjson")).body(results);
+    }
+
+    private static String importFormat(String format, String contentType) {
+        String value = format != null ? format : contentType;
+        if (value != null) {
+            value = value.toLowerCase();
+            if (value.contains("csv")) {
+                return OrderImportService.CSV;
+            }
+            if (value.contains("ndjson") || value.contains("jsonl") || value.contains("json-seq")) {
+                return OrderImportService.NDJSON;
+            }
+        }
+        throw new ResponseStatusException(HttpStatus.UNSUPPORTED_MEDIA_TYPE,
+                "Send text/csv or application/x-ndjson, or pass format=csv|ndjson");
+    }
+
+    // Move orders soft-deleted past the retention period to orders_archive now
+    @PostMapping("/archive")
+    public ResponseEntity<Integer> archiveDeletedOrders() {
+        return new ResponseEntity<>(orderArchiveService.archiveDeletedOrders(), HttpStatus.OK);
+    }
+
+    // Handle pending order events now instead of waiting for the outbox poller
+    @PostMapping("/outbox/process")
+    public ResponseEntity<Integer> processOrderOutbox() {
+        return new ResponseEntity<>(orderOutboxService.processPending(), HttpStatus.OK);
+    }
+
     // Delete an order
     @DeleteMapping("/{orderId}")
     public ResponseEntity<Void> deleteOrder(@PathVariable Long orderId) {
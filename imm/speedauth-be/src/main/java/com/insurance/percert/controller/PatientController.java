@@ -1,10 +1,25 @@
 package com.insurance.percert.controller;
 
+import java.io.InputStream;
+import java.time.LocalDate;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -13,10 +28,16 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.insurance.percert.Repository.FileUploadRepository;
 import com.insurance.percert.Repository.PatientRepository;
+import com.insurance.percert.model.FileSummaryDTO;
+import com.insurance.percert.model.PatientMatchDTO;
 import com.insurance.percert.model.PatientEntity;
 import com.insurance.percert.model.PatientSummaryDTO;
+import com.insurance.percert.service.FileStorageService;
+import com.insurance.percert.service.NameSearchService;
 import com.insurance.percert.service.PatientService;
 
 import org.springframework.web.bind.annotation.PostMapping;
@@ -34,6 +55,15 @@ public class PatientController {
     @Autowired
     private PatientRepository patientRepository;
 
+    @Autowired
+    private FileUploadRepository fileRepository;
+
+    @Autowired
+    private FileStorageService fileStorageService;
+
+    @Autowired
+    private NameSearchService nameSearchService;
+
     @PostMapping("/write")
     public PatientEntity createPatientData(@RequestBody PatientEntity patientEntity) {
         PatientEntity addData = patientService.createPatientData(patientEntity);
@@ -102,12 +132,9 @@ public class PatientController {
     // }
     
     @GetMapping("/search")
-    public ResponseEntity<?> searchPatients(@RequestParam("query") String query) {
-        List<PatientEntity> patients = patientService.searchPatientsByName(query);
-    
-        List<PatientSummaryDTO> summaryList = patients.stream()
-            .map(p -> new PatientSummaryDTO(p.getCustomPatientId(), p.getFullName()))
-            .toList();
+    public ResponseEntity<?> searchPatients(@RequestParam("query") String query,
+            @RequestParam(value = "limit", defaultValue = "50") int limit) {
+        List<PatientSummaryDTO> summaryList = nameSearchService.searchPatients(query, Math.min(Math.max(limit, 1), 100));
     
         if (summaryList.isEmpty()) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body("No data found");
@@ -115,7 +142,91 @@ public class PatientController {
     
         return ResponseEntity.ok(summaryList);
     }
-    
 
-}
+    // Likely existing patients for a (possibly misspelled) name, best first
+    @GetMapping("/match")
+    public ResponseEntity<?> matchPatients(@RequestParam("name") String name,
+            @RequestParam(value = "dob", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dateOfBirth,
+            @RequestParam(value = "limit", defaultValue = "10") int limit) {
+        try {
+            List<PatientMatchDTO> matches = nameSearchService.matchPatients(name, dateOfBirth,
+                    Math.min(Math.max(limit, 1), 50));
+            return ResponseEntity.ok(matches);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(e.getMessage());
+        }
+    }
 
+    /**
+     * Streams the selected files (all of the patient's files when none are given)
+     * as a ZIP straight from the chunk store, one file at a time, so memory use
+     * does not grow with the size of the bundle.
+     */
+    @GetMapping("/{id}/files/bundle")
+    public ResponseEntity<StreamingResponseBody> downloadFileBundle(@PathVariable Long id,
+            @RequestParam(value = "fileIds", required = false) List<Long> fileIds) {
+        Optional<PatientEntity> patient = patientRepository.findById(id);
+        if (patient.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+
+        // Resolve everything that can fail before the first byte is committed
+        List<FileSummaryDTO> files = fileRepository.findSummariesByPatientId(id);
+        if (fileIds != null && !fileIds.isEmpty()) {
+            Map<Long, FileSummaryDTO> byId = files.stream()
+                    .collect(Collectors.toMap(FileSummaryDTO::getId, Function.identity()));
+            if (!byId.keySet().containsAll(fileIds)) {
+                return ResponseEntity.notFound().build();
+            }
+            files = fileIds.stream().distinct().map(byId::get).toList();
+        }
+        if (files.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+
+        List<FileSummaryDTO> entries = files;
+        StreamingResponseBody body = out -> {
+            Set<String> usedNames = new HashSet<>();
+            ZipOutputStream zip = new ZipOutputStream(out);
+            for (FileSummaryDTO file : entries) {
+                // PDFs and images are already compressed; deflating them again only costs CPU
+                zip.setLevel(isCompressed(file) ? Deflater.NO_COMPRESSION : Deflater.BEST_SPEED);
+                ZipEntry entry = new ZipEntry(entryName(file, usedNames));
+                if (file.getUploadTime() != null) {
+                    entry.setTimeLocal(file.getUploadTime());
+                }
+                zip.putNextEntry(entry);
+                try (InputStream content = fileStorageService.openStream(file.getId())) {
+                    content.transferTo(zip);
+                }
+                zip.closeEntry();
+            }
+            zip.finish();
+        };
+
+        String bundleName = "patient-" + Optional.ofNullable(patient.get().getCustomPatientId()).orElse(id.toString())
+                + "-records.zip";
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType("application/zip"));
+        headers.setContentDisposition(ContentDisposition.builder("attachment").filename(bundleName).build());
+        return new ResponseEntity<>(body, headers, HttpStatus.OK);
+    }
+
+    private static boolean isCompressed(FileSummaryDTO file) {
+        String type = file.getFileType() != null ? file.getFileType().toLowerCase(Locale.ROOT) : "";
+        return type.equals("application/pdf") || type.startsWith("image/") || type.startsWith("video/")
+                || type.equals("application/zip");
+    }
+
+    // Entry names must be unique and must not contain path segments
+    private static String entryName(FileSummaryDTO file, Set<String> usedNames) {
+        String name = file.getFileName() != null ? file.getFileName() : "file-" + file.getId();
+        name = name.replaceAll("[\\\\/:]", "_");
+        String candidate = name;
+        for (int n = 1; !usedNames.add(candidate); n++) {
+            int dot = name.lastIndexOf('.');
+            candidate = dot > 0 ? name.substring(0, dot) + " (" + n + ")" + name.substring(dot) : name + " (" + n + ")";
+        }
+        return candidate;
+    }
+}
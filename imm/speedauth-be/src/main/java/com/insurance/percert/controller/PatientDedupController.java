@@ -0,0 +1,57 @@
+package com.insurance.percert.controller;
+
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.insurance.percert.model.PatientEntity;
+import com.insurance.percert.model.PatientMergeCandidateEntity;
+import com.insurance.percert.service.PatientDedupService;
+
+@RestController
+@RequestMapping("/patient/duplicates")
+@CrossOrigin(origins = "*")
+public class PatientDedupController {
+
+    @Autowired
+    private PatientDedupService patientDedupService;
+
+    // Runs the detection job now; the pending list is replaced when it finishes
+    @PostMapping("/detect")
+    public ResponseEntity<?> detect() {
+        try {
+            int candidates = patientDedupService.detectDuplicates();
+            return ResponseEntity.ok(Map.of("candidates", candidates));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        }
+    }
+
+    @GetMapping
+    public ResponseEntity<List<PatientMergeCandidateEntity>> getCandidates(
+            @RequestParam(value = "status", defaultValue = "PENDING") String status,
+            @RequestParam(value = "limit", defaultValue = "100") int limit) {
+        return ResponseEntity.ok(patientDedupService.getCandidates(status, limit));
+    }
+
+    @PostMapping("/{id}/merge")
+    public ResponseEntity<PatientEntity> merge(@PathVariable Long id) {
+        return ResponseEntity.ok(patientDedupService.merge(id));
+    }
+
+    @PostMapping("/{id}/reject")
+    public ResponseEntity<String> reject(@PathVariable Long id) {
+        patientDedupService.reject(id);
+        return ResponseEntity.ok("Merge candidate rejected");
+    }
+}
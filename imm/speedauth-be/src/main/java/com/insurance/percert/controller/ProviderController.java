@@ -2,7 +2,6 @@ package com.insurance.percert.controller;
 
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -21,6 +20,7 @@ import org.springframework.web.bind.annotation.RestController;
 import com.insurance.percert.Repository.PatientRepository;
 import com.insurance.percert.model.ProviderEntity;
 import com.insurance.percert.model.ProviderSummaryDTO;
+import com.insurance.percert.service.NameSearchService;
 import com.insurance.percert.service.ProviderService;
 
 @RestController
@@ -34,6 +34,9 @@ public class ProviderController {
     @Autowired
     private PatientRepository patientRepository;
 
+    @Autowired
+    private NameSearchService nameSearchService;
+
     @PostMapping("/write")
     public ProviderEntity createProviderData(@RequestBody ProviderEntity patientEntity) {
         ProviderEntity addData = providerService.createProviderData(patientEntity);
@@ -112,12 +115,9 @@ public class ProviderController {
 
 
     @GetMapping("/search")
-    public ResponseEntity<?> searchProviders(@RequestParam("query") String query) {
-        List<ProviderEntity> providers = providerService.searchProvidersByName(query);
-
-        List<ProviderSummaryDTO> summaryList = providers.stream()
-            .map(p -> new ProviderSummaryDTO(p.getNpiNumber(), p.getProviderName()))
-            .collect(Collectors.toList());
+    public ResponseEntity<?> searchProviders(@RequestParam("query") String query,
+            @RequestParam(value = "limit", defaultValue = "50") int limit) {
+        List<ProviderSummaryDTO> summaryList = nameSearchService.searchProviders(query, Math.min(Math.max(limit, 1), 100));
 
         if (summaryList.isEmpty()) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body("No providers found");
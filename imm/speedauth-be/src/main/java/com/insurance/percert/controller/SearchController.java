@@ -0,0 +1,65 @@
+package com.insurance.percert.controller;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.insurance.percert.model.SuggestionDTO;
+import com.insurance.percert.service.SearchSuggestService;
+
+@RestController
+@RequestMapping("/search")
+@CrossOrigin(origins = "*")
+public class SearchController {
+
+    private static final int MAX_PER_TYPE = 25;
+
+    @Autowired
+    private SearchSuggestService searchSuggestService;
+
+    /**
+     * One type-ahead box for patients, providers, payers, drugs and orders.
+     * Clients that send X-Client-Id get their previous, still-running request
+     * cancelled (answered with 204) when the next keystroke arrives.
+     */
+    @GetMapping("/suggest")
+    public ResponseEntity<?> suggest(@RequestParam("q") String query,
+            @RequestParam(value = "types", required = false) String types,
+            @RequestParam(value = "limit", defaultValue = "5") int perType,
+            @RequestHeader(value = "X-Client-Id", required = false) String clientId) {
+        Set<String> requested = new LinkedHashSet<>(SearchSuggestService.TYPES);
+        if (types != null && !types.isBlank()) {
+            requested.clear();
+            for (String type : Arrays.asList(types.toLowerCase(Locale.ROOT).split(","))) {
+                String trimmed = type.trim();
+                if (!SearchSuggestService.TYPES.contains(trimmed)) {
+                    return ResponseEntity.badRequest().body("Unknown search type: " + trimmed);
+                }
+                requested.add(trimmed);
+            }
+        }
+
+        try {
+            List<SuggestionDTO> suggestions = searchSuggestService.suggest(query, requested,
+                    Math.min(Math.max(perType, 1), MAX_PER_TYPE), clientId);
+            return ResponseEntity.ok(suggestions);
+        } catch (CancellationException e) {
+            return ResponseEntity.noContent().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(e.getMessage());
+        }
+    }
+}
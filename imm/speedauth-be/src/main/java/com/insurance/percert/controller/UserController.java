@@ -11,6 +11,7 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
 
 import com.insurance.percert.model.RolesEntity;
 import com.insurance.percert.model.UserEntity;
@@ -79,12 +80,13 @@ public class UserController {
     public ResponseEntity<?> signInRole(@RequestParam String email,
             @RequestParam String password) {
         try {
-            RolesEntity role = userService.signInRole(email, password);
+            // One password check: the role comes from the signed-in user
+            UserEntity user = userService.signInUser(email, password);
+            RolesEntity role = user != null ? user.getRole_type() : null;
             if (role != null) {
                 return ResponseEntity.ok(role);
             } else {
                 // User exists but no role assigned, or invalid credentials
-                UserEntity user = userService.signInUser(email, password);
                 if (user != null) {
                     // User exists but has no role - return user info with null role
                     return ResponseEntity.ok(Map.of(
@@ -96,6 +98,9 @@ public class UserController {
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                     .body(Map.of("error", "Invalid email or password"));
             }
+        } catch (ResponseStatusException e) {
+            // 503 from a saturated password hashing pool
+            throw e;
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                 .body(Map.of("error", "An error occurred: " + e.getMessage()));
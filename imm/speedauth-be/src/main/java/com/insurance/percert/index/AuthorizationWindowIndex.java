@@ -0,0 +1,136 @@
+package com.insurance.percert.index;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable index of approved authorization windows by patient and procedure
+ * code, for checking claims against them.
+ *
+ * Each (patient, code) key holds its windows sorted by start date along with
+ * the running maximum of their end dates. To find the windows that cover a
+ * service period, a binary search drops every window that starts after the
+ * period does, and a backward scan stops once the running maximum shows no
+ * earlier window reaches the period's end. Callers swap in a freshly built
+ * instance to reload.
+ */
+public class AuthorizationWindowIndex {
+
+    /** One procedure code of an approved authorization; units is null when the authorization has no cap. */
+    public record Window(long authorizationId, long patientId, String code, LocalDate start, LocalDate end,
+            Integer units) {
+    }
+
+    private static final AuthorizationWindowIndex EMPTY = new AuthorizationWindowIndex(new HashMap<>(), new HashMap<>());
+
+    // Windows of one key, sorted by start; maxEnds[i] is the latest end among windows[0..i]
+    private record Slot(Window[] windows, long[] starts, long[] maxEnds) {
+    }
+
+    private final Map<String, Slot> slots;
+    private final Map<Long, Integer> unitsById;
+
+    private AuthorizationWindowIndex(Map<String, Slot> slots, Map<Long, Integer> unitsById) {
+        this.slots = slots;
+        this.unitsById = unitsById;
+    }
+
+    public static AuthorizationWindowIndex empty() {
+        return EMPTY;
+    }
+
+    /** Windows whose end is before their start are dropped. */
+    public static AuthorizationWindowIndex build(List<Window> windows) {
+        Map<String, List<Window>> byKey = new HashMap<>();
+        Map<Long, Integer> unitsById = new HashMap<>();
+        for (Window window : windows) {
+            if (window.end().isBefore(window.start())) {
+                continue;
+            }
+            byKey.computeIfAbsent(key(window.patientId(), window.code()), k -> new ArrayList<>()).add(window);
+            unitsById.put(window.authorizationId(), window.units());
+        }
+        Map<String, Slot> slots = new HashMap<>(byKey.size() * 2);
+        for (Map.Entry<String, List<Window>> entry : byKey.entrySet()) {
+            Window[] sorted = entry.getValue().toArray(new Window[0]);
+            Arrays.sort(sorted, Comparator.comparing(Window::start).thenComparingLong(Window::authorizationId));
+            long[] starts = new long[sorted.length];
+            long[] maxEnds = new long[sorted.length];
+            long maxEnd = Long.MIN_VALUE;
+            for (int i = 0; i < sorted.length; i++) {
+                starts[i] = sorted[i].start().toEpochDay();
+                maxEnd = Math.max(maxEnd, sorted[i].end().toEpochDay());
+                maxEnds[i] = maxEnd;
+            }
+            slots.put(entry.getKey(), new Slot(sorted, starts, maxEnds));
+        }
+        return new AuthorizationWindowIndex(slots, unitsById);
+    }
+
+    private static String key(long patientId, String code) {
+        return patientId + "|" + normalize(code);
+    }
+
+    public static String normalize(String code) {
+        return code == null ? "" : code.trim().toUpperCase();
+    }
+
+    /** Whether the patient has any approved authorization for the code, whatever its dates. */
+    public boolean hasAny(long patientId, String code) {
+        return slots.containsKey(key(patientId, code));
+    }
+
+    /** The patient's windows for the code that cover all of [from, to], soonest ending first. */
+    public List<Window> covering(long patientId, String code, LocalDate from, LocalDate to) {
+        Slot slot = slots.get(key(patientId, code));
+        if (slot == null) {
+            return new ArrayList<>();
+        }
+        long fromDay = from.toEpochDay();
+        long toDay = to.toEpochDay();
+        // Windows [0, last] start on or before the period does
+        int last = upperBound(slot.starts(), fromDay) - 1;
+        List<Window> result = new ArrayList<>();
+        for (int i = last; i >= 0 && slot.maxEnds()[i] >= toDay; i--) {
+            if (slot.windows()[i].end().toEpochDay() >= toDay) {
+                result.add(slot.windows()[i]);
+            }
+        }
+        result.sort(Comparator.comparing(Window::end).thenComparingLong(Window::authorizationId));
+        return result;
+    }
+
+    /** Whether the authorization is approved and indexed. */
+    public boolean contains(long authorizationId) {
+        return unitsById.containsKey(authorizationId);
+    }
+
+    /** The approved units of an indexed authorization; null when uncapped or unknown. */
+    public Integer units(long authorizationId) {
+        return unitsById.get(authorizationId);
+    }
+
+    public int authorizationCount() {
+        return unitsById.size();
+    }
+
+    // First index whose value is greater than the key
+    private static int upperBound(long[] values, long key) {
+        int lo = 0;
+        int hi = values.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (values[mid] <= key) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+}
@@ -0,0 +1,403 @@
+package com.insurance.percert.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import com.insurance.percert.util.Stemmer;
+import com.insurance.percert.util.TextTokens;
+
+/**
+ * Ranked full-text index over a few short text fields per entry. Scoring is
+ * BM25F: each field's term frequency is normalized by that field's length,
+ * the fields are combined with per-field weights, and the sum is saturated
+ * once per term. Terms are stemmed, and the last query word also matches as a
+ * prefix so that type-ahead input such as "pembro" finds "pembrolizumab".
+ * Entries matching more of the query words rank ahead of those matching fewer.
+ *
+ * Like {@link TrigramIndex}, entries get a dense ordinal on insert, updates
+ * and removals tombstone the old ordinal, and the index is rebuilt once
+ * tombstones make up a quarter of it.
+ */
+public class Bm25Index<V> {
+
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+    // A prefix completion counts a little less than the word as typed
+    private static final float PREFIX_WEIGHT = 0.8f;
+    private static final int MAX_EXPANSIONS = 64;
+    private static final int MAX_EXPANSION_SCAN = 2048;
+    private static final int COMPACT_MIN_DEAD = 256;
+
+    public record Match<V>(long id, V value, double score) {
+    }
+
+    private final float[] fieldWeights;
+    private final int fields;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Postings> postings = new HashMap<>();
+    // Surface word -> stem, for completing a typed prefix to the stems it could mean
+    private final TreeMap<String, String> vocabulary = new TreeMap<>();
+    private final Map<Long, Integer> ordinalById = new HashMap<>();
+    private long[] ids = new long[256];
+    private Object[] values = new Object[256];
+    private String[][] texts = new String[256][];
+    private int[] lengths;
+    // Summed field lengths of live entries, for the average-length normalization
+    private final long[] totalLengths;
+    private final BitSet dead = new BitSet();
+    private int ordinals;
+    private int deadCount;
+    // 1 / (1 - B + B * length / average length) per ordinal and field. Every
+    // write shifts the averages, so writes drop it and the next search rebuilds it.
+    private volatile float[] lengthNorms;
+
+    /** One weight per field; the texts passed to {@link #put} follow the same order. */
+    public Bm25Index(float... fieldWeights) {
+        this.fieldWeights = fieldWeights.clone();
+        this.fields = fieldWeights.length;
+        this.lengths = new int[256 * fields];
+        this.totalLengths = new long[fields];
+    }
+
+    public void put(long id, V value, String... fieldTexts) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+            addLocked(id, value, fieldTexts);
+            maybeCompactLocked();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Adds the entry unless the id is already present; used by bulk loads racing live writes. */
+    public boolean putIfAbsent(long id, V value, String... fieldTexts) {
+        lock.writeLock().lock();
+        try {
+            if (ordinalById.containsKey(id)) {
+                return false;
+            }
+            addLocked(id, value, fieldTexts);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean remove(long id) {
+        lock.writeLock().lock();
+        try {
+            boolean removed = removeLocked(id);
+            maybeCompactLocked();
+            return removed;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return ordinalById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<V> searchValues(String query, int limit, float... weights) {
+        List<Match<V>> matches = search(query, limit, weights);
+        List<V> result = new ArrayList<>(matches.size());
+        for (Match<V> match : matches) {
+            result.add(match.value());
+        }
+        return result;
+    }
+
+    /**
+     * The best {@code limit} entries for the query, highest score first.
+     * {@code weights} overrides the field weights for this search (a zero
+     * weight leaves a field out); pass none to use the index defaults.
+     */
+    public List<Match<V>> search(String query, int limit, float... weights) {
+        float[] w = weights != null && weights.length == fields ? weights : fieldWeights;
+        List<String> words = new ArrayList<>(new LinkedHashSet<>(TextTokens.tokenize(query)));
+        if (words.isEmpty() || limit <= 0) {
+            return new ArrayList<>();
+        }
+        // A trailing space means the last word is finished
+        boolean lastIsPrefix = Character.isLetterOrDigit(query.charAt(query.length() - 1));
+
+        lock.readLock().lock();
+        try {
+            int live = ordinals - deadCount;
+            if (live == 0) {
+                return new ArrayList<>();
+            }
+            float[] norms = lengthNormsLocked(live);
+
+            float[] total = new float[ordinals];
+            int[] matchedWords = new int[ordinals];
+            int[] touched = new int[16];
+            int touchedCount = 0;
+            // Best score per entry for the current word, over its stem and completions
+            float[] wordBest = new float[ordinals];
+            int[] wordTouched = new int[16];
+
+            for (int k = 0; k < words.size(); k++) {
+                boolean prefix = lastIsPrefix && k == words.size() - 1;
+                int wordTouchedCount = 0;
+                for (Map.Entry<String, Float> term : termsLocked(words.get(k), prefix).entrySet()) {
+                    Postings list = postings.get(term.getKey());
+                    if (list == null || list.live == 0) {
+                        continue;
+                    }
+                    float idf = (float) Math.log(1 + (live - list.live + 0.5) / (list.live + 0.5));
+                    float termWeight = term.getValue() * idf * (K1 + 1);
+                    for (int i = 0; i < list.size; i++) {
+                        int ordinal = list.ordinals[i];
+                        if (dead.get(ordinal)) {
+                            continue;
+                        }
+                        float tf = 0;
+                        for (int f = 0; f < fields; f++) {
+                            int count = list.counts[i * fields + f];
+                            if (count > 0) {
+                                tf += w[f] * count * norms[ordinal * fields + f];
+                            }
+                        }
+                        if (tf == 0) {
+                            continue;
+                        }
+                        float score = termWeight * tf / (tf + K1);
+                        if (wordBest[ordinal] == 0) {
+                            if (wordTouchedCount == wordTouched.length) {
+                                wordTouched = Arrays.copyOf(wordTouched, wordTouchedCount * 2);
+                            }
+                            wordTouched[wordTouchedCount++] = ordinal;
+                        }
+                        wordBest[ordinal] = Math.max(wordBest[ordinal], score);
+                    }
+                }
+                for (int i = 0; i < wordTouchedCount; i++) {
+                    int ordinal = wordTouched[i];
+                    if (matchedWords[ordinal] == 0) {
+                        if (touchedCount == touched.length) {
+                            touched = Arrays.copyOf(touched, touchedCount * 2);
+                        }
+                        touched[touchedCount++] = ordinal;
+                    }
+                    total[ordinal] += wordBest[ordinal];
+                    matchedWords[ordinal]++;
+                    wordBest[ordinal] = 0;
+                }
+            }
+
+            float wordCount = words.size();
+            for (int i = 0; i < touchedCount; i++) {
+                total[touched[i]] *= matchedWords[touched[i]] / wordCount;
+            }
+            // Min-heap of the current top entries, worst first; ties go to the older entry
+            Comparator<Integer> byScore = Comparator.comparingDouble((Integer o) -> total[o])
+                    .thenComparing(o -> -ids[o]);
+            PriorityQueue<Integer> top = new PriorityQueue<>(byScore);
+            for (int i = 0; i < touchedCount; i++) {
+                int ordinal = touched[i];
+                if (top.size() >= limit && total[ordinal] <= total[top.peek()]) {
+                    continue;
+                }
+                top.add(ordinal);
+                if (top.size() > limit) {
+                    top.poll();
+                }
+            }
+            List<Match<V>> result = new ArrayList<>(top.size());
+            while (!top.isEmpty()) {
+                int ordinal = top.poll();
+                @SuppressWarnings("unchecked")
+                V value = (V) values[ordinal];
+                result.add(new Match<>(ids[ordinal], value, Math.round(total[ordinal] * 1000) / 1000.0));
+            }
+            Collections.reverse(result);
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private float[] lengthNormsLocked(int live) {
+        float[] norms = lengthNorms;
+        if (norms != null) {
+            return norms;
+        }
+        // Readers may arrive together; only one of them rebuilds
+        synchronized (this) {
+            if (lengthNorms == null) {
+                float[] averages = new float[fields];
+                for (int f = 0; f < fields; f++) {
+                    averages[f] = Math.max(1f, (float) totalLengths[f] / live);
+                }
+                float[] built = new float[ordinals * fields];
+                for (int i = 0; i < built.length; i++) {
+                    built[i] = 1 / (1 - B + B * lengths[i] / averages[i % fields]);
+                }
+                lengthNorms = built;
+            }
+            return lengthNorms;
+        }
+    }
+
+    // The word's own stem, plus for a prefix the most common stems it completes to
+    private Map<String, Float> termsLocked(String word, boolean prefix) {
+        Map<String, Float> terms = new LinkedHashMap<>();
+        terms.put(Stemmer.stem(word), 1f);
+        if (!prefix) {
+            return terms;
+        }
+        Map<String, Integer> completions = new HashMap<>();
+        int scanned = 0;
+        for (String stem : vocabulary.subMap(word, true, word + Character.MAX_VALUE, false).values()) {
+            if (++scanned > MAX_EXPANSION_SCAN) {
+                break;
+            }
+            Postings list = postings.get(stem);
+            if (list != null && list.live > 0) {
+                completions.put(stem, list.live);
+            }
+        }
+        completions.entrySet().stream()
+                .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
+                .limit(MAX_EXPANSIONS)
+                .forEach(e -> terms.putIfAbsent(e.getKey(), PREFIX_WEIGHT));
+        return terms;
+    }
+
+    private void addLocked(long id, V value, String[] fieldTexts) {
+        if (ordinals == ids.length) {
+            int capacity = ids.length * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            values = Arrays.copyOf(values, capacity);
+            texts = Arrays.copyOf(texts, capacity);
+            lengths = Arrays.copyOf(lengths, capacity * fields);
+        }
+        int ordinal = ordinals++;
+        ids[ordinal] = id;
+        values[ordinal] = value;
+        texts[ordinal] = Arrays.copyOf(fieldTexts, fields);
+        ordinalById.put(id, ordinal);
+        lengthNorms = null;
+
+        Map<String, short[]> counts = new LinkedHashMap<>();
+        for (int f = 0; f < fields; f++) {
+            List<String> words = TextTokens.tokenize(texts[ordinal][f]);
+            lengths[ordinal * fields + f] = words.size();
+            totalLengths[f] += words.size();
+            for (String word : words) {
+                String stem = Stemmer.stem(word);
+                vocabulary.putIfAbsent(word, stem);
+                short[] tf = counts.computeIfAbsent(stem, s -> new short[fields]);
+                if (tf[f] < Short.MAX_VALUE) {
+                    tf[f]++;
+                }
+            }
+        }
+        for (Map.Entry<String, short[]> entry : counts.entrySet()) {
+            postings.computeIfAbsent(entry.getKey(), s -> new Postings(fields)).add(ordinal, entry.getValue());
+        }
+    }
+
+    private boolean removeLocked(long id) {
+        Integer ordinal = ordinalById.remove(id);
+        if (ordinal == null) {
+            return false;
+        }
+        dead.set(ordinal);
+        deadCount++;
+        lengthNorms = null;
+        LinkedHashSet<String> stems = new LinkedHashSet<>();
+        for (int f = 0; f < fields; f++) {
+            totalLengths[f] -= lengths[ordinal * fields + f];
+            for (String word : TextTokens.tokenize(texts[ordinal][f])) {
+                stems.add(Stemmer.stem(word));
+            }
+        }
+        for (String stem : stems) {
+            Postings list = postings.get(stem);
+            if (list != null) {
+                list.live--;
+            }
+        }
+        values[ordinal] = null;
+        texts[ordinal] = null;
+        return true;
+    }
+
+    // Vocabulary entries whose stems no longer occur are dropped here too
+    private void maybeCompactLocked() {
+        if (deadCount < COMPACT_MIN_DEAD || deadCount * 4 < ordinals) {
+            return;
+        }
+        long[] oldIds = ids;
+        Object[] oldValues = values;
+        String[][] oldTexts = texts;
+        BitSet oldDead = (BitSet) dead.clone();
+        int oldOrdinals = ordinals;
+        int capacity = Math.max(256, Integer.highestOneBit(Math.max(1, oldOrdinals - deadCount)) * 2);
+
+        postings.clear();
+        vocabulary.clear();
+        ordinalById.clear();
+        dead.clear();
+        Arrays.fill(totalLengths, 0);
+        deadCount = 0;
+        ordinals = 0;
+        ids = new long[capacity];
+        values = new Object[capacity];
+        texts = new String[capacity][];
+        lengths = new int[capacity * fields];
+        for (int i = 0; i < oldOrdinals; i++) {
+            if (!oldDead.get(i)) {
+                @SuppressWarnings("unchecked")
+                V value = (V) oldValues[i];
+                addLocked(oldIds[i], value, oldTexts[i]);
+            }
+        }
+    }
+
+    // Entries containing a term, in ordinal order, with the term's count in each field
+    private static final class Postings {
+        private final int fields;
+        private int[] ordinals = new int[4];
+        private short[] counts;
+        private int size;
+        // Entries not yet tombstoned; the document frequency used for idf
+        private int live;
+
+        Postings(int fields) {
+            this.fields = fields;
+            this.counts = new short[4 * fields];
+        }
+
+        void add(int ordinal, short[] fieldCounts) {
+            if (size == ordinals.length) {
+                ordinals = Arrays.copyOf(ordinals, size * 2);
+                counts = Arrays.copyOf(counts, size * 2 * fields);
+            }
+            ordinals[size] = ordinal;
+            System.arraycopy(fieldCounts, 0, counts, size * fields, fields);
+            size++;
+            live++;
+        }
+    }
+}
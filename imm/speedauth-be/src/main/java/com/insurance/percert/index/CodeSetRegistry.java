@@ -0,0 +1,67 @@
+package com.insurance.percert.index;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable timeline of loaded code set versions. Each version is in effect
+ * from its effectiveFrom date until the next version of the same system takes
+ * over. Publishing a version never touches this object: {@link #with} returns
+ * a new registry, which the owner swaps in with one reference write, so a
+ * lookup always sees one complete set of versions and never waits.
+ */
+public final class CodeSetRegistry {
+
+    private static final Comparator<CodeSetVersion> BY_EFFECTIVE_FROM = Comparator
+            .comparing(CodeSetVersion::getEffectiveFrom);
+
+    private final Map<String, CodeSetVersion[]> bySystem; // each sorted by effectiveFrom
+
+    public static CodeSetRegistry empty() {
+        return new CodeSetRegistry(new HashMap<>());
+    }
+
+    private CodeSetRegistry(Map<String, CodeSetVersion[]> bySystem) {
+        this.bySystem = bySystem;
+    }
+
+    /** A registry with the version added; one with the same system and start date is replaced. */
+    public CodeSetRegistry with(CodeSetVersion version) {
+        Map<String, CodeSetVersion[]> copy = new HashMap<>(bySystem);
+        List<CodeSetVersion> versions = new ArrayList<>();
+        for (CodeSetVersion existing : bySystem.getOrDefault(version.getCodeSystem(), new CodeSetVersion[0])) {
+            if (!existing.getEffectiveFrom().equals(version.getEffectiveFrom())) {
+                versions.add(existing);
+            }
+        }
+        versions.add(version);
+        versions.sort(BY_EFFECTIVE_FROM);
+        copy.put(version.getCodeSystem(), versions.toArray(new CodeSetVersion[0]));
+        return new CodeSetRegistry(copy);
+    }
+
+    /** The version in effect on the date, or null when none had started yet. */
+    public CodeSetVersion versionOn(String codeSystem, LocalDate date) {
+        CodeSetVersion[] versions = bySystem.get(codeSystem);
+        if (versions == null) {
+            return null;
+        }
+        int lo = 0;
+        int hi = versions.length - 1;
+        CodeSetVersion found = null;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            if (versions[mid].getEffectiveFrom().isAfter(date)) {
+                hi = mid - 1;
+            } else {
+                found = versions[mid];
+                lo = mid + 1;
+            }
+        }
+        return found;
+    }
+}
@@ -0,0 +1,81 @@
+package com.insurance.percert.index;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.TreeMap;
+
+import com.insurance.percert.util.CodeSetFiles.CodeRow;
+import com.insurance.percert.util.IcdCodes;
+
+/**
+ * One immutable release of a code set (ICD-10-CM FY2025, CPT 2025, HCPCS
+ * 2025 Q2...) in effect from a given date. Codes are kept sorted in their
+ * normalized form (ICD without the dot, CPT/HCPCS upper case) next to their
+ * descriptions, so membership is a binary search.
+ */
+public final class CodeSetVersion {
+
+    public static final String ICD10CM = "ICD10CM";
+    public static final String CPT = "CPT";
+    public static final String HCPCS = "HCPCS";
+
+    private final String codeSystem;
+    private final String version;
+    private final LocalDate effectiveFrom;
+    private final String[] codes;
+    private final String[] descriptions;
+
+    public CodeSetVersion(String codeSystem, String version, LocalDate effectiveFrom, List<CodeRow> rows) {
+        this.codeSystem = codeSystem;
+        this.version = version;
+        this.effectiveFrom = effectiveFrom;
+        TreeMap<String, String> sorted = new TreeMap<>();
+        for (CodeRow row : rows) {
+            String code = normalize(codeSystem, row.code());
+            if (!code.isEmpty()) {
+                sorted.putIfAbsent(code, row.description());
+            }
+        }
+        codes = sorted.keySet().toArray(new String[0]);
+        descriptions = sorted.values().toArray(new String[0]);
+    }
+
+    public static boolean isKnownSystem(String codeSystem) {
+        return ICD10CM.equals(codeSystem) || CPT.equals(codeSystem) || HCPCS.equals(codeSystem);
+    }
+
+    public static String normalize(String codeSystem, String code) {
+        if (ICD10CM.equals(codeSystem)) {
+            return IcdCodes.bare(code);
+        }
+        return code == null ? "" : code.trim().toUpperCase(Locale.ROOT);
+    }
+
+    public String getCodeSystem() {
+        return codeSystem;
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    public LocalDate getEffectiveFrom() {
+        return effectiveFrom;
+    }
+
+    public int size() {
+        return codes.length;
+    }
+
+    public boolean contains(String code) {
+        return Arrays.binarySearch(codes, normalize(codeSystem, code)) >= 0;
+    }
+
+    /** The code's description in this release, or null when it is not in it. */
+    public String description(String code) {
+        int index = Arrays.binarySearch(codes, normalize(codeSystem, code));
+        return index < 0 ? null : descriptions[index];
+    }
+}
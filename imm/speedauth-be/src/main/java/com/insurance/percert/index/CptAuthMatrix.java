@@ -0,0 +1,238 @@
+package com.insurance.percert.index;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+
+import com.insurance.percert.util.CptCodes;
+
+/**
+ * Immutable payer x CPT/HCPCS prior-authorization requirement matrix.
+ *
+ * The source is a CSV of rules, one per line:
+ *
+ *     payerId,codeFrom,codeTo,authRequired
+ *     87726,10004,69990,Y
+ *     87726,20610,20611,N
+ *     87726,*,,N
+ *     *,J0120,J9999,Y
+ *
+ * codeTo may be left blank for a single code. A "*" code row sets the payer's
+ * answer for codes none of its ranges cover, and "*" as the payer holds the
+ * rules for payers that have none of their own. Where ranges overlap the
+ * narrower one wins, so exceptions can be carved out of a broad range.
+ * Anything the matrix cannot answer requires authorization.
+ *
+ * Each payer's rules are flattened at build time into a step function over
+ * code ordinals (see {@link CptCodes}): a sorted array of segment starts and
+ * the answer for each segment. A lookup is one hash probe for the payer and
+ * one binary search, with no allocation.
+ */
+public class CptAuthMatrix {
+
+    private static final String ANY = "*";
+    private static final byte UNCOVERED = 0;
+    private static final byte NOT_REQUIRED = 1;
+    private static final byte REQUIRED = 2;
+
+    private final Map<String, PayerRules> payers;
+    private final PayerRules anyPayer;
+    private final int rules;
+
+    // Segment i covers ordinals [starts[i], starts[i + 1]) and answers answers[i]
+    private static final class PayerRules {
+        private final int[] starts;
+        private final byte[] answers;
+        private final boolean otherwiseRequired;
+
+        private PayerRules(int[] starts, byte[] answers, boolean otherwiseRequired) {
+            this.starts = starts;
+            this.answers = answers;
+            this.otherwiseRequired = otherwiseRequired;
+        }
+
+        private boolean authRequired(int ordinal) {
+            int segment = Arrays.binarySearch(starts, ordinal);
+            if (segment < 0) {
+                segment = -segment - 2;
+            }
+            byte answer = segment < 0 ? UNCOVERED : answers[segment];
+            return answer == UNCOVERED ? otherwiseRequired : answer == REQUIRED;
+        }
+    }
+
+    private record Range(int from, int to, boolean required, int line) {
+    }
+
+    public static CptAuthMatrix empty() {
+        return new CptAuthMatrix(new HashMap<>(), 0);
+    }
+
+    /**
+     * Parses the rule CSV. A header line, blank lines and lines starting with
+     * '#' are skipped; anything else malformed is rejected with its line number.
+     */
+    public static CptAuthMatrix parse(BufferedReader reader) throws IOException {
+        Map<String, List<Range>> ranges = new HashMap<>();
+        Map<String, Boolean> otherwise = new HashMap<>();
+        int count = 0;
+        int lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            String trimmed = line.trim();
+            if (trimmed.isEmpty() || trimmed.startsWith("#")
+                    || (lineNumber == 1 && trimmed.toLowerCase().startsWith("payer"))) {
+                continue;
+            }
+            String[] fields = trimmed.split(",", -1);
+            if (fields.length != 4) {
+                throw new IllegalArgumentException("Line " + lineNumber + ": expected payerId,codeFrom,codeTo,authRequired");
+            }
+            String payerId = fields[0].trim();
+            String from = fields[1].trim();
+            String to = fields[2].trim().isEmpty() ? from : fields[2].trim();
+            boolean required = parseFlag(fields[3].trim(), lineNumber);
+            if (payerId.isEmpty()) {
+                throw new IllegalArgumentException("Line " + lineNumber + ": payerId is missing");
+            }
+            count++;
+            if (ANY.equals(from)) {
+                otherwise.put(payerId, required);
+                continue;
+            }
+            int fromOrdinal = CptCodes.ordinal(from);
+            int toOrdinal = CptCodes.ordinal(to);
+            if (fromOrdinal < 0 || toOrdinal < 0) {
+                throw new IllegalArgumentException("Line " + lineNumber + ": not a CPT/HCPCS code range: " + from + "-" + to);
+            }
+            if (fromOrdinal > toOrdinal || !CptCodes.sameFamily(fromOrdinal, toOrdinal)) {
+                throw new IllegalArgumentException("Line " + lineNumber + ": range " + from + "-" + to
+                        + " is reversed or spans code families");
+            }
+            ranges.computeIfAbsent(payerId, k -> new ArrayList<>()).add(new Range(fromOrdinal, toOrdinal, required, lineNumber));
+        }
+
+        Map<String, PayerRules> payers = new HashMap<>();
+        for (String payerId : otherwise.keySet()) {
+            ranges.putIfAbsent(payerId, new ArrayList<>());
+        }
+        for (Entry<String, List<Range>> entry : ranges.entrySet()) {
+            payers.put(entry.getKey(), flatten(entry.getValue(), otherwise.getOrDefault(entry.getKey(), true)));
+        }
+        return new CptAuthMatrix(payers, count);
+    }
+
+    private static boolean parseFlag(String value, int lineNumber) {
+        switch (value.toUpperCase()) {
+            case "Y", "YES", "TRUE", "1", "REQUIRED":
+                return true;
+            case "N", "NO", "FALSE", "0", "NOT_REQUIRED":
+                return false;
+            default:
+                throw new IllegalArgumentException("Line " + lineNumber + ": authRequired must be Y or N, got " + value);
+        }
+    }
+
+    // Paints the widest ranges first so narrower ones overwrite them; on equal
+    // width the later line wins
+    private static PayerRules flatten(List<Range> ranges, boolean otherwiseRequired) {
+        ranges.sort((a, b) -> a.to() - a.from() != b.to() - b.from()
+                ? Integer.compare(b.to() - b.from(), a.to() - a.from())
+                : Integer.compare(a.line(), b.line()));
+        // Segment start -> answer, a step function over ordinals
+        TreeMap<Integer, Byte> steps = new TreeMap<>();
+        for (Range range : ranges) {
+            Entry<Integer, Byte> atEnd = steps.floorEntry(range.to() + 1);
+            byte after = atEnd == null ? UNCOVERED : atEnd.getValue();
+            steps.subMap(range.from(), true, range.to() + 1, true).clear();
+            steps.put(range.from(), range.required() ? REQUIRED : NOT_REQUIRED);
+            steps.put(range.to() + 1, after);
+        }
+        int[] starts = new int[steps.size()];
+        byte[] answers = new byte[steps.size()];
+        int n = 0;
+        for (Entry<Integer, Byte> step : steps.entrySet()) {
+            // Merge neighbours with the same answer
+            if (n > 0 ? answers[n - 1] != step.getValue() : step.getValue() != UNCOVERED) {
+                starts[n] = step.getKey();
+                answers[n++] = step.getValue();
+            }
+        }
+        return new PayerRules(Arrays.copyOf(starts, n), Arrays.copyOf(answers, n), otherwiseRequired);
+    }
+
+    private CptAuthMatrix(Map<String, PayerRules> payers, int rules) {
+        this.payers = payers;
+        this.anyPayer = payers.get(ANY);
+        this.rules = rules;
+    }
+
+    public int payerCount() {
+        return anyPayer == null ? payers.size() : payers.size() - 1;
+    }
+
+    public int ruleCount() {
+        return rules;
+    }
+
+    public int segmentCount() {
+        int total = 0;
+        for (PayerRules payer : payers.values()) {
+            total += payer.starts.length;
+        }
+        return total;
+    }
+
+    /** Whether the payer requires authorization for the single code; unknown codes do. */
+    public boolean authRequired(String payerId, CharSequence code) {
+        int ordinal = CptCodes.ordinal(code);
+        PayerRules payer = rulesFor(payerId);
+        return ordinal < 0 || payer == null || payer.authRequired(ordinal);
+    }
+
+    /**
+     * Whether any code in a list such as "99213, J1234" needs authorization.
+     * Codes are split on anything that is not a letter or digit, and tokens
+     * that are not codes (modifiers like the 25 in 99213-25) are skipped. A
+     * list without a single code requires authorization.
+     */
+    public boolean anyAuthRequired(String payerId, CharSequence codes) {
+        PayerRules payer = rulesFor(payerId);
+        if (payer == null || codes == null) {
+            return true;
+        }
+        boolean sawCode = false;
+        int length = codes.length();
+        int start = 0;
+        while (start < length) {
+            while (start < length && !Character.isLetterOrDigit(codes.charAt(start))) {
+                start++;
+            }
+            int end = start;
+            while (end < length && Character.isLetterOrDigit(codes.charAt(end))) {
+                end++;
+            }
+            int ordinal = CptCodes.ordinal(codes, start, end);
+            if (ordinal >= 0) {
+                if (payer.authRequired(ordinal)) {
+                    return true;
+                }
+                sawCode = true;
+            }
+            start = end;
+        }
+        return !sawCode;
+    }
+
+    private PayerRules rulesFor(String payerId) {
+        PayerRules payer = payerId == null ? null : payers.get(payerId.trim());
+        return payer != null ? payer : anyPayer;
+    }
+}
@@ -0,0 +1,399 @@
+package com.insurance.percert.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.TreeSet;
+
+import com.insurance.percert.model.DrugSummaryDTO;
+import com.insurance.percert.util.IcdCodes;
+
+/**
+ * Immutable drug <-> ICD and drug <-> CPT crosswalk.
+ *
+ * Drugs and codes are numbered densely (drugs by id, codes in sorted order)
+ * and each relation is held twice in compressed sparse row form: per drug the
+ * sorted code ordinals, per code the sorted drug ordinals. Every lookup is a
+ * binary search for the key followed by a slice of an int array, and "drugs
+ * for ICD X with CPT Y" is a merge of two sorted slices.
+ *
+ * Updates are copy-on-write: {@link #withDrug} returns a new crosswalk with
+ * one drug's links replaced, spliced from this one's arrays without going
+ * back to the database. Codes a drug stops using keep their (now empty)
+ * slot until the next full build.
+ */
+public class DrugCrosswalk {
+
+    private static final int[] NONE = new int[0];
+
+    /** A drug linked to a code, as stored in icd_master / cpt_master. */
+    public record Link(long drugId, String code) {
+    }
+
+    private final long[] drugIds; // sorted
+    private final DrugSummaryDTO[] drugs;
+    private final Relation icd;
+    private final Relation cpt;
+
+    // One side of the crosswalk: codes[] plus both adjacency directions
+    private static final class Relation {
+        private final String[] codes; // normalized, sorted
+        private final int[] byDrugStart; // drug ordinal -> range in byDrug
+        private final int[] byDrug; // code ordinals
+        private final int[] byCodeStart; // code ordinal -> range in byCode
+        private final int[] byCode; // drug ordinals
+
+        private Relation(String[] codes, int[] byDrugStart, int[] byDrug, int[] byCodeStart, int[] byCode) {
+            this.codes = codes;
+            this.byDrugStart = byDrugStart;
+            this.byDrug = byDrug;
+            this.byCodeStart = byCodeStart;
+            this.byCode = byCode;
+        }
+
+        private int[] codesOf(int drug) {
+            return Arrays.copyOfRange(byDrug, byDrugStart[drug], byDrugStart[drug + 1]);
+        }
+
+        private int[] drugsOf(String normalized) {
+            int code = Arrays.binarySearch(codes, normalized);
+            return code < 0 ? NONE : Arrays.copyOfRange(byCode, byCodeStart[code], byCodeStart[code + 1]);
+        }
+
+        /**
+         * This relation with oldDrug's links dropped and newDrug linked to the
+         * (sorted, distinct) codes given; drugRemap maps old drug ordinals to
+         * new ones. Either drug ordinal may be -1.
+         */
+        private Relation replace(int oldDrug, int newDrug, int drugCount, int[] drugRemap, String[] linked) {
+            // Merge the drug's codes into the code table
+            String[] merged = new String[codes.length + linked.length];
+            int[] codeRemap = new int[codes.length];
+            int[] linkedCodes = new int[linked.length];
+            int n = 0;
+            int i = 0;
+            int j = 0;
+            while (i < codes.length || j < linked.length) {
+                int cmp = i == codes.length ? 1 : j == linked.length ? -1 : codes[i].compareTo(linked[j]);
+                if (cmp <= 0) {
+                    codeRemap[i] = n;
+                    if (cmp == 0) {
+                        linkedCodes[j++] = n;
+                    }
+                    merged[n++] = codes[i++];
+                } else {
+                    linkedCodes[j++] = n;
+                    merged[n++] = linked[j - 1];
+                }
+            }
+            merged = Arrays.copyOf(merged, n);
+
+            int removed = oldDrug < 0 ? 0 : byDrugStart[oldDrug + 1] - byDrugStart[oldDrug];
+            int edges = byDrug.length - removed + linked.length;
+
+            int[] oldDrugOf = new int[drugCount];
+            Arrays.fill(oldDrugOf, -1);
+            for (int d = 0; d < drugRemap.length; d++) {
+                if (drugRemap[d] >= 0) {
+                    oldDrugOf[drugRemap[d]] = d;
+                }
+            }
+            int[] newByDrugStart = new int[drugCount + 1];
+            int[] newByDrug = new int[edges];
+            int pos = 0;
+            for (int d = 0; d < drugCount; d++) {
+                newByDrugStart[d] = pos;
+                if (d == newDrug) {
+                    for (int code : linkedCodes) {
+                        newByDrug[pos++] = code;
+                    }
+                } else {
+                    int from = oldDrugOf[d];
+                    for (int k = byDrugStart[from]; k < byDrugStart[from + 1]; k++) {
+                        newByDrug[pos++] = codeRemap[byDrug[k]];
+                    }
+                }
+            }
+            newByDrugStart[drugCount] = pos;
+
+            int[] oldCodeOf = new int[merged.length];
+            Arrays.fill(oldCodeOf, -1);
+            for (int c = 0; c < codes.length; c++) {
+                oldCodeOf[codeRemap[c]] = c;
+            }
+            int[] newByCodeStart = new int[merged.length + 1];
+            int[] newByCode = new int[edges];
+            pos = 0;
+            int next = 0;
+            for (int c = 0; c < merged.length; c++) {
+                newByCodeStart[c] = pos;
+                boolean pending = next < linkedCodes.length && linkedCodes[next] == c;
+                if (pending) {
+                    next++;
+                }
+                int from = oldCodeOf[c];
+                if (from >= 0) {
+                    for (int k = byCodeStart[from]; k < byCodeStart[from + 1]; k++) {
+                        if (byCode[k] == oldDrug) {
+                            continue;
+                        }
+                        int drug = drugRemap[byCode[k]];
+                        if (pending && drug > newDrug) {
+                            newByCode[pos++] = newDrug;
+                            pending = false;
+                        }
+                        newByCode[pos++] = drug;
+                    }
+                }
+                if (pending) {
+                    newByCode[pos++] = newDrug;
+                }
+            }
+            newByCodeStart[merged.length] = pos;
+            return new Relation(merged, newByDrugStart, newByDrug, newByCodeStart, newByCode);
+        }
+    }
+
+    public static DrugCrosswalk build(Collection<DrugSummaryDTO> drugs, Collection<Link> icdLinks,
+            Collection<Link> cptLinks) {
+        DrugSummaryDTO[] sorted = drugs.stream()
+                .filter(d -> d.getDrugId() != null)
+                .sorted((a, b) -> Long.compare(a.getDrugId(), b.getDrugId()))
+                .toArray(DrugSummaryDTO[]::new);
+        long[] ids = new long[sorted.length];
+        for (int i = 0; i < sorted.length; i++) {
+            ids[i] = sorted[i].getDrugId();
+        }
+        return new DrugCrosswalk(ids, sorted, relation(ids, icdLinks, true), relation(ids, cptLinks, false));
+    }
+
+    private DrugCrosswalk(long[] drugIds, DrugSummaryDTO[] drugs, Relation icd, Relation cpt) {
+        this.drugIds = drugIds;
+        this.drugs = drugs;
+        this.icd = icd;
+        this.cpt = cpt;
+    }
+
+    private static String normalize(String code, boolean icdCode) {
+        return icdCode ? IcdCodes.bare(code) : code == null ? "" : code.trim().toUpperCase(Locale.ROOT);
+    }
+
+    // Links to unknown drugs or blank codes are dropped, duplicates collapse
+    private static Relation relation(long[] drugIds, Collection<Link> links, boolean icdCode) {
+        TreeSet<String> distinct = new TreeSet<>();
+        for (Link link : links) {
+            String code = normalize(link.code(), icdCode);
+            if (!code.isEmpty()) {
+                distinct.add(code);
+            }
+        }
+        String[] codes = distinct.toArray(new String[0]);
+        long[] byDrugKeys = new long[links.size()];
+        int n = 0;
+        for (Link link : links) {
+            int drug = Arrays.binarySearch(drugIds, link.drugId());
+            String code = normalize(link.code(), icdCode);
+            if (drug >= 0 && !code.isEmpty()) {
+                byDrugKeys[n++] = ((long) drug << 32) | Arrays.binarySearch(codes, code);
+            }
+        }
+        long[] edges = distinctSorted(byDrugKeys, n);
+        long[] byCodeKeys = new long[edges.length];
+        for (int i = 0; i < edges.length; i++) {
+            byCodeKeys[i] = (edges[i] << 32) | (edges[i] >>> 32);
+        }
+        Arrays.sort(byCodeKeys);
+        int[] byDrugStart = new int[drugIds.length + 1];
+        int[] byDrug = new int[edges.length];
+        int[] byCodeStart = new int[codes.length + 1];
+        int[] byCode = new int[edges.length];
+        for (int i = 0; i < edges.length; i++) {
+            byDrugStart[(int) (edges[i] >>> 32) + 1]++;
+            byDrug[i] = (int) edges[i];
+            byCodeStart[(int) (byCodeKeys[i] >>> 32) + 1]++;
+            byCode[i] = (int) byCodeKeys[i];
+        }
+        for (int i = 0; i < drugIds.length; i++) {
+            byDrugStart[i + 1] += byDrugStart[i];
+        }
+        for (int i = 0; i < codes.length; i++) {
+            byCodeStart[i + 1] += byCodeStart[i];
+        }
+        return new Relation(codes, byDrugStart, byDrug, byCodeStart, byCode);
+    }
+
+    private static long[] distinctSorted(long[] keys, int n) {
+        Arrays.sort(keys, 0, n);
+        int kept = 0;
+        for (int i = 0; i < n; i++) {
+            if (kept == 0 || keys[kept - 1] != keys[i]) {
+                keys[kept++] = keys[i];
+            }
+        }
+        return Arrays.copyOf(keys, kept);
+    }
+
+    /**
+     * A copy with the drug's summary and links replaced (or added). A null
+     * summary removes the drug altogether. Ordinals only ever shift to make
+     * room, never reorder, so both adjacency directions are spliced in one
+     * linear pass over the existing arrays with no sorting.
+     */
+    public DrugCrosswalk withDrug(long drugId, DrugSummaryDTO summary, Collection<String> icdCodes,
+            Collection<String> cptCodes) {
+        int old = Arrays.binarySearch(drugIds, drugId);
+        if (summary == null && old < 0) {
+            return this;
+        }
+        long[] ids;
+        DrugSummaryDTO[] summaries;
+        int[] drugRemap = new int[drugIds.length];
+        int position;
+        if (summary == null) {
+            ids = new long[drugIds.length - 1];
+            summaries = new DrugSummaryDTO[drugIds.length - 1];
+            for (int i = 0; i < drugIds.length; i++) {
+                drugRemap[i] = i < old ? i : i == old ? -1 : i - 1;
+                if (i != old) {
+                    ids[drugRemap[i]] = drugIds[i];
+                    summaries[drugRemap[i]] = drugs[i];
+                }
+            }
+            position = -1;
+        } else if (old >= 0) {
+            ids = drugIds;
+            summaries = drugs.clone();
+            summaries[old] = summary;
+            for (int i = 0; i < drugIds.length; i++) {
+                drugRemap[i] = i;
+            }
+            position = old;
+        } else {
+            position = -old - 1;
+            ids = new long[drugIds.length + 1];
+            summaries = new DrugSummaryDTO[drugIds.length + 1];
+            for (int i = 0; i < drugIds.length; i++) {
+                drugRemap[i] = i < position ? i : i + 1;
+                ids[drugRemap[i]] = drugIds[i];
+                summaries[drugRemap[i]] = drugs[i];
+            }
+            ids[position] = drugId;
+            summaries[position] = summary;
+        }
+        String[] icdLinked = summary == null ? new String[0] : normalizedSet(icdCodes, true);
+        String[] cptLinked = summary == null ? new String[0] : normalizedSet(cptCodes, false);
+        return new DrugCrosswalk(ids, summaries,
+                icd.replace(old, position, ids.length, drugRemap, icdLinked),
+                cpt.replace(old, position, ids.length, drugRemap, cptLinked));
+    }
+
+    private static String[] normalizedSet(Collection<String> codes, boolean icdCode) {
+        TreeSet<String> distinct = new TreeSet<>();
+        for (String code : codes) {
+            String normalized = normalize(code, icdCode);
+            if (!normalized.isEmpty()) {
+                distinct.add(normalized);
+            }
+        }
+        return distinct.toArray(new String[0]);
+    }
+
+    public int drugCount() {
+        return drugIds.length;
+    }
+
+    public int icdCodeCount() {
+        return icd.codes.length;
+    }
+
+    public int cptCodeCount() {
+        return cpt.codes.length;
+    }
+
+    public DrugSummaryDTO getDrug(long drugId) {
+        int drug = Arrays.binarySearch(drugIds, drugId);
+        return drug < 0 ? null : drugs[drug];
+    }
+
+    /** The drug's ICD codes in dotted form; empty for an unknown drug. */
+    public List<String> icdCodesOf(long drugId) {
+        int drug = Arrays.binarySearch(drugIds, drugId);
+        List<String> result = new ArrayList<>();
+        if (drug >= 0) {
+            for (int code : icd.codesOf(drug)) {
+                result.add(IcdCodes.dotted(icd.codes[code]));
+            }
+        }
+        return result;
+    }
+
+    public List<String> cptCodesOf(long drugId) {
+        int drug = Arrays.binarySearch(drugIds, drugId);
+        List<String> result = new ArrayList<>();
+        if (drug >= 0) {
+            for (int code : cpt.codesOf(drug)) {
+                result.add(cpt.codes[code]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Drugs linked to the ICD code and to the CPT code; either may be null to
+     * leave that side unconstrained, but not both.
+     */
+    public List<DrugSummaryDTO> drugsFor(String icdCode, String cptCode) {
+        int[] matched;
+        if (icdCode != null && cptCode != null) {
+            matched = intersect(icd.drugsOf(normalize(icdCode, true)), cpt.drugsOf(normalize(cptCode, false)));
+        } else if (icdCode != null) {
+            matched = icd.drugsOf(normalize(icdCode, true));
+        } else if (cptCode != null) {
+            matched = cpt.drugsOf(normalize(cptCode, false));
+        } else {
+            matched = NONE;
+        }
+        List<DrugSummaryDTO> result = new ArrayList<>(matched.length);
+        for (int drug : matched) {
+            result.add(drugs[drug]);
+        }
+        return result;
+    }
+
+    /** CPT codes that appear alongside the ICD code on at least one drug, sorted. */
+    public List<String> cptCodesWithIcd(String icdCode) {
+        BitSet seen = new BitSet(cpt.codes.length);
+        for (int drug : icd.drugsOf(normalize(icdCode, true))) {
+            for (int i = cpt.byDrugStart[drug]; i < cpt.byDrugStart[drug + 1]; i++) {
+                seen.set(cpt.byDrug[i]);
+            }
+        }
+        List<String> result = new ArrayList<>(seen.cardinality());
+        for (int code = seen.nextSetBit(0); code >= 0; code = seen.nextSetBit(code + 1)) {
+            result.add(cpt.codes[code]);
+        }
+        return result;
+    }
+
+    private static int[] intersect(int[] a, int[] b) {
+        int[] out = new int[Math.min(a.length, b.length)];
+        int i = 0;
+        int j = 0;
+        int n = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                out[n++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(out, n);
+    }
+}
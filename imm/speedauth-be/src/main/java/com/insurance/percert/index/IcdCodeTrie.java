@@ -0,0 +1,350 @@
+package com.insurance.percert.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.insurance.percert.model.IcdCodeDTO;
+import com.insurance.percert.util.IcdCodes;
+import com.insurance.percert.util.TextTokens;
+
+/**
+ * Immutable autocomplete and hierarchy index over the ICD-10-CM catalog.
+ *
+ * Codes are kept in sorted order and addressed by their position (ordinal).
+ * A compressed trie over the bare codes (S72001, no dot) gives every node a
+ * contiguous ordinal range, so completing a prefix is a walk of a few nodes
+ * followed by a scan of that range. The parent of a code is the nearest
+ * shorter code on its trie path (S72 -> S72.0 -> S72.00 -> S72.001), worked
+ * out once at build time along with each code's children.
+ *
+ * Description words sit in a sorted array with posting lists of ordinals, so
+ * "fract femur" completes by words as well. Nothing here is ever mutated after
+ * construction; callers swap in a freshly built instance to reload.
+ */
+public class IcdCodeTrie {
+
+    private static final int[] NO_CHILDREN = new int[0];
+    private static final int MAX_PROBED_WORDS = 16;
+
+    /** A catalog row; billable is null for rows that predate the code set loader. */
+    public record Row(String code, String description, String shortDescription, Boolean billable) {
+    }
+
+    private final String[] codes; // bare, sorted
+    private final IcdCodeDTO[] entries;
+    private final BitSet billable;
+    private final int[] parents; // -1 for a top-level code
+    private final int[][] children;
+    private final Node root;
+
+    private final String[] words; // sorted, distinct
+    private final int[][] wordPostings; // ordinals, ascending
+
+    // A trie node covers the codes [lo, hi); its label is the edge leading to it
+    private static final class Node {
+        private final String label;
+        private final int lo;
+        private final int hi;
+        private Node[] children;
+
+        private Node(String label, int lo, int hi) {
+            this.label = label;
+            this.lo = lo;
+            this.hi = hi;
+        }
+    }
+
+    /**
+     * Builds the index from catalog rows. Duplicate spellings of a code collapse
+     * to one entry; a code whose billable flag is unknown counts as billable
+     * when it has no children.
+     */
+    public IcdCodeTrie(List<Row> rows) {
+        TreeMap<String, Row> byCode = new TreeMap<>();
+        for (Row row : rows) {
+            String bare = IcdCodes.bare(row.code());
+            if (!bare.isEmpty()) {
+                byCode.merge(bare, row, IcdCodeTrie::preferDescribed);
+            }
+        }
+        int n = byCode.size();
+        codes = byCode.keySet().toArray(new String[0]);
+        Row[] source = byCode.values().toArray(new Row[0]);
+
+        parents = new int[n];
+        Arrays.fill(parents, -1);
+        root = n == 0 ? new Node("", 0, 0) : build("", 0, n, 0, -1);
+
+        int[] childCounts = new int[n];
+        for (int parent : parents) {
+            if (parent >= 0) {
+                childCounts[parent]++;
+            }
+        }
+        children = new int[n][];
+        for (int i = 0; i < n; i++) {
+            children[i] = childCounts[i] == 0 ? NO_CHILDREN : new int[childCounts[i]];
+            childCounts[i] = 0;
+        }
+        for (int i = 0; i < n; i++) {
+            if (parents[i] >= 0) {
+                children[parents[i]][childCounts[parents[i]]++] = i;
+            }
+        }
+
+        entries = new IcdCodeDTO[n];
+        billable = new BitSet(n);
+        for (int i = 0; i < n; i++) {
+            Row row = source[i];
+            boolean isBillable = row.billable() != null ? row.billable() : children[i].length == 0;
+            entries[i] = new IcdCodeDTO(IcdCodes.dotted(codes[i]), row.description(), row.shortDescription(),
+                    isBillable, children[i].length);
+            if (isBillable) {
+                billable.set(i);
+            }
+        }
+
+        TreeMap<String, BitSet> postings = new TreeMap<>();
+        for (int i = 0; i < n; i++) {
+            for (String word : TextTokens.tokenize(entries[i].getDescription())) {
+                postings.computeIfAbsent(word, w -> new BitSet()).set(i);
+            }
+        }
+        words = postings.keySet().toArray(new String[0]);
+        wordPostings = new int[words.length][];
+        int w = 0;
+        for (Map.Entry<String, BitSet> entry : postings.entrySet()) {
+            wordPostings[w++] = entry.getValue().stream().toArray();
+        }
+    }
+
+    // Rows loaded from the CMS release carry a description; legacy rows do not
+    private static Row preferDescribed(Row a, Row b) {
+        return a.description() != null ? a : b;
+    }
+
+    // Codes [lo, hi) share the first depth characters; parent is the nearest code above them
+    private Node build(String label, int lo, int hi, int depth, int parent) {
+        Node node = new Node(label, lo, hi);
+        int childParent = parent;
+        int start = lo;
+        // Sorted input: if the prefix itself is a code, it is the first one in the range
+        if (codes[lo].length() == depth) {
+            parents[lo] = parent;
+            childParent = lo;
+            start++;
+        }
+        List<Node> kids = new ArrayList<>();
+        while (start < hi) {
+            char c = codes[start].charAt(depth);
+            int end = start + 1;
+            while (end < hi && codes[end].charAt(depth) == c) {
+                end++;
+            }
+            // Sorted input: the group's common prefix is that of its first and last code
+            int common = commonPrefix(codes[start], codes[end - 1]);
+            kids.add(build(codes[start].substring(depth, common), start, end, common, childParent));
+            start = end;
+        }
+        node.children = kids.toArray(new Node[0]);
+        return node;
+    }
+
+    private static int commonPrefix(String a, String b) {
+        int length = Math.min(a.length(), b.length());
+        int i = 0;
+        while (i < length && a.charAt(i) == b.charAt(i)) {
+            i++;
+        }
+        return i;
+    }
+
+    public int size() {
+        return codes.length;
+    }
+
+    /**
+     * Completions in code order. A query that looks like a code (a letter,
+     * optionally followed by a digit and more) completes on the code; anything
+     * else completes on description words, each query word matching as a prefix.
+     */
+    public List<IcdCodeDTO> suggest(String query, int limit, boolean billableOnly) {
+        String bare = IcdCodes.bare(query);
+        if (bare.isEmpty() || limit <= 0) {
+            return new ArrayList<>();
+        }
+        if (looksLikeCode(bare)) {
+            Node node = find(bare);
+            return node == null ? new ArrayList<>() : collect(node.lo, node.hi, limit, billableOnly);
+        }
+        return byWords(query, limit, billableOnly);
+    }
+
+    public IcdCodeDTO get(String code) {
+        int ordinal = ordinalOf(code);
+        return ordinal < 0 ? null : entries[ordinal];
+    }
+
+    /** The next level down, or null when the code is unknown. */
+    public List<IcdCodeDTO> children(String code, boolean billableOnly) {
+        int ordinal = ordinalOf(code);
+        if (ordinal < 0) {
+            return null;
+        }
+        List<IcdCodeDTO> result = new ArrayList<>(children[ordinal].length);
+        for (int child : children[ordinal]) {
+            if (!billableOnly || billable.get(child)) {
+                result.add(entries[child]);
+            }
+        }
+        return result;
+    }
+
+    /** The code one level up, or null for a top-level or unknown code. */
+    public IcdCodeDTO parent(String code) {
+        int ordinal = ordinalOf(code);
+        return ordinal < 0 || parents[ordinal] < 0 ? null : entries[parents[ordinal]];
+    }
+
+    /** The chain from the top-level category down to the code itself; empty when unknown. */
+    public List<IcdCodeDTO> path(String code) {
+        List<IcdCodeDTO> path = new ArrayList<>();
+        for (int ordinal = ordinalOf(code); ordinal >= 0; ordinal = parents[ordinal]) {
+            path.add(0, entries[ordinal]);
+        }
+        return path;
+    }
+
+    private int ordinalOf(String code) {
+        String bare = IcdCodes.bare(code);
+        return bare.isEmpty() ? -1 : Math.max(-1, Arrays.binarySearch(codes, bare));
+    }
+
+    private static boolean looksLikeCode(String bare) {
+        return bare.length() == 1 ? Character.isLetter(bare.charAt(0))
+                : Character.isLetter(bare.charAt(0)) && Character.isDigit(bare.charAt(1)) && bare.indexOf(' ') < 0;
+    }
+
+    // The highest node whose codes all start with the prefix
+    private Node find(String prefix) {
+        Node node = root;
+        int depth = 0;
+        while (depth < prefix.length()) {
+            Node next = null;
+            for (Node child : node.children) {
+                if (child.label.charAt(0) == prefix.charAt(depth)) {
+                    next = child;
+                    break;
+                }
+            }
+            if (next == null) {
+                return null;
+            }
+            int matched = commonPrefix(next.label, prefix.substring(depth));
+            if (matched < next.label.length() && depth + matched < prefix.length()) {
+                return null; // diverges inside the edge
+            }
+            depth += matched;
+            node = next;
+        }
+        return node;
+    }
+
+    private List<IcdCodeDTO> collect(int lo, int hi, int limit, boolean billableOnly) {
+        List<IcdCodeDTO> result = new ArrayList<>(Math.min(limit, hi - lo));
+        for (int i = lo; i < hi && result.size() < limit; i++) {
+            if (billableOnly) {
+                i = billable.nextSetBit(i);
+                if (i < 0 || i >= hi) {
+                    break;
+                }
+            }
+            result.add(entries[i]);
+        }
+        return result;
+    }
+
+    // Every query word must prefix some description word. The rarest query word
+    // drives the scan in code order; the others are probed per candidate, so a
+    // common query stops as soon as it has enough matches.
+    private List<IcdCodeDTO> byWords(String query, int limit, boolean billableOnly) {
+        List<String> queryWords = TextTokens.tokenize(query);
+        if (queryWords.isEmpty()) {
+            return new ArrayList<>();
+        }
+        int terms = queryWords.size();
+        int[] from = new int[terms];
+        int[] to = new int[terms];
+        long[] postingsSize = new long[terms];
+        int driver = 0;
+        for (int t = 0; t < terms; t++) {
+            String word = queryWords.get(t);
+            from[t] = lowerBound(word);
+            to[t] = from[t];
+            while (to[t] < words.length && words[to[t]].startsWith(word)) {
+                postingsSize[t] += wordPostings[to[t]++].length;
+            }
+            if (from[t] == to[t]) {
+                return new ArrayList<>();
+            }
+            if (postingsSize[t] < postingsSize[driver]) {
+                driver = t;
+            }
+        }
+        // A single completion is already an ascending list; several are merged
+        int[] candidates = to[driver] - from[driver] == 1 ? wordPostings[from[driver]]
+                : union(from[driver], to[driver]).stream().toArray();
+        // Probing a word with many completions costs more than marking them all once
+        BitSet[] marked = new BitSet[terms];
+        for (int t = 0; t < terms; t++) {
+            if (t != driver && to[t] - from[t] > MAX_PROBED_WORDS) {
+                marked[t] = union(from[t], to[t]);
+            }
+        }
+        List<IcdCodeDTO> result = new ArrayList<>(Math.min(limit, 32));
+        for (int c = 0; c < candidates.length && result.size() < limit; c++) {
+            int i = candidates[c];
+            if (billableOnly && !billable.get(i)) {
+                continue;
+            }
+            boolean all = true;
+            for (int t = 0; t < terms && all; t++) {
+                if (t != driver) {
+                    all = marked[t] != null ? marked[t].get(i) : contains(from[t], to[t], i);
+                }
+            }
+            if (all) {
+                result.add(entries[i]);
+            }
+        }
+        return result;
+    }
+
+    private BitSet union(int fromWord, int toWord) {
+        BitSet set = new BitSet(codes.length);
+        for (int w = fromWord; w < toWord; w++) {
+            for (int ordinal : wordPostings[w]) {
+                set.set(ordinal);
+            }
+        }
+        return set;
+    }
+
+    private boolean contains(int fromWord, int toWord, int ordinal) {
+        for (int w = fromWord; w < toWord; w++) {
+            if (Arrays.binarySearch(wordPostings[w], ordinal) >= 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int lowerBound(String word) {
+        int index = Arrays.binarySearch(words, word);
+        return index >= 0 ? index : -index - 1;
+    }
+}
@@ -0,0 +1,175 @@
+package com.insurance.percert.index;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.insurance.percert.util.TextTokens;
+
+/**
+ * In-memory inverted index over the extracted text of each patient's uploaded
+ * records. Patients are loaded on first search and kept in an LRU so memory
+ * stays bounded; an evicted patient is simply rebuilt from file_texts next time.
+ */
+@Component
+public class PatientDocumentIndex {
+
+    private final Map<Long, PatientPostings> patients;
+
+    public PatientDocumentIndex(@Value("${file.text.index-max-patients:500}") int maxPatients) {
+        this.patients = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, PatientPostings> eldest) {
+                return size() > maxPatients;
+            }
+        };
+    }
+
+    public boolean isLoaded(Long patientId) {
+        PatientPostings postings = get(patientId);
+        return postings != null && postings.complete;
+    }
+
+    /** Installs a patient's full document set, merging anything indexed while it was being read. */
+    public void load(Long patientId, Map<Long, String> textsByFileId) {
+        PatientPostings postings = getOrCreate(patientId);
+        synchronized (postings) {
+            for (Map.Entry<Long, String> entry : textsByFileId.entrySet()) {
+                if (!postings.documents.containsKey(entry.getKey())) {
+                    postings.add(entry.getKey(), entry.getValue());
+                }
+            }
+            postings.complete = true;
+        }
+    }
+
+    public void addDocument(Long patientId, Long fileId, String text) {
+        PatientPostings postings = getOrCreate(patientId);
+        synchronized (postings) {
+            postings.remove(fileId);
+            postings.add(fileId, text);
+        }
+    }
+
+    public void removeDocument(Long patientId, Long fileId) {
+        PatientPostings postings = get(patientId);
+        if (postings != null) {
+            synchronized (postings) {
+                postings.remove(fileId);
+            }
+        }
+    }
+
+    public void removePatient(Long patientId) {
+        synchronized (patients) {
+            patients.remove(patientId);
+        }
+    }
+
+    /**
+     * Files containing every query term (the last term also matches as a prefix,
+     * for search-as-you-type), ranked by total term frequency.
+     */
+    public List<Long> search(Long patientId, String query, int limit) {
+        List<String> terms = TextTokens.tokenize(query);
+        PatientPostings postings = get(patientId);
+        if (terms.isEmpty() || postings == null) {
+            return new ArrayList<>();
+        }
+
+        Map<Long, Integer> scores = null;
+        synchronized (postings) {
+            for (int i = 0; i < terms.size(); i++) {
+                boolean prefix = i == terms.size() - 1;
+                Map<Long, Integer> matches = postings.match(terms.get(i), prefix);
+                if (scores == null) {
+                    scores = matches;
+                } else {
+                    scores.keySet().retainAll(matches.keySet());
+                    for (Map.Entry<Long, Integer> entry : scores.entrySet()) {
+                        entry.setValue(entry.getValue() + matches.get(entry.getKey()));
+                    }
+                }
+                if (scores.isEmpty()) {
+                    break;
+                }
+            }
+        }
+
+        return scores.entrySet().stream()
+                .sorted(Map.Entry.<Long, Integer>comparingByValue().reversed())
+                .limit(limit)
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    private PatientPostings get(Long patientId) {
+        synchronized (patients) {
+            return patients.get(patientId);
+        }
+    }
+
+    private PatientPostings getOrCreate(Long patientId) {
+        synchronized (patients) {
+            return patients.computeIfAbsent(patientId, id -> new PatientPostings());
+        }
+    }
+
+    private static final class PatientPostings {
+        // term -> (fileId -> occurrences)
+        private final TreeMap<String, Map<Long, Integer>> terms = new TreeMap<>();
+        // fileId -> distinct terms, so a document can be removed without a full scan
+        private final Map<Long, List<String>> documents = new HashMap<>();
+        private boolean complete;
+
+        void add(Long fileId, String text) {
+            Map<String, Integer> counts = new HashMap<>();
+            for (String token : TextTokens.tokenize(text)) {
+                counts.merge(token, 1, Integer::sum);
+            }
+            for (Map.Entry<String, Integer> entry : counts.entrySet()) {
+                terms.computeIfAbsent(entry.getKey(), t -> new HashMap<>()).put(fileId, entry.getValue());
+            }
+            documents.put(fileId, new ArrayList<>(counts.keySet()));
+        }
+
+        void remove(Long fileId) {
+            List<String> documentTerms = documents.remove(fileId);
+            if (documentTerms == null) {
+                return;
+            }
+            for (String term : documentTerms) {
+                Map<Long, Integer> files = terms.get(term);
+                if (files != null) {
+                    files.remove(fileId);
+                    if (files.isEmpty()) {
+                        terms.remove(term);
+                    }
+                }
+            }
+        }
+
+        Map<Long, Integer> match(String term, boolean prefix) {
+            Map<Long, Integer> result = new HashMap<>();
+            if (!prefix) {
+                Map<Long, Integer> files = terms.get(term);
+                if (files != null) {
+                    result.putAll(files);
+                }
+                return result;
+            }
+            NavigableMap<String, Map<Long, Integer>> range = terms.subMap(term, true, term + Character.MAX_VALUE, false);
+            for (Map<Long, Integer> files : range.values()) {
+                files.forEach((fileId, count) -> result.merge(fileId, count, Integer::sum));
+            }
+            return result;
+        }
+    }
+}
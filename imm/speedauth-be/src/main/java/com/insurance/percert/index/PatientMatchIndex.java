@@ -0,0 +1,206 @@
+package com.insurance.percert.index;
+
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.springframework.stereotype.Component;
+
+import com.insurance.percert.model.PatientMatchDTO;
+import com.insurance.percert.util.NameSimilarity;
+
+/**
+ * Fuzzy patient lookup for catching duplicates at the front desk. Every patient
+ * is filed under the Double Metaphone codes of their last and first names, under
+ * those codes combined with their birth year, and under their date of birth. A
+ * lookup gathers only the matching blocks and runs bounded edit distance over
+ * that small candidate set; when a date of birth is given, the year-qualified
+ * blocks keep common surnames from producing large candidate sets.
+ */
+@Component
+public class PatientMatchIndex {
+
+    private static final double MIN_SCORE = 0.6;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Entry> entries = new HashMap<>();
+    private final Map<String, Set<Long>> lastNameBlocks = new HashMap<>();
+    private final Map<String, Set<Long>> firstNameBlocks = new HashMap<>();
+    // "code:year", or "code:?" for patients without a date of birth
+    private final Map<String, Set<Long>> lastNameYearBlocks = new HashMap<>();
+    private final Map<String, Set<Long>> firstNameYearBlocks = new HashMap<>();
+    private final Map<LocalDate, Set<Long>> birthDateBlocks = new HashMap<>();
+
+    private record Entry(long patientId, String customPatientId, String fullName, String first, String last,
+            LocalDate dateOfBirth, Set<String> firstCodes, Set<String> lastCodes) {
+    }
+
+    public void put(long patientId, String customPatientId, String fullName, String firstName, String lastName,
+            LocalDate dateOfBirth) {
+        String[] names = NameSimilarity.splitName(fullName, firstName, lastName);
+        Entry entry = new Entry(patientId, customPatientId, fullName, names[0], names[1], dateOfBirth,
+                NameSimilarity.codes(names[0]), NameSimilarity.codes(names[1]));
+        lock.writeLock().lock();
+        try {
+            removeLocked(patientId);
+            entries.put(patientId, entry);
+            for (String code : entry.lastCodes()) {
+                lastNameBlocks.computeIfAbsent(code, c -> new HashSet<>()).add(patientId);
+                lastNameYearBlocks.computeIfAbsent(yearKey(code, dateOfBirth), c -> new HashSet<>()).add(patientId);
+            }
+            for (String code : entry.firstCodes()) {
+                firstNameBlocks.computeIfAbsent(code, c -> new HashSet<>()).add(patientId);
+                firstNameYearBlocks.computeIfAbsent(yearKey(code, dateOfBirth), c -> new HashSet<>()).add(patientId);
+            }
+            if (dateOfBirth != null) {
+                birthDateBlocks.computeIfAbsent(dateOfBirth, d -> new HashSet<>()).add(patientId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long patientId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(patientId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Likely matches for a typed name and optional date of birth, best first.
+     * Candidates come from the phonetic block of the last name (or of the first
+     * name when only one name is given), plus the blocks a record with first and
+     * last names swapped sits in, narrowed to the birth year when a date of
+     * birth is given, plus patients born on the same day or with day and month
+     * transposed.
+     */
+    public List<PatientMatchDTO> match(String name, LocalDate dateOfBirth, int limit) {
+        String[] names = NameSimilarity.splitName(name, null, null);
+        String first = names[0];
+        String last = names[1];
+        boolean singleName = last.isEmpty();
+        Set<String> lastCodes = NameSimilarity.codes(singleName ? first : last);
+        Set<String> firstCodes = NameSimilarity.codes(first);
+        LocalDate swappedBirthDate = swapDayAndMonth(dateOfBirth);
+
+        List<PatientMatchDTO> matches = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            Set<Long> candidates = new HashSet<>();
+            for (String code : lastCodes) {
+                addBlock(candidates, lastNameBlocks, lastNameYearBlocks, code, dateOfBirth);
+            }
+            if (singleName) {
+                for (String code : firstCodes) {
+                    addBlock(candidates, firstNameBlocks, firstNameYearBlocks, code, dateOfBirth);
+                }
+            } else {
+                // Records entered with first and last names the other way round
+                for (String code : lastCodes) {
+                    addBlock(candidates, firstNameBlocks, firstNameYearBlocks, code, dateOfBirth);
+                }
+                for (String code : firstCodes) {
+                    addBlock(candidates, lastNameBlocks, lastNameYearBlocks, code, dateOfBirth);
+                }
+            }
+            if (dateOfBirth != null) {
+                candidates.addAll(birthDateBlocks.getOrDefault(dateOfBirth, Set.of()));
+            }
+            if (swappedBirthDate != null) {
+                candidates.addAll(birthDateBlocks.getOrDefault(swappedBirthDate, Set.of()));
+            }
+
+            for (Long id : candidates) {
+                Entry entry = entries.get(id);
+                double score = singleName
+                        ? Math.max(NameSimilarity.similarity(first, firstCodes, entry.last(), entry.lastCodes()),
+                                NameSimilarity.similarity(first, firstCodes, entry.first(), entry.firstCodes()))
+                        : score(first, firstCodes, last, lastCodes, entry);
+                if (dateOfBirth != null) {
+                    double birthScore = dateOfBirth.equals(entry.dateOfBirth()) ? 1
+                            : swappedBirthDate != null && swappedBirthDate.equals(entry.dateOfBirth()) ? 0.5 : 0;
+                    score = 0.75 * score + 0.25 * birthScore;
+                }
+                if (score >= MIN_SCORE) {
+                    matches.add(new PatientMatchDTO(entry.customPatientId(), entry.fullName(), entry.dateOfBirth(),
+                            Math.round(score * 1000) / 1000.0));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        matches.sort(Comparator.comparingDouble(PatientMatchDTO::getScore).reversed());
+        return matches.size() > limit ? new ArrayList<>(matches.subList(0, limit)) : matches;
+    }
+
+    private static void addBlock(Set<Long> candidates, Map<String, Set<Long>> blocks,
+            Map<String, Set<Long>> yearBlocks, String code, LocalDate dateOfBirth) {
+        if (dateOfBirth == null) {
+            candidates.addAll(blocks.getOrDefault(code, Set.of()));
+        } else {
+            candidates.addAll(yearBlocks.getOrDefault(yearKey(code, dateOfBirth), Set.of()));
+            candidates.addAll(yearBlocks.getOrDefault(yearKey(code, null), Set.of()));
+        }
+    }
+
+    private static String yearKey(String code, LocalDate dateOfBirth) {
+        return code + ":" + (dateOfBirth != null ? dateOfBirth.getYear() : "?");
+    }
+
+    private static double score(String first, Set<String> firstCodes, String last, Set<String> lastCodes,
+            Entry entry) {
+        return NameSimilarity.fullName(first, firstCodes, last, lastCodes,
+                entry.first(), entry.firstCodes(), entry.last(), entry.lastCodes());
+    }
+
+    private void removeLocked(long patientId) {
+        Entry old = entries.remove(patientId);
+        if (old == null) {
+            return;
+        }
+        for (String code : old.lastCodes()) {
+            removeFromBlock(lastNameBlocks, code, patientId);
+            removeFromBlock(lastNameYearBlocks, yearKey(code, old.dateOfBirth()), patientId);
+        }
+        for (String code : old.firstCodes()) {
+            removeFromBlock(firstNameBlocks, code, patientId);
+            removeFromBlock(firstNameYearBlocks, yearKey(code, old.dateOfBirth()), patientId);
+        }
+        if (old.dateOfBirth() != null) {
+            removeFromBlock(birthDateBlocks, old.dateOfBirth(), patientId);
+        }
+    }
+
+    private static <K> void removeFromBlock(Map<K, Set<Long>> blocks, K key, long patientId) {
+        Set<Long> block = blocks.get(key);
+        if (block != null) {
+            block.remove(patientId);
+            if (block.isEmpty()) {
+                blocks.remove(key);
+            }
+        }
+    }
+
+    /** The same date with day and month exchanged, or null when that is not a different valid date. */
+    public static LocalDate swapDayAndMonth(LocalDate date) {
+        if (date == null || date.getDayOfMonth() > 12 || date.getDayOfMonth() == date.getMonthValue()) {
+            return null;
+        }
+        try {
+            return LocalDate.of(date.getYear(), date.getDayOfMonth(), date.getMonthValue());
+        } catch (DateTimeException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,398 @@
+package com.insurance.percert.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory substring index over short names. Each entry's normalized text is
+ * broken into space-padded trigrams; a query intersects the posting lists of its
+ * own trigrams and verifies the survivors, so it answers "contains" lookups
+ * without scanning every row.
+ *
+ * Entries get a dense ordinal on insert, so posting lists are append-only and
+ * stay sorted. Updates and removals tombstone the old ordinal, and the index is
+ * rebuilt once tombstones make up a quarter of it.
+ */
+public class TrigramIndex<V> {
+
+    // Match quality, best first
+    public static final int EXACT = 3;
+    public static final int PREFIX = 2;
+    public static final int WORD_START = 1;
+    public static final int SUBSTRING = 0;
+
+    private static final int COMPACT_MIN_DEAD = 1024;
+    // Marks the start of the whole text, as opposed to the start of any word
+    private static final char START = '\u0002';
+
+    public record Match<V>(long id, V value, String text, int quality) {
+    }
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, IntList> postings = new HashMap<>();
+    private final Map<Long, Integer> ordinalById = new HashMap<>();
+    private long[] ids = new long[1024];
+    private String[] texts = new String[1024];
+    private Object[] values = new Object[1024];
+    private final BitSet dead = new BitSet();
+    private int ordinals;
+    private int deadCount;
+    private long maxId = Long.MIN_VALUE;
+
+    public void put(long id, String text, V value) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+            addLocked(id, normalize(text), value);
+            maybeCompactLocked();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Adds the entry unless the id is already present; used by bulk loads racing live writes. */
+    public boolean putIfAbsent(long id, String text, V value) {
+        lock.writeLock().lock();
+        try {
+            if (ordinalById.containsKey(id)) {
+                return false;
+            }
+            addLocked(id, normalize(text), value);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean remove(long id) {
+        lock.writeLock().lock();
+        try {
+            boolean removed = removeLocked(id);
+            maybeCompactLocked();
+            return removed;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return ordinalById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Highest id ever added; ids are identity keys, so this approximates the newest entry. */
+    public long maxId() {
+        lock.readLock().lock();
+        try {
+            return maxId;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<V> searchValues(String query, int limit) {
+        List<Match<V>> matches = search(query, limit);
+        List<V> result = new ArrayList<>(matches.size());
+        for (Match<V> match : matches) {
+            result.add(match.value());
+        }
+        return result;
+    }
+
+    /**
+     * Entries whose text contains the query, best {@code limit} first: exact,
+     * then prefix, word-start and plain substring matches, shorter texts first
+     * within each. One- and two-character queries only match at word starts.
+     *
+     * Prefix matches are gathered first through the start-of-text trigrams; when
+     * they already fill the page, the wider substring candidates are never scored.
+     */
+    public List<Match<V>> search(String query, int limit) {
+        String q = normalize(query);
+        if (q.isEmpty() || limit <= 0) {
+            return new ArrayList<>();
+        }
+        // Min-heap on match quality, so the worst of the current top-k is evicted first;
+        // grows as needed rather than being sized from the caller's limit
+        PriorityQueue<Match<V>> top = new PriorityQueue<>(TrigramIndex::compare);
+
+        lock.readLock().lock();
+        try {
+            if (q.length() >= 2) {
+                collectLocked(prefixCandidatesLocked(q), q, limit, top, false);
+                if (top.size() >= limit) {
+                    return sorted(top);
+                }
+            }
+            collectLocked(candidatesLocked(q), q, limit, top, q.length() >= 2);
+        } finally {
+            lock.readLock().unlock();
+        }
+        return sorted(top);
+    }
+
+    private void collectLocked(int[] candidates, String q, int limit, PriorityQueue<Match<V>> top,
+            boolean skipPrefixes) {
+        for (int ordinal : candidates) {
+            if (dead.get(ordinal)) {
+                continue;
+            }
+            String text = texts[ordinal];
+            int quality = quality(text, q);
+            if (quality < 0 || (skipPrefixes && quality >= PREFIX)) {
+                continue;
+            }
+            if (top.size() >= limit && compare(quality, text, top.peek()) <= 0) {
+                continue;
+            }
+            @SuppressWarnings("unchecked")
+            V value = (V) values[ordinal];
+            top.add(new Match<>(ids[ordinal], value, text, quality));
+            if (top.size() > limit) {
+                top.poll();
+            }
+        }
+    }
+
+    private static <V> List<Match<V>> sorted(PriorityQueue<Match<V>> top) {
+        List<Match<V>> result = new ArrayList<>(top);
+        result.sort((a, b) -> compare(b, a));
+        return result;
+    }
+
+    // Positive when a is the better match
+    private static int compare(Match<?> a, Match<?> b) {
+        return compare(a.quality(), a.text(), b);
+    }
+
+    private static int compare(int quality, String text, Match<?> other) {
+        if (quality != other.quality()) {
+            return Integer.compare(quality, other.quality());
+        }
+        if (text.length() != other.text().length()) {
+            return Integer.compare(other.text().length(), text.length());
+        }
+        return other.text().compareTo(text);
+    }
+
+    /** Lower-cases and reduces everything but letters and digits to single spaces. */
+    public static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        StringBuilder out = new StringBuilder(text.length());
+        boolean space = true;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                out.append(Character.toLowerCase(c));
+                space = false;
+            } else if (!space) {
+                out.append(' ');
+                space = true;
+            }
+        }
+        int length = out.length();
+        if (length > 0 && out.charAt(length - 1) == ' ') {
+            out.setLength(length - 1);
+        }
+        return out.toString();
+    }
+
+    private static int quality(String text, String q) {
+        int at = text.indexOf(q);
+        if (at < 0) {
+            return -1;
+        }
+        if (at == 0) {
+            return text.length() == q.length() ? EXACT : PREFIX;
+        }
+        for (; at > 0; at = text.indexOf(q, at + 1)) {
+            if (text.charAt(at - 1) == ' ') {
+                return WORD_START;
+            }
+        }
+        return SUBSTRING;
+    }
+
+    // Entries starting with the query's first two characters (and containing the rest)
+    private int[] prefixCandidatesLocked(String q) {
+        IntList anchor = postings.get(key(START, q.charAt(0), q.charAt(1)));
+        if (anchor == null) {
+            return new int[0];
+        }
+        List<IntList> lists = new ArrayList<>();
+        lists.add(anchor);
+        if (q.length() >= 3 && !addTrigramListsLocked(q, lists)) {
+            return new int[0];
+        }
+        return intersect(lists);
+    }
+
+    private int[] candidatesLocked(String q) {
+        List<IntList> lists = new ArrayList<>();
+        if (q.length() >= 3) {
+            if (!addTrigramListsLocked(q, lists)) {
+                return new int[0];
+            }
+        } else if (q.length() == 2) {
+            IntList list = postings.get(key(' ', q.charAt(0), q.charAt(1)));
+            if (list == null) {
+                return new int[0];
+            }
+            lists.add(list);
+        } else {
+            // Single character: union every word-start trigram beginning with it
+            BitSet union = new BitSet(ordinals);
+            long wordStart = key(' ', q.charAt(0), '\0');
+            long textStart = key(START, q.charAt(0), '\0');
+            for (Map.Entry<Long, IntList> entry : postings.entrySet()) {
+                long prefix = entry.getKey() & ~0xFFFFL;
+                if (prefix == wordStart || prefix == textStart) {
+                    IntList list = entry.getValue();
+                    for (int i = 0; i < list.size; i++) {
+                        union.set(list.items[i]);
+                    }
+                }
+            }
+            return union.stream().toArray();
+        }
+        return intersect(lists);
+    }
+
+    private boolean addTrigramListsLocked(String q, List<IntList> lists) {
+        for (long key : trigrams(q, false)) {
+            IntList list = postings.get(key);
+            if (list == null) {
+                return false;
+            }
+            lists.add(list);
+        }
+        return true;
+    }
+
+    // Intersects sorted posting lists, smallest first; each probe searches only
+    // the part of the longer list past the previous hit
+    private static int[] intersect(List<IntList> lists) {
+        lists.sort(Comparator.comparingInt(list -> list.size));
+        int[] candidates = Arrays.copyOf(lists.get(0).items, lists.get(0).size);
+        int count = candidates.length;
+        for (int l = 1; l < lists.size() && count > 0; l++) {
+            IntList list = lists.get(l);
+            int kept = 0;
+            int from = 0;
+            for (int i = 0; i < count && from < list.size; i++) {
+                int found = Arrays.binarySearch(list.items, from, list.size, candidates[i]);
+                if (found >= 0) {
+                    candidates[kept++] = candidates[i];
+                    from = found + 1;
+                } else {
+                    from = -found - 1;
+                }
+            }
+            count = kept;
+        }
+        return Arrays.copyOf(candidates, count);
+    }
+
+    private void addLocked(long id, String text, V value) {
+        if (ordinals == ids.length) {
+            int capacity = ids.length * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            texts = Arrays.copyOf(texts, capacity);
+            values = Arrays.copyOf(values, capacity);
+        }
+        int ordinal = ordinals++;
+        ids[ordinal] = id;
+        texts[ordinal] = text;
+        values[ordinal] = value;
+        ordinalById.put(id, ordinal);
+        maxId = Math.max(maxId, id);
+        for (long key : trigrams(text, true)) {
+            postings.computeIfAbsent(key, k -> new IntList()).add(ordinal);
+        }
+        if (!text.isEmpty()) {
+            char second = text.length() > 1 ? text.charAt(1) : ' ';
+            postings.computeIfAbsent(key(START, text.charAt(0), second), k -> new IntList()).add(ordinal);
+        }
+    }
+
+    private boolean removeLocked(long id) {
+        Integer ordinal = ordinalById.remove(id);
+        if (ordinal == null) {
+            return false;
+        }
+        dead.set(ordinal);
+        values[ordinal] = null;
+        deadCount++;
+        return true;
+    }
+
+    private void maybeCompactLocked() {
+        if (deadCount < COMPACT_MIN_DEAD || deadCount * 4 < ordinals) {
+            return;
+        }
+        long[] oldIds = ids;
+        String[] oldTexts = texts;
+        Object[] oldValues = values;
+        BitSet oldDead = (BitSet) dead.clone();
+        int oldOrdinals = ordinals;
+        int capacity = Math.max(1024, Integer.highestOneBit(Math.max(1, oldOrdinals - deadCount)) * 2);
+
+        postings.clear();
+        ordinalById.clear();
+        dead.clear();
+        deadCount = 0;
+        ordinals = 0;
+        ids = new long[capacity];
+        texts = new String[capacity];
+        values = new Object[capacity];
+        for (int i = 0; i < oldOrdinals; i++) {
+            if (!oldDead.get(i)) {
+                @SuppressWarnings("unchecked")
+                V value = (V) oldValues[i];
+                addLocked(oldIds[i], oldTexts[i], value);
+            }
+        }
+    }
+
+    // Distinct trigrams; padded adds a leading and trailing space so word
+    // boundaries are part of the index
+    private static Set<Long> trigrams(String text, boolean padded) {
+        String s = padded ? " " + text + " " : text;
+        Set<Long> keys = new LinkedHashSet<>();
+        for (int i = 0; i + 3 <= s.length(); i++) {
+            keys.add(key(s.charAt(i), s.charAt(i + 1), s.charAt(i + 2)));
+        }
+        return keys;
+    }
+
+    private static long key(char a, char b, char c) {
+        return ((long) a << 32) | ((long) b << 16) | c;
+    }
+
+    private static final class IntList {
+        private int[] items = new int[4];
+        private int size;
+
+        void add(int value) {
+            if (size == items.length) {
+                items = Arrays.copyOf(items, size * 2);
+            }
+            items[size++] = value;
+        }
+    }
+}
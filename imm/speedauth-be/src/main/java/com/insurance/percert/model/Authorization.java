@@ -4,8 +4,11 @@ import java.time.LocalDate;
 
 import org.springframework.web.bind.annotation.CrossOrigin;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
+
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
@@ -17,6 +20,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Entity
+@EntityListeners(AuthorizationChangeListener.class)
 @Table(name = "authorization")
 @Data
 @NoArgsConstructor
@@ -37,6 +41,12 @@ public class Authorization {
     private LocalDate authorizationStartDate;
     private LocalDate authorizationEndDate;
     private Integer units;
+
+    // Units taken by orders so far. Only AuthorizationUnitsService changes it, with
+    // conditional updates, so saving a stale copy of the entity cannot roll it back
+    @Column(insertable = false, updatable = false)
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Integer unitsUsed;
     private String description;
     private String claimstatus;
     private String approvalStatus; // "approved" or "rejected"
@@ -105,6 +115,9 @@ public class Authorization {
       public Integer getUnits() { return units; }
       public void setUnits(Integer units) { this.units = units; }
   
+      public Integer getUnitsUsed() { return unitsUsed; }
+      public void setUnitsUsed(Integer unitsUsed) { this.unitsUsed = unitsUsed; }
+  
       public String getDescription() { return description; }
       public void setDescription(String description) { this.description = description; }
   
@@ -0,0 +1,34 @@
+package com.insurance.percert.model;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+
+import com.insurance.percert.service.ClaimPreAdjudicationService;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+/**
+ * Tells claim pre-adjudication that an authorization was saved or deleted,
+ * whichever code path did it. Hibernate creates the listener through Spring,
+ * which injects the service; it is lazy because the listener is built while
+ * the entity manager factory the service depends on is still starting.
+ * These callbacks fire at flush, so the service waits for the commit before
+ * marking its index stale.
+ */
+public class AuthorizationChangeListener {
+
+    @Autowired
+    @Lazy
+    private ClaimPreAdjudicationService claimPreAdjudicationService;
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    void changed(Authorization authorization) {
+        if (claimPreAdjudicationService != null) {
+            claimPreAdjudicationService.authorizationsChanged();
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.insurance.percert.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Units ledger of one authorization; units and remaining are null when it has no cap
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AuthorizationUnitsDTO {
+
+    private Long authorizationId;
+    private Integer units;
+    private int unitsUsed;
+    private Integer remaining;
+}
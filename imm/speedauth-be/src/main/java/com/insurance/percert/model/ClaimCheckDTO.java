@@ -0,0 +1,25 @@
+package com.insurance.percert.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Pre-adjudication outcome of one claim line
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ClaimCheckDTO {
+
+    public static final String OK = "OK";
+    public static final String UNAUTHORIZED = "UNAUTHORIZED";
+    public static final String OUT_OF_WINDOW = "OUT_OF_WINDOW";
+    public static final String OVER_UNITS = "OVER_UNITS";
+    public static final String INCOMPLETE = "INCOMPLETE";
+    public static final String NOT_FOUND = "NOT_FOUND";
+
+    private Long claimId;
+    private String status;
+    private Long authorizationId; // the authorization the line fits, or was billed under
+    private Integer remainingUnits; // on that authorization after this line; null when uncapped
+    private String message;
+}
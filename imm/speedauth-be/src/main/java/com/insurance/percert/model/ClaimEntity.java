@@ -1,6 +1,9 @@
 package com.insurance.percert.model;
 
 import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.Date;
 
 import jakarta.persistence.Entity;
@@ -31,4 +34,32 @@ public class ClaimEntity {
     private Date statusDate;
 
     private String claimDescription;
+
+    // The claim line checked against approved authorizations before submission
+    private Long patientId;
+
+    private String cptCode;
+
+    private Integer units;
+
+    private LocalDate serviceFromDate;
+
+    private LocalDate serviceToDate;
+
+    // The authorization the line is billed under; set by pre-adjudication when it finds one
+    private Long authorizationId;
+
+    private BigDecimal billedAmount;
+
+    // From the payer's 835 remittance (CLP and CAS segments)
+    private BigDecimal paidAmount;
+
+    private BigDecimal adjustmentAmount;
+
+    private BigDecimal patientResponsibilityAmount;
+
+    private String payerClaimNumber;
+
+    // TRN02: the check or EFT number the claim was paid under
+    private String remittanceTrace;
 }
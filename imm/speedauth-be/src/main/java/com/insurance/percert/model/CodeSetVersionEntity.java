@@ -0,0 +1,43 @@
+package com.insurance.percert.model;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A registered code set release. The codes themselves stay in the release
+ * file under icd.codeset.dir and are read back into memory at startup; this
+ * row records which file holds which version and from when it applies.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "code_set_versions", uniqueConstraints = @UniqueConstraint(columnNames = { "codeSystem", "effectiveFrom" }))
+public class CodeSetVersionEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private String codeSystem; // "ICD10CM", "CPT" or "HCPCS"
+    private String version; // e.g. "FY2025", "2025Q2"
+    private LocalDate effectiveFrom;
+    private String fileName;
+
+    private String status; // "LOADING", "ACTIVE" or "FAILED"
+    private int codes;
+    private String message;
+
+    private LocalDateTime registeredAt;
+    private LocalDateTime loadedAt;
+}
@@ -0,0 +1,21 @@
+package com.insurance.percert.model;
+
+import java.time.LocalDate;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CodeValidationDTO {
+    private String codeSystem;
+    private String code;
+    private LocalDate dateOfService;
+    // Release in effect on that date; null when none is loaded for it
+    private String version;
+    // Null when there was no release to check against
+    private Boolean valid;
+    private String description;
+}
@@ -0,0 +1,17 @@
+package com.insurance.percert.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CptAuthMatrixStatusDTO {
+    private String fileName;
+    private int payers;
+    private int rules;
+    // Disjoint code ranges after overlapping rules are resolved
+    private int segments;
+    private long millis;
+}
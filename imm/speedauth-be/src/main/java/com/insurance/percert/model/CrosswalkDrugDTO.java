@@ -0,0 +1,16 @@
+package com.insurance.percert.model;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CrosswalkDrugDTO {
+    private DrugSummaryDTO drug;
+    private List<String> icdCodes;
+    private List<String> cptCodes;
+}
@@ -0,0 +1,13 @@
+package com.insurance.percert.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class DocumentSearchResultDTO {
+    private Long fileId;
+    private String fileName;
+    private String medicalFileType;
+    private String snippet;
+}
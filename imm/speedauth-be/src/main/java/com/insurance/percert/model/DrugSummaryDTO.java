@@ -0,0 +1,13 @@
+package com.insurance.percert.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class DrugSummaryDTO {
+    private Long drugId;
+    private String drugName;
+    private String procedureCode;
+    private String drugDescription;
+}
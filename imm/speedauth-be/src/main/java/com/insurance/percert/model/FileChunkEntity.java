@@ -0,0 +1,57 @@
+package com.insurance.percert.model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A deduplicated block of uploaded file content, stored once on disk and
+ * shared by every FileEntity whose manifest references it.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "file_chunks")
+public class FileChunkEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // SHA-256 of the chunk content, hex encoded
+    @Column(unique = true, nullable = false, length = 64)
+    private String hash;
+
+    private int length;
+
+    // Number of manifest entries pointing at this chunk; 0 means collectable
+    private long refCount;
+
+    private LocalDateTime createdAt;
+
+    // When refCount last dropped to 0; the GC grace runs from here, so a chunk
+    // created long ago is not collected the moment its last file is deleted
+    private LocalDateTime unreferencedAt;
+
+    // Set when the file on disk is AES-GCM sealed; null or false for chunks
+    // written before a master key was configured
+    private Boolean encrypted;
+
+    // Per-chunk data key, wrapped under the master key
+    @Column(length = 64)
+    private byte[] wrappedKey;
+
+    // When a sealed copy replaced the plaintext file. The plaintext stays on disk
+    // for the GC grace period, in case a reader loaded the row before the switch,
+    // and this is cleared once it is gone
+    private LocalDateTime plaintextRetiredAt;
+}
@@ -0,0 +1,45 @@
+package com.insurance.percert.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One entry of a file manifest: the chunk at position chunkIndex of the file.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "file_chunk_refs", indexes = @Index(name = "idx_file_chunk_refs_file", columnList = "file_id, chunkIndex"))
+public class FileChunkRefEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "file_id")
+    @JsonIgnore
+    private FileEntity file;
+
+    private int chunkIndex;
+
+    private String chunkHash;
+
+    // Position of this chunk within the original file
+    private long chunkOffset;
+
+    private int length;
+}
@@ -0,0 +1,12 @@
+package com.insurance.percert.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class FileDeletedEvent {
+
+    private Long fileId;
+    private Long patientId;
+}
@@ -39,6 +39,10 @@ public class FileEntity {
     private String fileType;
     private String medicalFileType;
 
+    // Content is kept in the chunk store; see FileChunkRefEntity for the manifest
+    private Long fileSize;
+    private String contentHash;
+
     // @Lob
     // @Column(length = 10485760) // Optional: max 10MB
     // private byte[] data;
@@ -114,6 +118,22 @@ public void setMedicalFileType(String medicalFileType) {
 }
 
 
+public Long getFileSize() {
+    return fileSize;
+}
+
+public void setFileSize(Long fileSize) {
+    this.fileSize = fileSize;
+}
+
+public String getContentHash() {
+    return contentHash;
+}
+
+public void setContentHash(String contentHash) {
+    this.contentHash = contentHash;
+}
+
 public PatientEntity getPatient() {
     return patient;
 }
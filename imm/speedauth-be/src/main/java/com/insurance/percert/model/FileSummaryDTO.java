@@ -0,0 +1,19 @@
+package com.insurance.percert.model;
+
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+// FileEntity metadata without the legacy content column
+@Data
+@AllArgsConstructor
+public class FileSummaryDTO {
+
+    private Long id;
+    private String fileName;
+    private String fileType;
+    private String medicalFileType;
+    private Long fileSize;
+    private LocalDateTime uploadTime;
+}
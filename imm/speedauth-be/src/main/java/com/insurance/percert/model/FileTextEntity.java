@@ -0,0 +1,47 @@
+package com.insurance.percert.model;
+
+import java.time.LocalDateTime;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Lob;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Text extracted from an uploaded record, kept deflate-compressed. One row per
+ * FileEntity; also records files we could not or would not extract so the
+ * backfill sweep does not retry them forever.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "file_texts")
+public class FileTextEntity {
+
+    @Id
+    private Long fileId;
+
+    @Column(name = "patient_id")
+    private Long patientId;
+
+    private String fileName;
+    private String medicalFileType;
+
+    private String status; // "extracted", "unsupported" or "failed"
+
+    private int charCount;
+
+    @Lob
+    @JsonIgnore
+    @Column(length = 52428800)
+    private byte[] compressedText;
+
+    private LocalDateTime extractedAt;
+}
@@ -0,0 +1,19 @@
+package com.insurance.percert.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Published by the file store once a FileEntity and its chunks are saved.
+ * Listeners bound to the commit see only uploads that actually persisted.
+ */
+@Data
+@AllArgsConstructor
+public class FileUploadedEvent {
+
+    private Long fileId;
+    private Long patientId;
+    private String fileName;
+    private String fileType;
+    private String medicalFileType;
+}
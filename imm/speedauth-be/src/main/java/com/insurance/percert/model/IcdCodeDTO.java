@@ -0,0 +1,17 @@
+package com.insurance.percert.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IcdCodeDTO {
+    private String icdCode;
+    private String description;
+    private String shortDescription;
+    private boolean billable;
+    // Codes one level down (category -> subcategory); 0 for a leaf
+    private int childCount;
+}
@@ -2,6 +2,7 @@ package com.insurance.percert.model;
 
 import com.fasterxml.jackson.annotation.JsonBackReference;
 
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
@@ -30,6 +31,16 @@ public class IcdEntity {
     private Long id;
     private String icdCode;
 
+    // Filled from the CMS ICD-10-CM release by the code set loader
+    @Column(length = 512)
+    private String description;
+
+    @Column(length = 64)
+    private String shortDescription;
+
+    // False for category headers, which cannot be billed
+    private Boolean billable;
+
 
        @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "drug_id")
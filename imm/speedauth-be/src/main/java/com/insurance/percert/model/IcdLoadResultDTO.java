@@ -0,0 +1,18 @@
+package com.insurance.percert.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IcdLoadResultDTO {
+    private String fileName;
+    private int codes;
+    private int billable;
+    // Existing icd_master rows refreshed in place (drug links kept) and codes added
+    private int updated;
+    private int inserted;
+    private long millis;
+}
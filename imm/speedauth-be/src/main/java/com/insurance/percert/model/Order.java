@@ -1,8 +1,11 @@
 package com.insurance.percert.model;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.Date;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
+
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
@@ -105,6 +108,19 @@ public class Order {
     @Column(name = "deleted_status")
     private boolean deletedStatus;
 
+    // The approved authorization this order's units were taken from, and how many; see AuthorizationUnitsService
+    @Column(name = "consumed_authorization_id")
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long consumedAuthorizationId;
+
+    @Column(name = "consumed_units")
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Integer consumedUnits;
+
+    // When deleteOrderpartly ran; the archiver moves orders deleted long enough ago
+    @Column(name = "deleted_at")
+    private LocalDateTime deletedAt;
+
     // @ManyToOne
     // @JoinColumn(name = "provider_npi", referencedColumnName = "npiNumber",
     // nullable = false)
@@ -325,6 +341,30 @@ public class Order {
     public void setDeletedStatus(boolean deletedStatus) {
         this.deletedStatus = deletedStatus;
     }
+
+    public LocalDateTime getDeletedAt() {
+        return deletedAt;
+    }
+
+    public void setDeletedAt(LocalDateTime deletedAt) {
+        this.deletedAt = deletedAt;
+    }
+
+    public Long getConsumedAuthorizationId() {
+        return consumedAuthorizationId;
+    }
+
+    public void setConsumedAuthorizationId(Long consumedAuthorizationId) {
+        this.consumedAuthorizationId = consumedAuthorizationId;
+    }
+
+    public Integer getConsumedUnits() {
+        return consumedUnits;
+    }
+
+    public void setConsumedUnits(Integer consumedUnits) {
+        this.consumedUnits = consumedUnits;
+    }
     
 
 }
@@ -0,0 +1,114 @@
+package com.insurance.percert.model;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Date;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A soft-deleted order moved out of orders_details by the archiver. Same
+ * columns as {@link Order} (the archiver copies them by name) plus when the
+ * row was archived; the original order id is kept.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "orders_archive")
+public class OrderArchive {
+
+    @Id
+    @Column(name = "order_id")
+    private Long orderId;
+
+    @Column(name = "order_date")
+    private Date orderDate;
+
+    @Column(name = "from_date_of_service")
+    private LocalDate fromDateOfService;
+
+    @Column(name = "to_date_of_service")
+    private LocalDate toDateOfService;
+
+    @Column(name = "order_type")
+    private String orderType;
+
+    @Column(name = "order_description")
+    private String orderDescription;
+
+    @Column(name = "order_priority")
+    private String orderPriority;
+
+    @Column(name = "order_icd_code")
+    private String orderIcdCode;
+
+    @Column(name = "order_cpt_code")
+    private String orderCptCode;
+
+    @Column(name = "orderjcode")
+    private String orderJCode;
+
+    @Column(name = "order_status")
+    private String orderStatus;
+
+    @Column(name = "units")
+    private int units;
+
+    @Column(name = "uniquepatienti")
+    private String uniquepatientI;
+
+    @Column(name = "provider_npi_number")
+    private String providerNpiNumber;
+
+    @Column(name = "insurance_id")
+    private String insuranceId;
+
+    @Column(name = "provider_name")
+    private String providerName;
+
+    @Column(name = "icddrugname")
+    private String icddrugname;
+
+    @Column(name = "icddrugdescription")
+    private String icddrugdescription;
+
+    @Column(name = "icddrugamtdispensed")
+    private String icddrugamtdispensed;
+
+    @Column(name = "icddrugamtdispensed_type")
+    private String icddrugamtdispensedType;
+
+    @Column(name = "icdnumberofchempresent")
+    private String icdnumberofchempresent;
+
+    @Column(name = "icddrug_type")
+    private String icddrugType;
+
+    @Column(name = "icddrugunits")
+    private String icddrugunits;
+
+    @Column(name = "precertification_type")
+    private String precertificationType;
+
+    @Column(name = "deleted_status")
+    private boolean deletedStatus;
+
+    @Column(name = "deleted_at")
+    private LocalDateTime deletedAt;
+
+    @Column(name = "consumed_authorization_id")
+    private Long consumedAuthorizationId;
+
+    @Column(name = "consumed_units")
+    private Integer consumedUnits;
+
+    @Column(name = "archived_at")
+    private LocalDateTime archivedAt;
+}
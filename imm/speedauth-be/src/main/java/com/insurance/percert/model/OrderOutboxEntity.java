@@ -0,0 +1,57 @@
+package com.insurance.percert.model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * An order event written in the same transaction as the order itself and
+ * handled later by the outbox poller (see OrderOutboxService). processedAt
+ * stays null until it has been handled; outcome says what came of it.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "order_outbox", indexes = {
+        @Index(name = "idx_order_outbox_pending", columnList = "processedAt, id") })
+public class OrderOutboxEntity {
+
+    public static final String ORDER_CREATED = "ORDER_CREATED";
+
+    // A draft authorization was raised for the order
+    public static final String CREATED = "CREATED";
+    // The payer does not require prior auth for the order's codes
+    public static final String NOT_REQUIRED = "NOT_REQUIRED";
+    // The order already has an authorization
+    public static final String EXISTS = "EXISTS";
+    // The order was deleted before the event was handled
+    public static final String SKIPPED = "SKIPPED";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private Long orderId;
+    private String eventType;
+    private LocalDateTime createdAt;
+
+    private LocalDateTime processedAt;
+    private String outcome;
+    private Long authorizationId;
+
+    // Failed handling attempts; the poller gives up after orders.outbox.max-attempts
+    private int attempts;
+
+    @Column(length = 1000)
+    private String lastError;
+}
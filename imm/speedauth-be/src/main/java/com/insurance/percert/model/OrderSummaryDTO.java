@@ -0,0 +1,17 @@
+package com.insurance.percert.model;
+
+import java.time.LocalDate;
+import java.util.Date;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class OrderSummaryDTO {
+    private Long orderId;
+    private String icddrugname;
+    private String uniquepatientI;
+    private Date orderDate;
+    private LocalDate fromDateOfService;
+}
@@ -0,0 +1,15 @@
+package com.insurance.percert.model;
+
+import java.time.LocalDate;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class PatientMatchDTO {
+    private String customPatientId;
+    private String fullName;
+    private LocalDate dateOfBirth;
+    private double score; // 0..1, higher is a closer match
+}
@@ -0,0 +1,51 @@
+package com.insurance.percert.model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A pair of patient records the duplicate detection job believes describe the
+ * same person, waiting for someone to merge or reject it. The older record
+ * (lower patient id) is proposed as the survivor.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "patient_merge_candidates", indexes = {
+        @Index(name = "idx_merge_candidate_status", columnList = "status"),
+        @Index(name = "idx_merge_candidate_pair", columnList = "survivorPatientId, duplicatePatientId") })
+public class PatientMergeCandidateEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private Long survivorPatientId;
+    private String survivorCustomPatientId;
+    private String survivorName;
+
+    private Long duplicatePatientId;
+    private String duplicateCustomPatientId;
+    private String duplicateName;
+
+    private double score;
+
+    // Which fields agreed, e.g. "name 0.93, dob exact, policy"
+    private String reasons;
+
+    private String status; // "PENDING", "MERGED", "REJECTED" or "SUPERSEDED"
+
+    private LocalDateTime detectedAt;
+    private LocalDateTime resolvedAt;
+}
@@ -1,6 +1,9 @@
 package com.insurance.percert.model;
 
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -29,7 +32,14 @@ public class Practice {
     
     private String practiceName;
     private String email;
+    // BCrypt hash (see PasswordHashService); accepted in requests, never sent back
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
     private String password;
     private String resetToken;
+
+    // Bumped on every password reset; refresh tokens carry the value they were
+    // issued under and stop working once it moves. Null on rows from before it existed
+    @JsonIgnore
+    private Integer credentialVersion;
 }
 
@@ -0,0 +1,24 @@
+package com.insurance.percert.model;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Outcome of ingesting one 835 remittance file
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RemittanceResultDTO {
+
+    private long payments; // BPR segments (checks or EFTs)
+    private long claims; // CLP segments
+    private long serviceLines; // SVC segments
+    private long matched;
+    private long unmatched;
+    private List<String> unmatchedClaimIds; // CLP01 values without a claim; the first few only
+    private BigDecimal totalPaid;
+    private long millis;
+}
@@ -0,0 +1,15 @@
+package com.insurance.percert.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+// One row of the unified type-ahead; id is the key the UI uses to open the record
+@Data
+@AllArgsConstructor
+public class SuggestionDTO {
+    private String type;
+    private String id;
+    private String label;
+    private String detail;
+    private int score;
+}
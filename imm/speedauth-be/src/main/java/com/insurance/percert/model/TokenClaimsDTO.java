@@ -0,0 +1,39 @@
+package com.insurance.percert.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Payload of an access or refresh token; iat and exp are epoch seconds
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class TokenClaimsDTO {
+
+    public static final String USER = "USER";
+    public static final String PRACTICE = "PRACTICE";
+
+    public static final String ACCESS = "access";
+    public static final String REFRESH = "refresh";
+
+    private String iss;
+    private String sub; // user or practice id
+    private String accountType; // USER or PRACTICE
+    private String email;
+    private String role;
+    private String tokenUse; // access or refresh
+    private long iat;
+    private long exp;
+    private String jti;
+    private Integer cv; // account credentialVersion, refresh tokens only
+
+    /** A credentialVersion or cv as a number; absent counts as 0. */
+    public static int credentialVersion(Integer version) {
+        return version == null ? 0 : version;
+    }
+}
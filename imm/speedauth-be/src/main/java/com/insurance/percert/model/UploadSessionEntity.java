@@ -0,0 +1,42 @@
+package com.insurance.percert.model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A resumable upload in progress. Bytes up to committedOffset are durable in
+ * the session's part file; clients resume by PUTting from that offset.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "upload_sessions")
+public class UploadSessionEntity {
+
+    @Id
+    private String uploadId;
+
+    private Long patientId;
+    private String fileName;
+    private String fileType;
+    private String medicalFileType;
+
+    // Declared size of the whole file, if the client knows it up front
+    private Long totalSize;
+
+    private long committedOffset;
+
+    private String status; // "open" or "completed"
+
+    private Long fileId;
+
+    private LocalDateTime createdAt;
+    private LocalDateTime lastActivityAt;
+}
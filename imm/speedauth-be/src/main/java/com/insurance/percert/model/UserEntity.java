@@ -1,5 +1,8 @@
 package com.insurance.percert.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
@@ -27,9 +30,16 @@ public class UserEntity {
     private Long id;
     private String userName;
     private String email;
+    // BCrypt hash (see PasswordHashService); accepted in requests, never sent back
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
     private String password;
     private String resetToken;
 
+    // Bumped on every password reset; refresh tokens carry the value they were
+    // issued under and stop working once it moves. Null on rows from before it existed
+    @JsonIgnore
+    private Integer credentialVersion;
+
     private int resume_read;
     
     private int resume_write;
@@ -1,6 +1,7 @@
 package com.insurance.percert.service;
 
 import java.util.List;
+import java.util.Map;
 
 import com.insurance.percert.model.Authorization;
 
@@ -8,6 +9,9 @@ public interface AuthorizationService {
 
     Authorization createAuthorization(Authorization authorization);
 
+    // Saves drafts with consecutive uniqueAuthIds and the same default window as createAuthorization
+    List<Authorization> createDraftAuthorizations(List<Authorization> drafts);
+
     Authorization getAuthorizationById(Long id);
 
     List<Authorization> getAllAuthorizations();
@@ -43,6 +47,9 @@ public interface AuthorizationService {
 
     boolean validateCpt(Long requestId);
 
+    // Checks every listed request against the payer x CPT matrix; id -> auth required
+    Map<Long, Boolean> validateCptForAll(List<Long> requestIds);
+
     void invalidateCptForAll(List<Long> requestIds);
 
 
@@ -0,0 +1,20 @@
+package com.insurance.percert.service;
+
+import com.insurance.percert.model.AuthorizationUnitsDTO;
+import com.insurance.percert.model.Order;
+
+public interface AuthorizationUnitsService {
+
+    // Takes the order's units from an approved authorization covering its patient, code and dates, and
+    // records it on the order. Nothing happens when none covers it; 409 when every covering one is used up.
+    void consume(Order order);
+
+    // The same, with the patient's id already known
+    void consume(Order order, long patientId);
+
+    // Gives back what the order took, if anything
+    void release(Order order);
+
+    // Null when the authorization does not exist
+    AuthorizationUnitsDTO getUnits(Long authorizationId);
+}
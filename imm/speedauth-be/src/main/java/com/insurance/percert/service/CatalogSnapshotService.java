@@ -0,0 +1,19 @@
+package com.insurance.percert.service;
+
+import com.insurance.percert.util.CatalogSnapshot;
+
+public interface CatalogSnapshotService {
+
+    CatalogSnapshot getIcdCodes();
+
+    CatalogSnapshot getIcdCatalog();
+
+    CatalogSnapshot getCptCodes();
+
+    CatalogSnapshot getCptCatalog();
+
+    // Called after a write to icd_master / cpt_master has committed
+    void icdChanged();
+
+    void cptChanged();
+}
@@ -0,0 +1,17 @@
+package com.insurance.percert.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+
+public interface Claim837Service {
+
+    String PROFESSIONAL = "P";
+    String INSTITUTIONAL = "I";
+
+    // Claims dated from..to (all practices when practiceId is null) that would go into the file
+    long countClaims(String type, LocalDate from, LocalDate to, Long practiceId);
+
+    // Writes one 837P or 837I interchange for those claims, one transaction set per payer
+    void write837(String type, LocalDate from, LocalDate to, Long practiceId, OutputStream out) throws IOException;
+}
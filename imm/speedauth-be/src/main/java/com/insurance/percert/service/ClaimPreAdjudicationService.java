@@ -0,0 +1,19 @@
+package com.insurance.percert.service;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import com.insurance.percert.model.ClaimCheckDTO;
+
+public interface ClaimPreAdjudicationService {
+
+    // One result per id, in the order given; with assign, lines that pass are saved with the authorization they fit
+    List<ClaimCheckDTO> check(List<Long> claimIds, boolean assign);
+
+    // Approved authorizations of the patient for the code whose window covers from..to, soonest ending first
+    List<Long> coveringAuthorizations(long patientId, String code, LocalDate from, LocalDate to);
+
+    // Approved authorizations changed; the window index is rebuilt before the next check after the
+    // caller's transaction commits (at once when there is none)
+    void authorizationsChanged();
+}
@@ -0,0 +1,20 @@
+package com.insurance.percert.service;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import com.insurance.percert.model.CodeSetVersionEntity;
+import com.insurance.percert.model.CodeValidationDTO;
+
+public interface CodeSetVersionService {
+
+    // Registers a release file and loads it in the background
+    CodeSetVersionEntity register(String codeSystem, String version, LocalDate effectiveFrom, String fileName);
+
+    List<CodeSetVersionEntity> getVersions();
+
+    CodeValidationDTO lookup(String codeSystem, String code, LocalDate dateOfService);
+
+    // Checks the order's ICD, CPT and J-codes against the releases in effect on its date of service
+    List<CodeValidationDTO> validateOrder(Long orderId);
+}
@@ -0,0 +1,14 @@
+package com.insurance.percert.service;
+
+import com.insurance.percert.model.CptAuthMatrixStatusDTO;
+
+public interface CptAuthMatrixService {
+
+    // True when any CPT/HCPCS code in the list needs prior authorization for the payer
+    boolean authRequired(String payerId, String procedureCodes);
+
+    // Re-reads cpt.auth-matrix.file and swaps the new matrix in
+    CptAuthMatrixStatusDTO reload();
+
+    CptAuthMatrixStatusDTO getStatus();
+}
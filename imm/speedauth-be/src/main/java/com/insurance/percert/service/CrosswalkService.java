@@ -0,0 +1,20 @@
+package com.insurance.percert.service;
+
+import java.util.List;
+
+import com.insurance.percert.model.CrosswalkDrugDTO;
+import com.insurance.percert.model.DrugSummaryDTO;
+
+public interface CrosswalkService {
+
+    // Null when the drug is unknown
+    CrosswalkDrugDTO getDrug(Long drugId);
+
+    // Drugs valid for the ICD code and/or the CPT code
+    List<DrugSummaryDTO> getDrugs(String icdCode, String cptCode);
+
+    List<String> getCptCodesForIcd(String icdCode);
+
+    // Re-reads one drug's links after it was created, updated or deleted
+    void drugChanged(Long drugId);
+}
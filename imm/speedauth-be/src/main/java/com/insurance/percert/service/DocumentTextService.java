@@ -0,0 +1,12 @@
+package com.insurance.percert.service;
+
+import java.util.List;
+
+import com.insurance.percert.model.DocumentSearchResultDTO;
+
+public interface DocumentTextService {
+
+    List<DocumentSearchResultDTO> search(Long patientId, String query, int limit);
+
+    int backfill();
+}
@@ -0,0 +1,22 @@
+package com.insurance.percert.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import com.insurance.percert.model.FileEntity;
+
+public interface FileStorageService {
+
+    FileEntity store(FileEntity fileEntity, InputStream content) throws IOException;
+
+    InputStream openStream(Long fileId) throws IOException;
+
+    // Bytes start..end of the file, both inclusive
+    InputStream openStream(Long fileId, long start, long end) throws IOException;
+
+    void deleteFile(Long fileId) throws IOException;
+
+    int collectGarbage();
+
+    int migrateLegacyData();
+}
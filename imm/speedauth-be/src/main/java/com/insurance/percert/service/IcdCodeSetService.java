@@ -0,0 +1,9 @@
+package com.insurance.percert.service;
+
+import com.insurance.percert.model.IcdLoadResultDTO;
+
+public interface IcdCodeSetService {
+
+    // Loads an ICD-10-CM order (or codes) file from the code set directory into icd_master
+    IcdLoadResultDTO load(String fileName);
+}
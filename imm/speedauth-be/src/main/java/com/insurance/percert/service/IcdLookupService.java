@@ -0,0 +1,27 @@
+package com.insurance.percert.service;
+
+import java.util.List;
+
+import com.insurance.percert.model.IcdCodeDTO;
+
+public interface IcdLookupService {
+
+    // Code-prefix or description-word completion, in code order
+    List<IcdCodeDTO> suggest(String query, int limit, boolean billableOnly);
+
+    IcdCodeDTO getCode(String code);
+
+    // Null when the code is unknown
+    List<IcdCodeDTO> getChildren(String code, boolean billableOnly);
+
+    IcdCodeDTO getParent(String code);
+
+    // Category down to the code itself
+    List<IcdCodeDTO> getPath(String code);
+
+    // Rebuilds the index now and swaps it in
+    void reload();
+
+    // Marks the index stale; it is rebuilt on the next refresh tick
+    void catalogChanged();
+}
@@ -0,0 +1,65 @@
+package com.insurance.percert.service;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import com.insurance.percert.index.TrigramIndex;
+import com.insurance.percert.model.DrugEntity;
+import com.insurance.percert.model.DrugSummaryDTO;
+import com.insurance.percert.model.Insurance;
+import com.insurance.percert.model.InsuranceSummaryDTO;
+import com.insurance.percert.model.Order;
+import com.insurance.percert.model.OrderSummaryDTO;
+import com.insurance.percert.model.PatientEntity;
+import com.insurance.percert.model.PatientMatchDTO;
+import com.insurance.percert.model.PatientSummaryDTO;
+import com.insurance.percert.model.ProviderEntity;
+import com.insurance.percert.model.ProviderSummaryDTO;
+
+public interface NameSearchService {
+
+    List<PatientSummaryDTO> searchPatients(String query, int limit);
+
+    List<ProviderSummaryDTO> searchProviders(String query, int limit);
+
+    List<InsuranceSummaryDTO> searchInsurances(String query, int limit);
+
+    // Ranked full-text search over drug name, J-code and description
+    List<DrugSummaryDTO> searchDrugs(String query, int limit);
+
+    List<DrugSummaryDTO> searchDrugDescriptions(String query, int limit);
+
+    // Typo- and sound-alike-tolerant lookup, for spotting an existing patient before creating a new one
+    List<PatientMatchDTO> matchPatients(String name, LocalDate dateOfBirth, int limit);
+
+    void patientSaved(PatientEntity patient);
+
+    void patientDeleted(Long patientId);
+
+    void providerSaved(ProviderEntity provider);
+
+    void providerDeleted(Long providerId);
+
+    void insuranceSaved(Insurance insurance);
+
+    void insuranceDeleted(Long insuranceId);
+
+    void drugSaved(DrugEntity drug);
+
+    void orderSaved(Order order);
+
+    void orderDeleted(Long orderId);
+
+    // False until the startup load finishes; callers then fall back to the database
+    boolean isReady();
+
+    TrigramIndex<PatientSummaryDTO> patientIndex();
+
+    TrigramIndex<ProviderSummaryDTO> providerIndex();
+
+    TrigramIndex<InsuranceSummaryDTO> insuranceIndex();
+
+    TrigramIndex<DrugSummaryDTO> drugIndex();
+
+    TrigramIndex<OrderSummaryDTO> orderIndex();
+}
@@ -0,0 +1,7 @@
+package com.insurance.percert.service;
+
+public interface OrderArchiveService {
+
+    // Moves orders soft-deleted longer than the retention period to orders_archive; returns how many moved
+    int archiveDeletedOrders();
+}
@@ -0,0 +1,15 @@
+package com.insurance.percert.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+public interface OrderImportService {
+
+    String NDJSON = "ndjson";
+    String CSV = "csv";
+
+    // Inserts the orders read from in (NDJSON or CSV with a header of Order property names),
+    // writing one NDJSON result per record to out as each batch completes
+    void importOrders(InputStream in, String format, OutputStream out) throws IOException;
+}
@@ -0,0 +1,13 @@
+package com.insurance.percert.service;
+
+import java.util.List;
+
+public interface OrderOutboxService {
+
+    // Records ORDER_CREATED events; call inside the transaction that inserts the orders
+    void ordersCreated(List<Long> orderIds);
+
+    // Handles every pending event now, raising draft authorizations where the payer requires them;
+    // returns how many events were handled
+    int processPending();
+}
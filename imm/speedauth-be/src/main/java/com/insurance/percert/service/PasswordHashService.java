@@ -0,0 +1,13 @@
+package com.insurance.percert.service;
+
+public interface PasswordHashService {
+
+    // BCrypt hash at the calibrated cost; 503 when the hashing pool is saturated
+    String hash(String rawPassword);
+
+    // Checks against a BCrypt hash, or a legacy plaintext value; 503 when the hashing pool is saturated
+    boolean matches(String rawPassword, String storedPassword);
+
+    // True for legacy plaintext and for hashes made at a lower cost than the current one
+    boolean needsRehash(String storedPassword);
+}
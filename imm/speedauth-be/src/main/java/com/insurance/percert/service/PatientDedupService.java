@@ -0,0 +1,19 @@
+package com.insurance.percert.service;
+
+import java.util.List;
+
+import com.insurance.percert.model.PatientEntity;
+import com.insurance.percert.model.PatientMergeCandidateEntity;
+
+public interface PatientDedupService {
+
+    // Rebuilds the pending merge list from the whole patient table; returns the number of candidates found
+    int detectDuplicates();
+
+    List<PatientMergeCandidateEntity> getCandidates(String status, int limit);
+
+    // Folds the duplicate record into the survivor and returns the survivor
+    PatientEntity merge(Long candidateId);
+
+    void reject(Long candidateId);
+}
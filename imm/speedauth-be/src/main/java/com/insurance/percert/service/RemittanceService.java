@@ -0,0 +1,12 @@
+package com.insurance.percert.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import com.insurance.percert.model.RemittanceResultDTO;
+
+public interface RemittanceService {
+
+    // Reads an 835 and updates the status, paid amount and adjustments of every claim it pays or denies
+    RemittanceResultDTO ingest835(InputStream in) throws IOException;
+}
@@ -0,0 +1,22 @@
+package com.insurance.percert.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import com.insurance.percert.model.UploadSessionEntity;
+
+public interface ResumableUploadService {
+
+    UploadSessionEntity createSession(Long patientId, String fileName, String fileType, String medicalFileType,
+            Long totalSize) throws IOException;
+
+    UploadSessionEntity getSession(String uploadId);
+
+    UploadSessionEntity appendChunk(String uploadId, long offset, InputStream content) throws IOException;
+
+    UploadSessionEntity completeSession(String uploadId) throws IOException;
+
+    void abortSession(String uploadId) throws IOException;
+
+    int expireIdleSessions();
+}
@@ -0,0 +1,17 @@
+package com.insurance.percert.service;
+
+import java.util.List;
+import java.util.Set;
+
+import com.insurance.percert.model.SuggestionDTO;
+
+public interface SearchSuggestService {
+
+    Set<String> TYPES = Set.of("patient", "provider", "insurance", "drug", "order");
+
+    /**
+     * Ranked suggestions across the requested types. A newer call with the same
+     * non-null clientKey cancels this one, which then throws CancellationException.
+     */
+    List<SuggestionDTO> suggest(String query, Set<String> types, int perType, String clientKey);
+}
@@ -0,0 +1,19 @@
+package com.insurance.percert.service;
+
+import com.insurance.percert.model.Practice;
+import com.insurance.percert.model.TokenClaimsDTO;
+import com.insurance.percert.model.TokenResponseDTO;
+import com.insurance.percert.model.UserEntity;
+
+public interface TokenService {
+
+    TokenResponseDTO issue(UserEntity user);
+
+    TokenResponseDTO issue(Practice practice);
+
+    // New token pair for a valid refresh token; the account is re-read so its current role is used. 401 otherwise
+    TokenResponseDTO refresh(String refreshToken);
+
+    // Claims of a valid, unexpired access token, else null; no database access
+    TokenClaimsDTO verifyAccess(String accessToken);
+}
@@ -2,17 +2,22 @@ package com.insurance.percert.serviceImplementation;
 
 import java.text.DecimalFormat;
 import java.time.LocalDate;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Random;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.insurance.percert.Repository.AuthorizationRepository;
 import com.insurance.percert.model.Authorization;
+import com.insurance.percert.model.Order;
 import com.insurance.percert.service.AuthorizationService;
+import com.insurance.percert.service.CptAuthMatrixService;
 
 @Service
 public class AuthorizationServiceImpl implements AuthorizationService {
@@ -20,6 +25,9 @@ public class AuthorizationServiceImpl implements AuthorizationService {
     @Autowired
     private AuthorizationRepository authorizationRepository;
 
+    @Autowired
+    private CptAuthMatrixService cptAuthMatrixService;
+
     private static final String AUTH_ID_PREFIX = "AUTH";
     private static final DecimalFormat idFormat = new DecimalFormat("000");
 
@@ -39,26 +47,36 @@ public class AuthorizationServiceImpl implements AuthorizationService {
     }
 
 
+    // Drafts raised from new orders: one uniqueAuthId lookup for the whole batch
+    @Override
+    @Transactional
+    public List<Authorization> createDraftAuthorizations(List<Authorization> drafts) {
+        int next = lastUniqueAuthNumber() + 1;
+        LocalDate currentDate = LocalDate.now();
+        for (Authorization authorization : drafts) {
+            authorization.setUniqueAuthId(AUTH_ID_PREFIX + idFormat.format(next++));
+            authorization.setAuthorizationStartDate(currentDate);
+            authorization.setAuthorizationEndDate(currentDate.plusWeeks(1));
+        }
+        return authorizationRepository.saveAll(drafts);
+    }
+
     private String generateNextUniqueAuthId() {
-        Optional<Authorization> lastAuth = authorizationRepository.findTopByOrderByUniqueAuthIdDesc();
-    
-        if (lastAuth.isPresent()) {
-            String lastId = lastAuth.get().getUniqueAuthId();
-    
-            if (lastId != null && lastId.startsWith(AUTH_ID_PREFIX)) {
-                try {
-                    int idNumber = Integer.parseInt(lastId.substring(AUTH_ID_PREFIX.length())); // Extract numeric part
-                    return AUTH_ID_PREFIX + idFormat.format(idNumber + 1); // Increment and format
-                } catch (NumberFormatException e) {
-                    System.err.println("Invalid uniqueAuthId format: " + lastId);
-                }
+        return AUTH_ID_PREFIX + idFormat.format(lastUniqueAuthNumber() + 1);
+    }
+
+    // Numeric part of the highest uniqueAuthId, 0 when there is none; AUTH001 comes next.
+    // Ids with a non-numeric suffix are skipped
+    private int lastUniqueAuthNumber() {
+        for (String lastId : authorizationRepository.findHighestUniqueAuthIds(PageRequest.of(0, 20))) {
+            try {
+                return Integer.parseInt(lastId.substring(AUTH_ID_PREFIX.length())); // Extract numeric part
+            } catch (NumberFormatException e) {
+                System.err.println("Invalid uniqueAuthId format: " + lastId);
             }
         }
-    
-        // If no valid lastId is found, start with AUTH001
-        return AUTH_ID_PREFIX + "001";
+        return 0;
     }
-    
 
     @Override
     public Authorization getAuthorizationById(Long id) {
@@ -251,32 +269,57 @@ public void validateProviders(List<Long> requestIds) {
 
     @Override
     public boolean validateCpt(Long requestId) {
-        // Generate a random eligibility status
-        boolean isValid = new Random().nextBoolean();
-        System.out.println("Random status: " + isValid);
-        System.out.println("Request ID: " + requestId);
-
-        // Fetch the Authorization record by ID or throw an exception if not found
         Authorization authorization = authorizationRepository.findByAuthorizationId(requestId)
                 .orElseThrow(() -> new RuntimeException("Provider Name not found for requestId: " + requestId));
 
-        System.out.println("iselgible");
-        System.out.println(isValid);
+        boolean isValid = applyCptRequirement(authorization);
+        authorizationRepository.save(authorization);
+        return isValid;
+    }
 
-        // Update the request status based on eligibility
-        // authorization.setRequestStatus(isEligible ? "Eligible" : "Not Eligible");
-        authorization.setRequestStatus(isValid ? "Auth Required" : "Auth Not Required");
-        if (isValid) {
-            System.out.println("Auth required");
-        } else {
+    @Override
+    @Transactional
+    public Map<Long, Boolean> validateCptForAll(List<Long> requestIds) {
+        Map<Long, Authorization> found = new LinkedHashMap<>();
+        for (Authorization authorization : authorizationRepository.findForCptValidation(requestIds)) {
+            found.put(authorization.getAuthorizationId(), authorization);
+        }
+        Map<Long, Boolean> results = new LinkedHashMap<>();
+        for (Long requestId : requestIds) {
+            Authorization authorization = found.get(requestId);
+            if (authorization == null) {
+                throw new RuntimeException("Request ID not found: " + requestId);
+            }
+            results.put(requestId, applyCptRequirement(authorization));
+        }
+        authorizationRepository.saveAll(found.values());
+        return results;
+    }
+
+    // Looks the payer and procedure codes up in the requirement matrix and sets
+    // the statuses; codes the payer does not require auth for are approved outright
+    private boolean applyCptRequirement(Authorization authorization) {
+        String payerId = authorization.getInsurance() != null ? authorization.getInsurance().getPayerId() : null;
+        boolean authRequired = cptAuthMatrixService.authRequired(payerId, procedureCodes(authorization));
+        authorization.setRequestStatus(authRequired ? "Auth Required" : "Auth Not Required");
+        if (!authRequired) {
             authorization.setApprovalStatus("Approved");
             authorization.setApprovalReason("The CPT does not require authorization, and the treatment will proceed.");
         }
+        return authRequired;
+    }
 
-        // Save the updated entity to the database
-        authorizationRepository.save(authorization);
-
-        return isValid;
+    // The codes on the request, else the CPT and J-code of the order it came from
+    private static String procedureCodes(Authorization authorization) {
+        if (authorization.getProcedureCodeAuth() != null && !authorization.getProcedureCodeAuth().isBlank()) {
+            return authorization.getProcedureCodeAuth();
+        }
+        Order order = authorization.getOrder();
+        if (order == null) {
+            return null;
+        }
+        return (order.getOrderCptCode() == null ? "" : order.getOrderCptCode()) + ","
+                + (order.getOrderJCode() == null ? "" : order.getOrderJCode());
     }
 
 
@@ -0,0 +1,123 @@
+package com.insurance.percert.serviceImplementation;
+
+import java.time.LocalDate;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.insurance.percert.Repository.PatientRepository;
+import com.insurance.percert.model.AuthorizationUnitsDTO;
+import com.insurance.percert.model.Order;
+import com.insurance.percert.service.AuthorizationUnitsService;
+import com.insurance.percert.service.ClaimPreAdjudicationService;
+import com.insurance.percert.util.SqlIdentifiers;
+
+/**
+ * Ledger of the units orders take from approved authorizations.
+ *
+ * Each authorization keeps its own running total in unitsUsed. Taking units
+ * is a single conditional UPDATE that only succeeds while the total stays
+ * within the approved units, so concurrent orders against one authorization
+ * are serialized by that row's lock alone, and orders against different
+ * authorizations never wait on each other. Remaining units are one
+ * primary-key read. Callers run these inside the transaction that saves the
+ * order, so a failed save gives the units back.
+ */
+@Service
+public class AuthorizationUnitsServiceImpl implements AuthorizationUnitsService {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private ClaimPreAdjudicationService claimPreAdjudicationService;
+
+    @Override
+    public void consume(Order order) {
+        if (!needsUnits(order)) {
+            return;
+        }
+        patientRepository.findByCustomPatientId(order.getUniquepatientI().trim())
+                .ifPresent(patient -> consume(order, patient.getPatientId()));
+    }
+
+    @Override
+    public void consume(Order order, long patientId) {
+        if (!needsUnits(order)) {
+            return;
+        }
+        LocalDate from = order.getFromDateOfService();
+        LocalDate to = order.getToDateOfService() != null ? order.getToDateOfService() : from;
+        // Drug orders count units of the J-code; others of the CPT
+        Set<Long> candidates = new LinkedHashSet<>();
+        for (String code : new String[] { order.getOrderJCode(), order.getOrderCptCode() }) {
+            if (code != null && !code.isBlank()) {
+                candidates.addAll(claimPreAdjudicationService.coveringAuthorizations(patientId, code, from, to));
+            }
+        }
+        if (candidates.isEmpty()) {
+            return;
+        }
+        String q = SqlIdentifiers.quoteString(jdbcTemplate);
+        String table = SqlIdentifiers.quote(q, "authorization");
+        String units = SqlIdentifiers.quote(q, "units");
+        String unitsUsed = SqlIdentifiers.quote(q, "unitsUsed");
+        String sql = "UPDATE " + table + " SET " + unitsUsed + " = COALESCE(" + unitsUsed + ", 0) + ? WHERE "
+                + SqlIdentifiers.quote(q, "authorizationId") + " = ? AND (" + units + " IS NULL OR COALESCE("
+                + unitsUsed + ", 0) + ? <= " + units + ")";
+        for (Long authorizationId : candidates) {
+            if (jdbcTemplate.update(sql, order.getUnits(), authorizationId, order.getUnits()) == 1) {
+                order.setConsumedAuthorizationId(authorizationId);
+                order.setConsumedUnits(order.getUnits());
+                return;
+            }
+        }
+        throw new ResponseStatusException(HttpStatus.CONFLICT, "Not enough authorized units left for "
+                + order.getUnits() + " units; covering authorizations " + candidates + " are used up");
+    }
+
+    @Override
+    public void release(Order order) {
+        Long authorizationId = order.getConsumedAuthorizationId();
+        Integer consumed = order.getConsumedUnits();
+        if (authorizationId == null || consumed == null || consumed <= 0) {
+            return;
+        }
+        String q = SqlIdentifiers.quoteString(jdbcTemplate);
+        String unitsUsed = SqlIdentifiers.quote(q, "unitsUsed");
+        jdbcTemplate.update("UPDATE " + SqlIdentifiers.quote(q, "authorization") + " SET " + unitsUsed
+                + " = CASE WHEN COALESCE(" + unitsUsed + ", 0) > ? THEN " + unitsUsed + " - ? ELSE 0 END WHERE "
+                + SqlIdentifiers.quote(q, "authorizationId") + " = ?", consumed, consumed, authorizationId);
+        order.setConsumedAuthorizationId(null);
+        order.setConsumedUnits(null);
+    }
+
+    @Override
+    public AuthorizationUnitsDTO getUnits(Long authorizationId) {
+        String q = SqlIdentifiers.quoteString(jdbcTemplate);
+        List<AuthorizationUnitsDTO> rows = jdbcTemplate.query("SELECT " + SqlIdentifiers.quote(q, "units") + ", "
+                + SqlIdentifiers.quote(q, "unitsUsed") + " FROM " + SqlIdentifiers.quote(q, "authorization")
+                + " WHERE " + SqlIdentifiers.quote(q, "authorizationId") + " = ?", (rs, i) -> {
+                    int units = rs.getInt(1);
+                    Integer cap = rs.wasNull() ? null : units;
+                    int used = rs.getInt(2);
+                    return new AuthorizationUnitsDTO(authorizationId, cap, used, cap == null ? null : cap - used);
+                }, authorizationId);
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
+    private static boolean needsUnits(Order order) {
+        return order.getUnits() > 0 && order.getConsumedAuthorizationId() == null
+                && order.getUniquepatientI() != null && !order.getUniquepatientI().isBlank()
+                && order.getFromDateOfService() != null;
+    }
+}
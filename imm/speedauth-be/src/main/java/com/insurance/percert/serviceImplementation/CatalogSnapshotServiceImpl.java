@@ -0,0 +1,100 @@
+package com.insurance.percert.serviceImplementation;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.insurance.percert.Repository.CptOrProcedureRepository;
+import com.insurance.percert.Repository.IcdRepository;
+import com.insurance.percert.service.CatalogSnapshotService;
+import com.insurance.percert.util.CatalogSnapshot;
+
+/**
+ * Serialized snapshots of the ICD and CPT catalogs for the list endpoints.
+ * Each catalog has a version that writes bump; a snapshot remembers the
+ * version it was built from and is rebuilt on the first read after it goes
+ * stale. The version is read before the catalog is queried, so a write that
+ * lands mid-build leaves the new snapshot already stale rather than lost.
+ */
+@Service
+public class CatalogSnapshotServiceImpl implements CatalogSnapshotService {
+
+    @Autowired
+    private IcdRepository icdRepository;
+
+    @Autowired
+    private CptOrProcedureRepository cptRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final AtomicLong icdVersion = new AtomicLong();
+    private final AtomicLong cptVersion = new AtomicLong();
+
+    private final Slot icdCodes = new Slot();
+    private final Slot icdCatalog = new Slot();
+    private final Slot cptCodes = new Slot();
+    private final Slot cptCatalog = new Slot();
+
+    private record Built(long version, CatalogSnapshot snapshot) {
+    }
+
+    private static final class Slot {
+        private final AtomicReference<Built> built = new AtomicReference<>();
+    }
+
+    @Override
+    public CatalogSnapshot getIcdCodes() {
+        return get("ICD codes", icdCodes, icdVersion, icdRepository::findAllIcdCodes);
+    }
+
+    @Override
+    public CatalogSnapshot getIcdCatalog() {
+        return get("ICD catalog", icdCatalog, icdVersion, icdRepository::findAll);
+    }
+
+    @Override
+    public CatalogSnapshot getCptCodes() {
+        return get("CPT codes", cptCodes, cptVersion, cptRepository::findAllCptCodes);
+    }
+
+    @Override
+    public CatalogSnapshot getCptCatalog() {
+        return get("CPT catalog", cptCatalog, cptVersion, cptRepository::findAll);
+    }
+
+    @Override
+    public void icdChanged() {
+        icdVersion.incrementAndGet();
+    }
+
+    @Override
+    public void cptChanged() {
+        cptVersion.incrementAndGet();
+    }
+
+    private CatalogSnapshot get(String name, Slot slot, AtomicLong version, Supplier<Object> loader) {
+        Built current = slot.built.get();
+        if (current != null && current.version() == version.get()) {
+            return current.snapshot();
+        }
+        // One rebuild per slot at a time; the others wait for it rather than query too
+        synchronized (slot) {
+            current = slot.built.get();
+            long wanted = version.get();
+            if (current != null && current.version() == wanted) {
+                return current.snapshot();
+            }
+            long started = System.currentTimeMillis();
+            CatalogSnapshot snapshot = CatalogSnapshot.of(objectMapper, loader.get());
+            slot.built.set(new Built(wanted, snapshot));
+            System.out.println("Built " + name + " snapshot: " + snapshot.size() + " bytes, " + snapshot.gzipSize()
+                    + " gzipped in " + (System.currentTimeMillis() - started) + " ms");
+            return snapshot;
+        }
+    }
+}
@@ -0,0 +1,439 @@
+package com.insurance.percert.serviceImplementation;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.insurance.percert.Repository.EDIRepo;
+import com.insurance.percert.model.EDIEntity;
+import com.insurance.percert.service.Claim837Service;
+import com.insurance.percert.util.IcdCodes;
+import com.insurance.percert.util.SqlIdentifiers;
+import com.insurance.percert.util.X12Writer;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Generates 837P (005010X222A1) and 837I (005010X223A2) claim files.
+ *
+ * Claims are read with one streaming query, ordered by payer, billing
+ * provider and patient, and written out as they arrive: a transaction set per
+ * payer, an HL 20 per billing provider (the practice when the authorization
+ * has one, else the provider) and an HL 22 per patient, who is always the
+ * subscriber here. Only the current payer, provider and patient are held, so
+ * memory does not grow with the number of claims.
+ *
+ * Each claim is billed under the authorization it was pre-adjudicated against;
+ * claims without one are not included. Every interchange is recorded in
+ * EDI_Details, and that row's id is the interchange control number.
+ */
+@Service
+public class Claim837ServiceImpl implements Claim837Service {
+
+    private static final DateTimeFormatter D8 = DateTimeFormatter.ofPattern("yyyyMMdd");
+    private static final int FETCH_SIZE = 500;
+    // Connector/J ignores ordinary fetch sizes and buffers the whole result unless
+    // useCursorFetch is set; this value makes it stream row by row instead
+    private static final int MYSQL_STREAMING_FETCH_SIZE = Integer.MIN_VALUE;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EDIRepo ediRepository;
+
+    @Value("${x12.sender-id:YOURGSID}")
+    private String senderId;
+
+    @Value("${x12.receiver-id:INSURANCE}")
+    private String receiverId;
+
+    @Value("${x12.submitter-name:SPEEDAUTH}")
+    private String submitterName;
+
+    @Value("${x12.submitter-phone:0000000000}")
+    private String submitterPhone;
+
+    @Value("${x12.usage-indicator:P}")
+    private String usageIndicator;
+
+    private TransactionTemplate readOnly;
+
+    @PostConstruct
+    void init() {
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+    }
+
+    @Override
+    public long countClaims(String type, LocalDate from, LocalDate to, Long practiceId) {
+        Query query = query(type, from, to, practiceId, true);
+        Long count = jdbcTemplate.queryForObject(query.sql(), Long.class, query.args().toArray());
+        return count == null ? 0 : count;
+    }
+
+    @Override
+    public void write837(String type, LocalDate from, LocalDate to, Long practiceId, OutputStream out)
+            throws IOException {
+        long started = System.currentTimeMillis();
+        boolean institutional = INSTITUTIONAL.equals(type);
+        String transactionType = institutional ? "837I" : "837P";
+
+        EDIEntity record = new EDIEntity();
+        record.setTransactionType(transactionType);
+        record.setReceiverId(receiverId);
+        record.setCreatedAt(LocalDateTime.now());
+        record.setDocumentContent(transactionType + " claims " + from + ".." + to + ": started");
+        record = ediRepository.save(record);
+        long controlNumber = record.getId();
+        record.setTransactionId("ISA-" + X12Writer.controlNumber(controlNumber, 9));
+
+        BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.US_ASCII), 1 << 16);
+        Interchange interchange = new Interchange(new X12Writer(writer, X12Writer.TERMINATOR), institutional,
+                controlNumber);
+        Query query = query(type, from, to, practiceId, false);
+        try {
+            try {
+                readOnly.executeWithoutResult(status -> jdbcTemplate.query(connection -> {
+                    PreparedStatement ps = connection.prepareStatement(query.sql(), ResultSet.TYPE_FORWARD_ONLY,
+                            ResultSet.CONCUR_READ_ONLY);
+                    boolean mysql = connection.getMetaData().getDatabaseProductName().toLowerCase().contains("mysql");
+                    ps.setFetchSize(mysql ? MYSQL_STREAMING_FETCH_SIZE : FETCH_SIZE);
+                    for (int i = 0; i < query.args().size(); i++) {
+                        ps.setObject(i + 1, query.args().get(i));
+                    }
+                    return ps;
+                }, (ResultSet rs) -> {
+                    try {
+                        interchange.claim(rs);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }));
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            interchange.finish();
+            writer.flush();
+        } catch (IOException | RuntimeException e) {
+            // Leave a record of the attempt rather than one stuck at "started"
+            record.setDocumentContent(transactionType + " claims " + from + ".." + to + ": failed after "
+                    + interchange.claims + " claims: " + e.getMessage());
+            ediRepository.save(record);
+            throw e;
+        }
+
+        record.setDocumentContent(transactionType + " claims " + from + ".." + to + ": " + interchange.claims
+                + " claims, " + interchange.transactionSets + " payers");
+        ediRepository.save(record);
+        System.out.println("Generated " + transactionType + " interchange " + controlNumber + ": " + interchange.claims
+                + " claims for " + interchange.transactionSets + " payers in " + (System.currentTimeMillis() - started)
+                + " ms");
+    }
+
+    private record Query(String sql, List<Object> args) {
+    }
+
+    private Query query(String type, LocalDate from, LocalDate to, Long practiceId, boolean count) {
+        String q = SqlIdentifiers.quoteString(jdbcTemplate);
+        String select = count ? "SELECT COUNT(*)"
+                : "SELECT c." + col(q, "claimId") + ", c." + col(q, "cptCode") + ", c." + col(q, "units") + ", c."
+                        + col(q, "serviceFromDate") + ", c." + col(q, "serviceToDate") + ", c." + col(q, "billedAmount")
+                        + ", a." + col(q, "authorizationId") + ", a." + col(q, "uniqueAuthId") + ", a."
+                        + col(q, "icdCodeAuth") + ", a." + col(q, "icdCodeList")
+                        + ", i." + col(q, "insuranceId") + ", i." + col(q, "payerId") + ", i." + col(q, "payerName")
+                        + ", i." + col(q, "name")
+                        + ", pr." + col(q, "provider_id") + ", pr." + col(q, "provider_name") + ", pr."
+                        + col(q, "first_name") + ", pr." + col(q, "last_name") + ", pr." + col(q, "npi_number")
+                        + ", pr." + col(q, "tax_id")
+                        + ", pc." + col(q, "practiceId") + ", pc." + col(q, "nameOfPractice") + ", pc."
+                        + col(q, "practiceNpiNumber") + ", pc." + col(q, "taxId") + ", pc." + col(q, "address")
+                        + ", pt." + col(q, "patient_id") + ", pt." + col(q, "first_name") + ", pt."
+                        + col(q, "last_name") + ", pt." + col(q, "full_name") + ", pt." + col(q, "date_of_birth")
+                        + ", pt." + col(q, "gender") + ", pt." + col(q, "subscriber_id") + ", pt."
+                        + col(q, "primary_policy_number") + ", pt." + col(q, "custom_patient_id");
+        StringBuilder sql = new StringBuilder(select)
+                .append(" FROM ").append(col(q, "claims_details")).append(" c")
+                .append(" JOIN ").append(col(q, "authorization")).append(" a ON a.").append(col(q, "authorizationId"))
+                .append(" = c.").append(col(q, "authorizationId"))
+                .append(" JOIN ").append(col(q, "patient_details")).append(" pt ON pt.").append(col(q, "patient_id"))
+                .append(" = c.").append(col(q, "patientId"))
+                .append(" JOIN ").append(col(q, "insurance_details")).append(" i ON i.").append(col(q, "insuranceId"))
+                .append(" = a.").append(col(q, "insurance_id"))
+                .append(" LEFT JOIN ").append(col(q, "provider_details")).append(" pr ON pr.")
+                .append(col(q, "provider_id")).append(" = a.").append(col(q, "provider_id"))
+                .append(" LEFT JOIN ").append(col(q, "practice_details")).append(" pc ON pc.")
+                .append(col(q, "practiceId")).append(" = a.").append(col(q, "practice_id"))
+                .append(" WHERE c.").append(col(q, "claimDate")).append(" BETWEEN ? AND ?")
+                .append(" AND (c.").append(col(q, "claimStatus")).append(" IS NULL OR UPPER(c.")
+                .append(col(q, "claimStatus")).append(") NOT IN ('DENIED', 'VOID', 'REJECTED'))")
+                // claimType decides which file a claim goes in; anything not institutional is professional
+                .append(" AND ").append(INSTITUTIONAL.equals(type) ? "" : "NOT ").append("COALESCE(UPPER(c.")
+                .append(col(q, "claimType")).append("), '') IN ('I', 'INSTITUTIONAL', '837I')");
+        List<Object> args = new ArrayList<>(List.of(Date.valueOf(from), Date.valueOf(to)));
+        if (practiceId != null) {
+            sql.append(" AND a.").append(col(q, "practice_id")).append(" = ?");
+            args.add(practiceId);
+        }
+        if (!count) {
+            // Sorted by the billing provider key Interchange uses (the practice, else the provider), so a
+            // patient's claims under one billing provider are contiguous and get a single HL 22 loop
+            String practice = "pc." + col(q, "practiceId");
+            sql.append(" ORDER BY i.").append(col(q, "payerId")).append(", i.").append(col(q, "insuranceId"))
+                    .append(", CASE WHEN ").append(practice).append(" IS NULL THEN 1 ELSE 0 END, ").append(practice)
+                    .append(", CASE WHEN ").append(practice).append(" IS NULL THEN pr.").append(col(q, "provider_id"))
+                    .append(" END, pt.").append(col(q, "patient_id")).append(", c.").append(col(q, "claimId"));
+        }
+        return new Query(sql.toString(), args);
+    }
+
+    private static String col(String q, String name) {
+        return SqlIdentifiers.quote(q, name);
+    }
+
+    // Writes one interchange as rows arrive in payer, billing provider, patient order
+    private class Interchange {
+        private final X12Writer x12;
+        private final boolean institutional;
+        private final long controlNumber;
+        private final LocalDateTime now = LocalDateTime.now();
+        private String payerKey;
+        private String billingKey;
+        private Long patientId;
+        private int hl;
+        private int billingHl;
+        private int transactionSets;
+        private long claims;
+
+        private Interchange(X12Writer x12, boolean institutional, long controlNumber) {
+            this.x12 = x12;
+            this.institutional = institutional;
+            this.controlNumber = controlNumber;
+        }
+
+        void claim(ResultSet rs) throws SQLException, IOException {
+            if (claims == 0) {
+                header();
+            }
+            String payerId = rs.getString(12);
+            String payer = payerId != null ? "P" + payerId : "I" + rs.getLong(11);
+            if (!payer.equals(payerKey)) {
+                if (payerKey != null) {
+                    endTransaction();
+                }
+                payerKey = payer;
+                billingKey = null;
+                startTransaction();
+            }
+            long practiceId = rs.getLong(21);
+            boolean hasPractice = !rs.wasNull();
+            String billing = hasPractice ? "G" + practiceId : "P" + rs.getLong(15);
+            if (!billing.equals(billingKey)) {
+                billingKey = billing;
+                patientId = null;
+                billingProvider(rs, hasPractice);
+            }
+            long patient = rs.getLong(26);
+            if (!Objects.equals(patient, patientId)) {
+                patientId = patient;
+                subscriber(rs);
+            }
+            claimLoop(rs, hasPractice);
+            claims++;
+        }
+
+        private void header() throws IOException {
+            String control = X12Writer.controlNumber(controlNumber, 9);
+            x12.segment("ISA", "00", X12Writer.fixed("", 10), "00", X12Writer.fixed("", 10), "ZZ",
+                    X12Writer.fixed(senderId, 15), "ZZ", X12Writer.fixed(receiverId, 15),
+                    now.format(DateTimeFormatter.ofPattern("yyMMdd")), now.format(DateTimeFormatter.ofPattern("HHmm")),
+                    "^", "00501", control, "0", usageIndicator, ":");
+            x12.segment("GS", "HC", senderId, receiverId, now.format(D8), now.format(DateTimeFormatter.ofPattern("HHmm")),
+                    Long.toString(controlNumber), "X", version());
+        }
+
+        private String version() {
+            return institutional ? "005010X223A2" : "005010X222A1";
+        }
+
+        private void startTransaction() throws IOException {
+            transactionSets++;
+            hl = 0;
+            String st = X12Writer.controlNumber(transactionSets, 4);
+            x12.startTransaction();
+            x12.segment("ST", "837", st, version());
+            x12.segment("BHT", "0019", "00", controlNumber + "-" + st, now.format(D8),
+                    now.format(DateTimeFormatter.ofPattern("HHmm")), "CH");
+            // 1000A submitter, 1000B receiver
+            x12.segment("NM1", "41", "2", submitterName, "", "", "", "", "46", senderId);
+            x12.segment("PER", "IC", submitterName, "TE", submitterPhone);
+            x12.segment("NM1", "40", "2", receiverId, "", "", "", "", "46", receiverId);
+        }
+
+        private void endTransaction() throws IOException {
+            x12.segment("SE", String.valueOf(x12.transactionSegmentCountWithTrailer()),
+                    X12Writer.controlNumber(transactionSets, 4));
+        }
+
+        // 2000A / 2010AA
+        private void billingProvider(ResultSet rs, boolean hasPractice) throws SQLException, IOException {
+            billingHl = ++hl;
+            x12.segment("HL", String.valueOf(billingHl), "", "20", "1");
+            String name = hasPractice ? rs.getString(22) : rs.getString(16);
+            String npi = hasPractice ? rs.getString(23) : rs.getString(19);
+            String taxId = hasPractice ? rs.getString(24) : rs.getString(20);
+            x12.segment("NM1", "85", "2", name, "", "", "", "", "XX", npi);
+            String address = hasPractice ? rs.getString(25) : null;
+            if (address != null && !address.isBlank()) {
+                x12.segment("N3", address);
+            }
+            if (taxId != null && !taxId.isBlank()) {
+                x12.segment("REF", "EI", taxId.replace("-", ""));
+            }
+        }
+
+        // 2000B / 2010BA / 2010BB; the patient is the subscriber, so the HL has no children
+        private void subscriber(ResultSet rs) throws SQLException, IOException {
+            x12.segment("HL", String.valueOf(++hl), String.valueOf(billingHl), "22", "0");
+            x12.segment("SBR", "P", "18", "", "", "", "", "", "", "CI");
+            String memberId = firstNonBlank(rs.getString(32), rs.getString(33), rs.getString(34));
+            String last = rs.getString(28);
+            String first = rs.getString(27);
+            if (last == null || last.isBlank()) {
+                last = rs.getString(29);
+                first = "";
+            }
+            x12.segment("NM1", "IL", "1", last, first, "", "", "", "MI", memberId);
+            Date dob = rs.getDate(30);
+            x12.segment("DMG", "D8", dob == null ? "" : dob.toLocalDate().format(D8), gender(rs.getString(31)));
+            String payerName = firstNonBlank(rs.getString(13), rs.getString(14));
+            String payerId = firstNonBlank(rs.getString(12), String.valueOf(rs.getLong(11)));
+            x12.segment("NM1", "PR", "2", payerName, "", "", "", "", "PI", payerId);
+        }
+
+        // 2300 claim, 2310 rendering/attending provider, 2400 service line
+        private void claimLoop(ResultSet rs, boolean hasPractice) throws SQLException, IOException {
+            BigDecimal billed = rs.getBigDecimal(6);
+            String amount = billed == null ? "0" : billed.stripTrailingZeros().toPlainString();
+            Date fromDate = rs.getDate(4);
+            Date toDate = rs.getDate(5);
+            LocalDate from = fromDate == null ? null : fromDate.toLocalDate();
+            LocalDate to = toDate == null ? from : toDate.toLocalDate();
+            int units = rs.getInt(3);
+            if (rs.wasNull() || units <= 0) {
+                units = 1;
+            }
+            String cpt = rs.getString(2);
+            String claimId = String.valueOf(rs.getLong(1));
+
+            if (institutional) {
+                x12.segment("CLM", claimId, amount, "", "", X12Writer.composite("13", "A", "1"), "", "A", "Y", "Y");
+                if (from != null) {
+                    x12.segment("DTP", "434", "RD8", from.format(D8) + "-" + to.format(D8));
+                }
+                x12.segment("CL1", "3", "1", "01");
+            } else {
+                x12.segment("CLM", claimId, amount, "", "", X12Writer.composite("11", "B", "1"), "Y", "A", "Y", "Y");
+            }
+            String authNumber = firstNonBlank(rs.getString(8), String.valueOf(rs.getLong(7)));
+            x12.segment("REF", "G1", authNumber);
+            diagnoses(rs.getString(9), rs.getString(10));
+            if (hasPractice && rs.getString(19) != null) {
+                String last = firstNonBlank(rs.getString(18), rs.getString(16));
+                x12.segment("NM1", institutional ? "71" : "82", "1", last, rs.getString(17), "", "", "", "XX",
+                        rs.getString(19));
+            }
+
+            x12.segment("LX", "1");
+            if (institutional) {
+                x12.segment("SV2", revenueCode(cpt), X12Writer.composite("HC", cpt), amount, "UN",
+                        String.valueOf(units));
+            } else {
+                x12.segment("SV1", X12Writer.composite("HC", cpt), amount, "UN", String.valueOf(units), "", "", "1");
+            }
+            if (from != null) {
+                x12.segment("DTP", "472", from.equals(to) ? "D8" : "RD8",
+                        from.equals(to) ? from.format(D8) : from.format(D8) + "-" + to.format(D8));
+            }
+        }
+
+        // Principal diagnosis first (ABK), then up to eleven others (ABF), without dots
+        private void diagnoses(String icdCodeAuth, String icdCodeList) throws IOException {
+            List<String> codes = new ArrayList<>();
+            for (String list : new String[] { icdCodeAuth, icdCodeList }) {
+                if (list == null) {
+                    continue;
+                }
+                for (String code : list.split("[,;\\s]+")) {
+                    String bare = IcdCodes.bare(code);
+                    if (!bare.isEmpty() && !codes.contains(bare) && codes.size() < 12) {
+                        codes.add(bare);
+                    }
+                }
+            }
+            if (codes.isEmpty()) {
+                return;
+            }
+            String[] elements = new String[codes.size()];
+            for (int i = 0; i < codes.size(); i++) {
+                elements[i] = X12Writer.composite(i == 0 ? "ABK" : "ABF", codes.get(i));
+            }
+            x12.segment("HI", elements);
+        }
+
+        void finish() throws IOException {
+            if (claims == 0) {
+                return;
+            }
+            endTransaction();
+            x12.segment("GE", String.valueOf(transactionSets), Long.toString(controlNumber));
+            x12.segment("IEA", "1", X12Writer.controlNumber(controlNumber, 9));
+        }
+    }
+
+    // J-codes are drugs that need detailed coding (0636); everything else bills as clinic (0510)
+    private static String revenueCode(String cpt) {
+        return cpt != null && cpt.trim().toUpperCase().startsWith("J") ? "0636" : "0510";
+    }
+
+    private static String gender(String gender) {
+        if (gender == null || gender.isBlank()) {
+            return "U";
+        }
+        char g = Character.toUpperCase(gender.trim().charAt(0));
+        return g == 'M' || g == 'F' ? String.valueOf(g) : "U";
+    }
+
+    private static String firstNonBlank(String... values) {
+        for (String value : values) {
+            if (value != null && !value.isBlank()) {
+                return value.trim();
+            }
+        }
+        return "";
+    }
+}
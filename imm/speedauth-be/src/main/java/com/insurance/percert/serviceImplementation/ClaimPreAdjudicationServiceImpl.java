@@ -0,0 +1,247 @@
+package com.insurance.percert.serviceImplementation;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.insurance.percert.Repository.AuthorizationRepository;
+import com.insurance.percert.Repository.ClaimRepository;
+import com.insurance.percert.index.AuthorizationWindowIndex;
+import com.insurance.percert.index.AuthorizationWindowIndex.Window;
+import com.insurance.percert.model.ClaimCheckDTO;
+import com.insurance.percert.model.ClaimEntity;
+import com.insurance.percert.service.ClaimPreAdjudicationService;
+
+/**
+ * Checks claim lines against approved authorizations before they are
+ * submitted: the patient must have an approved authorization for the CPT,
+ * one whose window covers the service dates, with enough units left.
+ *
+ * Authorization windows live in an {@link AuthorizationWindowIndex} that is
+ * rebuilt whenever an authorization changed since the last check. Matching
+ * lines to windows is a pure lookup and runs in parallel; handing out units
+ * is then done line by line in request order, so two lines in one batch
+ * cannot both spend the last units of an authorization. Units already billed
+ * by other claims count as used.
+ */
+@Service
+public class ClaimPreAdjudicationServiceImpl implements ClaimPreAdjudicationService {
+
+    @Autowired
+    private AuthorizationRepository authorizationRepository;
+
+    @Autowired
+    private ClaimRepository claimRepository;
+
+    private final AtomicReference<AuthorizationWindowIndex> index = new AtomicReference<>(AuthorizationWindowIndex.empty());
+    private final AtomicBoolean stale = new AtomicBoolean(true);
+
+    // A line's candidate windows, or its final result when it cannot be billed at all
+    private record Match(ClaimEntity claim, List<Window> windows, ClaimCheckDTO result) {
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        try {
+            current();
+        } catch (RuntimeException e) {
+            System.err.println("Authorization window index not loaded: " + e.getMessage());
+        }
+    }
+
+    // Marked after commit: a rebuild running before then would read the old rows
+    // and clear the flag, leaving the change out until the next one
+    @Override
+    public void authorizationsChanged() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    stale.set(true);
+                }
+            });
+        } else {
+            stale.set(true);
+        }
+    }
+
+    @Override
+    public List<Long> coveringAuthorizations(long patientId, String code, LocalDate from, LocalDate to) {
+        List<Long> ids = new ArrayList<>();
+        for (Window window : current().covering(patientId, code, from, to)) {
+            ids.add(window.authorizationId());
+        }
+        return ids;
+    }
+
+    @Override
+    public List<ClaimCheckDTO> check(List<Long> claimIds, boolean assign) {
+        if (claimIds == null || claimIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        AuthorizationWindowIndex windows = current();
+        Set<Long> ids = new LinkedHashSet<>(claimIds);
+        Map<Long, ClaimEntity> claims = claimRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(ClaimEntity::getClaimId, Function.identity()));
+
+        List<Match> matches = claimIds.parallelStream()
+                .map(id -> claims.containsKey(id) ? match(windows, claims.get(id))
+                        : new Match(null, null, new ClaimCheckDTO(id, ClaimCheckDTO.NOT_FOUND, null, null,
+                                "Claim not found")))
+                .toList();
+
+        // Units billed by claims outside this batch
+        Map<Long, Long> used = new HashMap<>();
+        for (Object[] row : claimRepository.sumUnitsByAuthorization(ids)) {
+            used.put((Long) row[0], row[1] == null ? 0L : ((Number) row[1]).longValue());
+        }
+
+        List<ClaimCheckDTO> results = new ArrayList<>(matches.size());
+        List<ClaimEntity> assigned = new ArrayList<>();
+        Set<Long> seen = new HashSet<>();
+        for (Match match : matches) {
+            if (match.result() != null) {
+                results.add(match.result());
+                continue;
+            }
+            ClaimEntity claim = match.claim();
+            if (!seen.add(claim.getClaimId())) {
+                results.add(new ClaimCheckDTO(claim.getClaimId(), ClaimCheckDTO.INCOMPLETE, null, null,
+                        "Claim listed more than once"));
+                continue;
+            }
+            ClaimCheckDTO result = allocate(windows, claim, match.windows(), used);
+            results.add(result);
+            if (assign && ClaimCheckDTO.OK.equals(result.getStatus())
+                    && !result.getAuthorizationId().equals(claim.getAuthorizationId())) {
+                claim.setAuthorizationId(result.getAuthorizationId());
+                assigned.add(claim);
+            }
+        }
+        if (!assigned.isEmpty()) {
+            claimRepository.saveAll(assigned);
+        }
+        return results;
+    }
+
+    private static Match match(AuthorizationWindowIndex windows, ClaimEntity claim) {
+        Long claimId = claim.getClaimId();
+        LocalDate from = claim.getServiceFromDate();
+        LocalDate to = claim.getServiceToDate() != null ? claim.getServiceToDate() : from;
+        if (claim.getPatientId() == null || claim.getCptCode() == null || claim.getCptCode().isBlank() || from == null) {
+            return new Match(claim, null, new ClaimCheckDTO(claimId, ClaimCheckDTO.INCOMPLETE, null, null,
+                    "patientId, cptCode and serviceFromDate are required"));
+        }
+        if (to.isBefore(from)) {
+            return new Match(claim, null, new ClaimCheckDTO(claimId, ClaimCheckDTO.INCOMPLETE, null, null,
+                    "serviceToDate is before serviceFromDate"));
+        }
+        long patientId = claim.getPatientId();
+        Long billedUnder = claim.getAuthorizationId();
+        if (!windows.hasAny(patientId, claim.getCptCode())
+                || billedUnder != null && !windows.contains(billedUnder)) {
+            return new Match(claim, null, new ClaimCheckDTO(claimId, ClaimCheckDTO.UNAUTHORIZED, billedUnder, null,
+                    billedUnder == null ? "No approved authorization for CPT " + claim.getCptCode()
+                            : "Authorization " + billedUnder + " is not approved"));
+        }
+        List<Window> covering = windows.covering(patientId, claim.getCptCode(), from, to);
+        if (billedUnder != null) {
+            covering.removeIf(window -> window.authorizationId() != billedUnder);
+        }
+        if (covering.isEmpty()) {
+            return new Match(claim, null, new ClaimCheckDTO(claimId, ClaimCheckDTO.OUT_OF_WINDOW, billedUnder, null,
+                    "Service dates " + from + " to " + to + " are outside the approved authorization window"));
+        }
+        return new Match(claim, covering, null);
+    }
+
+    // Takes the units from the first covering window, soonest ending first, that still has enough
+    private static ClaimCheckDTO allocate(AuthorizationWindowIndex windows, ClaimEntity claim, List<Window> covering,
+            Map<Long, Long> used) {
+        int units = claim.getUnits() == null ? 1 : Math.max(claim.getUnits(), 0);
+        Long bestRemaining = null;
+        for (Window window : covering) {
+            long authorizationId = window.authorizationId();
+            Integer approved = windows.units(authorizationId);
+            if (approved == null) {
+                return new ClaimCheckDTO(claim.getClaimId(), ClaimCheckDTO.OK, authorizationId, null, null);
+            }
+            long remaining = approved - used.getOrDefault(authorizationId, 0L);
+            if (remaining >= units) {
+                used.merge(authorizationId, (long) units, Long::sum);
+                return new ClaimCheckDTO(claim.getClaimId(), ClaimCheckDTO.OK, authorizationId,
+                        (int) (remaining - units), null);
+            }
+            bestRemaining = bestRemaining == null ? remaining : Math.max(bestRemaining, remaining);
+        }
+        return new ClaimCheckDTO(claim.getClaimId(), ClaimCheckDTO.OVER_UNITS, covering.get(0).authorizationId(),
+                (int) Math.max(0, bestRemaining), units + " units billed but at most " + Math.max(0, bestRemaining)
+                        + " remain on the covering authorizations");
+    }
+
+    // Rebuilds first when an authorization changed since the last build
+    private AuthorizationWindowIndex current() {
+        if (stale.get()) {
+            synchronized (this) {
+                if (stale.getAndSet(false)) {
+                    try {
+                        index.set(build());
+                    } catch (RuntimeException e) {
+                        stale.set(true);
+                        throw e;
+                    }
+                }
+            }
+        }
+        return index.get();
+    }
+
+    private AuthorizationWindowIndex build() {
+        long started = System.currentTimeMillis();
+        List<Window> windows = new ArrayList<>();
+        for (Object[] row : authorizationRepository.findApprovedWindows()) {
+            long authorizationId = (Long) row[0];
+            long patientId = ((Number) row[1]).longValue();
+            LocalDate start = (LocalDate) row[5];
+            LocalDate end = (LocalDate) row[6];
+            Integer units = (Integer) row[7];
+            for (String code : procedureCodes((String) row[2], (String) row[3], (String) row[4])) {
+                windows.add(new Window(authorizationId, patientId, code, start, end, units));
+            }
+        }
+        AuthorizationWindowIndex built = AuthorizationWindowIndex.build(windows);
+        System.out.println("Authorization window index built: " + built.authorizationCount() + " authorizations, "
+                + windows.size() + " windows in " + (System.currentTimeMillis() - started) + " ms");
+        return built;
+    }
+
+    // The codes on the authorization, else the CPT and J-code of its order
+    private static Set<String> procedureCodes(String procedureCodeAuth, String orderCpt, String orderJCode) {
+        String codes = procedureCodeAuth != null && !procedureCodeAuth.isBlank() ? procedureCodeAuth
+                : (orderCpt == null ? "" : orderCpt) + "," + (orderJCode == null ? "" : orderJCode);
+        Set<String> result = new LinkedHashSet<>();
+        for (String code : codes.split("[,;\\s]+")) {
+            String normalized = AuthorizationWindowIndex.normalize(code);
+            if (!normalized.isEmpty()) {
+                result.add(normalized);
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,201 @@
+package com.insurance.percert.serviceImplementation;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.insurance.percert.Repository.CodeSetVersionRepository;
+import com.insurance.percert.Repository.OrderRepository;
+import com.insurance.percert.index.CodeSetRegistry;
+import com.insurance.percert.index.CodeSetVersion;
+import com.insurance.percert.model.CodeSetVersionEntity;
+import com.insurance.percert.model.CodeValidationDTO;
+import com.insurance.percert.model.Order;
+import com.insurance.percert.service.CodeSetVersionService;
+import com.insurance.percert.util.CodeSetFiles;
+import com.insurance.percert.util.CodeSetFiles.CodeRow;
+
+/**
+ * Date-of-service aware code validation. Every registered release is parsed
+ * into an immutable {@link CodeSetVersion} on the load executor and then
+ * published by swapping in a new {@link CodeSetRegistry}; lookups just read
+ * the current registry, so a load never stalls them and they never see a
+ * half-loaded release.
+ */
+@Service
+public class CodeSetVersionServiceImpl implements CodeSetVersionService {
+
+    @Autowired
+    private CodeSetVersionRepository versionRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    @Qualifier("codeSetLoadExecutor")
+    private ThreadPoolTaskExecutor loadExecutor;
+
+    @Value("${icd.codeset.dir:codesets}")
+    private String codeSetDir;
+
+    private final AtomicReference<CodeSetRegistry> registry = new AtomicReference<>(CodeSetRegistry.empty());
+
+    // Releases registered before the restart are read back from their files
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadRegisteredVersions() {
+        for (CodeSetVersionEntity version : versionRepository.findByStatusNot("FAILED")) {
+            try {
+                submit(version.getId(), version.getCodeSystem(), version.getVersion(), version.getEffectiveFrom(),
+                        version.getFileName());
+            } catch (ResponseStatusException e) {
+                System.err.println("Code set " + version.getCodeSystem() + " " + version.getVersion()
+                        + " not reloaded: load queue full");
+            }
+        }
+    }
+
+    @Override
+    public CodeSetVersionEntity register(String codeSystem, String version, LocalDate effectiveFrom, String fileName) {
+        if (!CodeSetVersion.isKnownSystem(codeSystem)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Code system must be ICD10CM, CPT or HCPCS");
+        }
+        CodeSetFiles.resolve(codeSetDir, fileName);
+        // Registering the same system and start date again replaces that release
+        CodeSetVersionEntity entity = versionRepository.findByCodeSystemAndEffectiveFrom(codeSystem, effectiveFrom)
+                .orElseGet(CodeSetVersionEntity::new);
+        entity.setCodeSystem(codeSystem);
+        entity.setVersion(version);
+        entity.setEffectiveFrom(effectiveFrom);
+        entity.setFileName(fileName);
+        entity.setStatus("LOADING");
+        entity.setCodes(0);
+        entity.setMessage(null);
+        entity.setRegisteredAt(LocalDateTime.now());
+        entity.setLoadedAt(null);
+        CodeSetVersionEntity saved = versionRepository.save(entity);
+        submit(saved.getId(), codeSystem, version, effectiveFrom, fileName);
+        return saved;
+    }
+
+    private void submit(Long id, String codeSystem, String version, LocalDate effectiveFrom, String fileName) {
+        try {
+            loadExecutor.execute(() -> load(id, codeSystem, version, effectiveFrom, fileName));
+        } catch (TaskRejectedException e) {
+            finish(id, "FAILED", 0, "Load queue full; register the release again");
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many code set loads queued");
+        }
+    }
+
+    private void load(Long id, String codeSystem, String version, LocalDate effectiveFrom, String fileName) {
+        long started = System.currentTimeMillis();
+        try {
+            Path file = CodeSetFiles.resolve(codeSetDir, fileName);
+            List<CodeRow> rows = parse(file, CodeSetVersion.ICD10CM.equals(codeSystem)
+                    ? CodeSetFiles::parseIcdLine : CodeSetFiles::parseProcedureLine);
+            if (rows.isEmpty()) {
+                throw new IllegalStateException("No codes found in " + fileName);
+            }
+            CodeSetVersion loaded = new CodeSetVersion(codeSystem, version, effectiveFrom, rows);
+            registry.updateAndGet(current -> current.with(loaded));
+            finish(id, "ACTIVE", loaded.size(), null);
+            System.out.println("Code set " + codeSystem + " " + version + " (from " + effectiveFrom + ") published: "
+                    + loaded.size() + " codes in " + (System.currentTimeMillis() - started) + " ms");
+        } catch (RuntimeException e) {
+            System.err.println("Failed to load code set " + codeSystem + " " + version + " from " + fileName + ": "
+                    + e.getMessage());
+            finish(id, "FAILED", 0, e.getMessage());
+        }
+    }
+
+    // ISO-8859-1 maps every byte to one char, so the lines can be split across threads
+    private static List<CodeRow> parse(Path file, Function<String, CodeRow> parser) {
+        try (Stream<String> lines = Files.lines(file, StandardCharsets.ISO_8859_1)) {
+            return lines.parallel().map(parser).filter(Objects::nonNull).toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read " + file, e);
+        }
+    }
+
+    private void finish(Long id, String status, int codes, String message) {
+        versionRepository.findById(id).ifPresent(entity -> {
+            entity.setStatus(status);
+            entity.setCodes(codes);
+            entity.setMessage(message);
+            entity.setLoadedAt(LocalDateTime.now());
+            versionRepository.save(entity);
+        });
+    }
+
+    @Override
+    public List<CodeSetVersionEntity> getVersions() {
+        return versionRepository.findAllByOrderByCodeSystemAscEffectiveFromAsc();
+    }
+
+    @Override
+    public CodeValidationDTO lookup(String codeSystem, String code, LocalDate dateOfService) {
+        return check(registry.get(), codeSystem, code, dateOfService);
+    }
+
+    @Override
+    public List<CodeValidationDTO> validateOrder(Long orderId) {
+        Order order = orderRepository.findById(orderId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Order not found: " + orderId));
+        LocalDate dateOfService = order.getFromDateOfService() != null ? order.getFromDateOfService() : LocalDate.now();
+        // One registry for the whole order, so all its codes are judged by the same releases
+        CodeSetRegistry current = registry.get();
+        List<CodeValidationDTO> results = new ArrayList<>();
+        for (String code : codes(order.getOrderIcdCode())) {
+            results.add(check(current, CodeSetVersion.ICD10CM, code, dateOfService));
+        }
+        List<String> procedures = codes(order.getOrderCptCode());
+        procedures.addAll(codes(order.getOrderJCode()));
+        for (String code : procedures) {
+            // Level II codes start with a letter, whichever field they were entered in
+            String system = Character.isLetter(code.charAt(0)) ? CodeSetVersion.HCPCS : CodeSetVersion.CPT;
+            results.add(check(current, system, code, dateOfService));
+        }
+        return results;
+    }
+
+    private static CodeValidationDTO check(CodeSetRegistry current, String codeSystem, String code, LocalDate date) {
+        CodeSetVersion version = current.versionOn(codeSystem, date);
+        if (version == null) {
+            return new CodeValidationDTO(codeSystem, code, date, null, null, null);
+        }
+        String description = version.description(code);
+        return new CodeValidationDTO(codeSystem, code, date, version.getVersion(), description != null, description);
+    }
+
+    private static List<String> codes(String field) {
+        List<String> codes = new ArrayList<>();
+        if (field != null) {
+            for (String token : field.split("[,;\\s]+")) {
+                if (!token.isBlank()) {
+                    codes.add(token.trim());
+                }
+            }
+        }
+        return codes;
+    }
+}
@@ -0,0 +1,84 @@
+package com.insurance.percert.serviceImplementation;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.insurance.percert.index.CptAuthMatrix;
+import com.insurance.percert.model.CptAuthMatrixStatusDTO;
+import com.insurance.percert.service.CptAuthMatrixService;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Holds the payer x CPT requirement matrix loaded from cpt.auth-matrix.file.
+ * A reload parses the whole file into a new {@link CptAuthMatrix} before
+ * swapping it in, so a bad file leaves the current matrix in place. Until a
+ * matrix loads, every code requires authorization.
+ */
+@Service
+public class CptAuthMatrixServiceImpl implements CptAuthMatrixService {
+
+    @Value("${cpt.auth-matrix.file:codesets/cpt_auth_matrix.csv}")
+    private String matrixFile;
+
+    private final AtomicReference<CptAuthMatrix> matrix = new AtomicReference<>(CptAuthMatrix.empty());
+    private volatile CptAuthMatrixStatusDTO status;
+
+    @PostConstruct
+    void loadMatrix() {
+        status = new CptAuthMatrixStatusDTO(matrixFile, 0, 0, 0, 0);
+        if (!Files.isRegularFile(Paths.get(matrixFile))) {
+            System.err.println("CPT authorization matrix " + matrixFile + " not found; every code will require authorization");
+            return;
+        }
+        try {
+            reload();
+        } catch (RuntimeException e) {
+            System.err.println("Failed to load CPT authorization matrix " + matrixFile + ": " + e.getMessage());
+        }
+    }
+
+    @Override
+    public boolean authRequired(String payerId, String procedureCodes) {
+        return matrix.get().anyAuthRequired(payerId, procedureCodes);
+    }
+
+    @Override
+    public synchronized CptAuthMatrixStatusDTO reload() {
+        Path file = Paths.get(matrixFile);
+        if (!Files.isRegularFile(file)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "CPT authorization matrix not found: " + matrixFile);
+        }
+        long started = System.currentTimeMillis();
+        CptAuthMatrix loaded;
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            loaded = CptAuthMatrix.parse(reader);
+        } catch (IOException e) {
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to read " + matrixFile, e);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, matrixFile + ": " + e.getMessage(), e);
+        }
+        matrix.set(loaded);
+        long millis = System.currentTimeMillis() - started;
+        status = new CptAuthMatrixStatusDTO(matrixFile, loaded.payerCount(), loaded.ruleCount(),
+                loaded.segmentCount(), millis);
+        System.out.println("CPT authorization matrix loaded: " + loaded.payerCount() + " payers, "
+                + loaded.ruleCount() + " rules in " + millis + " ms");
+        return status;
+    }
+
+    @Override
+    public CptAuthMatrixStatusDTO getStatus() {
+        return status;
+    }
+}
@@ -4,7 +4,9 @@ import org.springframework.stereotype.Service;
 
 import com.insurance.percert.Repository.CptOrProcedureRepository;
 import com.insurance.percert.model.CptOrProcedureEntity;
+import com.insurance.percert.service.CatalogSnapshotService;
 import com.insurance.percert.service.CptOrProcedureService;
+import com.insurance.percert.service.CrosswalkService;
 import java.util.*;
 @Service
 public class CptOrProcedureServiceImpl implements CptOrProcedureService {
@@ -13,9 +15,20 @@ public class CptOrProcedureServiceImpl implements CptOrProcedureService {
     @Autowired
     private CptOrProcedureRepository cptRepository;
 
+    @Autowired
+    private CatalogSnapshotService catalogSnapshotService;
+
+    @Autowired
+    private CrosswalkService crosswalkService;
+
     @Override
     public CptOrProcedureEntity createCpt(CptOrProcedureEntity cptEntity) {
-        return cptRepository.save(cptEntity);
+        CptOrProcedureEntity saved = cptRepository.save(cptEntity);
+        catalogSnapshotService.cptChanged();
+        if (saved.getDrug() != null) {
+            crosswalkService.drugChanged(saved.getDrug().getDrugId());
+        }
+        return saved;
     }
 
     @Override
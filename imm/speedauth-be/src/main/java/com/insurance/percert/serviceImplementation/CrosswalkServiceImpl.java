@@ -0,0 +1,84 @@
+package com.insurance.percert.serviceImplementation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import com.insurance.percert.Repository.CptOrProcedureRepository;
+import com.insurance.percert.Repository.DrugRepository;
+import com.insurance.percert.Repository.IcdRepository;
+import com.insurance.percert.index.DrugCrosswalk;
+import com.insurance.percert.model.CrosswalkDrugDTO;
+import com.insurance.percert.model.DrugSummaryDTO;
+import com.insurance.percert.service.CrosswalkService;
+
+/**
+ * Answers drug / ICD / CPT coverage questions from an in-memory
+ * {@link DrugCrosswalk} instead of initializing every drug's lazy code lists.
+ * The full crosswalk is read once at startup; after that a drug write re-reads
+ * just that drug's links and swaps in a copy with them replaced. Writers are
+ * serialized (including against the initial load); readers never block.
+ */
+@Service
+public class CrosswalkServiceImpl implements CrosswalkService {
+
+    @Autowired
+    private DrugRepository drugRepository;
+
+    @Autowired
+    private IcdRepository icdRepository;
+
+    @Autowired
+    private CptOrProcedureRepository cptRepository;
+
+    private final AtomicReference<DrugCrosswalk> crosswalk = new AtomicReference<>(
+            DrugCrosswalk.build(List.of(), List.of(), List.of()));
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void loadCrosswalk() {
+        long started = System.currentTimeMillis();
+        DrugCrosswalk loaded = DrugCrosswalk.build(drugRepository.findNameIndexRows(),
+                links(icdRepository.findDrugLinks()), links(cptRepository.findDrugLinks()));
+        crosswalk.set(loaded);
+        System.out.println("Drug crosswalk loaded: " + loaded.drugCount() + " drugs, " + loaded.icdCodeCount()
+                + " ICD and " + loaded.cptCodeCount() + " CPT codes in " + (System.currentTimeMillis() - started) + " ms");
+    }
+
+    private static List<DrugCrosswalk.Link> links(List<Object[]> rows) {
+        List<DrugCrosswalk.Link> links = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            links.add(new DrugCrosswalk.Link(((Number) row[0]).longValue(), (String) row[1]));
+        }
+        return links;
+    }
+
+    @Override
+    public synchronized void drugChanged(Long drugId) {
+        DrugSummaryDTO summary = drugRepository.findSummary(drugId).orElse(null);
+        crosswalk.set(crosswalk.get().withDrug(drugId, summary,
+                icdRepository.findCodesByDrugId(drugId), cptRepository.findCodesByDrugId(drugId)));
+    }
+
+    @Override
+    public CrosswalkDrugDTO getDrug(Long drugId) {
+        DrugCrosswalk current = crosswalk.get();
+        DrugSummaryDTO drug = current.getDrug(drugId);
+        return drug == null ? null
+                : new CrosswalkDrugDTO(drug, current.icdCodesOf(drugId), current.cptCodesOf(drugId));
+    }
+
+    @Override
+    public List<DrugSummaryDTO> getDrugs(String icdCode, String cptCode) {
+        return crosswalk.get().drugsFor(icdCode, cptCode);
+    }
+
+    @Override
+    public List<String> getCptCodesForIcd(String icdCode) {
+        return crosswalk.get().cptCodesWithIcd(icdCode);
+    }
+}
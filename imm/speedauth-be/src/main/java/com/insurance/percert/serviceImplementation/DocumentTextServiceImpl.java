@@ -0,0 +1,297 @@
+package com.insurance.percert.serviceImplementation;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.insurance.percert.Repository.FileTextRepository;
+import com.insurance.percert.Repository.FileUploadRepository;
+import com.insurance.percert.index.PatientDocumentIndex;
+import com.insurance.percert.model.DocumentSearchResultDTO;
+import com.insurance.percert.model.FileDeletedEvent;
+import com.insurance.percert.model.FileEntity;
+import com.insurance.percert.model.FileTextEntity;
+import com.insurance.percert.model.FileUploadedEvent;
+import com.insurance.percert.service.DocumentTextService;
+import com.insurance.percert.service.FileStorageService;
+import com.insurance.percert.util.TextTokens;
+
+/**
+ * Extracts searchable text from uploaded records off the request thread and
+ * keeps the per-patient document index in step with the file store.
+ */
+@Service
+public class DocumentTextServiceImpl implements DocumentTextService {
+
+    private static final int SNIPPET_RADIUS = 80;
+    private static final int BACKFILL_BATCH_SIZE = 200;
+
+    @Autowired
+    private FileStorageService fileStorageService;
+
+    @Autowired
+    private FileUploadRepository fileRepository;
+
+    @Autowired
+    private FileTextRepository fileTextRepository;
+
+    @Autowired
+    private PatientDocumentIndex documentIndex;
+
+    @Autowired
+    @Qualifier("textExtractionExecutor")
+    private ThreadPoolTaskExecutor extractionExecutor;
+
+    @Value("${file.text.max-chars:2000000}")
+    private int maxChars;
+
+    @Value("${file.text.max-pdf-pages:2000}")
+    private int maxPdfPages;
+
+    // Files queued or being extracted, so the backfill sweep does not submit them twice
+    private final Set<Long> inFlight = ConcurrentHashMap.newKeySet();
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onFileUploaded(FileUploadedEvent event) {
+        submit(event);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onFileDeleted(FileDeletedEvent event) {
+        if (event.getPatientId() != null) {
+            documentIndex.removeDocument(event.getPatientId(), event.getFileId());
+        }
+    }
+
+    @Override
+    public List<DocumentSearchResultDTO> search(Long patientId, String query, int limit) {
+        if (!documentIndex.isLoaded(patientId)) {
+            loadPatient(patientId);
+        }
+        List<Long> fileIds = documentIndex.search(patientId, query, limit);
+        if (fileIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        Map<Long, FileTextEntity> texts = fileTextRepository.findAllById(fileIds).stream()
+                .collect(Collectors.toMap(FileTextEntity::getFileId, Function.identity()));
+        List<String> terms = TextTokens.tokenize(query);
+        List<DocumentSearchResultDTO> results = new ArrayList<>(fileIds.size());
+        for (Long fileId : fileIds) {
+            FileTextEntity text = texts.get(fileId);
+            if (text == null) {
+                continue; // deleted since it was indexed
+            }
+            results.add(new DocumentSearchResultDTO(fileId, text.getFileName(), text.getMedicalFileType(),
+                    snippet(decompress(text.getCompressedText()), terms)));
+        }
+        return results;
+    }
+
+    /**
+     * Picks up uploads that never got a text row: the queue was full, the server
+     * restarted mid-extraction, or the file predates this pipeline.
+     */
+    @Override
+    @Scheduled(initialDelayString = "${file.text.backfill-initial-delay-ms:60000}",
+            fixedDelayString = "${file.text.backfill-interval-ms:600000}")
+    public int backfill() {
+        int submitted = 0;
+        for (Long fileId : fileTextRepository.findFileIdsWithoutText(PageRequest.of(0, BACKFILL_BATCH_SIZE))) {
+            if (inFlight.contains(fileId)) {
+                continue;
+            }
+            FileEntity file = fileRepository.findById(fileId).orElse(null);
+            if (file == null) {
+                continue;
+            }
+            Long patientId = file.getPatient() != null ? file.getPatient().getPatientId() : null;
+            if (submit(new FileUploadedEvent(fileId, patientId, file.getFileName(), file.getFileType(),
+                    file.getMedicalFileType()))) {
+                submitted++;
+            }
+        }
+        if (submitted > 0) {
+            System.out.println("Queued " + submitted + " files for text extraction");
+        }
+        return submitted;
+    }
+
+    private boolean submit(FileUploadedEvent event) {
+        if (!inFlight.add(event.getFileId())) {
+            return false;
+        }
+        try {
+            extractionExecutor.execute(() -> {
+                try {
+                    extract(event);
+                } finally {
+                    inFlight.remove(event.getFileId());
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            // Queue is full; the backfill sweep will retry this file later
+            inFlight.remove(event.getFileId());
+            return false;
+        }
+    }
+
+    private void extract(FileUploadedEvent event) {
+        FileTextEntity row = new FileTextEntity();
+        row.setFileId(event.getFileId());
+        row.setPatientId(event.getPatientId());
+        row.setFileName(event.getFileName());
+        row.setMedicalFileType(event.getMedicalFileType());
+
+        String text = null;
+        try {
+            text = extractText(event);
+            row.setStatus(text != null ? "extracted" : "unsupported");
+        } catch (Exception e) {
+            System.err.println("Text extraction failed for file " + event.getFileId() + ": " + e.getMessage());
+            row.setStatus("failed");
+        }
+        if (text != null) {
+            row.setCharCount(text.length());
+            row.setCompressedText(compress(text));
+        }
+        row.setExtractedAt(LocalDateTime.now());
+
+        if (!fileRepository.existsById(event.getFileId())) {
+            return; // deleted while queued
+        }
+        fileTextRepository.save(row);
+        if (text != null && event.getPatientId() != null) {
+            documentIndex.addDocument(event.getPatientId(), event.getFileId(), text);
+        }
+    }
+
+    private String extractText(FileUploadedEvent event) throws IOException {
+        String type = event.getFileType() != null ? event.getFileType().toLowerCase(Locale.ROOT) : "";
+        String name = event.getFileName() != null ? event.getFileName().toLowerCase(Locale.ROOT) : "";
+
+        if (type.equals("application/pdf") || name.endsWith(".pdf")) {
+            return extractPdf(event.getFileId());
+        }
+        if (type.startsWith("text/") || type.equals("application/json") || type.equals("application/xml")
+                || name.endsWith(".txt") || name.endsWith(".csv")) {
+            try (Reader reader = new InputStreamReader(fileStorageService.openStream(event.getFileId()),
+                    StandardCharsets.UTF_8)) {
+                return readCapped(reader);
+            }
+        }
+        return null;
+    }
+
+    // PDFBox wants random access, so the chunked content is spooled to a temp file
+    // rather than buffered whole in memory.
+    private String extractPdf(Long fileId) throws IOException {
+        Path temp = Files.createTempFile("extract-" + fileId, ".pdf");
+        try {
+            try (InputStream in = fileStorageService.openStream(fileId)) {
+                Files.copy(in, temp, StandardCopyOption.REPLACE_EXISTING);
+            }
+            try (PDDocument document = Loader.loadPDF(temp.toFile())) {
+                PDFTextStripper stripper = new PDFTextStripper();
+                stripper.setEndPage(Math.min(document.getNumberOfPages(), maxPdfPages));
+                String text = stripper.getText(document);
+                return text.length() > maxChars ? text.substring(0, maxChars) : text;
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private String readCapped(Reader reader) throws IOException {
+        StringBuilder text = new StringBuilder();
+        char[] buffer = new char[8192];
+        int read;
+        while (text.length() < maxChars && (read = reader.read(buffer)) != -1) {
+            text.append(buffer, 0, Math.min(read, maxChars - text.length()));
+        }
+        return text.toString();
+    }
+
+    private void loadPatient(Long patientId) {
+        Map<Long, String> texts = new HashMap<>();
+        for (FileTextEntity row : fileTextRepository.findByPatientIdAndStatus(patientId, "extracted")) {
+            texts.put(row.getFileId(), decompress(row.getCompressedText()));
+        }
+        documentIndex.load(patientId, texts);
+    }
+
+    private static String snippet(String text, List<String> terms) {
+        if (text.isEmpty()) {
+            return "";
+        }
+        String lower = text.toLowerCase(Locale.ROOT);
+        int hit = -1;
+        for (String term : terms) {
+            hit = lower.indexOf(term);
+            if (hit >= 0) {
+                break;
+            }
+        }
+        int start = Math.max(0, (hit < 0 ? 0 : hit) - SNIPPET_RADIUS);
+        int end = Math.min(text.length(), start + SNIPPET_RADIUS * 2);
+        String snippet = text.substring(start, end).replaceAll("\\s+", " ").trim();
+        return (start > 0 ? "..." : "") + snippet + (end < text.length() ? "..." : "");
+    }
+
+    private static byte[] compress(String text) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (OutputStream out = new DeflaterOutputStream(bytes, new Deflater(Deflater.BEST_COMPRESSION))) {
+            out.write(text.getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to compress extracted text", e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static String decompress(byte[] compressed) {
+        if (compressed == null) {
+            return "";
+        }
+        try (InputStream in = new InflaterInputStream(new ByteArrayInputStream(compressed))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to decompress extracted text", e);
+        }
+    }
+}
@@ -8,7 +8,11 @@ import org.springframework.stereotype.Service;
 import com.insurance.percert.Repository.DrugRepository;
 import com.insurance.percert.model.DrugEntity;
 import com.insurance.percert.model.PatientEntity;
+import com.insurance.percert.service.CatalogSnapshotService;
+import com.insurance.percert.service.CrosswalkService;
 import com.insurance.percert.service.DrugService;
+import com.insurance.percert.service.IcdLookupService;
+import com.insurance.percert.service.NameSearchService;
 
 @Service
 public class DrugServiceImpl implements  DrugService {
@@ -17,11 +21,34 @@ public class DrugServiceImpl implements  DrugService {
     @Autowired
     private DrugRepository drugRepository;
 
+    @Autowired
+    private NameSearchService nameSearchService;
+
+    @Autowired
+    private CatalogSnapshotService catalogSnapshotService;
+
+    @Autowired
+    private IcdLookupService icdLookupService;
+
+    @Autowired
+    private CrosswalkService crosswalkService;
+
 
     @Override
     public DrugEntity createDrugData(DrugEntity drugEntity)
     {
-        return drugRepository.save(drugEntity);     
+        DrugEntity savedDrug = drugRepository.save(drugEntity);
+        nameSearchService.drugSaved(savedDrug);
+        crosswalkService.drugChanged(savedDrug.getDrugId());
+        // The drug's ICD and CPT lists cascade into the catalogs
+        if (savedDrug.getIcdCodes() != null && !savedDrug.getIcdCodes().isEmpty()) {
+            icdLookupService.catalogChanged();
+            catalogSnapshotService.icdChanged();
+        }
+        if (savedDrug.getCptCodes() != null && !savedDrug.getCptCodes().isEmpty()) {
+            catalogSnapshotService.cptChanged();
+        }
+        return savedDrug;
     }
 
      @Override
@@ -53,6 +80,8 @@ public class DrugServiceImpl implements  DrugService {
             existingrecord.setDrugDescription(drugEntity.getDrugDescription());
             existingrecord.setIcdCode(drugEntity.getIcdCode());
             DrugEntity updatedrecord = drugRepository.save(existingrecord);
+            nameSearchService.drugSaved(updatedrecord);
+            crosswalkService.drugChanged(updatedrecord.getDrugId());
             return updatedrecord;
         } else {
             return null;
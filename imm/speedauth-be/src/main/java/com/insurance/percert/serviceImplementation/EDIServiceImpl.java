@@ -18,6 +18,7 @@ import com.insurance.percert.model.Insurance;
 import com.insurance.percert.model.PatientEntity;
 import com.insurance.percert.model.ProviderEntity;
 import com.insurance.percert.service.EDIService;
+import com.insurance.percert.util.X12Writer;
 
 @Service
 public class EDIServiceImpl implements EDIService {
@@ -264,87 +265,57 @@ public class EDIServiceImpl implements EDIService {
         String ediFilePath = "authorization_edi_" + authorization.getAuthorizationId() + "_" + fileNameSuffix
                 + "_278.edi";
  
-        // Create and open the file for writing
-        File ediFile = new File(ediFilePath);
-        BufferedWriter writer = new BufferedWriter(new FileWriter(ediFile));
- 
-        // Segment Counter
-        int segmentCount = 0;
- 
-        // ISA Segment: Interchange Control Header
-        writer.write("ISA*00*          *00*          *ZZ*YOURGSID      *ZZ*INSURANCE       *"
-                + getFormattedDate() + "*00501*000000001*1*P*:"); // Modify as needed
-        writer.newLine();
-        segmentCount++;
- 
-        // GS Segment: Functional Group Header
-        writer.write("GS*HS*YOURGSID*INSURANCE*"
-                + getFormattedDate() + "*0001*X*005010X217");
-        writer.newLine();
-        segmentCount++;
- 
-        // ST Segment: Transaction Set Header
-        writer.write("ST*278*0001");
-        writer.newLine();
-        segmentCount++;
- 
-        // BHT Segment: Beginning of Hierarchical Transaction
-        writer.write("BHT*0010*13*AUTHORIZATION_ID*" + getFormattedDate() + "*123456*CH");
-        writer.newLine();
-        segmentCount++;
- 
-        // NM1 Segment: Patient Name
-        PatientEntity patient = authorization.getPatient();
-        writer.write("NM1*IL*1*" + patient.getFullName() + "****MI*" + patient.getCustomPatientId());
-        writer.newLine();
-        segmentCount++;
- 
-        // HL Segment: Hierarchical Level
-        writer.write("HL*1**20*1");
-        writer.newLine();
-        segmentCount++;
- 
-        // PAT Segment: Patient Information
-        writer.write("PAT*A*MI*" + patient.getDateOfBirth().format(DateTimeFormatter.ofPattern("yyyyMMdd"))
-                + "*");
-        writer.newLine();
-        segmentCount++;
- 
-        // Procedure Information: HI Segment
-        writer.write("HI*ABK:" + authorization.getIcdCodeAuth());
-        writer.newLine();
-        segmentCount++;
- 
-        // Service Line: SV1 Segment
-        writer.write("SV1*HC:" + authorization.getProcedureCodeAuth() + "*100*UN");
-        writer.newLine();
-        segmentCount++;
- 
-        // Provider Details: NM1 Segment
-        ProviderEntity provider = authorization.getProvider();
-        writer.write("NM1*85*2*" + provider.getProviderName() + "****XX*" + provider.getProviderId());
-        writer.newLine();
-        segmentCount++;
- 
-        // Insurance Details: NM1 Segment
-        Insurance insurance = authorization.getInsurance();
-        writer.write("NM1*PR*2*" + insurance.getName());
-        writer.newLine();
-        segmentCount++;
- 
-        // SE Segment: Transaction Set Trailer
-        writer.write("SE*" + segmentCount + "*0001");
-        writer.newLine();
- 
-        // GE Segment: Functional Group Trailer
-        writer.write("GE*1*0001");
-        writer.newLine();
- 
-        // IEA Segment: Interchange Control Trailer
-        writer.write("IEA*1*000000001");
-        writer.newLine();
- 
-        writer.close();
+        // Segments end with a line break, as BufferedWriter.newLine() wrote them
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(new File(ediFilePath)))) {
+            X12Writer x12 = new X12Writer(writer, System.lineSeparator());
+
+            // ISA Segment: Interchange Control Header
+            x12.segment("ISA", "00", "          ", "00", "          ", "ZZ", "YOURGSID      ", "ZZ",
+                    "INSURANCE       ", getFormattedDate(), "00501", "000000001", "1", "P", ":"); // Modify as needed
+
+            // GS Segment: Functional Group Header
+            x12.segment("GS", "HS", "YOURGSID", "INSURANCE", getFormattedDate(), "0001", "X", "005010X217");
+
+            // ST Segment: Transaction Set Header
+            x12.segment("ST", "278", "0001");
+
+            // BHT Segment: Beginning of Hierarchical Transaction
+            x12.segment("BHT", "0010", "13", "AUTHORIZATION_ID", getFormattedDate(), "123456", "CH");
+
+            // NM1 Segment: Patient Name
+            PatientEntity patient = authorization.getPatient();
+            x12.segment("NM1", "IL", "1", patient.getFullName(), "", "", "", "MI", patient.getCustomPatientId());
+
+            // HL Segment: Hierarchical Level
+            x12.segment("HL", "1", "", "20", "1");
+
+            // PAT Segment: Patient Information
+            x12.segment("PAT", "A", "MI", patient.getDateOfBirth().format(DateTimeFormatter.ofPattern("yyyyMMdd")), "");
+
+            // Procedure Information: HI Segment
+            x12.segment("HI", "ABK:" + authorization.getIcdCodeAuth());
+
+            // Service Line: SV1 Segment
+            x12.segment("SV1", "HC:" + authorization.getProcedureCodeAuth(), "100", "UN");
+
+            // Provider Details: NM1 Segment
+            ProviderEntity provider = authorization.getProvider();
+            x12.segment("NM1", "85", "2", provider.getProviderName(), "", "", "", "XX",
+                    String.valueOf(provider.getProviderId()));
+
+            // Insurance Details: NM1 Segment
+            Insurance insurance = authorization.getInsurance();
+            x12.segment("NM1", "PR", "2", insurance.getName());
+
+            // SE Segment: Transaction Set Trailer; this file's count has always included ISA and GS
+            x12.segment("SE", String.valueOf(x12.segmentsWritten()), "0001");
+
+            // GE Segment: Functional Group Trailer
+            x12.segment("GE", "1", "0001");
+
+            // IEA Segment: Interchange Control Trailer
+            x12.segment("IEA", "1", "000000001");
+        }
  
         return ediFilePath;
     }
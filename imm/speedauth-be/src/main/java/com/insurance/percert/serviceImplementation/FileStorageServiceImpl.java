@@ -0,0 +1,525 @@
+package com.insurance.percert.serviceImplementation;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.SequenceInputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import javax.crypto.SecretKey;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.insurance.percert.Repository.FileChunkRefRepository;
+import com.insurance.percert.Repository.FileChunkRepository;
+import com.insurance.percert.Repository.FileTextRepository;
+import com.insurance.percert.Repository.FileUploadRepository;
+import com.insurance.percert.model.FileChunkEntity;
+import com.insurance.percert.model.FileChunkRefEntity;
+import com.insurance.percert.model.FileDeletedEvent;
+import com.insurance.percert.model.FileEntity;
+import com.insurance.percert.model.FileUploadedEvent;
+import com.insurance.percert.service.FileStorageService;
+import com.insurance.percert.util.ContentDefinedChunker;
+import com.insurance.percert.util.EnvelopeCipher;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Deduplicating file store. Uploads are cut into content-defined chunks, each
+ * chunk is written to disk once under its SHA-256 and reference counted, and the
+ * FileEntity keeps an ordered manifest of chunk references. Chunks whose count
+ * drops to zero are removed by a background collector.
+ *
+ * When a master key is configured every chunk is sealed with AES-GCM under its
+ * own data key, wrapped by the master key. Keys are per chunk rather than per
+ * file because chunks are shared between files.
+ */
+@Service
+public class FileStorageServiceImpl implements FileStorageService {
+
+    private static final int GC_BATCH_SIZE = 500;
+    private static final int LOCK_STRIPES = 64;
+    private static final int MIGRATION_BATCH_SIZE = 100;
+
+    @Autowired
+    private FileUploadRepository fileRepository;
+
+    @Autowired
+    private FileChunkRepository chunkRepository;
+
+    @Autowired
+    private FileChunkRefRepository chunkRefRepository;
+
+    @Autowired
+    private FileTextRepository fileTextRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${file.storage.dir}")
+    private String storageDir;
+
+    @Value("${file.storage.gc-grace-minutes:10}")
+    private long gcGraceMinutes;
+
+    // Base64 AES key (128, 192 or 256 bits); blank leaves new chunks unencrypted
+    @Value("${file.storage.master-key:}")
+    private String masterKey;
+
+    private EnvelopeCipher cipher;
+    private Path chunkRoot;
+    private TransactionTemplate newTransaction;
+    private final Object[] chunkLocks = new Object[LOCK_STRIPES];
+
+    @PostConstruct
+    void init() throws IOException {
+        chunkRoot = Paths.get(storageDir, "chunks");
+        Files.createDirectories(chunkRoot);
+        newTransaction = new TransactionTemplate(transactionManager);
+        newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            chunkLocks[i] = new Object();
+        }
+        if (masterKey == null || masterKey.isBlank()) {
+            System.err.println("WARNING: file.storage.master-key is not set; uploaded records are stored unencrypted");
+        } else {
+            cipher = new EnvelopeCipher(Base64.getDecoder().decode(masterKey.trim()));
+        }
+    }
+
+    @Override
+    @Transactional
+    public FileEntity store(FileEntity fileEntity, InputStream content) throws IOException {
+        StoredContent stored = writeContent(content);
+
+        fileEntity.setData(null);
+        fileEntity.setFileSize(stored.size());
+        fileEntity.setContentHash(stored.contentHash());
+        FileEntity savedFile = fileRepository.save(fileEntity);
+
+        for (FileChunkRefEntity ref : stored.manifest()) {
+            ref.setFile(savedFile);
+        }
+        chunkRefRepository.saveAll(stored.manifest());
+
+        // Delivered after commit; text extraction runs in the background
+        eventPublisher.publishEvent(new FileUploadedEvent(savedFile.getId(), patientIdOf(savedFile),
+                savedFile.getFileName(), savedFile.getFileType(), savedFile.getMedicalFileType()));
+        return savedFile;
+    }
+
+    private StoredContent writeContent(InputStream content) throws IOException {
+        MessageDigest fileDigest = sha256();
+        MessageDigest chunkDigest = sha256();
+        List<FileChunkRefEntity> manifest = new ArrayList<>();
+        long[] offset = { 0 };
+
+        ContentDefinedChunker.split(content, (buffer, off, len) -> {
+            fileDigest.update(buffer, off, len);
+            chunkDigest.update(buffer, off, len);
+            String hash = HexFormat.of().formatHex(chunkDigest.digest());
+
+            retainChunk(hash, buffer, off, len);
+
+            FileChunkRefEntity ref = new FileChunkRefEntity();
+            ref.setChunkIndex(manifest.size());
+            ref.setChunkHash(hash);
+            ref.setChunkOffset(offset[0]);
+            ref.setLength(len);
+            manifest.add(ref);
+            offset[0] += len;
+        });
+        return new StoredContent(manifest, offset[0], HexFormat.of().formatHex(fileDigest.digest()));
+    }
+
+    /**
+     * Takes a reference on the chunk, creating it first if this content has not
+     * been seen before. The increment runs in the caller's transaction so the
+     * row stays locked against the collector until the upload commits.
+     */
+    private void retainChunk(String hash, byte[] buffer, int offset, int length) throws IOException {
+        while (chunkRepository.incrementRefCount(hash) == 0) {
+            ensureChunkExists(hash, buffer, offset, length);
+        }
+    }
+
+    // Creates the chunk row and its file in a committed transaction of their own,
+    // so concurrent uploads of the same content see it instead of racing the insert.
+    private void ensureChunkExists(String hash, byte[] buffer, int offset, int length) throws IOException {
+        synchronized (lockFor(hash)) {
+            try {
+                newTransaction.executeWithoutResult(status -> {
+                    if (chunkRepository.findByHash(hash).isPresent()) {
+                        return;
+                    }
+                    FileChunkEntity chunk = new FileChunkEntity();
+                    chunk.setHash(hash);
+                    chunk.setLength(length);
+                    chunk.setRefCount(0);
+                    chunk.setCreatedAt(LocalDateTime.now());
+                    byte[] onDisk = buffer;
+                    int diskOffset = offset;
+                    int diskLength = length;
+                    if (cipher != null) {
+                        SecretKey dataKey = cipher.newDataKey();
+                        chunk.setEncrypted(true);
+                        chunk.setWrappedKey(cipher.wrap(dataKey));
+                        onDisk = cipher.seal(dataKey, hash, buffer, offset, length);
+                        diskOffset = 0;
+                        diskLength = onDisk.length;
+                    }
+                    FileChunkEntity saved = chunkRepository.saveAndFlush(chunk);
+                    try {
+                        writeChunkFile(chunkPath(saved), onDisk, diskOffset, diskLength);
+                    } catch (IOException e) {
+                        throw new RuntimeException("Failed to write chunk " + hash, e);
+                    }
+                });
+            } catch (DataIntegrityViolationException e) {
+                // Another instance stored the same chunk first; the retry will pick it up
+            }
+        }
+    }
+
+    private void writeChunkFile(Path path, byte[] buffer, int offset, int length) throws IOException {
+        Files.createDirectories(path.getParent());
+        Path temp = Files.createTempFile(path.getParent(), "chunk", ".tmp");
+        try (OutputStream out = Files.newOutputStream(temp)) {
+            out.write(buffer, offset, length);
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    @Override
+    public InputStream openStream(Long fileId) throws IOException {
+        return openStream(fileId, 0, Long.MAX_VALUE);
+    }
+
+    /**
+     * Only the chunks overlapping the range are read, and each is decrypted on
+     * its own, so a range read costs the same wherever it falls in the file.
+     */
+    @Override
+    public InputStream openStream(Long fileId, long start, long end) throws IOException {
+        List<FileChunkRefEntity> refs = chunkRefRepository.findInRange(fileId, start, end);
+        if (refs.isEmpty()) {
+            // Uploaded before the chunk store existed, or the range is past the end
+            FileEntity file = fileRepository.findById(fileId)
+                    .orElseThrow(() -> new RuntimeException("File not found with id: " + fileId));
+            byte[] data = file.getData();
+            if (data == null || start >= data.length) {
+                return new ByteArrayInputStream(new byte[0]);
+            }
+            int from = (int) start;
+            int to = (int) Math.min(data.length - 1L, end);
+            return new ByteArrayInputStream(data, from, to - from + 1);
+        }
+
+        Set<String> hashes = new LinkedHashSet<>();
+        for (FileChunkRefEntity ref : refs) {
+            hashes.add(ref.getChunkHash());
+        }
+        Map<String, FileChunkEntity> chunksByHash = new HashMap<>();
+        for (FileChunkEntity chunk : chunkRepository.findByHashIn(hashes)) {
+            chunksByHash.put(chunk.getHash(), chunk);
+        }
+        List<ChunkSlice> slices = new ArrayList<>(refs.size());
+        for (FileChunkRefEntity ref : refs) {
+            FileChunkEntity chunk = chunksByHash.get(ref.getChunkHash());
+            if (chunk == null) {
+                throw new IOException("Missing chunk " + ref.getChunkHash() + " for file " + fileId);
+            }
+            int from = (int) Math.max(0, start - ref.getChunkOffset());
+            int to = (int) (Math.min(ref.getLength() - 1L, end - ref.getChunkOffset()) + 1);
+            slices.add(new ChunkSlice(chunk, from, to));
+        }
+        return new SequenceInputStream(new LazyChunkStreams(slices));
+    }
+
+    private InputStream openSlice(ChunkSlice slice) throws IOException {
+        FileChunkEntity chunk = slice.chunk();
+        if (!Boolean.TRUE.equals(chunk.getEncrypted())) {
+            try {
+                return openPlain(chunk, slice);
+            } catch (NoSuchFileException e) {
+                // Sealed since the row was loaded and the plaintext already retired
+                chunk = chunkRepository.findById(chunk.getId()).orElseThrow(() -> e);
+                if (!Boolean.TRUE.equals(chunk.getEncrypted())) {
+                    throw e;
+                }
+            }
+        }
+        if (cipher == null) {
+            throw new IOException("Chunk " + chunk.getHash() + " is encrypted but file.storage.master-key is not set");
+        }
+        // A chunk is at most ContentDefinedChunker.MAX_SIZE, so this buffer stays small
+        byte[] plain = cipher.open(cipher.unwrap(chunk.getWrappedKey()), chunk.getHash(),
+                Files.readAllBytes(chunkPath(chunk)));
+        return new ByteArrayInputStream(plain, slice.from(), slice.to() - slice.from());
+    }
+
+    private InputStream openPlain(FileChunkEntity chunk, ChunkSlice slice) throws IOException {
+        Path path = chunkPath(chunk, false);
+        if (slice.from() == 0 && slice.to() == chunk.getLength()) {
+            return Files.newInputStream(path);
+        }
+        return new ByteArrayInputStream(Files.readAllBytes(path), slice.from(), slice.to() - slice.from());
+    }
+
+    @Override
+    @Transactional
+    public void deleteFile(Long fileId) throws IOException {
+        FileEntity file = fileRepository.findById(fileId)
+                .orElseThrow(() -> new RuntimeException("File not found with id: " + fileId));
+        LocalDateTime now = LocalDateTime.now();
+        for (String hash : chunkRefRepository.findChunkHashesByFileId(fileId)) {
+            chunkRepository.decrementRefCount(hash, now);
+        }
+        chunkRefRepository.deleteByFileId(fileId);
+        if (fileTextRepository.existsById(fileId)) {
+            fileTextRepository.deleteById(fileId);
+        }
+        Long patientId = patientIdOf(file);
+        fileRepository.delete(file);
+        eventPublisher.publishEvent(new FileDeletedEvent(fileId, patientId));
+    }
+
+    /**
+     * Removes chunks that have been unreferenced for longer than the grace period,
+     * and plaintext files that were replaced by a sealed copy more than the grace
+     * period ago. Chunks no upload has committed a reference to yet are aged from
+     * their creation instead.
+     */
+    @Override
+    @Scheduled(fixedDelayString = "${file.storage.gc-interval-ms:600000}")
+    public int collectGarbage() {
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(gcGraceMinutes);
+        int removed = 0;
+        List<FileChunkEntity> candidates;
+        do {
+            candidates = chunkRepository.findUnreferenced(cutoff, PageRequest.of(0, GC_BATCH_SIZE));
+            for (FileChunkEntity candidate : candidates) {
+                // The candidate may be stale (sealed since, or re-referenced), so the
+                // paths come from the row as locked for the delete
+                String hash = candidate.getHash();
+                List<Path> paths = newTransaction.execute(status -> {
+                    FileChunkEntity chunk = chunkRepository.findByIdForUpdate(candidate.getId()).orElse(null);
+                    if (chunk == null || chunk.getRefCount() != 0 || chunkRepository.deleteIfUnreferenced(chunk.getId()) == 0) {
+                        return null;
+                    }
+                    return List.of(chunkPath(chunk, false), chunkPath(chunk, true));
+                });
+                if (paths == null) {
+                    continue; // re-referenced or already collected
+                }
+                try {
+                    for (Path path : paths) {
+                        Files.deleteIfExists(path);
+                    }
+                    removed++;
+                } catch (IOException e) {
+                    System.err.println("Failed to delete chunk file for " + hash + ": " + e.getMessage());
+                }
+            }
+        } while (candidates.size() == GC_BATCH_SIZE);
+
+        List<FileChunkEntity> retired;
+        do {
+            retired = chunkRepository.findRetiredPlaintext(cutoff, PageRequest.of(0, GC_BATCH_SIZE));
+            for (FileChunkEntity chunk : retired) {
+                try {
+                    Files.deleteIfExists(chunkPath(chunk, false));
+                } catch (IOException e) {
+                    System.err.println("Failed to delete plaintext chunk file for " + chunk.getHash() + ": " + e.getMessage());
+                }
+                // Cleared even on failure so one bad file cannot stall the sweep
+                chunkRepository.clearRetiredPlaintext(chunk.getId());
+            }
+        } while (retired.size() == GC_BATCH_SIZE);
+
+        if (removed > 0) {
+            System.out.println("File store GC removed " + removed + " unreferenced chunks");
+        }
+        return removed;
+    }
+
+    /**
+     * Once a master key is configured, moves content still held in FileEntity.data
+     * into the (encrypted) chunk store and seals chunks written in the clear.
+     */
+    @Override
+    @Scheduled(initialDelayString = "${file.storage.migration-initial-delay-ms:120000}",
+            fixedDelayString = "${file.storage.migration-interval-ms:3600000}")
+    public int migrateLegacyData() {
+        if (cipher == null) {
+            return 0;
+        }
+        int migrated = 0;
+        try {
+            List<Long> fileIds;
+            do {
+                fileIds = fileRepository.findIdsWithLegacyData(PageRequest.of(0, MIGRATION_BATCH_SIZE));
+                for (Long fileId : fileIds) {
+                    newTransaction.executeWithoutResult(status -> migrateFile(fileId));
+                    migrated++;
+                }
+            } while (fileIds.size() == MIGRATION_BATCH_SIZE);
+
+            List<FileChunkEntity> chunks;
+            do {
+                chunks = chunkRepository.findUnencrypted(PageRequest.of(0, MIGRATION_BATCH_SIZE));
+                for (FileChunkEntity chunk : chunks) {
+                    sealChunk(chunk);
+                    migrated++;
+                }
+            } while (chunks.size() == MIGRATION_BATCH_SIZE);
+        } catch (RuntimeException e) {
+            // Stop here rather than spin on the same record; the next run retries it
+            System.err.println("Encryption migration stopped: " + e.getMessage());
+        }
+
+        if (migrated > 0) {
+            System.out.println("Encrypted " + migrated + " legacy files and chunks");
+        }
+        return migrated;
+    }
+
+    private void migrateFile(Long fileId) {
+        FileEntity file = fileRepository.findById(fileId).orElse(null);
+        if (file == null || file.getData() == null) {
+            return;
+        }
+        StoredContent stored;
+        try {
+            stored = writeContent(new ByteArrayInputStream(file.getData()));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to migrate file " + fileId, e);
+        }
+        for (FileChunkRefEntity ref : stored.manifest()) {
+            ref.setFile(file);
+        }
+        chunkRefRepository.saveAll(stored.manifest());
+        file.setData(null);
+        file.setFileSize(stored.size());
+        file.setContentHash(stored.contentHash());
+        fileRepository.save(file);
+    }
+
+    // Runs under the row lock, so a concurrent collector or another instance
+    // sealing the same chunk waits and then sees the switched row. The sealed copy
+    // goes to a new path, so readers holding the old row keep finding the
+    // plaintext file; collectGarbage removes it after the grace period.
+    private void sealChunk(FileChunkEntity candidate) {
+        newTransaction.executeWithoutResult(status -> {
+            FileChunkEntity chunk = chunkRepository.findByIdForUpdate(candidate.getId()).orElse(null);
+            if (chunk == null || Boolean.TRUE.equals(chunk.getEncrypted())) {
+                return; // collected or sealed concurrently
+            }
+            try {
+                byte[] plain = Files.readAllBytes(chunkPath(chunk, false));
+                SecretKey dataKey = cipher.newDataKey();
+                byte[] sealed = cipher.seal(dataKey, chunk.getHash(), plain, 0, plain.length);
+                writeChunkFile(chunkPath(chunk, true), sealed, 0, sealed.length);
+                chunk.setWrappedKey(cipher.wrap(dataKey));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to seal chunk " + chunk.getHash(), e);
+            }
+            chunk.setEncrypted(true);
+            chunk.setPlaintextRetiredAt(LocalDateTime.now());
+        });
+    }
+
+    private Path chunkPath(FileChunkEntity chunk) {
+        return chunkPath(chunk, Boolean.TRUE.equals(chunk.getEncrypted()));
+    }
+
+    // The row id is part of the file name, so a chunk recreated after collection
+    // never shares a path with the copy being deleted.
+    private Path chunkPath(FileChunkEntity chunk, boolean encrypted) {
+        String hash = chunk.getHash();
+        return chunkRoot.resolve(hash.substring(0, 2)).resolve(hash + "." + chunk.getId() + (encrypted ? ".enc" : ""));
+    }
+
+    private static Long patientIdOf(FileEntity file) {
+        return file.getPatient() != null ? file.getPatient().getPatientId() : null;
+    }
+
+    private Object lockFor(String hash) {
+        return chunkLocks[Math.floorMod(hash.hashCode(), LOCK_STRIPES)];
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record StoredContent(List<FileChunkRefEntity> manifest, long size, String contentHash) {
+    }
+
+    // Bytes [from, to) of one chunk's plaintext
+    private record ChunkSlice(FileChunkEntity chunk, int from, int to) {
+    }
+
+    /** Opens each chunk only when the reader reaches it. */
+    private final class LazyChunkStreams implements Enumeration<InputStream> {
+        private final Iterator<ChunkSlice> slices;
+
+        LazyChunkStreams(List<ChunkSlice> slices) {
+            this.slices = slices.iterator();
+        }
+
+        @Override
+        public boolean hasMoreElements() {
+            return slices.hasNext();
+        }
+
+        @Override
+        public InputStream nextElement() {
+            if (!slices.hasNext()) {
+                throw new NoSuchElementException();
+            }
+            try {
+                return openSlice(slices.next());
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to open chunk file", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package com.insurance.percert.serviceImplementation;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.insurance.percert.model.IcdLoadResultDTO;
+import com.insurance.percert.service.CatalogSnapshotService;
+import com.insurance.percert.service.IcdCodeSetService;
+import com.insurance.percert.service.IcdLookupService;
+import com.insurance.percert.util.CodeSetFiles;
+import com.insurance.percert.util.CodeSetFiles.CodeRow;
+import com.insurance.percert.util.IcdCodes;
+import com.insurance.percert.util.SqlIdentifiers;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Bulk loader for the CMS ICD-10-CM release, in either the order file or the
+ * codes file layout (see {@link CodeSetFiles}).
+ *
+ * Lines are parsed in parallel straight from the file. The rows are then
+ * upserted with JDBC batches in a single transaction. Codes already in
+ * icd_master are matched with or without the dot. Every row for a code is
+ * updated in place, so the links to drug_details through drug_id survive a
+ * reload. Codes dropped from a release are left alone for the same reason.
+ */
+@Service
+public class IcdCodeSetServiceImpl implements IcdCodeSetService {
+
+    private static final int BATCH_SIZE = 1000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private IcdLookupService icdLookupService;
+
+    @Autowired
+    private CatalogSnapshotService catalogSnapshotService;
+
+    // Only files inside this directory can be loaded
+    @Value("${icd.codeset.dir:codesets}")
+    private String codeSetDir;
+
+    private TransactionTemplate transaction;
+    private final AtomicBoolean loading = new AtomicBoolean();
+
+    @PostConstruct
+    void init() {
+        transaction = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public IcdLoadResultDTO load(String fileName) {
+        Path file = CodeSetFiles.resolve(codeSetDir, fileName);
+        if (!loading.compareAndSet(false, true)) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "An ICD code set load is already running");
+        }
+        try {
+            long started = System.currentTimeMillis();
+            List<CodeRow> rows = parse(file);
+            if (rows.isEmpty()) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "No ICD-10-CM codes found in " + fileName);
+            }
+            int[] counts = transaction.execute(status -> upsert(rows));
+            // Committed: swap in the new catalog before answering
+            icdLookupService.reload();
+            catalogSnapshotService.icdChanged();
+            int billable = (int) rows.stream().filter(CodeRow::billable).count();
+            long millis = System.currentTimeMillis() - started;
+            System.out.println("Loaded ICD-10-CM code set " + fileName + ": " + rows.size() + " codes, " + counts[0]
+                    + " rows updated, " + counts[1] + " inserted in " + millis + " ms");
+            return new IcdLoadResultDTO(fileName, rows.size(), billable, counts[0], counts[1], millis);
+        } finally {
+            loading.set(false);
+        }
+    }
+
+    // ISO-8859-1 maps every byte to one char, so Files.lines can split the file
+    // across threads by byte offset; the CMS files are plain ASCII anyway
+    private static List<CodeRow> parse(Path file) {
+        try (Stream<String> lines = Files.lines(file, StandardCharsets.ISO_8859_1)) {
+            return lines.parallel()
+                    .map(CodeSetFiles::parseIcdLine)
+                    .filter(Objects::nonNull)
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read " + file, e);
+        }
+    }
+
+    // {rows updated, rows inserted}
+    private int[] upsert(List<CodeRow> rows) {
+        String q = SqlIdentifiers.quoteString(jdbcTemplate);
+        String table = SqlIdentifiers.quote(q, "icd_master");
+        String icdCode = SqlIdentifiers.quote(q, "icdCode");
+        String description = SqlIdentifiers.quote(q, "description");
+        String shortDescription = SqlIdentifiers.quote(q, "shortDescription");
+        String billable = SqlIdentifiers.quote(q, "billable");
+
+        // Stored spellings of each code, keyed without the dot
+        Map<String, List<String>> existing = new HashMap<>();
+        for (String stored : jdbcTemplate.queryForList(
+                "SELECT DISTINCT " + icdCode + " FROM " + table + " WHERE " + icdCode + " IS NOT NULL", String.class)) {
+            existing.computeIfAbsent(IcdCodes.bare(stored), k -> new ArrayList<>(1)).add(stored);
+        }
+
+        List<Object[]> updates = new ArrayList<>();
+        List<Object[]> inserts = new ArrayList<>();
+        for (CodeRow row : rows) {
+            List<String> stored = existing.get(IcdCodes.bare(row.code()));
+            if (stored == null) {
+                inserts.add(new Object[] { row.code(), row.description(), row.shortDescription(), row.billable() });
+            } else {
+                for (String spelling : stored) {
+                    updates.add(new Object[] { row.description(), row.shortDescription(), row.billable(), spelling });
+                }
+            }
+        }
+
+        int updated = 0;
+        for (int[] batch : jdbcTemplate.batchUpdate(
+                "UPDATE " + table + " SET " + description + " = ?, " + shortDescription + " = ?, " + billable
+                        + " = ? WHERE " + icdCode + " = ?",
+                updates, BATCH_SIZE, (ps, args) -> {
+                    ps.setString(1, (String) args[0]);
+                    ps.setString(2, (String) args[1]);
+                    ps.setBoolean(3, (Boolean) args[2]);
+                    ps.setString(4, (String) args[3]);
+                })) {
+            updated += sum(batch);
+        }
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO " + table + " (" + icdCode + ", " + description + ", " + shortDescription + ", "
+                        + billable + ") VALUES (?, ?, ?, ?)",
+                inserts, BATCH_SIZE, (ps, args) -> {
+                    ps.setString(1, (String) args[0]);
+                    ps.setString(2, (String) args[1]);
+                    ps.setString(3, (String) args[2]);
+                    ps.setBoolean(4, (Boolean) args[3]);
+                });
+        return new int[] { updated, inserts.size() };
+    }
+
+    // Drivers may report SUCCESS_NO_INFO (-2) for rewritten batches; count those as one row
+    private static int sum(int[] counts) {
+        int total = 0;
+        for (int count : counts) {
+            total += count >= 0 ? count : 1;
+        }
+        return total;
+    }
+}
@@ -0,0 +1,91 @@
+package com.insurance.percert.serviceImplementation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.insurance.percert.Repository.IcdRepository;
+import com.insurance.percert.index.IcdCodeTrie;
+import com.insurance.percert.model.IcdCodeDTO;
+import com.insurance.percert.service.IcdLookupService;
+
+/**
+ * Serves ICD-10-CM autocomplete and hierarchy lookups from an immutable
+ * {@link IcdCodeTrie}. A reload builds a complete new trie off to the side and
+ * swaps the reference, so readers always see one consistent catalog and never
+ * wait on a lock. Single-code edits only mark the index stale; the refresh
+ * tick folds a burst of them into one rebuild.
+ */
+@Service
+public class IcdLookupServiceImpl implements IcdLookupService {
+
+    @Autowired
+    private IcdRepository icdRepository;
+
+    private final AtomicReference<IcdCodeTrie> trie = new AtomicReference<>(new IcdCodeTrie(List.of()));
+    private final AtomicBoolean stale = new AtomicBoolean();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadIndex() {
+        reload();
+    }
+
+    @Scheduled(initialDelayString = "${icd.index.refresh-ms:5000}", fixedDelayString = "${icd.index.refresh-ms:5000}")
+    public void refreshIfStale() {
+        if (stale.get()) {
+            reload();
+        }
+    }
+
+    @Override
+    public synchronized void reload() {
+        // Cleared first: an edit that lands during the build marks it stale again
+        stale.set(false);
+        long started = System.currentTimeMillis();
+        List<IcdCodeTrie.Row> rows = new ArrayList<>();
+        for (Object[] row : icdRepository.findCatalogRows()) {
+            rows.add(new IcdCodeTrie.Row((String) row[0], (String) row[1], (String) row[2], (Boolean) row[3]));
+        }
+        IcdCodeTrie built = new IcdCodeTrie(rows);
+        trie.set(built);
+        System.out.println("ICD code index loaded: " + built.size() + " codes in "
+                + (System.currentTimeMillis() - started) + " ms");
+    }
+
+    @Override
+    public void catalogChanged() {
+        stale.set(true);
+    }
+
+    @Override
+    public List<IcdCodeDTO> suggest(String query, int limit, boolean billableOnly) {
+        return trie.get().suggest(query, limit, billableOnly);
+    }
+
+    @Override
+    public IcdCodeDTO getCode(String code) {
+        return trie.get().get(code);
+    }
+
+    @Override
+    public List<IcdCodeDTO> getChildren(String code, boolean billableOnly) {
+        return trie.get().children(code, billableOnly);
+    }
+
+    @Override
+    public IcdCodeDTO getParent(String code) {
+        return trie.get().parent(code);
+    }
+
+    @Override
+    public List<IcdCodeDTO> getPath(String code) {
+        return trie.get().path(code);
+    }
+}
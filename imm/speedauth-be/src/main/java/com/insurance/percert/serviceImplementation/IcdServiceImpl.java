@@ -8,6 +8,9 @@ import org.springframework.stereotype.Service;
 
 import com.insurance.percert.Repository.IcdRepository;
 import com.insurance.percert.model.IcdEntity;
+import com.insurance.percert.service.CatalogSnapshotService;
+import com.insurance.percert.service.CrosswalkService;
+import com.insurance.percert.service.IcdLookupService;
 import com.insurance.percert.service.IcdService;
 
 @Service
@@ -16,10 +19,25 @@ public class IcdServiceImpl implements  IcdService {
     @Autowired
     private IcdRepository icdRepository;
 
+    @Autowired
+    private IcdLookupService icdLookupService;
+
+    @Autowired
+    private CatalogSnapshotService catalogSnapshotService;
+
+    @Autowired
+    private CrosswalkService crosswalkService;
+
 
 @Override
 public IcdEntity createIcd(IcdEntity icdEntity){
-    return icdRepository.save(icdEntity);
+    IcdEntity saved = icdRepository.save(icdEntity);
+    icdLookupService.catalogChanged();
+    catalogSnapshotService.icdChanged();
+    if (saved.getDrug() != null) {
+        crosswalkService.drugChanged(saved.getDrug().getDrugId());
+    }
+    return saved;
         }
 
         @Override
@@ -2,7 +2,6 @@ package com.insurance.percert.serviceImplementation;
 
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -11,6 +10,7 @@ import org.springframework.transaction.annotation.Transactional;
 import com.insurance.percert.Repository.InsuranceRepository;
 import com.insurance.percert.model.Insurance;
 import com.insurance.percert.model.InsuranceSummaryDTO;
+import com.insurance.percert.service.NameSearchService;
 import com.insurance.percert.service.InsuranceService;
 
 @Service
@@ -18,16 +18,21 @@ public class InsuranceServiceImplementation implements InsuranceService {
 
     private static final String INSURANCE_ID_PREFIX = "INS";
     private static final java.text.DecimalFormat idFormat = new java.text.DecimalFormat("000");
+    private static final int SEARCH_LIMIT = 50;
 
     @Autowired
     private InsuranceRepository insuranceRepository;
 
+    @Autowired
+    private NameSearchService nameSearchService;
+
     @Transactional
     public Insurance createInsurance(Insurance insurance) {
         String newInsuranceId = generateNextInsuranceId();
         System.out.println("insuranceId: " + newInsuranceId);
         insurance.setCustomInsuranceId(newInsuranceId);
         Insurance savedInsurance = insuranceRepository.save(insurance);
+        nameSearchService.insuranceSaved(savedInsurance);
         return savedInsurance;
     }
 
@@ -80,7 +85,9 @@ public class InsuranceServiceImplementation implements InsuranceService {
         existingInsurance.setPayerContact(updatedInsurance.getPayerContact());
 
         // Save the updated entity
-        return insuranceRepository.save(existingInsurance);
+        Insurance savedInsurance = insuranceRepository.save(existingInsurance);
+        nameSearchService.insuranceSaved(savedInsurance);
+        return savedInsurance;
     }
 
     @Override
@@ -131,7 +138,9 @@ public class InsuranceServiceImplementation implements InsuranceService {
         }
     
         // Save and return the updated insurance record
-        return insuranceRepository.save(existingInsurance);
+        Insurance savedInsurance = insuranceRepository.save(existingInsurance);
+        nameSearchService.insuranceSaved(savedInsurance);
+        return savedInsurance;
     }
     
 
@@ -186,12 +195,15 @@ public class InsuranceServiceImplementation implements InsuranceService {
         }
     
         // Save and return the updated insurance record
-        return insuranceRepository.save(existingInsurance);
+        Insurance savedInsurance = insuranceRepository.save(existingInsurance);
+        nameSearchService.insuranceSaved(savedInsurance);
+        return savedInsurance;
     }
 
     @Override
     public void deleteInsurance(Long id) {
         insuranceRepository.deleteById(id);
+        nameSearchService.insuranceDeleted(id);
     }
 
     @Override
@@ -206,13 +218,7 @@ public class InsuranceServiceImplementation implements InsuranceService {
 
     @Override
     public List<InsuranceSummaryDTO> searchInsurancesByPayerName(String payerName) {
-        List<Insurance> results = insuranceRepository.findByPayerNameContainingIgnoreCase(payerName);
-        return results.stream()
-                .map(i -> new InsuranceSummaryDTO(
-                    i.getCustomInsuranceId(),
-                    i.getPayerName()
-                ))
-                .collect(Collectors.toList());
+        return nameSearchService.searchInsurances(payerName, SEARCH_LIMIT);
     }
 
 }
@@ -0,0 +1,324 @@
+package com.insurance.percert.serviceImplementation;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.insurance.percert.Repository.DrugRepository;
+import com.insurance.percert.Repository.InsuranceRepository;
+import com.insurance.percert.Repository.OrderRepository;
+import com.insurance.percert.Repository.PatientRepository;
+import com.insurance.percert.Repository.ProviderRepository;
+import com.insurance.percert.index.Bm25Index;
+import com.insurance.percert.index.PatientMatchIndex;
+import com.insurance.percert.index.TrigramIndex;
+import com.insurance.percert.model.DrugEntity;
+import com.insurance.percert.model.DrugSummaryDTO;
+import com.insurance.percert.model.Insurance;
+import com.insurance.percert.model.InsuranceSummaryDTO;
+import com.insurance.percert.model.Order;
+import com.insurance.percert.model.OrderSummaryDTO;
+import com.insurance.percert.model.PatientEntity;
+import com.insurance.percert.model.PatientMatchDTO;
+import com.insurance.percert.model.PatientSummaryDTO;
+import com.insurance.percert.model.ProviderEntity;
+import com.insurance.percert.model.ProviderSummaryDTO;
+import com.insurance.percert.service.NameSearchService;
+
+/**
+ * Type-ahead name search for patients, providers, payers, drugs and the drug
+ * names on orders, answered from
+ * in-memory trigram indexes instead of LIKE '%x%' scans; drug lookup by words
+ * in the name, J-code or description is BM25-ranked. The indexes are loaded
+ * once the application is up and kept current by the services' write paths,
+ * applied when their transaction commits; until loading finishes, searches
+ * fall back to the database.
+ */
+@Service
+public class NameSearchServiceImpl implements NameSearchService {
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private ProviderRepository providerRepository;
+
+    @Autowired
+    private InsuranceRepository insuranceRepository;
+
+    @Autowired
+    private DrugRepository drugRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private PatientMatchIndex patientMatchIndex;
+
+    private final TrigramIndex<PatientSummaryDTO> patients = new TrigramIndex<>();
+    private final TrigramIndex<ProviderSummaryDTO> providers = new TrigramIndex<>();
+    private final TrigramIndex<InsuranceSummaryDTO> insurances = new TrigramIndex<>();
+    private final TrigramIndex<DrugSummaryDTO> drugs = new TrigramIndex<>();
+    private final TrigramIndex<OrderSummaryDTO> orders = new TrigramIndex<>();
+    // Fields: drug name, procedure (J-)code and description, the name weighted highest
+    private final Bm25Index<DrugSummaryDTO> drugText = new Bm25Index<>(3f, 2f, 1f);
+    private static final float[] DESCRIPTION_ONLY = { 0f, 0f, 1f };
+
+    private volatile boolean ready;
+
+    // Deletes seen while the bulk load is running, so it does not re-add them
+    private final Set<String> deletedDuringLoad = ConcurrentHashMap.newKeySet();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadIndexes() {
+        long started = System.currentTimeMillis();
+        for (Object[] row : patientRepository.findNameIndexRows()) {
+            long id = ((Number) row[0]).longValue();
+            if (!deletedDuringLoad.contains("patient:" + id)
+                    && patients.putIfAbsent(id, (String) row[2], new PatientSummaryDTO((String) row[1], (String) row[2]))) {
+                patientMatchIndex.put(id, (String) row[1], (String) row[2], (String) row[3], (String) row[4],
+                        (LocalDate) row[5]);
+            }
+        }
+        for (Object[] row : providerRepository.findNameIndexRows()) {
+            long id = ((Number) row[0]).longValue();
+            if (!deletedDuringLoad.contains("provider:" + id)) {
+                providers.putIfAbsent(id, (String) row[2], new ProviderSummaryDTO((String) row[1], (String) row[2]));
+            }
+        }
+        for (Object[] row : insuranceRepository.findNameIndexRows()) {
+            long id = ((Number) row[0]).longValue();
+            if (!deletedDuringLoad.contains("insurance:" + id)) {
+                insurances.putIfAbsent(id, (String) row[2], new InsuranceSummaryDTO((String) row[1], (String) row[2]));
+            }
+        }
+        for (DrugSummaryDTO drug : drugRepository.findNameIndexRows()) {
+            drugs.putIfAbsent(drug.getDrugId(), drug.getDrugName(), drug);
+            drugText.putIfAbsent(drug.getDrugId(), drug, drug.getDrugName(), drug.getProcedureCode(),
+                    drug.getDrugDescription());
+        }
+        for (OrderSummaryDTO order : orderRepository.findNameIndexRows()) {
+            if (!deletedDuringLoad.contains("order:" + order.getOrderId())) {
+                orders.putIfAbsent(order.getOrderId(), order.getIcddrugname(), order);
+            }
+        }
+        ready = true;
+        deletedDuringLoad.clear();
+        System.out.println("Name search indexes loaded: " + patients.size() + " patients, " + providers.size()
+                + " providers, " + insurances.size() + " payers, " + drugs.size() + " drugs, " + orders.size()
+                + " orders in " + (System.currentTimeMillis() - started) + " ms");
+    }
+
+    @Override
+    public List<PatientSummaryDTO> searchPatients(String query, int limit) {
+        if (!ready) {
+            return patientRepository.findByFullNameContainingIgnoreCase(query).stream()
+                    .limit(limit)
+                    .map(p -> new PatientSummaryDTO(p.getCustomPatientId(), p.getFullName()))
+                    .toList();
+        }
+        return patients.searchValues(query, limit);
+    }
+
+    @Override
+    public List<DrugSummaryDTO> searchDrugs(String query, int limit) {
+        if (!ready) {
+            return drugRepository.findByDrugNameContainingIgnoreCase(query).stream()
+                    .limit(limit)
+                    .map(NameSearchServiceImpl::drugSummary)
+                    .toList();
+        }
+        return drugText.searchValues(query, limit);
+    }
+
+    @Override
+    public List<DrugSummaryDTO> searchDrugDescriptions(String query, int limit) {
+        if (!ready) {
+            return drugRepository.findByDrugDescriptionContainingIgnoreCase(query).stream()
+                    .limit(limit)
+                    .map(NameSearchServiceImpl::drugSummary)
+                    .toList();
+        }
+        return drugText.searchValues(query, limit, DESCRIPTION_ONLY);
+    }
+
+    @Override
+    public List<PatientMatchDTO> matchPatients(String name, LocalDate dateOfBirth, int limit) {
+        if (!ready) {
+            throw new IllegalStateException("Patient match index is still loading");
+        }
+        return patientMatchIndex.match(name, dateOfBirth, limit);
+    }
+
+    @Override
+    public List<ProviderSummaryDTO> searchProviders(String query, int limit) {
+        if (!ready) {
+            return providerRepository.findByProviderNameContainingIgnoreCase(query).stream()
+                    .limit(limit)
+                    .map(p -> new ProviderSummaryDTO(p.getNpiNumber(), p.getProviderName()))
+                    .toList();
+        }
+        return providers.searchValues(query, limit);
+    }
+
+    @Override
+    public List<InsuranceSummaryDTO> searchInsurances(String query, int limit) {
+        if (!ready) {
+            return insuranceRepository.findByPayerNameContainingIgnoreCase(query).stream()
+                    .limit(limit)
+                    .map(i -> new InsuranceSummaryDTO(i.getCustomInsuranceId(), i.getPayerName()))
+                    .toList();
+        }
+        return insurances.searchValues(query, limit);
+    }
+
+    // Index changes wait for the writing transaction to commit, so a rollback
+    // cannot leave a row in the index, nor a delete hide one that still exists
+    private static void afterCommit(Runnable change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    change.run();
+                }
+            });
+        } else {
+            change.run();
+        }
+    }
+
+    @Override
+    public void patientSaved(PatientEntity patient) {
+        afterCommit(() -> {
+            patients.put(patient.getPatientId(), patient.getFullName(),
+                    new PatientSummaryDTO(patient.getCustomPatientId(), patient.getFullName()));
+            patientMatchIndex.put(patient.getPatientId(), patient.getCustomPatientId(), patient.getFullName(),
+                    patient.getFirstName(), patient.getLastName(), patient.getDateOfBirth());
+        });
+    }
+
+    @Override
+    public void patientDeleted(Long patientId) {
+        afterCommit(() -> {
+            if (!ready) {
+                deletedDuringLoad.add("patient:" + patientId);
+            }
+            patients.remove(patientId);
+            patientMatchIndex.remove(patientId);
+        });
+    }
+
+    @Override
+    public void providerSaved(ProviderEntity provider) {
+        afterCommit(() -> {
+            providers.put(provider.getProviderId(), provider.getProviderName(),
+                    new ProviderSummaryDTO(provider.getNpiNumber(), provider.getProviderName()));
+        });
+    }
+
+    @Override
+    public void providerDeleted(Long providerId) {
+        afterCommit(() -> {
+            if (!ready) {
+                deletedDuringLoad.add("provider:" + providerId);
+            }
+            providers.remove(providerId);
+        });
+    }
+
+    @Override
+    public void insuranceSaved(Insurance insurance) {
+        afterCommit(() -> {
+            insurances.put(insurance.getInsuranceId(), insurance.getPayerName(),
+                    new InsuranceSummaryDTO(insurance.getCustomInsuranceId(), insurance.getPayerName()));
+        });
+    }
+
+    @Override
+    public void insuranceDeleted(Long insuranceId) {
+        afterCommit(() -> {
+            if (!ready) {
+                deletedDuringLoad.add("insurance:" + insuranceId);
+            }
+            insurances.remove(insuranceId);
+        });
+    }
+
+    @Override
+    public void drugSaved(DrugEntity drug) {
+        afterCommit(() -> {
+            DrugSummaryDTO summary = drugSummary(drug);
+            drugs.put(drug.getDrugId(), drug.getDrugName(), summary);
+            drugText.put(drug.getDrugId(), summary, drug.getDrugName(), drug.getProcedureCode(), drug.getDrugDescription());
+        });
+    }
+
+    private static DrugSummaryDTO drugSummary(DrugEntity drug) {
+        return new DrugSummaryDTO(drug.getDrugId(), drug.getDrugName(), drug.getProcedureCode(),
+                drug.getDrugDescription());
+    }
+
+    // Soft-deleted orders and orders without a drug name drop out of the index
+    @Override
+    public void orderSaved(Order order) {
+        afterCommit(() -> {
+            if (order.isDeletedStatus() || order.getIcddrugname() == null) {
+                removeOrder(order.getOrderId());
+                return;
+            }
+            orders.put(order.getOrderId(), order.getIcddrugname(), new OrderSummaryDTO(order.getOrderId(),
+                    order.getIcddrugname(), order.getUniquepatientI(), order.getOrderDate(), order.getFromDateOfService()));
+        });
+    }
+
+    @Override
+    public void orderDeleted(Long orderId) {
+        afterCommit(() -> removeOrder(orderId));
+    }
+
+    // Not deferred again: a synchronization registered from afterCommit never runs
+    private void removeOrder(Long orderId) {
+        if (!ready) {
+            deletedDuringLoad.add("order:" + orderId);
+        }
+        orders.remove(orderId);
+    }
+
+    @Override
+    public boolean isReady() {
+        return ready;
+    }
+
+    @Override
+    public TrigramIndex<PatientSummaryDTO> patientIndex() {
+        return patients;
+    }
+
+    @Override
+    public TrigramIndex<ProviderSummaryDTO> providerIndex() {
+        return providers;
+    }
+
+    @Override
+    public TrigramIndex<InsuranceSummaryDTO> insuranceIndex() {
+        return insurances;
+    }
+
+    @Override
+    public TrigramIndex<DrugSummaryDTO> drugIndex() {
+        return drugs;
+    }
+
+    @Override
+    public TrigramIndex<OrderSummaryDTO> orderIndex() {
+        return orders;
+    }
+}
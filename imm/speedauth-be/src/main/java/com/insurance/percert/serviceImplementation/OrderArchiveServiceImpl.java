@@ -0,0 +1,130 @@
+package com.insurance.percert.serviceImplementation;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.insurance.percert.service.OrderArchiveService;
+import com.insurance.percert.util.SqlIdentifiers;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Moves long soft-deleted orders from orders_details to orders_archive so the
+ * live table only carries what the application can still show.
+ *
+ * Work is done in batches of ids, each copied and deleted in its own short
+ * transaction, so a large backlog never holds locks for long. Orders still
+ * referenced by an authorization stay where they are, since the foreign key
+ * would otherwise break.
+ */
+@Service
+public class OrderArchiveServiceImpl implements OrderArchiveService {
+
+    // Copied by name; must match the columns of Order and OrderArchive
+    private static final List<String> COLUMNS = List.of("order_id", "order_date", "from_date_of_service",
+            "to_date_of_service", "order_type", "order_description", "order_priority", "order_icd_code",
+            "order_cpt_code", "orderjcode", "order_status", "units", "uniquepatienti", "provider_npi_number",
+            "insurance_id", "provider_name", "icddrugname", "icddrugdescription", "icddrugamtdispensed",
+            "icddrugamtdispensed_type", "icdnumberofchempresent", "icddrug_type", "icddrugunits",
+            "precertification_type", "deleted_status", "deleted_at", "consumed_authorization_id", "consumed_units");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${orders.archive.after-days:90}")
+    private int afterDays;
+
+    @Value("${orders.archive.batch-size:500}")
+    private int batchSize;
+
+    private TransactionTemplate transaction;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    @PostConstruct
+    void init() {
+        transaction = new TransactionTemplate(transactionManager);
+    }
+
+    @Scheduled(cron = "${orders.archive.cron:0 30 3 * * *}")
+    public void scheduledArchive() {
+        try {
+            if (!running.get()) {
+                archiveDeletedOrders();
+            }
+        } catch (RuntimeException e) {
+            System.err.println("Order archiving failed: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public int archiveDeletedOrders() {
+        if (!running.compareAndSet(false, true)) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Order archiving is already running");
+        }
+        try {
+            long started = System.currentTimeMillis();
+            String q = SqlIdentifiers.quoteString(jdbcTemplate);
+            String orders = SqlIdentifiers.quote(q, "orders_details");
+            String archive = SqlIdentifiers.quote(q, "orders_archive");
+            String orderId = SqlIdentifiers.quote(q, "order_id");
+            String deletedStatus = SqlIdentifiers.quote(q, "deleted_status");
+            String deletedAt = SqlIdentifiers.quote(q, "deleted_at");
+            String columns = String.join(", ", COLUMNS.stream().map(c -> SqlIdentifiers.quote(q, c)).toList());
+
+            // Uses idx_orders_deleted_at from OrderIndexMigration
+            String select = "SELECT o." + orderId + " FROM " + orders + " o WHERE o." + deletedStatus
+                    + " = true AND o." + deletedAt + " < ? AND NOT EXISTS (SELECT 1 FROM "
+                    + SqlIdentifiers.quote(q, "authorization") + " a WHERE a." + orderId + " = o." + orderId
+                    + ") ORDER BY o." + orderId + " LIMIT ?";
+            Timestamp cutoff = Timestamp.valueOf(LocalDateTime.now().minusDays(afterDays));
+
+            int archived = 0;
+            while (true) {
+                List<Long> ids = jdbcTemplate.queryForList(select, Long.class, cutoff, batchSize);
+                if (ids.isEmpty()) {
+                    break;
+                }
+                String in = " WHERE " + orderId + " IN (" + String.join(", ", Collections.nCopies(ids.size(), "?"))
+                        + ") AND " + deletedStatus + " = true";
+                Object[] args = ids.toArray();
+                Timestamp archivedAt = new Timestamp(System.currentTimeMillis());
+                Integer moved = transaction.execute(status -> {
+                    Object[] insertArgs = new Object[args.length + 1];
+                    insertArgs[0] = archivedAt;
+                    System.arraycopy(args, 0, insertArgs, 1, args.length);
+                    jdbcTemplate.update("INSERT INTO " + archive + " (" + columns + ", "
+                            + SqlIdentifiers.quote(q, "archived_at") + ") SELECT " + columns + ", ? FROM " + orders + in,
+                            insertArgs);
+                    return jdbcTemplate.update("DELETE FROM " + orders + in, args);
+                });
+                archived += moved == null ? 0 : moved;
+                if (ids.size() < batchSize) {
+                    break;
+                }
+            }
+            if (archived > 0) {
+                System.out.println("Archived " + archived + " orders deleted before " + cutoff + " in "
+                        + (System.currentTimeMillis() - started) + " ms");
+            }
+            return archived;
+        } finally {
+            running.set(false);
+        }
+    }
+}
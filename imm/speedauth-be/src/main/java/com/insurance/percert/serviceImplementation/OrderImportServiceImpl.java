@@ -0,0 +1,467 @@
+package com.insurance.percert.serviceImplementation;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.introspect.BeanPropertyDefinition;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.insurance.percert.model.Order;
+import com.insurance.percert.model.OrderImportResultDTO;
+import com.insurance.percert.service.AuthorizationUnitsService;
+import com.insurance.percert.service.NameSearchService;
+import com.insurance.percert.service.OrderOutboxService;
+import com.insurance.percert.service.OrderImportService;
+import com.insurance.percert.util.CsvReader;
+import com.insurance.percert.util.SqlIdentifiers;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Bulk order import for EHR exports.
+ *
+ * Records are parsed one at a time and collected into batches; only the
+ * current batch is ever held, so memory stays flat however long the input is.
+ * Each record is validated before it reaches the database, including that its
+ * patient, provider NPI and insurance exist. Those keys are checked against
+ * sets loaded with one query per table and kept for a short while, instead of
+ * a lookup per row.
+ *
+ * A batch is inserted with one JDBC batch statement in its own transaction
+ * and the generated order ids are read back. If the batch fails, its rows are
+ * retried one by one so a single bad row only rejects itself. Results are
+ * written in input order as each batch completes.
+ *
+ * Authorized units are taken, and the outbox events that raise draft
+ * authorizations are written, inside the same transaction as the insert, so
+ * an order that would overdraw its authorization is rejected on its own and a
+ * failed batch gives back everything it took.
+ */
+@Service
+public class OrderImportServiceImpl implements OrderImportService {
+
+    // Columns written for a new order, in parameter order; order_id is generated
+    private static final String[] COLUMNS = { "order_date", "from_date_of_service", "to_date_of_service",
+            "order_type", "order_description", "order_priority", "order_icd_code", "order_cpt_code", "orderjcode",
+            "order_status", "units", "uniquepatienti", "provider_npi_number", "insurance_id", "provider_name",
+            "icddrugname", "icddrugdescription", "icddrugamtdispensed", "icddrugamtdispensed_type",
+            "icdnumberofchempresent", "icddrug_type", "icddrugunits", "precertification_type", "deleted_status",
+            "consumed_authorization_id", "consumed_units" };
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private NameSearchService nameSearchService;
+
+    @Autowired
+    private AuthorizationUnitsService authorizationUnitsService;
+
+    @Autowired
+    private OrderOutboxService orderOutboxService;
+
+    @Value("${orders.import.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${orders.import.key-cache-ms:60000}")
+    private long keyCacheMs;
+
+    private TransactionTemplate transaction;
+    private Set<String> orderProperties;
+    private final AtomicReference<KeySets> keys = new AtomicReference<>();
+
+    // patients maps custom_patient_id to patient_id, which the units ledger needs
+    private record KeySets(Map<String, Long> patients, Set<String> providers, Set<String> insurances, long loadedAt) {
+    }
+
+    // A record waiting for its batch: the order to insert, or the reasons it was rejected
+    private record Pending(long line, Order order, List<String> errors) {
+    }
+
+    @PostConstruct
+    void init() {
+        transaction = new TransactionTemplate(transactionManager);
+        orderProperties = new HashSet<>();
+        for (BeanPropertyDefinition property : objectMapper.getDeserializationConfig()
+                .introspect(objectMapper.constructType(Order.class)).findProperties()) {
+            orderProperties.add(property.getName());
+        }
+    }
+
+    @Override
+    public void importOrders(InputStream in, String format, OutputStream out) throws IOException {
+        long started = System.currentTimeMillis();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        Importer importer = new Importer(out, started);
+        if (CSV.equals(format)) {
+            CsvReader csv = new CsvReader(reader);
+            List<String> header = csv.next();
+            if (header == null) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "The CSV has no header row");
+            }
+            List<String> names = header.stream().map(String::trim).toList();
+            for (String name : names) {
+                if (!orderProperties.contains(name)) {
+                    throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown CSV column: " + name);
+                }
+            }
+            for (List<String> fields = csv.next(); fields != null; fields = csv.next()) {
+                importer.add(csv.recordLine(), fromCsv(names, fields));
+            }
+        } else {
+            long line = 0;
+            for (String text = reader.readLine(); text != null; text = reader.readLine()) {
+                line++;
+                if (!text.isBlank()) {
+                    importer.add(line, fromJson(text));
+                }
+            }
+        }
+        importer.finish();
+    }
+
+    private Object fromJson(String text) {
+        try {
+            return objectMapper.readValue(text, Order.class);
+        } catch (JsonProcessingException e) {
+            return "Invalid JSON: " + e.getOriginalMessage();
+        }
+    }
+
+    private Object fromCsv(List<String> names, List<String> fields) {
+        if (fields.size() != names.size()) {
+            return "Expected " + names.size() + " fields but found " + fields.size();
+        }
+        ObjectNode node = objectMapper.createObjectNode();
+        for (int i = 0; i < names.size(); i++) {
+            String value = fields.get(i).trim();
+            if (!value.isEmpty()) {
+                node.put(names.get(i), value);
+            }
+        }
+        try {
+            return objectMapper.treeToValue(node, Order.class);
+        } catch (JsonProcessingException e) {
+            return "Invalid value: " + e.getOriginalMessage();
+        }
+    }
+
+    // Batches one import; parsed is an Order or the message explaining why it could not be read
+    private class Importer {
+        private final OutputStream out;
+        private final long started;
+        private final List<Pending> batch = new ArrayList<>();
+        private KeySets keySets = keySets();
+        private boolean keysReloaded;
+        private long records;
+        private long created;
+
+        private Importer(OutputStream out, long started) {
+            this.out = out;
+            this.started = started;
+        }
+
+        void add(long line, Object parsed) throws IOException {
+            records++;
+            if (parsed instanceof Order order) {
+                // Imports always create new, live orders
+                order.setOrderId(null);
+                order.setDeletedStatus(false);
+                order.setDeletedAt(null);
+                order.setConsumedAuthorizationId(null);
+                order.setConsumedUnits(null);
+                List<String> errors = validate(order);
+                batch.add(new Pending(line, errors.isEmpty() ? order : null, errors.isEmpty() ? null : errors));
+            } else {
+                batch.add(new Pending(line, null, List.of((String) parsed)));
+            }
+            if (batch.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        void finish() throws IOException {
+            flush();
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("records", records);
+            summary.put("created", created);
+            summary.put("rejected", records - created);
+            summary.put("millis", System.currentTimeMillis() - started);
+            write(Map.of("summary", summary));
+            out.flush();
+            System.out.println("Order import: " + records + " records, " + created + " created in "
+                    + (System.currentTimeMillis() - started) + " ms");
+        }
+
+        private List<String> validate(Order order) {
+            List<String> errors = new ArrayList<>(0);
+            if (order.getOrderDate() == null) {
+                errors.add("orderDate is required");
+            }
+            if (order.getFromDateOfService() == null || order.getToDateOfService() == null) {
+                errors.add("fromDateOfService and toDateOfService are required");
+            } else if (order.getToDateOfService().isBefore(order.getFromDateOfService())) {
+                errors.add("toDateOfService is before fromDateOfService");
+            }
+            if (isBlank(order.getOrderType())) {
+                errors.add("orderType is required");
+            }
+            if (order.getUnits() < 0) {
+                errors.add("units must not be negative");
+            }
+            checkKey(errors, "uniquepatientI", order.getUniquepatientI(), true, k -> k.patients().keySet());
+            checkKey(errors, "providerNpiNumber", order.getProviderNpiNumber(), true, KeySets::providers);
+            checkKey(errors, "insuranceId", order.getInsuranceId(), false, KeySets::insurances);
+            return errors;
+        }
+
+        private void checkKey(List<String> errors, String name, String value, boolean required,
+                Function<KeySets, Set<String>> set) {
+            if (isBlank(value)) {
+                if (required) {
+                    errors.add(name + " is required");
+                }
+                return;
+            }
+            String key = value.trim();
+            if (!set.apply(keySets).contains(key)) {
+                // The sets may predate this import; re-read them once before rejecting
+                if (!keysReloaded && keySets.loadedAt() < started) {
+                    keysReloaded = true;
+                    keySets = loadKeys();
+                    keys.set(keySets);
+                    if (set.apply(keySets).contains(key)) {
+                        return;
+                    }
+                }
+                errors.add("Unknown " + name + ": " + key);
+            }
+        }
+
+        private void flush() throws IOException {
+            if (batch.isEmpty()) {
+                return;
+            }
+            List<Order> orders = new ArrayList<>(batch.size());
+            for (Pending pending : batch) {
+                if (pending.order() != null) {
+                    orders.add(pending.order());
+                }
+            }
+            Map<Order, String> failures = insert(orders, keySets.patients());
+            for (Pending pending : batch) {
+                Order order = pending.order();
+                if (order == null) {
+                    write(new OrderImportResultDTO(pending.line(), OrderImportResultDTO.REJECTED, null, pending.errors()));
+                } else if (failures.containsKey(order)) {
+                    write(new OrderImportResultDTO(pending.line(), OrderImportResultDTO.REJECTED, null,
+                            List.of(failures.get(order))));
+                } else {
+                    created++;
+                    nameSearchService.orderSaved(order);
+                    write(new OrderImportResultDTO(pending.line(), OrderImportResultDTO.CREATED, order.getOrderId(), null));
+                }
+            }
+            batch.clear();
+            out.flush();
+        }
+
+        private void write(Object value) throws IOException {
+            out.write(objectMapper.writeValueAsBytes(value));
+            out.write('\n');
+        }
+    }
+
+    // Sets each inserted order's id; returns the orders that could not be inserted, with the reason
+    private Map<Order, String> insert(List<Order> orders, Map<String, Long> patients) {
+        Map<Order, String> failures = new IdentityHashMap<>();
+        if (orders.isEmpty()) {
+            return failures;
+        }
+        String sql = insertSql();
+        try {
+            transaction.executeWithoutResult(status -> insertBatch(sql, consume(orders, patients, failures)));
+        } catch (DataAccessException e) {
+            // Rolled back, units included; find the offending rows and let the rest go in on their own
+            failures.clear();
+            for (Order order : orders) {
+                order.setConsumedAuthorizationId(null);
+                order.setConsumedUnits(null);
+                try {
+                    transaction.executeWithoutResult(
+                            status -> insertBatch(sql, consume(List.of(order), patients, failures)));
+                } catch (DataAccessException rowFailure) {
+                    order.setOrderId(null);
+                    failures.put(order, "Insert failed: " + rowFailure.getMostSpecificCause().getMessage());
+                }
+            }
+        }
+        return failures;
+    }
+
+    // Takes each order's authorized units; returns the orders that got them or need none
+    private List<Order> consume(List<Order> orders, Map<String, Long> patients, Map<Order, String> failures) {
+        List<Order> admitted = new ArrayList<>(orders.size());
+        for (Order order : orders) {
+            Long patientId = patients.get(order.getUniquepatientI().trim());
+            try {
+                if (patientId != null) {
+                    authorizationUnitsService.consume(order, patientId);
+                }
+                admitted.add(order);
+            } catch (ResponseStatusException e) {
+                failures.put(order, e.getReason());
+            }
+        }
+        return admitted;
+    }
+
+    private void insertBatch(String sql, List<Order> orders) {
+        if (orders.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            try (PreparedStatement ps = prepare(connection, sql)) {
+                for (Order order : orders) {
+                    bind(ps, order);
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+                try (ResultSet keys = ps.getGeneratedKeys()) {
+                    for (Order order : orders) {
+                        if (!keys.next()) {
+                            throw new IllegalStateException("The driver returned fewer generated ids than rows");
+                        }
+                        order.setOrderId(keys.getLong(1));
+                    }
+                }
+            }
+            return null;
+        });
+        orderOutboxService.ordersCreated(orders.stream().map(Order::getOrderId).toList());
+    }
+
+    private static PreparedStatement prepare(Connection connection, String sql) throws SQLException {
+        return connection.prepareStatement(sql, new String[] { "order_id" });
+    }
+
+    private static void bind(PreparedStatement ps, Order order) throws SQLException {
+        int i = 1;
+        ps.setTimestamp(i++, new Timestamp(order.getOrderDate().getTime()));
+        ps.setObject(i++, order.getFromDateOfService(), Types.DATE);
+        ps.setObject(i++, order.getToDateOfService(), Types.DATE);
+        ps.setString(i++, order.getOrderType());
+        ps.setString(i++, order.getOrderDescription());
+        ps.setString(i++, order.getOrderPriority());
+        ps.setString(i++, order.getOrderIcdCode());
+        ps.setString(i++, order.getOrderCptCode());
+        ps.setString(i++, order.getOrderJCode());
+        ps.setString(i++, order.getOrderStatus());
+        ps.setInt(i++, order.getUnits());
+        ps.setString(i++, order.getUniquepatientI().trim());
+        ps.setString(i++, order.getProviderNpiNumber().trim());
+        ps.setString(i++, isBlank(order.getInsuranceId()) ? null : order.getInsuranceId().trim());
+        ps.setString(i++, order.getProviderName());
+        ps.setString(i++, order.getIcddrugname());
+        ps.setString(i++, order.getIcddrugdescription());
+        ps.setString(i++, order.getIcddrugamtdispensed());
+        ps.setString(i++, order.getIcddrugamtdispensedType());
+        ps.setString(i++, order.getIcdnumberofchempresent());
+        ps.setString(i++, order.getIcddrugType());
+        ps.setString(i++, order.getIcddrugunits());
+        ps.setString(i++, order.getPrecertificationType());
+        ps.setBoolean(i++, order.isDeletedStatus());
+        ps.setObject(i++, order.getConsumedAuthorizationId(), Types.BIGINT);
+        ps.setObject(i, order.getConsumedUnits(), Types.INTEGER);
+    }
+
+    private String insertSql() {
+        String q = SqlIdentifiers.quoteString(jdbcTemplate);
+        StringBuilder columns = new StringBuilder();
+        StringBuilder params = new StringBuilder();
+        for (String column : COLUMNS) {
+            if (columns.length() > 0) {
+                columns.append(", ");
+                params.append(", ");
+            }
+            columns.append(SqlIdentifiers.quote(q, column));
+            params.append('?');
+        }
+        return "INSERT INTO " + SqlIdentifiers.quote(q, "orders_details") + " (" + columns + ") VALUES (" + params + ")";
+    }
+
+    private KeySets keySets() {
+        KeySets current = keys.get();
+        if (current == null || System.currentTimeMillis() - current.loadedAt() > keyCacheMs) {
+            current = loadKeys();
+            keys.set(current);
+        }
+        return current;
+    }
+
+    private KeySets loadKeys() {
+        String q = SqlIdentifiers.quoteString(jdbcTemplate);
+        Map<String, Long> patients = new HashMap<>();
+        jdbcTemplate.query("SELECT " + SqlIdentifiers.quote(q, "custom_patient_id") + ", "
+                + SqlIdentifiers.quote(q, "patient_id") + " FROM " + SqlIdentifiers.quote(q, "patient_details")
+                + " WHERE " + SqlIdentifiers.quote(q, "custom_patient_id") + " IS NOT NULL", rs -> {
+                    patients.put(rs.getString(1).trim(), rs.getLong(2));
+                });
+        return new KeySets(
+                patients,
+                distinct(q, "provider_details", "npi_number"),
+                distinct(q, "insurance_details", "custom_insurance_id"),
+                System.currentTimeMillis());
+    }
+
+    private Set<String> distinct(String q, String table, String column) {
+        Set<String> values = new HashSet<>();
+        jdbcTemplate.query("SELECT " + SqlIdentifiers.quote(q, column) + " FROM " + SqlIdentifiers.quote(q, table)
+                + " WHERE " + SqlIdentifiers.quote(q, column) + " IS NOT NULL", rs -> {
+                    values.add(rs.getString(1).trim());
+                });
+        return values;
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+}
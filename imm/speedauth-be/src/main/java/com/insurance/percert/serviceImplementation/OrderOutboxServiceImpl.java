@@ -0,0 +1,307 @@
+package com.insurance.percert.serviceImplementation;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.insurance.percert.Repository.AuthorizationRepository;
+import com.insurance.percert.Repository.InsuranceRepository;
+import com.insurance.percert.Repository.OrderOutboxRepository;
+import com.insurance.percert.Repository.OrderRepository;
+import com.insurance.percert.Repository.PatientRepository;
+import com.insurance.percert.Repository.ProviderRepository;
+import com.insurance.percert.model.Authorization;
+import com.insurance.percert.model.Insurance;
+import com.insurance.percert.model.Order;
+import com.insurance.percert.model.OrderOutboxEntity;
+import com.insurance.percert.model.PatientEntity;
+import com.insurance.percert.model.ProviderEntity;
+import com.insurance.percert.service.AuthorizationService;
+import com.insurance.percert.service.CptAuthMatrixService;
+import com.insurance.percert.service.OrderOutboxService;
+import com.insurance.percert.util.SqlIdentifiers;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Transactional outbox between order intake and authorization drafting.
+ *
+ * Creating an order only adds one row to order_outbox in the same
+ * transaction, so the write path does no extra lookups and an event exists
+ * exactly when its order was committed. The poller then takes pending events
+ * in batches: the orders, their patients, providers and insurances and any
+ * existing authorizations are loaded with one query each, the payer x CPT
+ * matrix decides whether prior auth is required, and the drafts are saved
+ * together with the events being marked handled. Should a batch fail, its
+ * events are retried one by one so a bad order only holds up itself.
+ */
+@Service
+public class OrderOutboxServiceImpl implements OrderOutboxService {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private OrderOutboxRepository orderOutboxRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private ProviderRepository providerRepository;
+
+    @Autowired
+    private InsuranceRepository insuranceRepository;
+
+    @Autowired
+    private AuthorizationRepository authorizationRepository;
+
+    @Autowired
+    private AuthorizationService authorizationService;
+
+    @Autowired
+    private CptAuthMatrixService cptAuthMatrixService;
+
+    @Value("${orders.outbox.enabled:true}")
+    private boolean enabled;
+
+    @Value("${orders.outbox.batch-size:200}")
+    private int batchSize;
+
+    @Value("${orders.outbox.max-attempts:5}")
+    private int maxAttempts;
+
+    // Handled events are kept this long for tracing, then purged
+    @Value("${orders.outbox.retention-days:7}")
+    private int retentionDays;
+
+    private TransactionTemplate transaction;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    @PostConstruct
+    void init() {
+        transaction = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public void ordersCreated(List<Long> orderIds) {
+        if (orderIds.isEmpty()) {
+            return;
+        }
+        String q = SqlIdentifiers.quoteString(jdbcTemplate);
+        Timestamp createdAt = new Timestamp(System.currentTimeMillis());
+        jdbcTemplate.batchUpdate("INSERT INTO " + SqlIdentifiers.quote(q, "order_outbox") + " ("
+                + SqlIdentifiers.quote(q, "orderId") + ", " + SqlIdentifiers.quote(q, "eventType") + ", "
+                + SqlIdentifiers.quote(q, "createdAt") + ", " + SqlIdentifiers.quote(q, "attempts")
+                + ") VALUES (?, ?, ?, 0)", orderIds, orderIds.size(), (ps, orderId) -> {
+                    ps.setLong(1, orderId);
+                    ps.setString(2, OrderOutboxEntity.ORDER_CREATED);
+                    ps.setTimestamp(3, createdAt);
+                });
+    }
+
+    @Scheduled(fixedDelayString = "${orders.outbox.poll-ms:2000}", initialDelayString = "${orders.outbox.poll-ms:2000}")
+    public void scheduledPoll() {
+        if (!enabled || running.get()) {
+            return;
+        }
+        try {
+            processPending();
+        } catch (RuntimeException e) {
+            System.err.println("Order outbox poll failed: " + e.getMessage());
+        }
+    }
+
+    @Scheduled(cron = "${orders.outbox.purge-cron:0 45 3 * * *}")
+    public void purgeProcessed() {
+        try {
+            LocalDateTime cutoff = LocalDateTime.now().minusDays(retentionDays);
+            Integer purged = transaction.execute(status -> orderOutboxRepository.deleteProcessedBefore(cutoff));
+            if (purged != null && purged > 0) {
+                System.out.println("Order outbox: purged " + purged + " handled events older than " + cutoff);
+            }
+        } catch (RuntimeException e) {
+            System.err.println("Order outbox purge failed: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public int processPending() {
+        if (!running.compareAndSet(false, true)) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "The order outbox is already being processed");
+        }
+        try {
+            long started = System.currentTimeMillis();
+            int handled = 0;
+            while (true) {
+                List<Long> claimed = new ArrayList<>();
+                int count;
+                try {
+                    count = transaction.execute(status -> {
+                        List<OrderOutboxEntity> events = orderOutboxRepository.findPending(maxAttempts,
+                                PageRequest.of(0, batchSize));
+                        for (OrderOutboxEntity event : events) {
+                            claimed.add(event.getId());
+                        }
+                        handle(events);
+                        return events.size();
+                    });
+                } catch (RuntimeException e) {
+                    if (claimed.isEmpty()) {
+                        throw e;
+                    }
+                    for (Long id : claimed) {
+                        handleAlone(id);
+                    }
+                    count = claimed.size();
+                }
+                handled += count;
+                if (count < batchSize) {
+                    break;
+                }
+            }
+            if (handled > 0) {
+                System.out.println("Order outbox: handled " + handled + " events in "
+                        + (System.currentTimeMillis() - started) + " ms");
+            }
+            return handled;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private void handleAlone(Long id) {
+        try {
+            transaction.executeWithoutResult(status -> orderOutboxRepository.findById(id)
+                    .filter(event -> event.getProcessedAt() == null)
+                    .ifPresent(event -> handle(List.of(event))));
+        } catch (RuntimeException e) {
+            String error = String.valueOf(e.getMessage());
+            System.err.println("Order outbox event " + id + " failed: " + error);
+            transaction.executeWithoutResult(status -> orderOutboxRepository.recordFailure(id,
+                    error.length() > 1000 ? error.substring(0, 1000) : error));
+        }
+    }
+
+    private void handle(List<OrderOutboxEntity> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        Set<Long> orderIds = new HashSet<>();
+        for (OrderOutboxEntity event : events) {
+            orderIds.add(event.getOrderId());
+        }
+        Map<Long, Order> orders = byKey(orderRepository.findAllById(orderIds), Order::getOrderId);
+        Set<Long> authorized = new HashSet<>(authorizationRepository.findOrderIdsWithAuthorization(orderIds));
+        Map<String, PatientEntity> patients = byKey(find(keys(orders, Order::getUniquepatientI),
+                patientRepository::findByCustomPatientIdIn), PatientEntity::getCustomPatientId);
+        Map<String, ProviderEntity> providers = byKey(find(keys(orders, Order::getProviderNpiNumber),
+                providerRepository::findByNpiNumberIn), ProviderEntity::getNpiNumber);
+        Map<String, Insurance> insurances = byKey(find(keys(orders, Order::getInsuranceId),
+                insuranceRepository::findByCustomInsuranceIdIn), Insurance::getCustomInsuranceId);
+
+        List<Authorization> drafts = new ArrayList<>();
+        List<OrderOutboxEntity> drafted = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+        for (OrderOutboxEntity event : events) {
+            event.setProcessedAt(now);
+            Order order = orders.get(event.getOrderId());
+            if (order == null || order.isDeletedStatus()) {
+                event.setOutcome(OrderOutboxEntity.SKIPPED);
+                continue;
+            }
+            // add() also stops a second event for the same order in this batch
+            if (!authorized.add(order.getOrderId())) {
+                event.setOutcome(OrderOutboxEntity.EXISTS);
+                continue;
+            }
+            Insurance insurance = insurances.get(trim(order.getInsuranceId()));
+            String codes = (order.getOrderCptCode() == null ? "" : order.getOrderCptCode()) + ","
+                    + (order.getOrderJCode() == null ? "" : order.getOrderJCode());
+            if (!cptAuthMatrixService.authRequired(insurance != null ? insurance.getPayerId() : null, codes)) {
+                event.setOutcome(OrderOutboxEntity.NOT_REQUIRED);
+                continue;
+            }
+            drafts.add(draft(order, patients.get(trim(order.getUniquepatientI())),
+                    providers.get(trim(order.getProviderNpiNumber())), insurance));
+            drafted.add(event);
+        }
+        if (!drafts.isEmpty()) {
+            List<Authorization> saved = authorizationService.createDraftAuthorizations(drafts);
+            for (int i = 0; i < drafted.size(); i++) {
+                drafted.get(i).setOutcome(OrderOutboxEntity.CREATED);
+                drafted.get(i).setAuthorizationId(saved.get(i).getAuthorizationId());
+            }
+        }
+        orderOutboxRepository.saveAll(events);
+    }
+
+    // The same defaults /authorizations/create-full starts a draft with, filled in from the order
+    private static Authorization draft(Order order, PatientEntity patient, ProviderEntity provider,
+            Insurance insurance) {
+        Authorization authorization = new Authorization();
+        authorization.setApprovalStatus("yet to submit");
+        authorization.setRequestType("draft");
+        authorization.setInitialSaveStatus("saved");
+        authorization.setRequestStatus("Auth Required");
+        authorization.setOrder(order);
+        authorization.setPatient(patient);
+        authorization.setProvider(provider);
+        authorization.setInsurance(insurance);
+        authorization.setProviderName(provider != null ? provider.getProviderName() : order.getProviderName());
+        authorization.setOrderType(order.getOrderType());
+        authorization.setUnits(order.getUnits() > 0 ? order.getUnits() : null);
+        return authorization;
+    }
+
+    private static Set<String> keys(Map<Long, Order> orders, Function<Order, String> key) {
+        Set<String> keys = new HashSet<>();
+        for (Order order : orders.values()) {
+            String value = trim(key.apply(order));
+            if (value != null) {
+                keys.add(value);
+            }
+        }
+        return keys;
+    }
+
+    private static <V> List<V> find(Set<String> keys, Function<Set<String>, List<V>> query) {
+        return keys.isEmpty() ? List.of() : query.apply(keys);
+    }
+
+    private static <K, V> Map<K, V> byKey(List<V> values, Function<V, K> key) {
+        Map<K, V> map = new HashMap<>();
+        for (V value : values) {
+            map.putIfAbsent(key.apply(value), value);
+        }
+        return map;
+    }
+
+    private static String trim(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+}
@@ -1,27 +1,39 @@
 package com.insurance.percert.serviceImplementation;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.insurance.percert.Repository.OrderRepository;
 import com.insurance.percert.model.Order;
+import com.insurance.percert.service.AuthorizationUnitsService;
+import com.insurance.percert.service.NameSearchService;
+import com.insurance.percert.service.OrderOutboxService;
 import com.insurance.percert.service.OrderService;
 
 @Service
 public class OrderServiceImplementation implements OrderService {
     private final OrderRepository orderRepository;
+    private final NameSearchService nameSearchService;
+    private final AuthorizationUnitsService authorizationUnitsService;
+    private final OrderOutboxService orderOutboxService;
 
     @Autowired
-    public OrderServiceImplementation(OrderRepository orderRepository) {
+    public OrderServiceImplementation(OrderRepository orderRepository, NameSearchService nameSearchService,
+            AuthorizationUnitsService authorizationUnitsService, OrderOutboxService orderOutboxService) {
         this.orderRepository = orderRepository;
+        this.nameSearchService = nameSearchService;
+        this.authorizationUnitsService = authorizationUnitsService;
+        this.orderOutboxService = orderOutboxService;
     }
 
     @Override
     public List<Order> getAllOrders() {
-        return orderRepository.findAll();
+        return orderRepository.findByDeletedStatusFalse();
     }
 
     // @Override
@@ -39,12 +51,20 @@ public class OrderServiceImplementation implements OrderService {
         }
     }
 
+    // The units and the outbox event go in the same transaction as the save, so a failed save
+    // gives the units back and raises no draft authorization
     @Override
+    @Transactional
     public Order createOrder(Order order) {
-        return orderRepository.save(order);
+        authorizationUnitsService.consume(order);
+        Order savedOrder = orderRepository.save(order);
+        orderOutboxService.ordersCreated(List.of(savedOrder.getOrderId()));
+        nameSearchService.orderSaved(savedOrder);
+        return savedOrder;
     }
 
     @Override
+    @Transactional
     public Order updateOrder(Long orderId, Order orderDetails) {
         Order existingOrder = orderRepository.findById(orderId)
                 .orElseThrow(() -> new RuntimeException("Order not found with id: " + orderId));
@@ -73,14 +93,24 @@ public class OrderServiceImplementation implements OrderService {
         existingOrder.setUniquepatientI(orderDetails.getUniquepatientI());
         existingOrder.setProviderNpiNumber(orderDetails.getProviderNpiNumber());
         existingOrder.setInsuranceId(orderDetails.getInsuranceId());
-        return orderRepository.save(existingOrder);
+        // Codes, dates or units may have changed: give back what was taken and take again
+        authorizationUnitsService.release(existingOrder);
+        if (!existingOrder.isDeletedStatus()) {
+            authorizationUnitsService.consume(existingOrder);
+        }
+        Order savedOrder = orderRepository.save(existingOrder);
+        nameSearchService.orderSaved(savedOrder);
+        return savedOrder;
     }
 
     @Override
+    @Transactional
     public void deleteOrder(Long orderId) {
         Order existingOrder = orderRepository.findById(orderId)
                 .orElseThrow(() -> new RuntimeException("Order not found with id: " + orderId));
+        authorizationUnitsService.release(existingOrder);
         orderRepository.delete(existingOrder);
+        nameSearchService.orderDeleted(orderId);
     }
 
     // @Override
@@ -89,24 +119,25 @@ public class OrderServiceImplementation implements OrderService {
     // }
 @Override
     public List<Order> doesPatIdExist(String patId) {
-        List<Order> orders = orderRepository.findByUniquepatientI(patId);
+        List<Order> orders = orderRepository.findByUniquepatientIAndDeletedStatusFalse(patId);
         return orders;
     }
 
 
     @Override
     public List<Order> getOrdersByProviderNpiNumber(String providerNpiNumber) {
-        return orderRepository.findByProviderNpiNumber(providerNpiNumber);
+        return orderRepository.findByProviderNpiNumberAndDeletedStatusFalse(providerNpiNumber);
     }
 
 
    @Override
     public List<Order> getOrdersByProviderName(String providerName) {
         if (providerName == null) return null;
-        return orderRepository.findByProviderNameIgnoreCase(providerName.trim());
+        return orderRepository.findByProviderNameIgnoreCaseAndDeletedStatusFalse(providerName.trim());
     }
 
 @Override
+    @Transactional
     public Order updateOrderpartly(Long orderId, Order orderDetails) throws Exception {
         // Find the order by its ID
         Optional<Order> optionalOrder = orderRepository.findById(orderId);
@@ -162,8 +193,15 @@ public class OrderServiceImplementation implements OrderService {
                 existingOrder.setProviderName(orderDetails.getProviderName());
             }
 
+            authorizationUnitsService.release(existingOrder);
+            if (!existingOrder.isDeletedStatus()) {
+                authorizationUnitsService.consume(existingOrder);
+            }
+
             // Save the updated order
-            return orderRepository.save(existingOrder);
+            Order savedOrder = orderRepository.save(existingOrder);
+            nameSearchService.orderSaved(savedOrder);
+            return savedOrder;
         } else {
             // If the order is not found, you can handle it as an error or return null
             throw new Exception("Order not found with ID: " + orderId);
@@ -171,6 +209,7 @@ public class OrderServiceImplementation implements OrderService {
     }
 
     @Override
+    @Transactional
     public Order deleteOrderpartly(Long orderId) throws Exception {
         // Find the order by its ID
         Optional<Order> optionalOrder = orderRepository.findById(orderId);
@@ -179,9 +218,13 @@ public class OrderServiceImplementation implements OrderService {
             Order existingOrder = optionalOrder.get();
 
            existingOrder.setDeletedStatus(true);
+           existingOrder.setDeletedAt(LocalDateTime.now());
+           authorizationUnitsService.release(existingOrder);
            
             // Save the updated order
-            return orderRepository.save(existingOrder);
+            Order savedOrder = orderRepository.save(existingOrder);
+            nameSearchService.orderSaved(savedOrder);
+            return savedOrder;
         } else {
             // If the order is not found, you can handle it as an error or return null
             throw new Exception("Order not found with ID: " + orderId);
@@ -194,12 +237,12 @@ public class OrderServiceImplementation implements OrderService {
 
     @Override
     public List<Order> findByIcdDrugName(String icdDrugName) {
-        return orderRepository.findByIcddrugname(icdDrugName);
+        return orderRepository.findByIcddrugnameAndDeletedStatusFalse(icdDrugName);
     }
 
     @Override
     public List<Order> searchByIcdDrugName(String term) {
-        return orderRepository.findByIcddrugnameContainingIgnoreCase(term);
+        return orderRepository.findByIcddrugnameContainingIgnoreCaseAndDeletedStatusFalse(term);
     }
 
 }
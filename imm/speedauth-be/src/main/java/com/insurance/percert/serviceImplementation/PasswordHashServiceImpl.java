@@ -0,0 +1,136 @@
+package com.insurance.percert.serviceImplementation;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.regex.Pattern;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.insurance.percert.service.PasswordHashService;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * BCrypt password hashing kept off the request threads.
+ *
+ * Every hash and check runs on passwordHashExecutor, whose pool and queue are
+ * bounded, so a burst of sign-ins costs at most that many cores and the rest
+ * of the API keeps its CPU. When the queue is full the request is turned away
+ * with 503 at once instead of piling up.
+ *
+ * Unless auth.password.strength is set, the cost factor is calibrated at
+ * startup: the fastest of a few warm hashes at the minimum cost is taken and
+ * the factor is raised while the doubled time still fits
+ * auth.password.target-ms. Stored hashes
+ * made at a lower cost, and legacy plaintext passwords, are reported by
+ * needsRehash so sign-in can replace them.
+ */
+@Service
+public class PasswordHashServiceImpl implements PasswordHashService {
+
+    private static final int MIN_STRENGTH = 10;
+    private static final int MAX_STRENGTH = 16;
+    private static final int CALIBRATION_RUNS = 3;
+    private static final Pattern BCRYPT = Pattern.compile("\\$2[aby]?\\$\\d\\d\\$[./A-Za-z0-9]{53}");
+
+    @Autowired
+    @Qualifier("passwordHashExecutor")
+    private ThreadPoolTaskExecutor executor;
+
+    // Fixed BCrypt cost (4-31); 0 calibrates to target-ms
+    @Value("${auth.password.strength:0}")
+    private int fixedStrength;
+
+    @Value("${auth.password.target-ms:250}")
+    private long targetMs;
+
+    private BCryptPasswordEncoder encoder;
+
+    @PostConstruct
+    void init() {
+        int strength = fixedStrength > 0 ? fixedStrength : calibrate(targetMs);
+        encoder = new BCryptPasswordEncoder(strength);
+        System.out.println("Password hashing: BCrypt cost " + strength + (fixedStrength > 0 ? " (fixed)" : "")
+                + " on " + executor.getMaxPoolSize() + " threads");
+    }
+
+    // Each step up doubles the work, so timing the minimum cost is enough to pick the factor.
+    // The first hashes run before the JIT has compiled BCrypt and can take twice as long, so
+    // the runs are warmed up at the same cost and the fastest one counts
+    private static int calibrate(long targetMs) {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(MIN_STRENGTH);
+        encoder.encode("warm-up");
+        double millis = Double.MAX_VALUE;
+        for (int run = 0; run < CALIBRATION_RUNS; run++) {
+            long started = System.nanoTime();
+            encoder.encode("calibration");
+            millis = Math.min(millis, (System.nanoTime() - started) / 1_000_000.0);
+        }
+        int strength = MIN_STRENGTH;
+        while (strength < MAX_STRENGTH && millis * 2 <= targetMs) {
+            strength++;
+            millis *= 2;
+        }
+        return strength;
+    }
+
+    @Override
+    public String hash(String rawPassword) {
+        if (rawPassword == null) {
+            throw new IllegalArgumentException("Password is required");
+        }
+        return run(() -> encoder.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(String rawPassword, String storedPassword) {
+        if (rawPassword == null || storedPassword == null) {
+            return false;
+        }
+        if (!isHash(storedPassword)) {
+            // Legacy plaintext record; replaced on this sign-in if it matches
+            return MessageDigest.isEqual(rawPassword.getBytes(StandardCharsets.UTF_8),
+                    storedPassword.getBytes(StandardCharsets.UTF_8));
+        }
+        return run(() -> encoder.matches(rawPassword, storedPassword));
+    }
+
+    @Override
+    public boolean needsRehash(String storedPassword) {
+        return storedPassword == null || !isHash(storedPassword) || encoder.upgradeEncoding(storedPassword);
+    }
+
+    private static boolean isHash(String storedPassword) {
+        return BCRYPT.matcher(storedPassword).matches();
+    }
+
+    private <T> T run(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (TaskRejectedException e) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                    "Too many sign-ins in progress; try again shortly");
+        }
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while hashing a password", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+}
@@ -0,0 +1,610 @@
+package com.insurance.percert.serviceImplementation;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.insurance.percert.Repository.AuthorizationRepository;
+import com.insurance.percert.Repository.ClaimRepository;
+import com.insurance.percert.Repository.FileTextRepository;
+import com.insurance.percert.Repository.FileUploadRepository;
+import com.insurance.percert.Repository.OrderRepository;
+import com.insurance.percert.Repository.PatientMergeCandidateRepository;
+import com.insurance.percert.Repository.PatientRepository;
+import com.insurance.percert.index.PatientDocumentIndex;
+import com.insurance.percert.index.PatientMatchIndex;
+import com.insurance.percert.model.Order;
+import com.insurance.percert.model.PatientEntity;
+import com.insurance.percert.model.PatientMergeCandidateEntity;
+import com.insurance.percert.service.ClaimPreAdjudicationService;
+import com.insurance.percert.service.NameSearchService;
+import com.insurance.percert.service.PatientDedupService;
+import com.insurance.percert.util.NameSimilarity;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Batch record linkage over patient_details. Comparing every pair of patients
+ * is quadratic, so each record is filed under a few blocking keys (date of
+ * birth, the phonetic code of each name with the other name's initial, and
+ * each policy number) and only records sharing a block are compared. A pair
+ * found in several blocks is scored only in the first of them. Blocks too big
+ * to compare exhaustively (a default birth date, a family policy shared by
+ * hundreds) are sorted by name and compared within a sliding window instead.
+ *
+ * Scoring is split by block, and within large blocks by row, across a
+ * fork/join pool. Pairs above the threshold are stored as PENDING merge
+ * candidates for review; merging repoints the duplicate's authorizations,
+ * orders and files to the survivor with set-based updates.
+ */
+@Service
+public class PatientDedupServiceImpl implements PatientDedupService {
+
+    // Comparisons below which a task runs sequentially instead of splitting
+    private static final long SPLIT_WORK = 20_000;
+    private static final int MIN_POLICY_LENGTH = 5;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private PatientMergeCandidateRepository candidateRepository;
+
+    @Autowired
+    private AuthorizationRepository authorizationRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ClaimRepository claimRepository;
+
+    @Autowired
+    private ClaimPreAdjudicationService claimPreAdjudicationService;
+
+    @Autowired
+    private FileUploadRepository fileUploadRepository;
+
+    @Autowired
+    private FileTextRepository fileTextRepository;
+
+    @Autowired
+    private NameSearchService nameSearchService;
+
+    @Autowired
+    private PatientDocumentIndex documentIndex;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${patient.dedup.min-score:0.8}")
+    private double minScore;
+
+    @Value("${patient.dedup.max-block-size:500}")
+    private int maxBlockSize;
+
+    @Value("${patient.dedup.window:20}")
+    private int window;
+
+    // 0 means one worker per CPU
+    @Value("${patient.dedup.parallelism:0}")
+    private int parallelism;
+
+    private TransactionTemplate transaction;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    private record Person(long patientId, String customPatientId, String fullName, String first, String last,
+            Set<String> firstCodes, Set<String> lastCodes, LocalDate dateOfBirth, String gender,
+            Set<String> policies) {
+    }
+
+    // A scored pair of person ordinals
+    private record Link(int a, int b, double score, String reasons) {
+    }
+
+    @PostConstruct
+    void init() {
+        transaction = new TransactionTemplate(transactionManager);
+    }
+
+    // Off unless patient.dedup.cron is set
+    @Scheduled(cron = "${patient.dedup.cron:-}")
+    public void scheduledDetection() {
+        try {
+            detectDuplicates();
+        } catch (IllegalStateException e) {
+            System.out.println("Skipping scheduled duplicate detection: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public int detectDuplicates() {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("Duplicate detection is already running");
+        }
+        try {
+            long started = System.currentTimeMillis();
+            List<Person> people = loadPeople();
+            Blocks blocks = buildBlocks(people);
+            List<Link> links = scoreBlocks(people, blocks);
+            List<PatientMergeCandidateEntity> candidates = toCandidates(people, links);
+            transaction.executeWithoutResult(status -> {
+                candidateRepository.deletePending();
+                candidateRepository.saveAll(candidates);
+            });
+            System.out.println("Duplicate detection: " + people.size() + " patients, " + blocks.members.length
+                    + " blocks, " + blocks.totalWork() + " comparisons, " + candidates.size() + " candidates in "
+                    + (System.currentTimeMillis() - started) + " ms");
+            return candidates.size();
+        } finally {
+            running.set(false);
+        }
+    }
+
+    @Override
+    public List<PatientMergeCandidateEntity> getCandidates(String status, int limit) {
+        return candidateRepository.findByStatusOrderByScoreDesc(status.toUpperCase(Locale.ROOT),
+                PageRequest.of(0, Math.max(1, limit)));
+    }
+
+    @Override
+    @Transactional
+    public PatientEntity merge(Long candidateId) {
+        PatientMergeCandidateEntity candidate = pendingCandidate(candidateId);
+        PatientEntity survivor = patientRepository.findById(candidate.getSurvivorPatientId())
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.CONFLICT,
+                        "Patient " + candidate.getSurvivorPatientId() + " no longer exists"));
+        PatientEntity duplicate = patientRepository.findById(candidate.getDuplicatePatientId())
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.CONFLICT,
+                        "Patient " + candidate.getDuplicatePatientId() + " no longer exists"));
+        LocalDateTime now = LocalDateTime.now();
+        if (candidateRepository.resolve(candidateId, "MERGED", now) == 0) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Merge candidate " + candidateId + " was resolved concurrently");
+        }
+
+        fillBlanks(survivor, duplicate);
+        patientRepository.save(survivor);
+
+        // Each update flushes pending changes and clears the persistence context,
+        // so the duplicate is deleted as it stands after the repointing
+        int authorizations = authorizationRepository.reassignPatient(duplicate, survivor);
+        int orders = duplicate.getCustomPatientId() == null ? 0
+                : orderRepository.reassignPatient(duplicate.getCustomPatientId(), survivor.getCustomPatientId());
+        int files = fileUploadRepository.reassignPatient(duplicate, survivor);
+        claimRepository.reassignPatient(duplicate.getPatientId(), survivor.getPatientId());
+        fileTextRepository.reassignPatient(duplicate.getPatientId(), survivor.getPatientId());
+        patientRepository.deleteById(duplicate.getPatientId());
+        candidateRepository.supersedePendingFor(duplicate.getPatientId(), now);
+
+        nameSearchService.patientDeleted(duplicate.getPatientId());
+        nameSearchService.patientSaved(survivor);
+        if (authorizations > 0) {
+            // The bulk update bypasses the entity listener; takes effect once the merge commits
+            claimPreAdjudicationService.authorizationsChanged();
+        }
+        if (orders > 0) {
+            for (Order order : orderRepository.findByUniquepatientIAndDeletedStatusFalse(survivor.getCustomPatientId())) {
+                nameSearchService.orderSaved(order);
+            }
+        }
+        // Rebuilt from file_texts on the next record search
+        documentIndex.removePatient(duplicate.getPatientId());
+        documentIndex.removePatient(survivor.getPatientId());
+
+        System.out.println("Merged patient " + duplicate.getCustomPatientId() + " into " + survivor.getCustomPatientId()
+                + ": " + authorizations + " authorizations, " + orders + " orders, " + files + " files moved");
+        return survivor;
+    }
+
+    @Override
+    @Transactional
+    public void reject(Long candidateId) {
+        pendingCandidate(candidateId);
+        if (candidateRepository.resolve(candidateId, "REJECTED", LocalDateTime.now()) == 0) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Merge candidate " + candidateId + " was resolved concurrently");
+        }
+    }
+
+    private PatientMergeCandidateEntity pendingCandidate(Long candidateId) {
+        PatientMergeCandidateEntity candidate = candidateRepository.findById(candidateId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND,
+                        "Merge candidate not found: " + candidateId));
+        if (!"PENDING".equals(candidate.getStatus())) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT,
+                    "Merge candidate " + candidateId + " is already " + candidate.getStatus());
+        }
+        return candidate;
+    }
+
+    // The survivor keeps its own values; the duplicate only fills what is missing
+    private static void fillBlanks(PatientEntity survivor, PatientEntity duplicate) {
+        survivor.setFirstName(firstNonBlank(survivor.getFirstName(), duplicate.getFirstName()));
+        survivor.setLastName(firstNonBlank(survivor.getLastName(), duplicate.getLastName()));
+        survivor.setFullName(firstNonBlank(survivor.getFullName(), duplicate.getFullName()));
+        if (survivor.getDateOfBirth() == null) {
+            survivor.setDateOfBirth(duplicate.getDateOfBirth());
+        }
+        survivor.setGender(firstNonBlank(survivor.getGender(), duplicate.getGender()));
+        survivor.setPrimaryInsurance(firstNonBlank(survivor.getPrimaryInsurance(), duplicate.getPrimaryInsurance()));
+        survivor.setSecondaryInsurance(firstNonBlank(survivor.getSecondaryInsurance(), duplicate.getSecondaryInsurance()));
+        survivor.setPrimaryPolicyNumber(firstNonBlank(survivor.getPrimaryPolicyNumber(), duplicate.getPrimaryPolicyNumber()));
+        survivor.setSecondaryPolicyNumber(firstNonBlank(survivor.getSecondaryPolicyNumber(), duplicate.getSecondaryPolicyNumber()));
+        survivor.setContactNumber(firstNonBlank(survivor.getContactNumber(), duplicate.getContactNumber()));
+        survivor.setInsuranceId(firstNonBlank(survivor.getInsuranceId(), duplicate.getInsuranceId()));
+        survivor.setSubscriberId(firstNonBlank(survivor.getSubscriberId(), duplicate.getSubscriberId()));
+    }
+
+    private static String firstNonBlank(String preferred, String fallback) {
+        return preferred != null && !preferred.isBlank() ? preferred : fallback;
+    }
+
+    private List<Person> loadPeople() {
+        List<Object[]> rows = patientRepository.findDedupRows();
+        List<Person> people = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            String[] names = NameSimilarity.splitName((String) row[2], (String) row[3], (String) row[4]);
+            Set<String> policies = new HashSet<>(2);
+            addPolicy(policies, (String) row[7]);
+            addPolicy(policies, (String) row[8]);
+            String gender = row[6] == null || ((String) row[6]).isBlank() ? null
+                    : ((String) row[6]).trim().substring(0, 1).toUpperCase(Locale.ROOT);
+            people.add(new Person(((Number) row[0]).longValue(), (String) row[1], (String) row[2], names[0], names[1],
+                    NameSimilarity.codes(names[0]), NameSimilarity.codes(names[1]), (LocalDate) row[5], gender,
+                    policies));
+        }
+        return people;
+    }
+
+    private static void addPolicy(Set<String> policies, String policy) {
+        if (policy == null) {
+            return;
+        }
+        StringBuilder normalized = new StringBuilder(policy.length());
+        for (int i = 0; i < policy.length(); i++) {
+            char c = policy.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                normalized.append(Character.toUpperCase(c));
+            }
+        }
+        if (normalized.length() >= MIN_POLICY_LENGTH) {
+            policies.add(normalized.toString());
+        }
+    }
+
+    private static Set<String> blockingKeys(Person person) {
+        Set<String> keys = new LinkedHashSet<>();
+        if (person.dateOfBirth() != null) {
+            keys.add("d:" + person.dateOfBirth());
+        }
+        // Keyed both ways round so records with first and last name swapped still meet
+        if (!person.last().isEmpty() && !person.first().isEmpty()) {
+            for (String code : person.lastCodes()) {
+                keys.add("n:" + code + ":" + person.first().charAt(0));
+            }
+            for (String code : person.firstCodes()) {
+                keys.add("n:" + code + ":" + person.last().charAt(0));
+            }
+        }
+        for (String policy : person.policies()) {
+            keys.add("p:" + policy);
+        }
+        return keys;
+    }
+
+    /**
+     * Person ordinals grouped by blocking key. Each (key, ordinal) pair is packed
+     * into one long and the lot sorted, which groups a million patients' keys
+     * without a list object per key.
+     */
+    private Blocks buildBlocks(List<Person> people) {
+        Map<String, Integer> keyIds = new HashMap<>();
+        long[] entries = new long[Math.max(16, people.size() * 4)];
+        int count = 0;
+        for (int i = 0; i < people.size(); i++) {
+            for (String key : blockingKeys(people.get(i))) {
+                int keyId = keyIds.computeIfAbsent(key, k -> keyIds.size());
+                if (count == entries.length) {
+                    entries = Arrays.copyOf(entries, count * 2);
+                }
+                entries[count++] = ((long) keyId << 32) | i;
+            }
+        }
+        keyIds.clear();
+        Arrays.sort(entries, 0, count);
+
+        List<int[]> members = new ArrayList<>();
+        for (int start = 0; start < count;) {
+            long keyId = entries[start] >>> 32;
+            int end = start + 1;
+            while (end < count && entries[end] >>> 32 == keyId) {
+                end++;
+            }
+            if (end - start >= 2) {
+                int[] block = new int[end - start];
+                for (int k = start; k < end; k++) {
+                    block[k - start] = (int) entries[k];
+                }
+                members.add(block);
+            }
+            start = end;
+        }
+
+        int blockCount = members.size();
+        boolean[] windowed = new boolean[blockCount];
+        long[] workPrefix = new long[blockCount + 1];
+        int[] perPerson = new int[people.size()];
+        for (int b = 0; b < blockCount; b++) {
+            int[] block = members.get(b);
+            long size = block.length;
+            if (size > maxBlockSize) {
+                windowed[b] = true;
+                sortByName(block, people);
+                workPrefix[b + 1] = workPrefix[b] + size * window;
+            } else {
+                workPrefix[b + 1] = workPrefix[b] + size * (size - 1) / 2;
+                for (int person : block) {
+                    perPerson[person]++;
+                }
+            }
+        }
+        // Exhaustive blocks each person belongs to, in increasing block order
+        int[][] byPerson = new int[people.size()][];
+        for (int i = 0; i < byPerson.length; i++) {
+            byPerson[i] = new int[perPerson[i]];
+            perPerson[i] = 0;
+        }
+        for (int b = 0; b < blockCount; b++) {
+            if (!windowed[b]) {
+                for (int person : members.get(b)) {
+                    byPerson[person][perPerson[person]++] = b;
+                }
+            }
+        }
+        return new Blocks(members.toArray(new int[0][]), windowed, byPerson, workPrefix);
+    }
+
+    private static void sortByName(int[] block, List<Person> people) {
+        Integer[] boxed = Arrays.stream(block).boxed().toArray(Integer[]::new);
+        Arrays.sort(boxed, Comparator.comparing((Integer i) -> people.get(i).last())
+                .thenComparing(i -> people.get(i).first()));
+        for (int i = 0; i < block.length; i++) {
+            block[i] = boxed[i];
+        }
+    }
+
+    private List<Link> scoreBlocks(List<Person> people, Blocks blocks) {
+        if (blocks.members.length == 0) {
+            return List.of();
+        }
+        int workers = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        ForkJoinPool pool = new ForkJoinPool(workers);
+        try {
+            return pool.invoke(new ScoreTask(people, blocks, 0, blocks.members.length, 0, blocks.members[0].length));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    // Keeps the best score per pair, drops pairs a reviewer already rejected,
+    // and proposes the older record as the survivor
+    private List<PatientMergeCandidateEntity> toCandidates(List<Person> people, List<Link> links) {
+        Map<Long, Link> best = new HashMap<>();
+        for (Link link : links) {
+            long key = ((long) Math.min(link.a(), link.b()) << 32) | Math.max(link.a(), link.b());
+            best.merge(key, link, (x, y) -> x.score() >= y.score() ? x : y);
+        }
+        Set<String> rejected = new HashSet<>();
+        for (Object[] pair : candidateRepository.findRejectedPairs()) {
+            rejected.add(pair[0] + ":" + pair[1]);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<PatientMergeCandidateEntity> candidates = new ArrayList<>();
+        for (Link link : best.values()) {
+            Person a = people.get(link.a());
+            Person b = people.get(link.b());
+            Person survivor = a.patientId() < b.patientId() ? a : b;
+            Person duplicate = survivor == a ? b : a;
+            if (rejected.contains(survivor.patientId() + ":" + duplicate.patientId())) {
+                continue;
+            }
+            candidates.add(new PatientMergeCandidateEntity(null, survivor.patientId(), survivor.customPatientId(),
+                    survivor.fullName(), duplicate.patientId(), duplicate.customPatientId(), duplicate.fullName(),
+                    link.score(), link.reasons(), "PENDING", now, null));
+        }
+        return candidates;
+    }
+
+    /** Null when the pair scores below the threshold. */
+    private Link score(int i, int j, Person a, Person b) {
+        double name = NameSimilarity.fullName(a.first(), a.firstCodes(), a.last(), a.lastCodes(),
+                b.first(), b.firstCodes(), b.last(), b.lastCodes());
+        // Even a perfect birth date and policy cannot lift a pair this far apart over the threshold
+        if (name < 0.5) {
+            return null;
+        }
+        double birth;
+        String birthReason;
+        if (a.dateOfBirth() == null || b.dateOfBirth() == null) {
+            birth = 0.5;
+            birthReason = "dob missing";
+        } else if (a.dateOfBirth().equals(b.dateOfBirth())) {
+            birth = 1;
+            birthReason = "dob exact";
+        } else if (b.dateOfBirth().equals(PatientMatchIndex.swapDayAndMonth(a.dateOfBirth()))) {
+            birth = 0.6;
+            birthReason = "dob day/month swapped";
+        } else {
+            birth = 0;
+            birthReason = "dob differs";
+        }
+        double score = 0.65 * name + 0.35 * birth;
+
+        boolean policy = false;
+        for (String p : a.policies()) {
+            if (b.policies().contains(p)) {
+                policy = true;
+                break;
+            }
+        }
+        if (policy) {
+            score += 0.15;
+        }
+        boolean genderDiffers = a.gender() != null && b.gender() != null && !a.gender().equals(b.gender());
+        if (genderDiffers) {
+            score *= 0.85;
+        }
+        score = Math.min(1, score);
+        if (score < minScore) {
+            return null;
+        }
+        String reasons = String.format(Locale.ROOT, "name %.2f, %s%s%s", name, birthReason,
+                policy ? ", policy" : "", genderDiffers ? ", gender differs" : "");
+        return new Link(i, j, Math.round(score * 1000) / 1000.0, reasons);
+    }
+
+    private record Blocks(int[][] members, boolean[] windowed, int[][] byPerson, long[] workPrefix) {
+
+        long totalWork() {
+            return workPrefix[members.length];
+        }
+    }
+
+    /**
+     * Scores blocks [fromBlock, toBlock). A range holding a single block covers
+     * only its rows [fromRow, toRow), so one oversized block still splits
+     * across workers.
+     */
+    private final class ScoreTask extends RecursiveTask<List<Link>> {
+
+        private final List<Person> people;
+        private final Blocks blocks;
+        private final int fromBlock;
+        private final int toBlock;
+        private final int fromRow;
+        private final int toRow;
+
+        ScoreTask(List<Person> people, Blocks blocks, int fromBlock, int toBlock, int fromRow, int toRow) {
+            this.people = people;
+            this.blocks = blocks;
+            this.fromBlock = fromBlock;
+            this.toBlock = toBlock;
+            this.fromRow = fromRow;
+            this.toRow = toRow;
+        }
+
+        @Override
+        protected List<Link> compute() {
+            if (toBlock - fromBlock > 1) {
+                long work = blocks.workPrefix[toBlock] - blocks.workPrefix[fromBlock];
+                if (work > SPLIT_WORK) {
+                    int mid = splitBlock(work / 2);
+                    ScoreTask left = new ScoreTask(people, blocks, fromBlock, mid, 0, blocks.members[fromBlock].length);
+                    ScoreTask right = new ScoreTask(people, blocks, mid, toBlock, 0, blocks.members[mid].length);
+                    return join(left, right);
+                }
+                List<Link> links = new ArrayList<>();
+                for (int b = fromBlock; b < toBlock; b++) {
+                    scoreRows(b, 0, blocks.members[b].length, links);
+                }
+                return links;
+            }
+            if (toRow - fromRow > 1 && rowWork() > SPLIT_WORK) {
+                int mid = (fromRow + toRow) >>> 1;
+                return join(new ScoreTask(people, blocks, fromBlock, toBlock, fromRow, mid),
+                        new ScoreTask(people, blocks, fromBlock, toBlock, mid, toRow));
+            }
+            List<Link> links = new ArrayList<>();
+            scoreRows(fromBlock, fromRow, toRow, links);
+            return links;
+        }
+
+        private long rowWork() {
+            int size = blocks.members[fromBlock].length;
+            if (blocks.windowed[fromBlock]) {
+                return (long) (toRow - fromRow) * Math.min(window, size - 1);
+            }
+            // Row r is compared with the size - 1 - r rows after it
+            long firstRow = size - 1L - fromRow;
+            long lastRow = size - 1L - (toRow - 1);
+            return (firstRow + lastRow) * (toRow - fromRow) / 2;
+        }
+
+        // First block past the midpoint of this range's work, keeping both halves non-empty
+        private int splitBlock(long half) {
+            long target = blocks.workPrefix[fromBlock] + half;
+            int index = Arrays.binarySearch(blocks.workPrefix, fromBlock + 1, toBlock, target);
+            int mid = index >= 0 ? index : -index - 1;
+            return Math.min(Math.max(mid, fromBlock + 1), toBlock - 1);
+        }
+
+        private List<Link> join(ScoreTask left, ScoreTask right) {
+            right.fork();
+            List<Link> links = new ArrayList<>(left.compute());
+            links.addAll(right.join());
+            return links;
+        }
+
+        private void scoreRows(int b, int from, int to, List<Link> links) {
+            int[] block = blocks.members[b];
+            boolean windowed = blocks.windowed[b];
+            for (int r = from; r < to; r++) {
+                int i = block[r];
+                int end = windowed ? Math.min(block.length, r + 1 + window) : block.length;
+                for (int s = r + 1; s < end; s++) {
+                    int j = block[s];
+                    int shared = firstShared(blocks.byPerson[i], blocks.byPerson[j]);
+                    // Exhaustive blocks: score only in the first block the pair shares.
+                    // Windowed blocks: skip pairs some exhaustive block already covers.
+                    if (windowed ? shared >= 0 : shared != b) {
+                        continue;
+                    }
+                    Link link = score(i, j, people.get(i), people.get(j));
+                    if (link != null) {
+                        links.add(link);
+                    }
+                }
+            }
+        }
+    }
+
+    // Smallest block id in both sorted arrays, or -1
+    private static int firstShared(int[] x, int[] y) {
+        int i = 0;
+        int j = 0;
+        while (i < x.length && j < y.length) {
+            if (x[i] == y[j]) {
+                return x[i];
+            }
+            if (x[i] < y[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return -1;
+    }
+}
@@ -10,6 +10,7 @@ import org.springframework.transaction.annotation.Transactional;
 
 import com.insurance.percert.Repository.PatientRepository;
 import com.insurance.percert.model.PatientEntity;
+import com.insurance.percert.service.NameSearchService;
 import com.insurance.percert.service.PatientService;
 
 import lombok.AllArgsConstructor;
@@ -20,6 +21,9 @@ public class PatientServiceImpl implements PatientService {
     @Autowired
     private PatientRepository patientRepository;
 
+    @Autowired
+    private NameSearchService nameSearchService;
+
     // @Override
     // public String createPatientData(PatientEntity patientEntity) {
     // PatientEntity savedPatient = patientRepository.save(patientEntity);
@@ -37,6 +41,7 @@ public class PatientServiceImpl implements PatientService {
         System.out.println("patientidaaaaaaaaaaa" + newPatientId);
         patientEntity.setCustomPatientId(newPatientId);
         PatientEntity savedPatient = patientRepository.save(patientEntity);
+        nameSearchService.patientSaved(savedPatient);
         return savedPatient;
         // return patientRepository.save(patient);
     }
@@ -97,6 +102,7 @@ public class PatientServiceImpl implements PatientService {
             existingrecord.setProcedureCode(PatientEntity.getProcedureCode());
             existingrecord.setDescription(PatientEntity.getDescription());
             PatientEntity updatedrecord = patientRepository.save(existingrecord);
+            nameSearchService.patientSaved(updatedrecord);
             return updatedrecord;
         } else {
             return null;
@@ -125,6 +131,7 @@ public class PatientServiceImpl implements PatientService {
             existingrecord.setProcedureCode(PatientEntity.getProcedureCode());
             existingrecord.setSubscriberId(PatientEntity.getSubscriberId());
             PatientEntity updatedrecord = patientRepository.save(existingrecord);
+            nameSearchService.patientSaved(updatedrecord);
             return updatedrecord;
         } else {
             return null;
@@ -198,6 +205,7 @@ public class PatientServiceImpl implements PatientService {
             // Add any other fields you want to update here
 
             PatientEntity updatedRecord = patientRepository.save(existingRecord);
+            nameSearchService.patientSaved(updatedRecord);
             return updatedRecord;
         } else {
             return null; // Or throw an exception if record is not found
@@ -212,6 +220,7 @@ public class PatientServiceImpl implements PatientService {
     @Override
     public void deletePatientDetails(Long id) {
         patientRepository.deleteById(id);
+        nameSearchService.patientDeleted(id);
     }
 
     @Override
@@ -5,17 +5,26 @@ import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
 
 import com.insurance.percert.Repository.PracticeRepository;
 import com.insurance.percert.model.Practice;
+import com.insurance.percert.model.TokenClaimsDTO;
+import com.insurance.percert.service.PasswordHashService;
 import com.insurance.percert.service.PracticeService;
 @Service
 public class PracticeServiceImpl implements PracticeService{
     @Autowired
     private PracticeRepository practiceRepository;
 
+    @Autowired
+    private PasswordHashService passwordHashService;
+
     @Override
     public Practice createPractice(Practice practice) {
+        if (practice.getPassword() != null) {
+            practice.setPassword(passwordHashService.hash(practice.getPassword()));
+        }
         return practiceRepository.save(practice);
     }
 
@@ -57,7 +66,7 @@ public class PracticeServiceImpl implements PracticeService{
         String uniqueId = generateUniqueId();
         Practice newPractice = new Practice();
         newPractice.setEmail(email);
-        newPractice.setPassword(password);
+        newPractice.setPassword(passwordHashService.hash(password));
         newPractice.setPracticeName(practiceName);
         return practiceRepository.save(newPractice);
     }
@@ -75,10 +84,19 @@ public class PracticeServiceImpl implements PracticeService{
     @Override
     public Practice signInPractice(String email, String password) {
         Practice existingPractice = practiceRepository.findByEmail(email);
-        if (existingPractice != null && existingPractice.getPassword().equals(password)) {
-            return existingPractice;
+        if (existingPractice == null || !passwordHashService.matches(password, existingPractice.getPassword())) {
+            return null;
+        }
+        // Legacy plaintext or a weaker hash: replace it while the raw password is at hand
+        if (passwordHashService.needsRehash(existingPractice.getPassword())) {
+            try {
+                existingPractice.setPassword(passwordHashService.hash(password));
+                existingPractice = practiceRepository.save(existingPractice);
+            } catch (ResponseStatusException e) {
+                // Hashing pool is busy; the sign-in still succeeds and the next one retries
+            }
         }
-        return null;
+        return existingPractice;
     }
     
     @Override
@@ -104,8 +122,9 @@ public class PracticeServiceImpl implements PracticeService{
             throw new IllegalArgumentException("Invalid reset token");
         }
 
-        practice.setPassword(newPassword);
+        practice.setPassword(passwordHashService.hash(newPassword));
         practice.setResetToken(null); // Invalidate the token after use
+        practice.setCredentialVersion(TokenClaimsDTO.credentialVersion(practice.getCredentialVersion()) + 1); // Ends existing sessions
         return practiceRepository.save(practice);
     }
 }
@@ -8,6 +8,7 @@ import org.springframework.stereotype.Service;
 
 import com.insurance.percert.Repository.ProviderRepository;
 import com.insurance.percert.model.ProviderEntity;
+import com.insurance.percert.service.NameSearchService;
 import com.insurance.percert.service.ProviderService;
 
 import lombok.AllArgsConstructor;
@@ -18,6 +19,9 @@ public class ProviderServiceImpl implements ProviderService {
     @Autowired
     private ProviderRepository providerRepository;
 
+    @Autowired
+    private NameSearchService nameSearchService;
+
     private static final String NPI_PREFIX = "NPI";
     private static final int INITIAL_NPI_NUMBER = 1;
 
@@ -38,6 +42,7 @@ public class ProviderServiceImpl implements ProviderService {
 
         // Save the provider entity to the database
         ProviderEntity savedProvider = providerRepository.save(providerEntity);
+        nameSearchService.providerSaved(savedProvider);
 
         return savedProvider;
     }
@@ -92,6 +97,7 @@ public class ProviderServiceImpl implements ProviderService {
             existingrecord.setTaxId(ProviderEntity.getTaxId());
 
             ProviderEntity updatedrecord = providerRepository.save(existingrecord);
+            nameSearchService.providerSaved(updatedrecord);
             return updatedrecord;
         } else {
             return null;
@@ -111,6 +117,7 @@ public class ProviderServiceImpl implements ProviderService {
             existingrecord.setProviderType(ProviderEntity.getProviderType());
             existingrecord.setTaxId(ProviderEntity.getTaxId());
             ProviderEntity updatedrecord = providerRepository.save(existingrecord);
+            nameSearchService.providerSaved(updatedrecord);
             return updatedrecord;
         } else {
             return null;
@@ -121,6 +128,7 @@ public class ProviderServiceImpl implements ProviderService {
     @Override
     public void deleteProviderDetails(Long id) {
         providerRepository.deleteById(id);
+        nameSearchService.providerDeleted(id);
     }
 
     @Override
@@ -0,0 +1,284 @@
+package com.insurance.percert.serviceImplementation;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.insurance.percert.Repository.EDIRepo;
+import com.insurance.percert.model.EDIEntity;
+import com.insurance.percert.model.RemittanceResultDTO;
+import com.insurance.percert.service.RemittanceService;
+import com.insurance.percert.util.SqlIdentifiers;
+import com.insurance.percert.util.X12Reader;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Ingests 835 remittance advice.
+ *
+ * The file is read a segment at a time. Each CLP, with the CAS adjustments
+ * that follow it at claim and service level, becomes one pending update;
+ * CLP01 is the claim id the 837 generator sent in CLM01. Pending updates are
+ * applied in batches: the batch's claim ids are looked up by primary key in
+ * one query, and the matched claims are updated with one JDBC batch in their
+ * own transaction. Only one batch is held, so memory does not depend on the
+ * size of the file. Claims are updated in file order, so a reversal followed
+ * by its correction leaves the correction in place.
+ */
+@Service
+public class RemittanceServiceImpl implements RemittanceService {
+
+    private static final DateTimeFormatter D8 = DateTimeFormatter.ofPattern("yyyyMMdd");
+    private static final int MAX_REPORTED_UNMATCHED = 100;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EDIRepo ediRepository;
+
+    @Value("${remittance.batch-size:1000}")
+    private int batchSize;
+
+    private TransactionTemplate transaction;
+
+    @PostConstruct
+    void init() {
+        transaction = new TransactionTemplate(transactionManager);
+    }
+
+    // One CLP with its adjustments
+    private static final class ClaimPayment {
+        private final String patientControlNumber;
+        private final String statusCode;
+        private final BigDecimal paid;
+        private final BigDecimal patientResponsibility;
+        private final String payerClaimNumber;
+        private final LocalDate paidOn;
+        private final String trace;
+        private BigDecimal adjustments = BigDecimal.ZERO;
+
+        private ClaimPayment(String patientControlNumber, String statusCode, BigDecimal paid,
+                BigDecimal patientResponsibility, String payerClaimNumber, LocalDate paidOn, String trace) {
+            this.patientControlNumber = patientControlNumber;
+            this.statusCode = statusCode;
+            this.paid = paid;
+            this.patientResponsibility = patientResponsibility;
+            this.payerClaimNumber = payerClaimNumber;
+            this.paidOn = paidOn;
+            this.trace = trace;
+        }
+    }
+
+    @Override
+    public RemittanceResultDTO ingest835(InputStream in) throws IOException {
+        long started = System.currentTimeMillis();
+        X12Reader reader = new X12Reader(new BufferedReader(new InputStreamReader(in, StandardCharsets.ISO_8859_1), 1 << 16));
+        Batch batch = new Batch();
+        RemittanceResultDTO result = new RemittanceResultDTO(0, 0, 0, 0, 0, new ArrayList<>(), BigDecimal.ZERO, 0);
+
+        String interchange = null;
+        String firstTrace = null;
+        String trace = null;
+        LocalDate paymentDate = null;
+        LocalDate productionDate = null;
+        ClaimPayment current = null;
+        for (String[] segment = reader.next(); segment != null; segment = reader.next()) {
+            switch (segment[0]) {
+                case "ISA" -> interchange = X12Reader.element(segment, 13);
+                case "ST" -> {
+                    trace = null;
+                    paymentDate = null;
+                    productionDate = null;
+                }
+                case "BPR" -> {
+                    result.setPayments(result.getPayments() + 1);
+                    paymentDate = date(X12Reader.element(segment, 16));
+                }
+                case "TRN" -> {
+                    trace = X12Reader.element(segment, 2);
+                    firstTrace = firstTrace == null ? trace : firstTrace;
+                }
+                case "DTM" -> {
+                    if ("405".equals(X12Reader.element(segment, 1))) {
+                        productionDate = date(X12Reader.element(segment, 2));
+                    }
+                }
+                case "CLP" -> {
+                    batch.add(current, result);
+                    LocalDate paidOn = paymentDate != null ? paymentDate
+                            : productionDate != null ? productionDate : LocalDate.now();
+                    current = new ClaimPayment(X12Reader.element(segment, 1).trim(), X12Reader.element(segment, 2),
+                            amount(X12Reader.element(segment, 4)), amount(X12Reader.element(segment, 5)),
+                            X12Reader.element(segment, 7), paidOn, trace);
+                    result.setClaims(result.getClaims() + 1);
+                    result.setTotalPaid(result.getTotalPaid().add(current.paid));
+                }
+                case "CAS" -> {
+                    // Patient responsibility (PR) is already in CLP05; the rest are payer adjustments
+                    if (current != null && !"PR".equals(X12Reader.element(segment, 1))) {
+                        for (int i = 3; i < segment.length; i += 3) {
+                            current.adjustments = current.adjustments.add(amount(segment[i]));
+                        }
+                    }
+                }
+                case "SVC" -> result.setServiceLines(result.getServiceLines() + 1);
+                case "LX", "PLB", "SE" -> {
+                    batch.add(current, result);
+                    current = null;
+                }
+                default -> {
+                }
+            }
+        }
+        batch.add(current, result);
+        batch.flush(result);
+
+        result.setMillis(System.currentTimeMillis() - started);
+        EDIEntity record = new EDIEntity();
+        record.setTransactionType("835");
+        record.setTransactionId(firstTrace != null ? "TRN-" + firstTrace : "ISA-" + interchange);
+        record.setReceiverId(interchange);
+        record.setCreatedAt(LocalDateTime.now());
+        record.setDocumentContent("835: " + result.getClaims() + " claims, " + result.getMatched() + " matched, "
+                + result.getUnmatched() + " unmatched, " + result.getTotalPaid().toPlainString() + " paid");
+        ediRepository.save(record);
+        System.out.println("Ingested 835 " + record.getTransactionId() + ": " + result.getClaims() + " claims ("
+                + result.getMatched() + " matched), " + result.getServiceLines() + " service lines in "
+                + result.getMillis() + " ms");
+        return result;
+    }
+
+    // Pending claim updates, applied once there are batchSize of them
+    private class Batch {
+        private final List<ClaimPayment> payments = new ArrayList<>();
+
+        void add(ClaimPayment payment, RemittanceResultDTO result) {
+            if (payment == null) {
+                return;
+            }
+            payments.add(payment);
+            if (payments.size() >= batchSize) {
+                flush(result);
+            }
+        }
+
+        void flush(RemittanceResultDTO result) {
+            if (payments.isEmpty()) {
+                return;
+            }
+            List<Long> ids = new ArrayList<>(payments.size());
+            for (ClaimPayment payment : payments) {
+                Long id = claimId(payment.patientControlNumber);
+                if (id != null) {
+                    ids.add(id);
+                }
+            }
+            Set<Long> existing = existingClaims(ids);
+            List<Object[]> updates = new ArrayList<>(payments.size());
+            for (ClaimPayment payment : payments) {
+                Long id = claimId(payment.patientControlNumber);
+                if (id == null || !existing.contains(id)) {
+                    result.setUnmatched(result.getUnmatched() + 1);
+                    if (result.getUnmatchedClaimIds().size() < MAX_REPORTED_UNMATCHED) {
+                        result.getUnmatchedClaimIds().add(payment.patientControlNumber);
+                    }
+                    continue;
+                }
+                updates.add(new Object[] { status(payment), Date.valueOf(payment.paidOn), payment.paid,
+                        payment.adjustments, payment.patientResponsibility, blankToNull(payment.payerClaimNumber),
+                        payment.trace, id });
+            }
+            if (!updates.isEmpty()) {
+                transaction.executeWithoutResult(status -> jdbcTemplate.batchUpdate(updateSql(), updates));
+                result.setMatched(result.getMatched() + updates.size());
+            }
+            payments.clear();
+        }
+    }
+
+    private Set<Long> existingClaims(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return new HashSet<>();
+        }
+        String q = SqlIdentifiers.quoteString(jdbcTemplate);
+        String claimId = SqlIdentifiers.quote(q, "claimId");
+        return new HashSet<>(jdbcTemplate.queryForList("SELECT " + claimId + " FROM "
+                + SqlIdentifiers.quote(q, "claims_details") + " WHERE " + claimId + " IN ("
+                + String.join(", ", Collections.nCopies(ids.size(), "?")) + ")", Long.class, ids.toArray()));
+    }
+
+    private String updateSql() {
+        String q = SqlIdentifiers.quoteString(jdbcTemplate);
+        return "UPDATE " + SqlIdentifiers.quote(q, "claims_details") + " SET "
+                + SqlIdentifiers.quote(q, "claimStatus") + " = ?, " + SqlIdentifiers.quote(q, "statusDate") + " = ?, "
+                + SqlIdentifiers.quote(q, "paidAmount") + " = ?, " + SqlIdentifiers.quote(q, "adjustmentAmount") + " = ?, "
+                + SqlIdentifiers.quote(q, "patientResponsibilityAmount") + " = ?, "
+                + SqlIdentifiers.quote(q, "payerClaimNumber") + " = ?, " + SqlIdentifiers.quote(q, "remittanceTrace")
+                + " = ? WHERE " + SqlIdentifiers.quote(q, "claimId") + " = ?";
+    }
+
+    // CLP02: 1-3 and 19-21 processed (as primary, secondary, tertiary), 4 denied, 22 reversal of a previous payment
+    private static String status(ClaimPayment payment) {
+        return switch (payment.statusCode) {
+            case "4" -> "DENIED";
+            case "22" -> "REVERSED";
+            case "1", "2", "3", "19", "20", "21" -> payment.paid.signum() > 0 ? "PAID" : "PROCESSED";
+            default -> "PROCESSED";
+        };
+    }
+
+    private static Long claimId(String patientControlNumber) {
+        try {
+            return Long.valueOf(patientControlNumber);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static BigDecimal amount(String value) {
+        if (value == null || value.isBlank()) {
+            return BigDecimal.ZERO;
+        }
+        try {
+            return new BigDecimal(value.trim());
+        } catch (NumberFormatException e) {
+            return BigDecimal.ZERO;
+        }
+    }
+
+    private static LocalDate date(String value) {
+        try {
+            return value == null || value.isBlank() ? null : LocalDate.parse(value.trim(), D8);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value;
+    }
+}
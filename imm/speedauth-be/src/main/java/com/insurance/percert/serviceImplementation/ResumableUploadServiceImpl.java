@@ -0,0 +1,287 @@
+package com.insurance.percert.serviceImplementation;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.insurance.percert.Repository.PatientRepository;
+import com.insurance.percert.Repository.UploadSessionRepository;
+import com.insurance.percert.model.FileEntity;
+import com.insurance.percert.model.PatientEntity;
+import com.insurance.percert.model.UploadSessionEntity;
+import com.insurance.percert.service.FileStorageService;
+import com.insurance.percert.service.ResumableUploadService;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Resumable uploads: each session owns a part file on disk that chunks are
+ * written into at their final position, so finishing an upload needs no
+ * reassembly pass - the part file is streamed straight into the chunk store.
+ */
+@Service
+public class ResumableUploadServiceImpl implements ResumableUploadService {
+
+    private static final String STATUS_OPEN = "open";
+    private static final String STATUS_COMPLETED = "completed";
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+    @Autowired
+    private UploadSessionRepository uploadSessionRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private FileStorageService fileStorageService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${file.storage.dir}")
+    private String storageDir;
+
+    @Value("${file.upload.session-ttl-minutes:1440}")
+    private long sessionTtlMinutes;
+
+    // Cap on what one session may receive, declared size or not
+    @Value("${file.upload.max-size:2147483648}")
+    private long maxUploadSize;
+
+    private Path partRoot;
+    private TransactionTemplate transaction;
+
+    // One writer per session at a time; retried PUTs for the same session queue up here
+    private final ConcurrentHashMap<String, Object> sessionLocks = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void init() throws IOException {
+        partRoot = Paths.get(storageDir, "uploads");
+        Files.createDirectories(partRoot);
+        transaction = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public UploadSessionEntity createSession(Long patientId, String fileName, String fileType,
+            String medicalFileType, Long totalSize) throws IOException {
+        if (!patientRepository.existsById(patientId)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid patient ID");
+        }
+        if (totalSize != null && totalSize < 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "totalSize must not be negative");
+        }
+        if (totalSize != null && totalSize > maxUploadSize) {
+            throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE,
+                    "totalSize exceeds the limit of " + maxUploadSize + " bytes");
+        }
+
+        UploadSessionEntity session = new UploadSessionEntity();
+        session.setUploadId(UUID.randomUUID().toString());
+        session.setPatientId(patientId);
+        session.setFileName(fileName);
+        session.setFileType(fileType);
+        session.setMedicalFileType(medicalFileType);
+        session.setTotalSize(totalSize);
+        session.setCommittedOffset(0);
+        session.setStatus(STATUS_OPEN);
+        session.setCreatedAt(LocalDateTime.now());
+        session.setLastActivityAt(LocalDateTime.now());
+
+        Files.createFile(partPath(session.getUploadId()));
+        return uploadSessionRepository.save(session);
+    }
+
+    @Override
+    public UploadSessionEntity getSession(String uploadId) {
+        return uploadSessionRepository.findById(uploadId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND,
+                        "Upload session not found: " + uploadId));
+    }
+
+    @Override
+    public UploadSessionEntity appendChunk(String uploadId, long offset, InputStream content) throws IOException {
+        synchronized (lockFor(uploadId)) {
+            UploadSessionEntity session = getOpenSession(uploadId);
+            long committed = session.getCommittedOffset();
+
+            if (offset > committed) {
+                throw new ResponseStatusException(HttpStatus.CONFLICT,
+                        "Offset " + offset + " is past the committed offset " + committed);
+            }
+            // A retry may resend bytes we already have; drop the overlap
+            long overlap = committed - offset;
+            if (overlap > 0) {
+                try {
+                    content.skipNBytes(overlap);
+                } catch (EOFException e) {
+                    return session;
+                }
+            }
+
+            // Without a declared size the part file could grow without bound
+            long limit = session.getTotalSize() != null ? session.getTotalSize() : maxUploadSize;
+            long written = 0;
+            try (FileChannel channel = FileChannel.open(partPath(uploadId), StandardOpenOption.WRITE)) {
+                channel.position(committed);
+                byte[] buffer = new byte[COPY_BUFFER_SIZE];
+                while (true) {
+                    int read;
+                    try {
+                        read = content.read(buffer);
+                    } catch (IOException e) {
+                        // Connection dropped mid-chunk; keep what arrived so the client can resume from it
+                        System.err.println("Upload " + uploadId + " interrupted: " + e.getMessage());
+                        break;
+                    }
+                    if (read == -1) {
+                        break;
+                    }
+                    if (committed + written + read > limit) {
+                        throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE, session.getTotalSize() != null
+                                ? "Chunk runs past the declared size of " + limit + " bytes"
+                                : "Upload exceeds the limit of " + limit + " bytes");
+                    }
+                    ByteBuffer wrapped = ByteBuffer.wrap(buffer, 0, read);
+                    while (wrapped.hasRemaining()) {
+                        channel.write(wrapped);
+                    }
+                    written += read;
+                }
+                // Only advertise bytes that survive a crash
+                channel.force(false);
+            } catch (IOException e) {
+                // Our disk failed, not the client: advertise nothing from this request so
+                // the client retries from the committed offset once storage recovers
+                System.err.println("Upload " + uploadId + " failed to write at offset " + (committed + written)
+                        + ": " + e.getMessage());
+                throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR,
+                        "Failed to store the chunk; retry from offset " + committed, e);
+            }
+
+            session.setCommittedOffset(committed + written);
+            session.setLastActivityAt(LocalDateTime.now());
+            return uploadSessionRepository.save(session);
+        }
+    }
+
+    @Override
+    public UploadSessionEntity completeSession(String uploadId) throws IOException {
+        synchronized (lockFor(uploadId)) {
+            UploadSessionEntity session = getSession(uploadId);
+            if (STATUS_COMPLETED.equals(session.getStatus())) {
+                return session;
+            }
+            if (session.getTotalSize() != null && session.getCommittedOffset() != session.getTotalSize()) {
+                throw new ResponseStatusException(HttpStatus.CONFLICT, "Upload is incomplete: "
+                        + session.getCommittedOffset() + " of " + session.getTotalSize() + " bytes received");
+            }
+
+            PatientEntity patient = patientRepository.findById(session.getPatientId())
+                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid patient ID"));
+
+            FileEntity fileEntity = new FileEntity();
+            fileEntity.setFileName(session.getFileName());
+            fileEntity.setFileType(session.getFileType());
+            fileEntity.setMedicalFileType(session.getMedicalFileType());
+            fileEntity.setUploadTime(LocalDateTime.now());
+            fileEntity.setPatient(patient);
+
+            // The file and the session's completion commit together: a crash in between
+            // cannot leave a stored file the session does not point at, and the part
+            // file goes only once nothing can roll back
+            Path part = partPath(uploadId);
+            UploadSessionEntity completed;
+            try {
+                completed = transaction.execute(status -> {
+                    FileEntity saved;
+                    try (FileChannel channel = FileChannel.open(part, StandardOpenOption.READ);
+                            InputStream in = Channels.newInputStream(channel)) {
+                        saved = fileStorageService.store(fileEntity, in);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    session.setStatus(STATUS_COMPLETED);
+                    session.setFileId(saved.getId());
+                    session.setLastActivityAt(LocalDateTime.now());
+                    return uploadSessionRepository.save(session);
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            try {
+                Files.deleteIfExists(part);
+            } catch (IOException e) {
+                // The expiry sweep removes it with the session
+                System.err.println("Failed to delete part file for upload " + uploadId + ": " + e.getMessage());
+            }
+            return completed;
+        }
+    }
+
+    @Override
+    public void abortSession(String uploadId) throws IOException {
+        synchronized (lockFor(uploadId)) {
+            UploadSessionEntity session = getSession(uploadId);
+            Files.deleteIfExists(partPath(uploadId));
+            uploadSessionRepository.delete(session);
+        }
+        sessionLocks.remove(uploadId);
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${file.upload.expiry-interval-ms:900000}")
+    public int expireIdleSessions() {
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(sessionTtlMinutes);
+        int expired = 0;
+        for (UploadSessionEntity session : uploadSessionRepository.findByLastActivityAtBefore(cutoff)) {
+            try {
+                abortSession(session.getUploadId());
+                expired++;
+            } catch (Exception e) {
+                System.err.println("Failed to expire upload " + session.getUploadId() + ": " + e.getMessage());
+            }
+        }
+        if (expired > 0) {
+            System.out.println("Expired " + expired + " idle upload sessions");
+        }
+        return expired;
+    }
+
+    private UploadSessionEntity getOpenSession(String uploadId) {
+        UploadSessionEntity session = getSession(uploadId);
+        if (!STATUS_OPEN.equals(session.getStatus())) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Upload session is already completed");
+        }
+        return session;
+    }
+
+    private Path partPath(String uploadId) {
+        // uploadId is always a server generated UUID; reject anything else before touching the disk
+        UUID.fromString(uploadId);
+        return partRoot.resolve(uploadId + ".part");
+    }
+
+    private Object lockFor(String uploadId) {
+        return sessionLocks.computeIfAbsent(uploadId, id -> new Object());
+    }
+}
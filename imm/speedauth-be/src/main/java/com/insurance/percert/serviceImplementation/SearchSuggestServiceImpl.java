@@ -0,0 +1,169 @@
+package com.insurance.percert.serviceImplementation;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import com.insurance.percert.index.TrigramIndex;
+import com.insurance.percert.model.OrderSummaryDTO;
+import com.insurance.percert.model.SuggestionDTO;
+import com.insurance.percert.service.NameSearchService;
+import com.insurance.percert.service.SearchSuggestService;
+
+/**
+ * Unified type-ahead. Each entity type is looked up in its trigram index on the
+ * search pool, the hits are scored on match quality plus a recency boost, and
+ * the per-type lists are merged into one ranking.
+ */
+@Service
+public class SearchSuggestServiceImpl implements SearchSuggestService {
+
+    // Base score per TrigramIndex match quality (SUBSTRING, WORD_START, PREFIX, EXACT)
+    private static final int[] QUALITY_SCORE = { 100, 400, 700, 1000 };
+    private static final int MAX_LENGTH_PENALTY = 50;
+    private static final int MAX_RECENCY_BOOST = 150;
+    // Orders lose half their recency boost for every month since the order date
+    private static final double ORDER_HALF_LIFE_DAYS = 30;
+
+    @Autowired
+    private NameSearchService nameSearchService;
+
+    @Autowired
+    @Qualifier("searchExecutor")
+    private ThreadPoolTaskExecutor searchExecutor;
+
+    @Value("${search.suggest.timeout-ms:500}")
+    private long timeoutMs;
+
+    // Latest in-flight request per client, so a new keystroke can cancel the last one
+    private final Map<String, CompletableFuture<List<SuggestionDTO>>> inFlight = new ConcurrentHashMap<>();
+
+    @Override
+    public List<SuggestionDTO> suggest(String query, Set<String> types, int perType, String clientKey) {
+        String q = TrigramIndex.normalize(query);
+        if (q.isEmpty()) {
+            return new ArrayList<>();
+        }
+        if (!nameSearchService.isReady()) {
+            throw new IllegalStateException("Search indexes are still loading");
+        }
+
+        List<CompletableFuture<List<SuggestionDTO>>> parts = new ArrayList<>();
+        for (String type : types) {
+            parts.add(CompletableFuture.supplyAsync(() -> lookup(type, q, perType), searchExecutor));
+        }
+        CompletableFuture<List<SuggestionDTO>> merged = CompletableFuture
+                .allOf(parts.toArray(new CompletableFuture[0]))
+                .thenApply(done -> merge(parts));
+        merged.whenComplete((result, error) -> {
+            if (merged.isCancelled()) {
+                parts.forEach(part -> part.cancel(false));
+            }
+        });
+
+        if (clientKey != null) {
+            CompletableFuture<List<SuggestionDTO>> previous = inFlight.put(clientKey, merged);
+            if (previous != null) {
+                previous.cancel(false);
+            }
+        }
+        try {
+            return merged.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            merged.cancel(false);
+            throw new CancellationException("Interrupted");
+        } catch (TimeoutException e) {
+            merged.cancel(false);
+            throw new RuntimeException("Search timed out after " + timeoutMs + " ms");
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Search failed: " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            if (clientKey != null) {
+                inFlight.remove(clientKey, merged);
+            }
+        }
+    }
+
+    private List<SuggestionDTO> lookup(String type, String q, int perType) {
+        // Over-fetch so the recency boost can reorder hits of similar quality
+        int fetch = perType * 2;
+        return switch (type) {
+            case "patient" -> score(type, nameSearchService.patientIndex(), q, fetch, perType,
+                    p -> new String[] { p.getCustomPatientId(), p.getFullName(), p.getCustomPatientId() }, v -> -1L);
+            case "provider" -> score(type, nameSearchService.providerIndex(), q, fetch, perType,
+                    p -> new String[] { p.getNpiNumber(), p.getProviderName(), p.getNpiNumber() }, v -> -1L);
+            case "insurance" -> score(type, nameSearchService.insuranceIndex(), q, fetch, perType,
+                    i -> new String[] { i.getCustomInsuranceId(), i.getPayerName(), i.getCustomInsuranceId() }, v -> -1L);
+            case "drug" -> score(type, nameSearchService.drugIndex(), q, fetch, perType,
+                    d -> new String[] { String.valueOf(d.getDrugId()), d.getDrugName(), d.getProcedureCode() }, v -> -1L);
+            case "order" -> score(type, nameSearchService.orderIndex(), q, fetch, perType,
+                    o -> new String[] { String.valueOf(o.getOrderId()), o.getIcddrugname(), o.getUniquepatientI() },
+                    this::orderAgeDays);
+            default -> throw new IllegalArgumentException("Unknown search type: " + type);
+        };
+    }
+
+    /**
+     * fields maps a hit to {id, label, detail}. ageDays gives a record's age for
+     * the recency boost, or -1 when the type has no date, in which case newer
+     * (higher) ids get the larger boost.
+     */
+    private <V> List<SuggestionDTO> score(String type, TrigramIndex<V> index, String q, int fetch, int perType,
+            Function<V, String[]> fields, Function<V, Long> ageDays) {
+        long maxId = index.maxId();
+        List<SuggestionDTO> scored = new ArrayList<>();
+        for (TrigramIndex.Match<V> match : index.search(q, fetch)) {
+            int score = QUALITY_SCORE[match.quality()]
+                    - Math.min(MAX_LENGTH_PENALTY, match.text().length() - q.length());
+            long age = ageDays.apply(match.value());
+            if (age >= 0) {
+                score += (int) (MAX_RECENCY_BOOST * Math.pow(0.5, age / ORDER_HALF_LIFE_DAYS));
+            } else if (maxId > 0) {
+                score += (int) (MAX_RECENCY_BOOST / 3 * Math.max(0, match.id()) / maxId);
+            }
+            String[] f = fields.apply(match.value());
+            scored.add(new SuggestionDTO(type, f[0], f[1], f[2], score));
+        }
+        scored.sort(Comparator.comparingInt(SuggestionDTO::getScore).reversed());
+        return scored.size() > perType ? new ArrayList<>(scored.subList(0, perType)) : scored;
+    }
+
+    private long orderAgeDays(OrderSummaryDTO order) {
+        LocalDate date = order.getOrderDate() != null
+                ? Instant.ofEpochMilli(order.getOrderDate().getTime()).atZone(ZoneId.systemDefault()).toLocalDate()
+                : order.getFromDateOfService();
+        if (date == null) {
+            return -1;
+        }
+        return Math.max(0, ChronoUnit.DAYS.between(date, LocalDate.now()));
+    }
+
+    private static List<SuggestionDTO> merge(List<CompletableFuture<List<SuggestionDTO>>> parts) {
+        List<SuggestionDTO> all = new ArrayList<>();
+        for (CompletableFuture<List<SuggestionDTO>> part : parts) {
+            all.addAll(part.join());
+        }
+        all.sort(Comparator.comparingInt(SuggestionDTO::getScore).reversed());
+        return all;
+    }
+}
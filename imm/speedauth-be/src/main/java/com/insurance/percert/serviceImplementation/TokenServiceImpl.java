@@ -0,0 +1,188 @@
+package com.insurance.percert.serviceImplementation;
+
+import java.io.IOException;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.insurance.percert.Repository.PracticeRepository;
+import com.insurance.percert.Repository.UserRepository;
+import com.insurance.percert.model.Practice;
+import com.insurance.percert.model.TokenClaimsDTO;
+import com.insurance.percert.model.TokenResponseDTO;
+import com.insurance.percert.model.UserEntity;
+import com.insurance.percert.service.TokenService;
+import com.insurance.percert.util.TokenSigner;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Issues and checks the bearer tokens used after sign-in.
+ *
+ * Access tokens are short-lived and carry everything a request needs (account,
+ * email and role), so checking one is a signature check and a clock
+ * comparison with no database access. Refresh tokens live longer and are
+ * only accepted by refresh, which re-reads the account so role changes,
+ * password resets and removed accounts take effect within one access token
+ * lifetime.
+ *
+ * Keys come from auth.token.keys as kid=base64 pairs. To rotate, add the new
+ * key, point auth.token.current-kid at it and drop the old one once the
+ * refresh lifetime has passed; sessions refresh onto the new key as they go.
+ * Without keys it signs with a random key per run and warns at startup: fine
+ * for a laptop, but every restart signs everyone out and instances behind a
+ * load balancer reject each other's tokens.
+ */
+@Service
+public class TokenServiceImpl implements TokenService {
+
+    private static final String ISSUER = "speedauth";
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PracticeRepository practiceRepository;
+
+    // kid=base64 secret (at least 256 bits), comma separated; blank means a random key per run
+    @Value("${auth.token.keys:}")
+    private String keys;
+
+    // Key new tokens are signed with; blank means the last one listed
+    @Value("${auth.token.current-kid:}")
+    private String currentKid;
+
+    @Value("${auth.token.access-ttl-seconds:900}")
+    private long accessTtlSeconds;
+
+    @Value("${auth.token.refresh-ttl-seconds:1209600}")
+    private long refreshTtlSeconds;
+
+    private TokenSigner signer;
+
+    @PostConstruct
+    void init() {
+        Map<String, byte[]> ring = new LinkedHashMap<>();
+        String last = null;
+        for (String entry : keys.split(",")) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            int eq = entry.indexOf('=');
+            if (eq <= 0) {
+                throw new IllegalStateException("auth.token.keys entries must be kid=base64secret");
+            }
+            last = entry.substring(0, eq).trim();
+            ring.put(last, Base64.getDecoder().decode(entry.substring(eq + 1).trim()));
+        }
+        if (ring.isEmpty()) {
+            System.err.println("**************************************************************************");
+            System.err.println("WARNING: auth.token.keys (AUTH_TOKEN_KEYS) is not set. Tokens are signed with");
+            System.err.println("a random key: every restart signs all users out, and several instances will");
+            System.err.println("reject each other's tokens. Set AUTH_TOKEN_KEYS in any shared deployment.");
+            System.err.println("**************************************************************************");
+            byte[] secret = new byte[32];
+            new SecureRandom().nextBytes(secret);
+            last = "ephemeral";
+            ring.put(last, secret);
+        }
+        signer = new TokenSigner(ring, currentKid == null || currentKid.isBlank() ? last : currentKid.trim());
+        System.out.println("Token signing key " + signer.currentKid() + ", " + signer.keyCount() + " keys on the ring");
+    }
+
+    @Override
+    public TokenResponseDTO issue(UserEntity user) {
+        String role = user.getRole_type() != null && user.getRole_type().getRole_name() != null
+                ? user.getRole_type().getRole_name()
+                : "USER";
+        return issue(TokenClaimsDTO.USER, user.getId(), user.getEmail(), role,
+                TokenClaimsDTO.credentialVersion(user.getCredentialVersion()));
+    }
+
+    @Override
+    public TokenResponseDTO issue(Practice practice) {
+        return issue(TokenClaimsDTO.PRACTICE, practice.getPracticeId(), practice.getEmail(), "PRACTICE",
+                TokenClaimsDTO.credentialVersion(practice.getCredentialVersion()));
+    }
+
+    @Override
+    public TokenResponseDTO refresh(String refreshToken) {
+        TokenClaimsDTO claims = verify(refreshToken, TokenClaimsDTO.REFRESH);
+        if (claims == null) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Invalid or expired refresh token");
+        }
+        Long id = Long.valueOf(claims.getSub());
+        if (TokenClaimsDTO.PRACTICE.equals(claims.getAccountType())) {
+            Practice practice = practiceRepository.findById(id).orElseThrow(
+                    () -> new ResponseStatusException(HttpStatus.UNAUTHORIZED, "The practice no longer exists"));
+            checkCredentialVersion(claims, practice.getCredentialVersion());
+            return issue(practice);
+        }
+        UserEntity user = userRepository.findById(id).orElseThrow(
+                () -> new ResponseStatusException(HttpStatus.UNAUTHORIZED, "The user no longer exists"));
+        checkCredentialVersion(claims, user.getCredentialVersion());
+        return issue(user);
+    }
+
+    // A password reset since the token was issued ends the session
+    private static void checkCredentialVersion(TokenClaimsDTO claims, Integer accountVersion) {
+        if (TokenClaimsDTO.credentialVersion(claims.getCv()) != TokenClaimsDTO.credentialVersion(accountVersion)) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "The password has changed; sign in again");
+        }
+    }
+
+    @Override
+    public TokenClaimsDTO verifyAccess(String accessToken) {
+        return verify(accessToken, TokenClaimsDTO.ACCESS);
+    }
+
+    private TokenResponseDTO issue(String accountType, Long id, String email, String role, int credentialVersion) {
+        long now = System.currentTimeMillis() / 1000;
+        String access = sign(new TokenClaimsDTO(ISSUER, String.valueOf(id), accountType, email, role,
+                TokenClaimsDTO.ACCESS, now, now + accessTtlSeconds, UUID.randomUUID().toString(), null));
+        String refresh = sign(new TokenClaimsDTO(ISSUER, String.valueOf(id), accountType, email, null,
+                TokenClaimsDTO.REFRESH, now, now + refreshTtlSeconds, UUID.randomUUID().toString(), credentialVersion));
+        return new TokenResponseDTO(access, refresh, "Bearer", accessTtlSeconds);
+    }
+
+    private String sign(TokenClaimsDTO claims) {
+        try {
+            return signer.sign(objectMapper.writeValueAsBytes(claims));
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to write token claims", e);
+        }
+    }
+
+    private TokenClaimsDTO verify(String token, String tokenUse) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        byte[] payload = signer.verify(token.trim());
+        if (payload == null) {
+            return null;
+        }
+        TokenClaimsDTO claims;
+        try {
+            claims = objectMapper.readValue(payload, TokenClaimsDTO.class);
+        } catch (IOException e) {
+            return null;
+        }
+        if (!tokenUse.equals(claims.getTokenUse()) || !ISSUER.equals(claims.getIss()) || claims.getSub() == null
+                || claims.getExp() <= System.currentTimeMillis() / 1000) {
+            return null;
+        }
+        return claims;
+    }
+}
@@ -2,10 +2,13 @@ package com.insurance.percert.serviceImplementation;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
 
 import com.insurance.percert.Repository.UserRepository;
 import com.insurance.percert.model.RolesEntity;
+import com.insurance.percert.model.TokenClaimsDTO;
 import com.insurance.percert.model.UserEntity;
+import com.insurance.percert.service.PasswordHashService;
 import com.insurance.percert.service.UserService;
 
 @Service
@@ -13,6 +16,9 @@ public class UserServiceImpl implements UserService {
     @Autowired
     private UserRepository userRepo;
 
+    @Autowired
+    private PasswordHashService passwordHashService;
+
     @Override
     public UserEntity signUpUser(String email, String password, String userName) {
         UserEntity existingUser = userRepo.findByEmail(email);
@@ -22,7 +28,7 @@ public class UserServiceImpl implements UserService {
         String uniqueId = generateUniqueId();
         UserEntity newUser = new UserEntity();
         newUser.setEmail(email);
-        newUser.setPassword(password);
+        newUser.setPassword(passwordHashService.hash(password));
         newUser.setUserName(userName);
         return userRepo.save(newUser);
     }
@@ -39,11 +45,25 @@ public class UserServiceImpl implements UserService {
 
     @Override
     public UserEntity signInUser(String email, String password) {
+        return authenticate(email, password);
+    }
+
+    // The user when the password matches, else null. Legacy plaintext passwords and hashes
+    // weaker than the current cost are replaced while the raw password is at hand
+    private UserEntity authenticate(String email, String password) {
         UserEntity existingUser = userRepo.findByEmail(email);
-        if (existingUser != null && existingUser.getPassword().equals(password)) {
-            return existingUser;
+        if (existingUser == null || !passwordHashService.matches(password, existingUser.getPassword())) {
+            return null;
         }
-        return null;
+        if (passwordHashService.needsRehash(existingUser.getPassword())) {
+            try {
+                existingUser.setPassword(passwordHashService.hash(password));
+                existingUser = userRepo.save(existingUser);
+            } catch (ResponseStatusException e) {
+                // Hashing pool is busy; the sign-in still succeeds and the next one retries
+            }
+        }
+        return existingUser;
     }
 
     @Override
@@ -70,8 +90,9 @@ public class UserServiceImpl implements UserService {
             throw new IllegalArgumentException("Invalid reset token");
         }
 
-        user.setPassword(newPassword);
+        user.setPassword(passwordHashService.hash(newPassword));
         user.setResetToken(null); // Invalidate the token after use
+        user.setCredentialVersion(TokenClaimsDTO.credentialVersion(user.getCredentialVersion()) + 1); // Ends existing sessions
         return userRepo.save(user);
     }
 
@@ -90,8 +111,8 @@ public class UserServiceImpl implements UserService {
 
     @Override
     public RolesEntity signInRole(String email, String password) {
-        UserEntity existingUser = userRepo.findByEmail(email);
-        if (existingUser != null && existingUser.getPassword().equals(password)) {
+        UserEntity existingUser = authenticate(email, password);
+        if (existingUser != null) {
             RolesEntity role = existingUser.getRole_type();
             // If user has no role, return a default role or null
             // For now, return null and let controller handle it
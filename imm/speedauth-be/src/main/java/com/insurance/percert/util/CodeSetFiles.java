@@ -0,0 +1,101 @@
+package com.insurance.percert.util;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Locale;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Line parsers for the code set release files and the path check for the
+ * directory they are loaded from.
+ *
+ * ICD-10-CM comes in two CMS layouts:
+ * - the order file (icd10cm_order_YYYY.txt), fixed width: order number in
+ *   columns 1-5, code in 7-13, billable flag in 15, short description in
+ *   17-76 and the long description from 78;
+ * - the codes file (icd10cm_codes_YYYY.txt): code, whitespace, description.
+ *   It lists billable codes only and has no short descriptions.
+ *
+ * CPT and HCPCS lists are read as a five-character code followed by its
+ * description, separated by whitespace, a comma, a tab or a pipe.
+ */
+public final class CodeSetFiles {
+
+    private CodeSetFiles() {
+    }
+
+    public record CodeRow(String code, boolean billable, String shortDescription, String description) {
+    }
+
+    /** The file inside dir; 400 if the name escapes it, 404 if there is no such file. */
+    public static Path resolve(String dir, String fileName) {
+        Path root = Paths.get(dir).toAbsolutePath().normalize();
+        Path file = root.resolve(fileName).normalize();
+        if (!file.startsWith(root)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "File must be inside the code set directory");
+        }
+        if (!Files.isRegularFile(file)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Code set file not found: " + fileName);
+        }
+        return file;
+    }
+
+    /** An ICD-10-CM row with the code in dotted form, or null for a line that holds none. */
+    public static CodeRow parseIcdLine(String line) {
+        if (isOrderLine(line)) {
+            String code = line.substring(6, Math.min(13, line.length())).trim();
+            if (code.isEmpty()) {
+                return null;
+            }
+            boolean billable = line.length() > 14 && line.charAt(14) == '1';
+            String shortDescription = line.length() > 16 ? line.substring(16, Math.min(76, line.length())).trim() : "";
+            String description = line.length() > 77 ? line.substring(77).trim() : shortDescription;
+            return new CodeRow(IcdCodes.dotted(code), billable, shortDescription, description);
+        }
+        String trimmed = line.trim();
+        int space = indexOfWhitespace(trimmed);
+        if (space < 3) {
+            return null;
+        }
+        return new CodeRow(IcdCodes.dotted(trimmed.substring(0, space)), true, null, trimmed.substring(space).trim());
+    }
+
+    /** A CPT/HCPCS row with the code upper-cased, or null for a header or malformed line. */
+    public static CodeRow parseProcedureLine(String line) {
+        String trimmed = line.trim();
+        if (trimmed.length() < 5 || CptCodes.ordinal(trimmed, 0, 5) < 0
+                || (trimmed.length() > 5 && Character.isLetterOrDigit(trimmed.charAt(5)))) {
+            return null;
+        }
+        String description = trimmed.substring(5).trim();
+        while (!description.isEmpty() && (description.charAt(0) == ',' || description.charAt(0) == '|')) {
+            description = description.substring(1).trim();
+        }
+        return new CodeRow(trimmed.substring(0, 5).toUpperCase(Locale.ROOT), true, null, description);
+    }
+
+    // Order file lines start with a five-digit order number and a space
+    private static boolean isOrderLine(String line) {
+        if (line.length() < 8 || line.charAt(5) != ' ') {
+            return false;
+        }
+        for (int i = 0; i < 5; i++) {
+            if (!Character.isDigit(line.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int indexOfWhitespace(String s) {
+        for (int i = 0; i < s.length(); i++) {
+            if (Character.isWhitespace(s.charAt(i))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
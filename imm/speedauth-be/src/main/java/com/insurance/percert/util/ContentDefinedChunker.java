@@ -0,0 +1,91 @@
+package com.insurance.percert.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.SplittableRandom;
+
+/**
+ * Splits a stream into content-defined chunks using a gear rolling hash
+ * (FastCDC style). Cut points depend only on the bytes around them, so the
+ * same document uploaded twice - or with a page inserted - produces mostly
+ * identical chunks that the file store can deduplicate.
+ */
+public final class ContentDefinedChunker {
+
+    public static final int MIN_SIZE = 16 * 1024;
+    public static final int AVG_SIZE = 64 * 1024;
+    public static final int MAX_SIZE = 256 * 1024;
+
+    // Stricter mask before the average size, looser after it (normalized chunking)
+    private static final long MASK_SMALL = 0xFFFFC00000000000L;
+    private static final long MASK_LARGE = 0xFFFC000000000000L;
+
+    private static final long[] GEAR = new long[256];
+
+    static {
+        // Fixed seed: cut points must stay stable across restarts or dedup breaks
+        SplittableRandom random = new SplittableRandom(0x1A2B3C4D5E6F7788L);
+        for (int i = 0; i < GEAR.length; i++) {
+            GEAR[i] = random.nextLong();
+        }
+    }
+
+    @FunctionalInterface
+    public interface ChunkHandler {
+        /** The buffer is reused after this call returns; copy anything you keep. */
+        void accept(byte[] buffer, int offset, int length) throws IOException;
+    }
+
+    private ContentDefinedChunker() {
+    }
+
+    public static void split(InputStream in, ChunkHandler handler) throws IOException {
+        byte[] buffer = new byte[MAX_SIZE];
+        int filled = 0;
+        boolean eof = false;
+
+        while (true) {
+            while (!eof && filled < MAX_SIZE) {
+                int read = in.read(buffer, filled, MAX_SIZE - filled);
+                if (read < 0) {
+                    eof = true;
+                } else {
+                    filled += read;
+                }
+            }
+            if (filled == 0) {
+                return;
+            }
+
+            int cut = cutPoint(buffer, filled);
+            handler.accept(buffer, 0, cut);
+
+            System.arraycopy(buffer, cut, buffer, 0, filled - cut);
+            filled -= cut;
+        }
+    }
+
+    static int cutPoint(byte[] buffer, int length) {
+        if (length <= MIN_SIZE) {
+            return length;
+        }
+        int limit = Math.min(length, MAX_SIZE);
+        int normal = Math.min(AVG_SIZE, limit);
+
+        long hash = 0;
+        int i = MIN_SIZE;
+        for (; i < normal; i++) {
+            hash = (hash << 1) + GEAR[buffer[i] & 0xFF];
+            if ((hash & MASK_SMALL) == 0) {
+                return i + 1;
+            }
+        }
+        for (; i < limit; i++) {
+            hash = (hash << 1) + GEAR[buffer[i] & 0xFF];
+            if ((hash & MASK_LARGE) == 0) {
+                return i + 1;
+            }
+        }
+        return limit;
+    }
+}
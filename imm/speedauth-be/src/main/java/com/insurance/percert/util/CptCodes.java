@@ -0,0 +1,86 @@
+package com.insurance.percert.util;
+
+/**
+ * Maps CPT and HCPCS Level II codes to dense integer ordinals so code ranges
+ * can be compared as numbers. Each code family gets its own block of 100000:
+ *
+ * - CPT Category I (99213): the number itself;
+ * - HCPCS Level II (J1234): one block per leading letter;
+ * - CPT Category II and III (0001F, 0042T): one block per trailing letter.
+ *
+ * Within a family the order is the numeric order, so "J0000-J9999" or
+ * "0001F-9007F" cover exactly their family and nothing else.
+ */
+public final class CptCodes {
+
+    private static final int FAMILY = 100_000;
+    private static final int LEADING_LETTER = 1;
+    private static final int TRAILING_LETTER = 27;
+
+    private CptCodes() {
+    }
+
+    /** The ordinal of a five-character code, or -1 when it is not one. */
+    public static int ordinal(CharSequence code) {
+        int from = 0;
+        int to = code.length();
+        while (from < to && Character.isWhitespace(code.charAt(from))) {
+            from++;
+        }
+        while (to > from && Character.isWhitespace(code.charAt(to - 1))) {
+            to--;
+        }
+        return ordinal(code, from, to);
+    }
+
+    /** As {@link #ordinal(CharSequence)} for code[from, to), without allocating. */
+    public static int ordinal(CharSequence code, int from, int to) {
+        if (to - from != 5) {
+            return -1;
+        }
+        char first = code.charAt(from);
+        char last = code.charAt(to - 1);
+        if (isDigit(first) && isDigit(last)) {
+            int number = digits(code, from, to);
+            return number < 0 ? -1 : number;
+        }
+        if (isLetter(first)) {
+            int number = digits(code, from + 1, to);
+            return number < 0 ? -1 : (LEADING_LETTER + letter(first)) * FAMILY + number;
+        }
+        if (isLetter(last)) {
+            int number = digits(code, from, to - 1);
+            return number < 0 ? -1 : (TRAILING_LETTER + letter(last)) * FAMILY + number;
+        }
+        return -1;
+    }
+
+    /** True when both ordinals belong to the same code family. */
+    public static boolean sameFamily(int a, int b) {
+        return a / FAMILY == b / FAMILY;
+    }
+
+    private static int digits(CharSequence s, int from, int to) {
+        int value = 0;
+        for (int i = from; i < to; i++) {
+            char c = s.charAt(i);
+            if (!isDigit(c)) {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isLetter(char c) {
+        return (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z');
+    }
+
+    private static int letter(char c) {
+        return Character.toUpperCase(c) - 'A';
+    }
+}
@@ -0,0 +1,98 @@
+package com.insurance.percert.util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.SecureRandom;
+
+import javax.crypto.Cipher;
+import javax.crypto.KeyGenerator;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * AES-GCM envelope encryption. Each sealed block gets its own random data key,
+ * which is stored wrapped (RFC 3394 AES key wrap) under the master key. A sealed
+ * block is laid out as IV || ciphertext || tag, with the caller's label bound in
+ * as associated data so blocks cannot be swapped between records.
+ */
+public final class EnvelopeCipher {
+
+    public static final int IV_LENGTH = 12;
+    public static final int TAG_LENGTH = 16;
+    public static final int OVERHEAD = IV_LENGTH + TAG_LENGTH;
+
+    private static final int DATA_KEY_BITS = 256;
+
+    private final SecretKey masterKey;
+    private final SecureRandom random = new SecureRandom();
+
+    public EnvelopeCipher(byte[] masterKey) {
+        if (masterKey.length != 16 && masterKey.length != 24 && masterKey.length != 32) {
+            throw new IllegalArgumentException("Master key must be 128, 192 or 256 bits");
+        }
+        this.masterKey = new SecretKeySpec(masterKey, "AES");
+    }
+
+    public SecretKey newDataKey() {
+        try {
+            KeyGenerator generator = KeyGenerator.getInstance("AES");
+            generator.init(DATA_KEY_BITS, random);
+            return generator.generateKey();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("AES is not available", e);
+        }
+    }
+
+    public byte[] wrap(SecretKey dataKey) {
+        try {
+            Cipher cipher = Cipher.getInstance("AESWrap");
+            cipher.init(Cipher.WRAP_MODE, masterKey);
+            return cipher.wrap(dataKey);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Failed to wrap data key", e);
+        }
+    }
+
+    public SecretKey unwrap(byte[] wrappedKey) {
+        try {
+            Cipher cipher = Cipher.getInstance("AESWrap");
+            cipher.init(Cipher.UNWRAP_MODE, masterKey);
+            Key key = cipher.unwrap(wrappedKey, "AES", Cipher.SECRET_KEY);
+            return (SecretKey) key;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Failed to unwrap data key; is the master key correct?", e);
+        }
+    }
+
+    public byte[] seal(SecretKey dataKey, String label, byte[] buffer, int offset, int length) {
+        byte[] iv = new byte[IV_LENGTH];
+        random.nextBytes(iv);
+        byte[] sealed = new byte[OVERHEAD + length];
+        System.arraycopy(iv, 0, sealed, 0, IV_LENGTH);
+        try {
+            Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+            cipher.init(Cipher.ENCRYPT_MODE, dataKey, new GCMParameterSpec(TAG_LENGTH * 8, iv));
+            cipher.updateAAD(label.getBytes(StandardCharsets.UTF_8));
+            cipher.doFinal(buffer, offset, length, sealed, IV_LENGTH);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Failed to encrypt block " + label, e);
+        }
+        return sealed;
+    }
+
+    public byte[] open(SecretKey dataKey, String label, byte[] sealed) {
+        if (sealed.length < OVERHEAD) {
+            throw new IllegalStateException("Encrypted block " + label + " is truncated");
+        }
+        try {
+            Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+            cipher.init(Cipher.DECRYPT_MODE, dataKey, new GCMParameterSpec(TAG_LENGTH * 8, sealed, 0, IV_LENGTH));
+            cipher.updateAAD(label.getBytes(StandardCharsets.UTF_8));
+            return cipher.doFinal(sealed, IV_LENGTH, sealed.length - IV_LENGTH);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Encrypted block " + label + " failed authentication", e);
+        }
+    }
+}
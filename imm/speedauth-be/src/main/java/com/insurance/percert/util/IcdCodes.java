@@ -0,0 +1,25 @@
+package com.insurance.percert.util;
+
+import java.util.Locale;
+
+/**
+ * ICD-10-CM code spellings. CMS files write codes without the dot (S72001);
+ * screens and our stored rows use the dotted form (S72.001). Comparisons go
+ * through the bare form so either spelling matches.
+ */
+public final class IcdCodes {
+
+    private IcdCodes() {
+    }
+
+    /** Upper case, no dot, no surrounding whitespace. */
+    public static String bare(String code) {
+        return code == null ? "" : code.replace(".", "").trim().toUpperCase(Locale.ROOT);
+    }
+
+    /** The display form, with the dot after the three-character category. */
+    public static String dotted(String code) {
+        String bare = bare(code);
+        return bare.length() > 3 ? bare.substring(0, 3) + "." + bare.substring(3) : bare;
+    }
+}
@@ -0,0 +1,117 @@
+package com.insurance.percert.util;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.apache.commons.codec.language.DoubleMetaphone;
+
+/**
+ * Name comparison shared by the front-desk patient match and the duplicate
+ * detection job: letters-only normalization, Double Metaphone codes, and a
+ * 0..1 similarity that combines bounded edit distance with phonetic agreement.
+ */
+public final class NameSimilarity {
+
+    // Stateless apart from the code length, which is never changed
+    private static final DoubleMetaphone METAPHONE = new DoubleMetaphone();
+
+    private NameSimilarity() {
+    }
+
+    /** Lower-cased letters only, so "O'Brien" and "obrien" compare equal. */
+    public static String lettersOnly(String value) {
+        if (value == null) {
+            return "";
+        }
+        StringBuilder out = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (Character.isLetter(c)) {
+                out.append(Character.toLowerCase(c));
+            }
+        }
+        return out.toString();
+    }
+
+    /** The primary and alternate Double Metaphone codes of a normalized name. */
+    public static Set<String> codes(String name) {
+        Set<String> codes = new HashSet<>(2);
+        if (name.isEmpty()) {
+            return codes;
+        }
+        String primary = METAPHONE.doubleMetaphone(name);
+        String alternate = METAPHONE.doubleMetaphone(name, true);
+        if (primary != null && !primary.isEmpty()) {
+            codes.add(primary);
+        }
+        if (alternate != null && !alternate.isEmpty()) {
+            codes.add(alternate);
+        }
+        return codes;
+    }
+
+    /**
+     * {first, last} from separate name fields, falling back to splitting the full
+     * name ("First Last" or "Last, First") when both are blank.
+     */
+    public static String[] splitName(String fullName, String firstName, String lastName) {
+        String first = lettersOnly(firstName);
+        String last = lettersOnly(lastName);
+        if (first.isEmpty() && last.isEmpty() && fullName != null) {
+            String[] parts = fullName.trim().split("[\\s,]+");
+            if (fullName.contains(",") && parts.length > 1) {
+                last = lettersOnly(parts[0]);
+                first = lettersOnly(parts[1]);
+            } else if (parts.length > 0) {
+                first = lettersOnly(parts[0]);
+                last = parts.length > 1 ? lettersOnly(parts[parts.length - 1]) : "";
+            }
+        }
+        return new String[] { first, last };
+    }
+
+    /**
+     * 1 for identical names, falling with edit distance; a phonetic-only match
+     * still counts, and a bare initial matches the name it abbreviates.
+     */
+    public static double similarity(String a, Set<String> aCodes, String b, Set<String> bCodes) {
+        if (a.isEmpty() || b.isEmpty()) {
+            return 0;
+        }
+        if (a.equals(b)) {
+            return 1;
+        }
+        if (a.length() == 1 || b.length() == 1) {
+            return a.charAt(0) == b.charAt(0) ? 0.7 : 0;
+        }
+        int maxDistance = Math.max(1, Math.min(a.length(), b.length()) / 4);
+        int distance = EditDistance.bounded(a, b, maxDistance);
+        double editScore = distance <= maxDistance
+                ? 1 - (double) distance / Math.max(a.length(), b.length())
+                : 0;
+        return Math.max(editScore, soundAlike(aCodes, bCodes) ? 0.75 : 0);
+    }
+
+    // Loop rather than a stream: this runs for every pair the duplicate job compares
+    private static boolean soundAlike(Set<String> aCodes, Set<String> bCodes) {
+        for (String code : aCodes) {
+            if (bCodes.contains(code)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Similarity of two first/last name pairs, weighting the last name more and
+     * allowing for first and last name having been entered the wrong way round.
+     */
+    public static double fullName(String first1, Set<String> firstCodes1, String last1, Set<String> lastCodes1,
+            String first2, Set<String> firstCodes2, String last2, Set<String> lastCodes2) {
+        double direct = 0.6 * similarity(last1, lastCodes1, last2, lastCodes2)
+                + 0.4 * similarity(first1, firstCodes1, first2, firstCodes2);
+        double swapped = 0.6 * similarity(last1, lastCodes1, first2, firstCodes2)
+                + 0.4 * similarity(first1, firstCodes1, last2, lastCodes2);
+        return Math.max(direct, swapped * 0.9);
+    }
+}
@@ -0,0 +1,27 @@
+package com.insurance.percert.util;
+
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Quoting for hand-written JDBC statements. QuotedNamingStrategy makes
+ * Hibernate create every table and column with a quoted, case-preserved name
+ * ("icdCode", not icdcode), so plain SQL has to quote them the same way: with
+ * backticks on MySQL and double quotes on PostgreSQL.
+ */
+public final class SqlIdentifiers {
+
+    private SqlIdentifiers() {
+    }
+
+    /** The identifier quote the connected database uses, read from the driver. */
+    public static String quoteString(JdbcTemplate jdbcTemplate) {
+        String quote = jdbcTemplate.execute(
+                (ConnectionCallback<String>) connection -> connection.getMetaData().getIdentifierQuoteString());
+        return quote == null || quote.isBlank() ? "" : quote.trim();
+    }
+
+    public static String quote(String quoteString, String identifier) {
+        return quoteString + identifier + quoteString;
+    }
+}
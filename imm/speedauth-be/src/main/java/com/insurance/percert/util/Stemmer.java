@@ -0,0 +1,56 @@
+package com.insurance.percert.util;
+
+/**
+ * A deliberately light English suffix stripper for catalog search. It folds
+ * plurals and the common verb/noun endings ("infusion", "infusions", "infused",
+ * "infusing" and "infuse" all become "infus") but leaves drug names, codes and
+ * anything containing a digit alone, where aggressive stemming does more harm
+ * than good.
+ */
+public final class Stemmer {
+
+    private static final int MIN_STEM = 3;
+    // Longest first, so "ation" wins over "ion"
+    private static final String[] SUFFIXES = { "ation", "ion", "ing", "ed", "ly" };
+
+    private Stemmer() {
+    }
+
+    /** Stems a lower-case token produced by {@link TextTokens#tokenize}. */
+    public static String stem(String token) {
+        for (int i = 0; i < token.length(); i++) {
+            if (Character.isDigit(token.charAt(i))) {
+                return token;
+            }
+        }
+        String s = plural(token);
+        // Only the first matching suffix is removed
+        for (String suffix : SUFFIXES) {
+            if (s.endsWith(suffix) && s.length() - suffix.length() >= MIN_STEM) {
+                s = s.substring(0, s.length() - suffix.length());
+                break;
+            }
+        }
+        if (s.length() > MIN_STEM && s.endsWith("e")) {
+            s = s.substring(0, s.length() - 1);
+        }
+        return s;
+    }
+
+    private static String plural(String s) {
+        if (s.length() <= MIN_STEM) {
+            return s;
+        }
+        if (s.endsWith("ies")) {
+            return s.substring(0, s.length() - 3) + "y";
+        }
+        if (s.endsWith("sses")) {
+            return s.substring(0, s.length() - 2);
+        }
+        // "virus", "psoriasis", "glass" are not plurals
+        if (s.endsWith("s") && !s.endsWith("ss") && !s.endsWith("us") && !s.endsWith("is")) {
+            return s.substring(0, s.length() - 1);
+        }
+        return s;
+    }
+}
@@ -0,0 +1,117 @@
+package com.insurance.percert.util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * HS256 signed tokens in the JWS compact form (header.payload.signature, all
+ * base64url). Tokens name the key they were signed with in the kid header,
+ * and every key on the ring can verify, so signing can move to a new key
+ * while tokens signed with the old one stay valid until they expire.
+ *
+ * The header of each key is fixed, so verification finds the key by looking
+ * the header segment up instead of decoding it, and reuses one initialised
+ * Mac per key and thread.
+ */
+public final class TokenSigner {
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final Map<String, SigningKey> byHeader = new HashMap<>();
+    private final SigningKey current;
+
+    private static final class SigningKey {
+        private final String kid;
+        private final String header;
+        private final ThreadLocal<Mac> mac;
+
+        private SigningKey(String kid, byte[] secret) {
+            this.kid = kid;
+            this.header = ENCODER.encodeToString(("{\"alg\":\"HS256\",\"typ\":\"JWT\",\"kid\":\"" + kid + "\"}")
+                    .getBytes(StandardCharsets.UTF_8));
+            SecretKeySpec key = new SecretKeySpec(secret, ALGORITHM);
+            this.mac = ThreadLocal.withInitial(() -> {
+                try {
+                    Mac instance = Mac.getInstance(ALGORITHM);
+                    instance.init(key);
+                    return instance;
+                } catch (GeneralSecurityException e) {
+                    throw new IllegalStateException("HmacSHA256 is not available", e);
+                }
+            });
+        }
+
+        private byte[] sign(String signingInput) {
+            return mac.get().doFinal(signingInput.getBytes(StandardCharsets.US_ASCII));
+        }
+    }
+
+    // keys maps kid to secret; tokens are signed with currentKid
+    public TokenSigner(Map<String, byte[]> keys, String currentKid) {
+        for (Map.Entry<String, byte[]> entry : keys.entrySet()) {
+            String kid = entry.getKey();
+            if (kid.isEmpty() || !kid.chars().allMatch(c -> Character.isLetterOrDigit(c) || c == '-' || c == '_')) {
+                throw new IllegalArgumentException("Key ids may only contain letters, digits, - and _: " + kid);
+            }
+            if (entry.getValue().length < 32) {
+                throw new IllegalArgumentException("Key " + kid + " is shorter than 256 bits");
+            }
+            SigningKey key = new SigningKey(kid, entry.getValue());
+            byHeader.put(key.header, key);
+        }
+        SigningKey signing = null;
+        for (SigningKey key : byHeader.values()) {
+            if (key.kid.equals(currentKid)) {
+                signing = key;
+            }
+        }
+        if (signing == null) {
+            throw new IllegalArgumentException("No key with id " + currentKid + " on the ring");
+        }
+        this.current = signing;
+    }
+
+    public String currentKid() {
+        return current.kid;
+    }
+
+    public int keyCount() {
+        return byHeader.size();
+    }
+
+    public String sign(byte[] payload) {
+        String signingInput = current.header + "." + ENCODER.encodeToString(payload);
+        return signingInput + "." + ENCODER.encodeToString(current.sign(signingInput));
+    }
+
+    // The payload of a well-formed token signed by a key on the ring, else null
+    public byte[] verify(String token) {
+        int first = token.indexOf('.');
+        int second = first < 0 ? -1 : token.indexOf('.', first + 1);
+        if (second < 0 || token.indexOf('.', second + 1) >= 0) {
+            return null;
+        }
+        SigningKey key = byHeader.get(token.substring(0, first));
+        if (key == null) {
+            return null;
+        }
+        try {
+            byte[] signature = DECODER.decode(token.substring(second + 1));
+            if (!MessageDigest.isEqual(signature, key.sign(token.substring(0, second)))) {
+                return null;
+            }
+            return DECODER.decode(token.substring(first + 1, second));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
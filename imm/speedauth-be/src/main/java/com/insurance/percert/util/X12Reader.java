@@ -0,0 +1,117 @@
+package com.insurance.percert.util;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads an X12 interchange one segment at a time. The separators are taken
+ * from the ISA header (element separator at position 3, component separator
+ * at ISA16, segment terminator right after it), so files using '|' or '^'
+ * read the same as the usual '*' and '~'. Line breaks between segments are
+ * ignored. Only the current segment is held in memory.
+ */
+public class X12Reader {
+
+    private static final int ISA_LENGTH = 106;
+
+    private final Reader in;
+    private char elementSeparator;
+    private char componentSeparator;
+    private char segmentTerminator;
+    private String[] pending;
+    private long segments;
+
+    public X12Reader(Reader in) throws IOException {
+        this.in = in;
+        readHeader();
+    }
+
+    private void readHeader() throws IOException {
+        int c = in.read();
+        while (c != -1 && Character.isWhitespace(c)) {
+            c = in.read();
+        }
+        char[] isa = new char[ISA_LENGTH];
+        int length = 0;
+        while (c != -1 && length < ISA_LENGTH) {
+            isa[length++] = (char) c;
+            if (length < ISA_LENGTH) {
+                c = in.read();
+            }
+        }
+        if (length < ISA_LENGTH || isa[0] != 'I' || isa[1] != 'S' || isa[2] != 'A') {
+            throw new IOException("Not an X12 interchange: it must start with a 106-character ISA segment");
+        }
+        elementSeparator = isa[3];
+        componentSeparator = isa[104];
+        segmentTerminator = isa[105];
+        pending = split(new String(isa, 0, ISA_LENGTH - 1));
+    }
+
+    /** The next segment as its elements, the segment id first; null at the end of the input. */
+    public String[] next() throws IOException {
+        if (pending != null) {
+            String[] segment = pending;
+            pending = null;
+            segments++;
+            return segment;
+        }
+        StringBuilder segment = new StringBuilder(128);
+        int c;
+        while ((c = in.read()) != -1) {
+            if (c == segmentTerminator) {
+                if (segment.length() > 0) {
+                    segments++;
+                    return split(segment.toString());
+                }
+            } else if (c != '\r' && c != '\n' || segmentTerminator == '\r' || segmentTerminator == '\n') {
+                if (segment.length() > 0 || !Character.isWhitespace(c)) {
+                    segment.append((char) c);
+                }
+            }
+        }
+        if (segment.length() > 0 && !segment.toString().isBlank()) {
+            segments++;
+            return split(segment.toString().trim());
+        }
+        return null;
+    }
+
+    /** The parts of a composite element. */
+    public String[] components(String element) {
+        List<String> parts = new ArrayList<>(4);
+        int start = 0;
+        for (int i = 0; i < element.length(); i++) {
+            if (element.charAt(i) == componentSeparator) {
+                parts.add(element.substring(start, i));
+                start = i + 1;
+            }
+        }
+        parts.add(element.substring(start));
+        return parts.toArray(new String[0]);
+    }
+
+    public long segmentsRead() {
+        return segments;
+    }
+
+    /** Element i of a segment (0 is the id), or "" when the segment is shorter. */
+    public static String element(String[] segment, int i) {
+        return i < segment.length ? segment[i] : "";
+    }
+
+    private String[] split(String segment) {
+        List<String> elements = new ArrayList<>(12);
+        int start = 0;
+        for (int i = 0; i < segment.length(); i++) {
+            if (segment.charAt(i) == elementSeparator) {
+                elements.add(segment.substring(start, i));
+                start = i + 1;
+            }
+        }
+        elements.add(segment.substring(start));
+        return elements.toArray(new String[0]);
+    }
+}
@@ -0,0 +1,109 @@
+package com.insurance.percert.util;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Writes X12 segments straight to a stream: elements joined with '*', each
+ * segment followed by the terminator. Nothing is buffered beyond the
+ * underlying writer, so an interchange of any size streams out.
+ *
+ * Counts are kept for the trailers: segments written in total, and segments
+ * since the last {@link #startTransaction()} (the ST..SE count for SE01).
+ * Element and segment separators inside values are replaced by spaces so
+ * free text cannot break the file; composites are built with
+ * {@link #composite(String...)}.
+ */
+public class X12Writer implements Flushable {
+
+    public static final String TERMINATOR = "~\n";
+
+    private final Writer out;
+    private final String terminator;
+    private int segments;
+    private int transactionSegments;
+
+    public X12Writer(Writer out, String terminator) {
+        this.out = out;
+        this.terminator = terminator;
+    }
+
+    /** Writes one segment; null elements are written empty. */
+    public X12Writer segment(String id, String... elements) throws IOException {
+        out.write(id);
+        for (String element : elements) {
+            out.write('*');
+            if (element != null) {
+                out.write(clean(element));
+            }
+        }
+        out.write(terminator);
+        segments++;
+        transactionSegments++;
+        return this;
+    }
+
+    /** Starts the ST..SE count; call just before writing ST. */
+    public void startTransaction() {
+        transactionSegments = 0;
+    }
+
+    /** Segments written since {@link #startTransaction()}, plus one for the SE about to be written. */
+    public int transactionSegmentCountWithTrailer() {
+        return transactionSegments + 1;
+    }
+
+    public int segmentsWritten() {
+        return segments;
+    }
+
+    /** Joins the parts of a composite element with ':'; empty trailing parts are dropped. */
+    public static String composite(String... parts) {
+        int last = parts.length;
+        while (last > 0 && (parts[last - 1] == null || parts[last - 1].isEmpty())) {
+            last--;
+        }
+        StringBuilder value = new StringBuilder();
+        for (int i = 0; i < last; i++) {
+            if (i > 0) {
+                value.append(':');
+            }
+            if (parts[i] != null) {
+                value.append(parts[i].replace(':', ' '));
+            }
+        }
+        return value.toString();
+    }
+
+    /** Left-aligns and pads or truncates to a fixed width, as the ISA elements require. */
+    public static String fixed(String value, int width) {
+        String v = value == null ? "" : value;
+        if (v.length() >= width) {
+            return v.substring(0, width);
+        }
+        StringBuilder padded = new StringBuilder(width).append(v);
+        while (padded.length() < width) {
+            padded.append(' ');
+        }
+        return padded.toString();
+    }
+
+    /** Zero-pads a control number to the given width. */
+    public static String controlNumber(long value, int width) {
+        String digits = Long.toString(value);
+        return digits.length() >= width ? digits.substring(digits.length() - width) : "0".repeat(width - digits.length()) + digits;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    private static String clean(String value) {
+        if (value.indexOf('*') < 0 && value.indexOf('~') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return value.replace('*', ' ').replace('~', ' ').replace('\n', ' ').replace('\r', ' ');
+    }
+}
@@ -0,0 +1,122 @@
+package com.insurance.percert.benchmark;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import javax.crypto.SecretKey;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.insurance.percert.util.ContentDefinedChunker;
+import com.insurance.percert.util.EnvelopeCipher;
+
+/**
+ * Per-chunk cost of the encrypted file store at the chunker's minimum, average
+ * and maximum chunk sizes:
+ *
+ * - seal: new data key, key wrap and AES-GCM seal, as on upload;
+ * - open: key unwrap and AES-GCM open, as on download;
+ * - sealChunk: read the plaintext file, seal it and write the sealed copy via a
+ *   temp file and atomic move, as the legacy migration does per chunk.
+ *
+ * collectGarbage is bound by its row locks and deletes, not by the CPU, so it
+ * has no benchmark here.
+ *
+ *     mvn -Pbenchmark test-compile exec:exec -Djmh.args="ChunkSealBenchmark -f 1"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChunkSealBenchmark {
+
+    @Param({ "" + ContentDefinedChunker.MIN_SIZE, "" + ContentDefinedChunker.AVG_SIZE, "" + ContentDefinedChunker.MAX_SIZE })
+    private int chunkSize;
+
+    private EnvelopeCipher cipher;
+    private byte[] plain;
+    private String hash;
+    private byte[] wrappedKey;
+    private byte[] sealed;
+    private Path dir;
+    private Path plainPath;
+    private Path sealedPath;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        Random random = new Random(30L);
+        byte[] masterKey = new byte[32];
+        random.nextBytes(masterKey);
+        cipher = new EnvelopeCipher(masterKey);
+        plain = new byte[chunkSize];
+        random.nextBytes(plain);
+        byte[] hashBytes = new byte[32];
+        random.nextBytes(hashBytes);
+        hash = HexFormat.of().formatHex(hashBytes);
+
+        SecretKey dataKey = cipher.newDataKey();
+        wrappedKey = cipher.wrap(dataKey);
+        sealed = cipher.seal(dataKey, hash, plain, 0, plain.length);
+
+        dir = Files.createTempDirectory("chunk-seal-bench");
+        plainPath = dir.resolve(hash + ".1");
+        sealedPath = dir.resolve(hash + ".1.enc");
+        Files.write(plainPath, plain);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path path : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    @Benchmark
+    public byte[] seal() {
+        SecretKey dataKey = cipher.newDataKey();
+        cipher.wrap(dataKey);
+        return cipher.seal(dataKey, hash, plain, 0, plain.length);
+    }
+
+    @Benchmark
+    public byte[] open() {
+        return cipher.open(cipher.unwrap(wrappedKey), hash, sealed);
+    }
+
+    @Benchmark
+    public Path sealChunk() throws IOException {
+        byte[] content = Files.readAllBytes(plainPath);
+        SecretKey dataKey = cipher.newDataKey();
+        byte[] onDisk = cipher.seal(dataKey, hash, content, 0, content.length);
+        cipher.wrap(dataKey);
+        Path temp = Files.createTempFile(dir, "chunk", ".tmp");
+        try (OutputStream out = Files.newOutputStream(temp)) {
+            out.write(onDisk);
+        }
+        return Files.move(temp, sealedPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
@@ -0,0 +1,145 @@
+package com.insurance.percert.benchmark;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.LinkedHashSet;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.insurance.percert.index.CptAuthMatrix;
+
+/**
+ * CptAuthMatrix build and lookup cost on a realistic matrix: 200 payers over a
+ * universe of 10,000 CPT/HCPCS codes. Each payer has a few broad family ranges,
+ * narrower carve-outs and single-code exceptions (about 60 rules), and there is
+ * a "*" payer for everyone else. The data is generated from a fixed seed so runs
+ * are comparable.
+ *
+ *     mvn -Pbenchmark test-compile exec:exec -Djmh.args="CptAuthMatrixBenchmark -f 1"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CptAuthMatrixBenchmark {
+
+    private static final long SEED = 38L;
+    private static final char[] HCPCS_LETTERS = {'A', 'E', 'G', 'J', 'L', 'Q'};
+
+    @Param({"200"})
+    private int payers;
+
+    @Param({"10000"})
+    private int codeCount;
+
+    private String csv;
+    private CptAuthMatrix matrix;
+    private String[] codes;
+    private String[] payerIds;
+    private String[] codeLists;
+    private int next;
+
+    @Setup
+    public void setUp() throws IOException {
+        Random random = new Random(SEED);
+        codes = codeUniverse(random, codeCount);
+        payerIds = new String[payers + 1];
+        StringBuilder rules = new StringBuilder("payerId,codeFrom,codeTo,authRequired\n");
+        for (int p = 0; p < payers; p++) {
+            payerIds[p] = String.valueOf(60000 + p * 37);
+            payerRules(rules, payerIds[p], random);
+        }
+        payerIds[payers] = "UNKNOWN";
+        payerRules(rules, "*", random);
+        csv = rules.toString();
+        matrix = CptAuthMatrix.parse(new BufferedReader(new StringReader(csv)));
+
+        // Procedure code lists as they appear on an authorization request
+        codeLists = new String[1024];
+        for (int i = 0; i < codeLists.length; i++) {
+            StringBuilder list = new StringBuilder();
+            int n = 1 + random.nextInt(6);
+            for (int c = 0; c < n; c++) {
+                list.append(c == 0 ? "" : ", ").append(codes[random.nextInt(codes.length)]);
+                if (random.nextInt(4) == 0) {
+                    list.append("-25");
+                }
+            }
+            codeLists[i] = list.toString();
+        }
+    }
+
+    // 8,000 CPT Category I codes and 2,000 HCPCS Level II codes, all distinct
+    private static String[] codeUniverse(Random random, int count) {
+        LinkedHashSet<String> universe = new LinkedHashSet<>();
+        int cpt = count * 4 / 5;
+        while (universe.size() < cpt) {
+            universe.add(String.format("%05d", 10004 + random.nextInt(99499 - 10004)));
+        }
+        while (universe.size() < count) {
+            char letter = HCPCS_LETTERS[random.nextInt(HCPCS_LETTERS.length)];
+            universe.add(letter + String.format("%04d", random.nextInt(10000)));
+        }
+        return universe.toArray(new String[0]);
+    }
+
+    private void payerRules(StringBuilder rules, String payerId, Random random) {
+        // Broad ranges over surgery, radiology and drugs
+        rules.append(payerId).append(",10004,69990,Y\n");
+        rules.append(payerId).append(",70010,79999,").append(random.nextBoolean() ? "Y" : "N").append('\n');
+        rules.append(payerId).append(",J0120,J9999,Y\n");
+        // Narrower carve-outs inside them
+        for (int i = 0; i < 15; i++) {
+            int from = 10004 + random.nextInt(79000);
+            rules.append(payerId).append(',').append(String.format("%05d", from)).append(',')
+                    .append(String.format("%05d", from + random.nextInt(400))).append(',')
+                    .append(random.nextBoolean() ? "Y" : "N").append('\n');
+        }
+        // Single-code exceptions
+        for (int i = 0; i < 40; i++) {
+            rules.append(payerId).append(',').append(codes[random.nextInt(codes.length)]).append(",,")
+                    .append(random.nextInt(3) == 0 ? "Y" : "N").append('\n');
+        }
+        rules.append(payerId).append(",*,,").append(random.nextBoolean() ? "Y" : "N").append('\n');
+    }
+
+    private int nextIndex() {
+        return next++ & 0x3FF;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 5)
+    @Measurement(iterations = 10)
+    public CptAuthMatrix parse() throws IOException {
+        return CptAuthMatrix.parse(new BufferedReader(new StringReader(csv)));
+    }
+
+    @Benchmark
+    public boolean authRequired() {
+        int i = next++ & Integer.MAX_VALUE;
+        return matrix.authRequired(payerIds[i % payerIds.length], codes[i % codes.length]);
+    }
+
+    @Benchmark
+    public boolean anyAuthRequired() {
+        int i = nextIndex();
+        return matrix.anyAuthRequired(payerIds[i % payerIds.length], codeLists[i]);
+    }
+}
@@ -0,0 +1,69 @@
+package com.insurance.percert.benchmark;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.insurance.percert.model.TokenClaimsDTO;
+import com.insurance.percert.util.TokenSigner;
+
+/**
+ * Per-request cost of bearer token checks: the signature check alone, and the
+ * signature check plus reading the claims, which is what the auth filter does
+ * for every request. The ring holds two keys and the token is signed with the
+ * older one, as during a rotation.
+ *
+ *     mvn -Pbenchmark test-compile exec:exec -Djmh.args="TokenVerifyBenchmark -f 1"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TokenVerifyBenchmark {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private TokenSigner signer;
+    private String token;
+
+    @Setup
+    public void setUp() throws IOException {
+        Random random = new Random(49L);
+        Map<String, byte[]> ring = new LinkedHashMap<>();
+        for (String kid : new String[] { "2026-01", "2026-07" }) {
+            byte[] secret = new byte[32];
+            random.nextBytes(secret);
+            ring.put(kid, secret);
+        }
+        long now = System.currentTimeMillis() / 1000;
+        TokenClaimsDTO claims = new TokenClaimsDTO("speedauth", "1042", TokenClaimsDTO.USER, "reviewer@example.com",
+                "ADMIN", TokenClaimsDTO.ACCESS, now, now + 3600, "5f0c6b1e-7d3a-4c2e-9a55-0b8f1d2e3c4a", null);
+        token = new TokenSigner(ring, "2026-01").sign(objectMapper.writeValueAsBytes(claims));
+        signer = new TokenSigner(ring, "2026-07");
+    }
+
+    @Benchmark
+    public byte[] verifySignature() {
+        return signer.verify(token);
+    }
+
+    @Benchmark
+    public TokenClaimsDTO verifyAndReadClaims() throws IOException {
+        return objectMapper.readValue(signer.verify(token), TokenClaimsDTO.class);
+    }
+}
@@ -0,0 +1,111 @@
+package com.insurance.percert.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+@ExtendWith(MockitoExtension.class)
+class OrderIndexMigrationTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @InjectMocks
+    private OrderIndexMigration migration;
+
+    private final Connection connection = mock(Connection.class);
+    private final DatabaseMetaData metaData = mock(DatabaseMetaData.class);
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(migration, "enabled", true);
+    }
+
+    // The database reports idx_orders_active as already there
+    private void database(String product, String quote) throws SQLException {
+        when(connection.getMetaData()).thenReturn(metaData);
+        when(metaData.getDatabaseProductName()).thenReturn(product);
+        when(metaData.getIdentifierQuoteString()).thenReturn(quote);
+        ResultSet indexes = mock(ResultSet.class);
+        when(indexes.next()).thenReturn(true, true, false);
+        when(indexes.getString("INDEX_NAME")).thenReturn("IDX_ORDERS_ACTIVE", null);
+        when(metaData.getIndexInfo(isNull(), isNull(), anyString(), anyBoolean(), anyBoolean())).thenReturn(indexes);
+        when(jdbcTemplate.execute(any(ConnectionCallback.class)))
+                .thenAnswer(invocation -> invocation.<ConnectionCallback<?>>getArgument(0).doInConnection(connection));
+    }
+
+    private List<String> createdIndexes() {
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate, atLeastOnce()).execute(sql.capture());
+        return sql.getAllValues();
+    }
+
+    @Test
+    void postgresGetsPartialIndexesOverLiveRows() throws SQLException {
+        database("PostgreSQL", "\"");
+
+        migration.migrate();
+
+        verify(jdbcTemplate).update("UPDATE \"orders_details\" SET \"deleted_at\" = CURRENT_TIMESTAMP WHERE "
+                + "\"deleted_status\" = true AND \"deleted_at\" IS NULL");
+        assertEquals(List.of(
+                "CREATE INDEX idx_orders_active_patient ON \"orders_details\" (\"uniquepatienti\") WHERE \"deleted_status\" = false",
+                "CREATE INDEX idx_orders_active_npi ON \"orders_details\" (\"provider_npi_number\") WHERE \"deleted_status\" = false",
+                "CREATE INDEX idx_orders_active_provider ON \"orders_details\" (upper(\"provider_name\")) WHERE \"deleted_status\" = false",
+                "CREATE INDEX idx_orders_active_drug ON \"orders_details\" (\"icddrugname\") WHERE \"deleted_status\" = false",
+                "CREATE INDEX idx_orders_deleted_at ON \"orders_details\" (\"deleted_at\") WHERE \"deleted_status\" = true"),
+                createdIndexes());
+    }
+
+    @Test
+    void mysqlGetsCompositeIndexesAndCarriesOnPastAFailure() throws SQLException {
+        database("MySQL", "`");
+        doThrow(new DataAccessResourceFailureException("lock wait timeout")).when(jdbcTemplate)
+                .execute("CREATE INDEX idx_orders_active_patient ON `orders_details` (`deleted_status`, `uniquepatienti`)");
+
+        migration.migrate();
+
+        assertEquals(List.of(
+                "CREATE INDEX idx_orders_active_patient ON `orders_details` (`deleted_status`, `uniquepatienti`)",
+                "CREATE INDEX idx_orders_active_npi ON `orders_details` (`deleted_status`, `provider_npi_number`)",
+                "CREATE INDEX idx_orders_active_provider ON `orders_details` (`deleted_status`, (upper(`provider_name`)))",
+                "CREATE INDEX idx_orders_active_drug ON `orders_details` (`deleted_status`, `icddrugname`)",
+                "CREATE INDEX idx_orders_deleted_at ON `orders_details` (`deleted_status`, `deleted_at`)"),
+                createdIndexes());
+    }
+
+    @Test
+    void doesNothingWhenDisabled() {
+        ReflectionTestUtils.setField(migration, "enabled", false);
+
+        migration.migrate();
+
+        verifyNoInteractions(jdbcTemplate);
+    }
+}
@@ -0,0 +1,126 @@
+package com.insurance.percert.controller;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.insurance.percert.Repository.FileUploadRepository;
+import com.insurance.percert.Repository.PatientRepository;
+import com.insurance.percert.model.FileSummaryDTO;
+import com.insurance.percert.model.PatientEntity;
+import com.insurance.percert.service.FileStorageService;
+
+@ExtendWith(MockitoExtension.class)
+class PatientControllerTest {
+
+    private static final LocalDateTime UPLOADED = LocalDateTime.of(2026, 9, 14, 10, 30);
+
+    @Mock
+    private PatientRepository patientRepository;
+
+    @Mock
+    private FileUploadRepository fileRepository;
+
+    @Mock
+    private FileStorageService fileStorageService;
+
+    @InjectMocks
+    private PatientController patientController;
+
+    private final Map<Long, String> contents = new LinkedHashMap<>();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        PatientEntity patient = new PatientEntity();
+        patient.setCustomPatientId("PAT007");
+        lenient().when(patientRepository.findById(7L)).thenReturn(Optional.of(patient));
+        contents.put(1L, "%PDF-1.7 referral");
+        contents.put(2L, "lab results");
+        contents.put(3L, "second referral");
+        contents.put(4L, "notes");
+        lenient().when(fileRepository.findSummariesByPatientId(7L)).thenReturn(List.of(
+                new FileSummaryDTO(1L, "referral.pdf", "application/pdf", "Referral", 17L, UPLOADED),
+                new FileSummaryDTO(2L, "labs/2026:09.txt", "text/plain", "Lab", 11L, UPLOADED),
+                new FileSummaryDTO(3L, "referral.pdf", "application/pdf", "Referral", 15L, null),
+                new FileSummaryDTO(4L, null, null, null, 5L, null)));
+        lenient().when(fileStorageService.openStream(anyLong())).thenAnswer(invocation -> new ByteArrayInputStream(
+                contents.get(invocation.<Long>getArgument(0)).getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private record Entry(String name, String content, LocalDateTime time) {
+    }
+
+    private static List<Entry> unzip(ResponseEntity<StreamingResponseBody> response) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        response.getBody().writeTo(out);
+        List<Entry> entries = new ArrayList<>();
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            for (ZipEntry entry = zip.getNextEntry(); entry != null; entry = zip.getNextEntry()) {
+                entries.add(new Entry(entry.getName(), new String(zip.readAllBytes(), StandardCharsets.UTF_8),
+                        entry.getTimeLocal()));
+            }
+        }
+        return entries;
+    }
+
+    @Test
+    void bundlesEveryFileUnderUniqueSafeNames() throws IOException {
+        ResponseEntity<StreamingResponseBody> response = patientController.downloadFileBundle(7L, null);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("application/zip", response.getHeaders().getContentType().toString());
+        assertEquals("patient-PAT007-records.zip", response.getHeaders().getContentDisposition().getFilename());
+        List<Entry> entries = unzip(response);
+        assertEquals(List.of("referral.pdf", "labs_2026_09.txt", "referral (1).pdf", "file-4"),
+                entries.stream().map(Entry::name).toList());
+        assertEquals(List.copyOf(contents.values()), entries.stream().map(Entry::content).toList());
+        assertEquals(UPLOADED, entries.get(0).time());
+    }
+
+    @Test
+    void bundlesOnlyTheRequestedFilesInTheirOrder() throws IOException {
+        List<Entry> entries = unzip(patientController.downloadFileBundle(7L, List.of(4L, 2L, 4L)));
+
+        assertArrayEquals(new String[] { "file-4", "labs_2026_09.txt" },
+                entries.stream().map(Entry::name).toArray(String[]::new));
+    }
+
+    @Test
+    void unknownPatientsAndFilesAreNotFoundBeforeStreaming() throws IOException {
+        when(patientRepository.findById(8L)).thenReturn(Optional.empty());
+        when(patientRepository.findById(9L)).thenReturn(Optional.of(new PatientEntity()));
+        when(fileRepository.findSummariesByPatientId(9L)).thenReturn(List.of());
+
+        assertEquals(HttpStatus.NOT_FOUND, patientController.downloadFileBundle(8L, null).getStatusCode());
+        assertEquals(HttpStatus.NOT_FOUND, patientController.downloadFileBundle(9L, null).getStatusCode());
+        // A file of another patient is refused outright
+        assertEquals(HttpStatus.NOT_FOUND, patientController.downloadFileBundle(7L, List.of(1L, 99L)).getStatusCode());
+        verifyNoInteractions(fileStorageService);
+    }
+}
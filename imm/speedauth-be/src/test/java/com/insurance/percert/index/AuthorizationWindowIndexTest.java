@@ -0,0 +1,92 @@
+package com.insurance.percert.index;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import com.insurance.percert.index.AuthorizationWindowIndex.Window;
+
+class AuthorizationWindowIndexTest {
+
+    private static final LocalDate JAN_1 = LocalDate.of(2026, 1, 1);
+
+    private static Window window(long id, long patientId, String code, int startDay, int endDay, Integer units) {
+        return new Window(id, patientId, code, JAN_1.plusDays(startDay), JAN_1.plusDays(endDay), units);
+    }
+
+    private static List<Long> ids(List<Window> windows) {
+        return windows.stream().map(Window::authorizationId).toList();
+    }
+
+    @Test
+    void coversOnlyWindowsSpanningTheWholePeriod() {
+        AuthorizationWindowIndex index = AuthorizationWindowIndex.build(List.of(
+                window(1, 7, "99213", 0, 90, 10),
+                window(2, 7, "99213", 10, 20, null),
+                window(3, 7, "99213", 15, 40, 4),
+                window(4, 7, "J1234", 0, 365, 1),
+                window(5, 8, "99213", 0, 365, 1)));
+
+        // Soonest ending first
+        assertEquals(List.of(2L, 3L, 1L), ids(index.covering(7, "99213", JAN_1.plusDays(15), JAN_1.plusDays(20))));
+        assertEquals(List.of(3L, 1L), ids(index.covering(7, "99213", JAN_1.plusDays(15), JAN_1.plusDays(21))));
+        assertEquals(List.of(1L), ids(index.covering(7, " 99213 ", JAN_1.plusDays(5), JAN_1.plusDays(5))));
+        assertEquals(List.of(), ids(index.covering(7, "99213", JAN_1.plusDays(80), JAN_1.plusDays(100))));
+        assertEquals(List.of(), ids(index.covering(9, "99213", JAN_1, JAN_1)));
+        assertEquals(List.of(4L), ids(index.covering(7, "j1234", JAN_1, JAN_1)));
+    }
+
+    @Test
+    void dropsInvertedWindowsAndKeepsUnits() {
+        AuthorizationWindowIndex index = AuthorizationWindowIndex.build(List.of(
+                window(1, 7, "99213", 10, 5, 3),
+                window(2, 7, "99214", 0, 5, null),
+                window(3, 7, "99215", 0, 5, 12)));
+
+        assertFalse(index.hasAny(7, "99213"));
+        assertTrue(index.hasAny(7, "99214"));
+        assertFalse(index.contains(1));
+        assertTrue(index.contains(2));
+        assertNull(index.units(2));
+        assertEquals(12, index.units(3));
+        assertEquals(2, index.authorizationCount());
+        assertEquals(0, AuthorizationWindowIndex.empty().authorizationCount());
+    }
+
+    // The pruned backward scan finds exactly what a full scan does
+    @Test
+    void matchesABruteForceScan() {
+        Random random = new Random(44);
+        List<Window> windows = new ArrayList<>();
+        for (int id = 0; id < 500; id++) {
+            int start = random.nextInt(365);
+            windows.add(window(id, random.nextInt(3), "9921" + random.nextInt(3), start, start + random.nextInt(120), null));
+        }
+        AuthorizationWindowIndex index = AuthorizationWindowIndex.build(windows);
+
+        for (int i = 0; i < 2000; i++) {
+            long patientId = random.nextInt(3);
+            String code = "9921" + random.nextInt(3);
+            LocalDate from = JAN_1.plusDays(random.nextInt(400));
+            LocalDate to = from.plusDays(random.nextInt(30));
+            List<Window> expected = new ArrayList<>();
+            for (Window w : windows) {
+                if (w.patientId() == patientId && w.code().equals(code) && !w.start().isAfter(from)
+                        && !w.end().isBefore(to)) {
+                    expected.add(w);
+                }
+            }
+            expected.sort(Comparator.comparing(Window::end).thenComparingLong(Window::authorizationId));
+            assertEquals(ids(expected), ids(index.covering(patientId, code, from, to)));
+        }
+    }
+}
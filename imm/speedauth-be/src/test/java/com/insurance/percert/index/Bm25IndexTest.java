@@ -0,0 +1,89 @@
+package com.insurance.percert.index;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class Bm25IndexTest {
+
+    // Fields: drug name, then description
+    private static Bm25Index<String> drugs() {
+        Bm25Index<String> index = new Bm25Index<>(3f, 1f);
+        index.put(1, "keytruda", "Pembrolizumab", "PD-1 blocking antibody injection");
+        index.put(2, "opdivo", "Nivolumab", "PD-1 blocking antibody injections for infusion");
+        index.put(3, "herceptin", "Trastuzumab", "HER2 antibody, compare pembrolizumab combinations");
+        index.put(4, "saline", "Sodium chloride", "Injection for infusion");
+        return index;
+    }
+
+    @Test
+    void lastWordCompletesAsAPrefixUntilFinished() {
+        Bm25Index<String> index = drugs();
+
+        assertEquals("keytruda", index.searchValues("pembro", 10).get(0));
+        assertTrue(index.searchValues("pembro ", 10).isEmpty());
+        assertTrue(index.searchValues("", 10).isEmpty());
+        assertTrue(index.searchValues("pembro", 0).isEmpty());
+    }
+
+    @Test
+    void matchesOtherInflectionsOfAWord() {
+        List<String> found = drugs().searchValues("injections ", 10);
+
+        assertEquals(3, found.size());
+        assertTrue(found.containsAll(List.of("keytruda", "opdivo", "saline")));
+    }
+
+    @Test
+    void weightedFieldsAndMatchedWordsDecideTheOrder() {
+        Bm25Index<String> index = drugs();
+
+        // The name field outweighs a mention in the description
+        assertEquals(List.of("keytruda", "herceptin"), index.searchValues("pembrolizumab ", 10));
+        // A zero weight leaves the name field out of this search
+        assertEquals(List.of("herceptin"), index.searchValues("pembrolizumab ", 10, 0f, 1f));
+        // Both words beat either one alone
+        assertEquals("opdivo", index.searchValues("nivolumab infusion", 10).get(0));
+        List<Bm25Index.Match<String>> matches = index.search("antibody infusion", 10);
+        assertEquals("opdivo", matches.get(0).value());
+        for (int i = 1; i < matches.size(); i++) {
+            assertTrue(matches.get(i - 1).score() >= matches.get(i).score());
+        }
+    }
+
+    @Test
+    void updatesAndRemovalsReplaceOldText() {
+        Bm25Index<String> index = drugs();
+
+        index.put(4, "saline", "Sodium chloride", "Flush");
+        assertFalse(index.searchValues("infusion ", 10).contains("saline"));
+        assertTrue(index.remove(1));
+        assertFalse(index.remove(1));
+        assertEquals(List.of("herceptin"), index.searchValues("pembrolizumab ", 10));
+        assertFalse(index.putIfAbsent(2, "other", "Other", ""));
+        assertTrue(index.putIfAbsent(1, "keytruda", "Pembrolizumab", ""));
+        assertEquals(4, index.size());
+    }
+
+    @Test
+    void searchesStayCorrectAcrossCompaction() {
+        Bm25Index<Long> index = new Bm25Index<>(1f);
+        for (long id = 0; id < 1000; id++) {
+            index.put(id, id, (id % 2 == 0 ? "even " : "odd ") + "code" + id);
+        }
+        for (long id = 0; id < 800; id++) {
+            index.remove(id);
+        }
+
+        assertEquals(200, index.size());
+        List<Long> even = index.searchValues("even ", 500);
+        assertEquals(100, even.size());
+        assertTrue(even.stream().allMatch(id -> id >= 800 && id % 2 == 0));
+        assertEquals(List.of(950L), index.searchValues("code950", 10));
+        assertTrue(index.searchValues("code10 ", 10).isEmpty());
+    }
+}
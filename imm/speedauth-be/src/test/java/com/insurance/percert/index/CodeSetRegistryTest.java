@@ -0,0 +1,64 @@
+package com.insurance.percert.index;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.insurance.percert.util.CodeSetFiles.CodeRow;
+
+class CodeSetRegistryTest {
+
+    private static CodeSetVersion icd(String version, String effectiveFrom, String... codes) {
+        return new CodeSetVersion(CodeSetVersion.ICD10CM, version, LocalDate.parse(effectiveFrom),
+                List.of(codes).stream().map(code -> new CodeRow(code, true, code, "Release " + version)).toList());
+    }
+
+    private static String versionOn(CodeSetRegistry registry, String system, String date) {
+        CodeSetVersion version = registry.versionOn(system, LocalDate.parse(date));
+        return version == null ? null : version.getVersion();
+    }
+
+    @Test
+    void picksTheLatestVersionStartedOnTheDate() {
+        CodeSetRegistry registry = CodeSetRegistry.empty()
+                .with(icd("FY2025", "2024-10-01", "E11.9"))
+                .with(icd("FY2024", "2023-10-01", "E11.9"))
+                .with(icd("FY2026", "2025-10-01", "E11.9"));
+
+        assertNull(versionOn(registry, CodeSetVersion.ICD10CM, "2023-09-30"));
+        assertEquals("FY2024", versionOn(registry, CodeSetVersion.ICD10CM, "2023-10-01"));
+        assertEquals("FY2024", versionOn(registry, CodeSetVersion.ICD10CM, "2024-09-30"));
+        assertEquals("FY2025", versionOn(registry, CodeSetVersion.ICD10CM, "2024-10-01"));
+        assertEquals("FY2025", versionOn(registry, CodeSetVersion.ICD10CM, "2025-09-30"));
+        assertEquals("FY2026", versionOn(registry, CodeSetVersion.ICD10CM, "2031-01-01"));
+        assertNull(versionOn(registry, CodeSetVersion.CPT, "2025-01-01"));
+    }
+
+    @Test
+    void sameStartDateReplacesAndOldRegistriesStayAsTheyWere() {
+        CodeSetRegistry first = CodeSetRegistry.empty().with(icd("FY2025", "2024-10-01", "E11.9"));
+        CodeSetRegistry second = first.with(icd("FY2025-r2", "2024-10-01", "E11.9", "U07.1"));
+
+        assertEquals("FY2025-r2", versionOn(second, CodeSetVersion.ICD10CM, "2025-01-01"));
+        assertEquals("FY2025", versionOn(first, CodeSetVersion.ICD10CM, "2025-01-01"));
+        assertTrue(second.versionOn(CodeSetVersion.ICD10CM, LocalDate.parse("2025-01-01")).contains("u071"));
+        assertFalse(first.versionOn(CodeSetVersion.ICD10CM, LocalDate.parse("2025-01-01")).contains("U07.1"));
+    }
+
+    @Test
+    void versionsMatchEitherSpellingOfACode() {
+        CodeSetVersion version = icd("FY2025", "2024-10-01", "S72.001A", "s72001a", " ", "I10");
+
+        assertEquals(2, version.size());
+        assertTrue(version.contains("S72001A"));
+        assertTrue(version.contains("s72.001a"));
+        assertEquals("Release FY2025", version.description("I10"));
+        assertNull(version.description("I11"));
+    }
+}
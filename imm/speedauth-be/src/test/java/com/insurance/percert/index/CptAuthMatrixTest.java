@@ -0,0 +1,123 @@
+package com.insurance.percert.index;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class CptAuthMatrixTest {
+
+    private static CptAuthMatrix parse(String csv) throws IOException {
+        return CptAuthMatrix.parse(new BufferedReader(new StringReader(csv)));
+    }
+
+    @Test
+    void narrowerRangesWinOverBroaderOnes() throws IOException {
+        CptAuthMatrix matrix = parse("""
+                payerId,codeFrom,codeTo,authRequired
+                # surgery needs auth except injections, but one injection code does again
+                87726,10004,69990,Y
+                87726,20600,20611,N
+                87726,20610,,Y
+                87726,*,,N
+                """);
+
+        assertTrue(matrix.authRequired("87726", "10004"));
+        assertFalse(matrix.authRequired("87726", "20600"));
+        assertTrue(matrix.authRequired("87726", "20610"));
+        assertFalse(matrix.authRequired("87726", "20611"));
+        assertTrue(matrix.authRequired("87726", "69990"));
+        assertFalse(matrix.authRequired("87726", "99213")); // outside every range: the "*" row
+        assertEquals(4, matrix.ruleCount());
+        assertEquals(1, matrix.payerCount());
+    }
+
+    @Test
+    void laterLineWinsOnEqualWidth() throws IOException {
+        CptAuthMatrix matrix = parse("""
+                1,70010,70020,Y
+                1,70010,70020,N
+                """);
+
+        assertFalse(matrix.authRequired("1", "70015"));
+    }
+
+    @Test
+    void anyPayerAndUnknownsRequireAuthByDefault() throws IOException {
+        CptAuthMatrix matrix = parse("""
+                *,J0120,J9999,Y
+                *,99201,99499,N
+                60054,99201,99499,Y
+                """);
+
+        assertFalse(matrix.authRequired("unknown", "99213"));
+        assertTrue(matrix.authRequired(null, "J1234"));
+        assertTrue(matrix.authRequired("60054", "99213"));
+        assertTrue(matrix.authRequired("60054", "J1234")); // has its own rules, and none cover J codes
+        assertTrue(matrix.authRequired("unknown", "A0425")); // uncovered, no "*" code row
+        assertTrue(matrix.authRequired("unknown", "not-a-code"));
+        assertTrue(CptAuthMatrix.empty().authRequired("60054", "99213"));
+    }
+
+    @Test
+    void codeListsNeedAuthWhenAnyCodeDoes() throws IOException {
+        CptAuthMatrix matrix = parse("""
+                1,99201,99499,N
+                1,J0120,J9999,Y
+                """);
+
+        assertFalse(matrix.anyAuthRequired("1", "99213-25, 99214"));
+        assertTrue(matrix.anyAuthRequired("1", "99213;J1234"));
+        assertTrue(matrix.anyAuthRequired("1", "25, RT"));
+        assertTrue(matrix.anyAuthRequired("1", null));
+    }
+
+    @Test
+    void rejectsMalformedRulesWithTheirLine() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> parse("1,99201,99499,Y\n1,99201,99499,maybe\n"));
+        assertTrue(e.getMessage().startsWith("Line 2:"), e.getMessage());
+        assertThrows(IllegalArgumentException.class, () -> parse("1,99499,99201,Y\n"));
+        assertThrows(IllegalArgumentException.class, () -> parse("1,99201,J9999,Y\n"));
+        assertThrows(IllegalArgumentException.class, () -> parse("1,99201,Y\n"));
+        assertThrows(IllegalArgumentException.class, () -> parse(",99201,,Y\n"));
+    }
+
+    // The flattened step function answers as painting the ranges widest first would
+    @Test
+    void flattenMatchesBruteForcePainting() throws IOException {
+        Random random = new Random(38);
+        int span = 2000;
+        StringBuilder csv = new StringBuilder();
+        int[][] rules = new int[60][];
+        for (int i = 0; i < rules.length; i++) {
+            int from = random.nextInt(span);
+            int to = Math.min(span - 1, from + random.nextInt(i < 5 ? span : 50));
+            int required = random.nextInt(2);
+            rules[i] = new int[] { from, to, required };
+            csv.append("1,").append(10000 + from).append(',').append(10000 + to).append(',')
+                    .append(required == 1 ? "Y" : "N").append('\n');
+        }
+        csv.append("1,*,,N\n");
+        CptAuthMatrix matrix = parse(csv.toString());
+
+        for (int code = 0; code < span; code++) {
+            int bestWidth = Integer.MAX_VALUE;
+            boolean expected = false; // the "*" row
+            for (int[] rule : rules) {
+                int width = rule[1] - rule[0];
+                if (code >= rule[0] && code <= rule[1] && width <= bestWidth) {
+                    bestWidth = width;
+                    expected = rule[2] == 1;
+                }
+            }
+            assertEquals(expected, matrix.authRequired("1", String.valueOf(10000 + code)), "code " + (10000 + code));
+        }
+    }
+}
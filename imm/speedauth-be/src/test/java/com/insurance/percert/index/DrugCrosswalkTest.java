@@ -0,0 +1,144 @@
+package com.insurance.percert.index;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import org.junit.jupiter.api.Test;
+
+import com.insurance.percert.model.DrugSummaryDTO;
+
+class DrugCrosswalkTest {
+
+    private static final String[] ICD = { "C50.911", "c50911", "E11.9", "I10", "C34.90", "D63.0", "Z51.11", "M06.9" };
+    private static final String[] CPT = { "96413", "96415", "J9271", " j9035 ", "99213", "96372" };
+
+    private static DrugSummaryDTO drug(long id) {
+        return new DrugSummaryDTO(id, "Drug " + id, "J" + (9000 + id), "desc " + id);
+    }
+
+    private static DrugCrosswalk sample() {
+        return DrugCrosswalk.build(List.of(drug(3), drug(1), drug(2)),
+                List.of(new DrugCrosswalk.Link(1, "C50.911"), new DrugCrosswalk.Link(1, "c50911"),
+                        new DrugCrosswalk.Link(2, "E11.9"), new DrugCrosswalk.Link(3, "C50.911"),
+                        new DrugCrosswalk.Link(9, "I10"), new DrugCrosswalk.Link(3, " ")),
+                List.of(new DrugCrosswalk.Link(1, "96413"), new DrugCrosswalk.Link(3, "96413"),
+                        new DrugCrosswalk.Link(3, "j9271")));
+    }
+
+    @Test
+    void looksUpBothDirections() {
+        DrugCrosswalk crosswalk = sample();
+
+        assertEquals(3, crosswalk.drugCount());
+        // Spellings of one code collapse; links to unknown drugs and blank codes are dropped
+        assertEquals(List.of("C50.911"), crosswalk.icdCodesOf(1));
+        assertEquals(List.of("96413", "J9271"), crosswalk.cptCodesOf(3));
+        assertEquals(List.of(drug(1), drug(3)), crosswalk.drugsFor("c50911", null));
+        assertEquals(List.of(drug(3)), crosswalk.drugsFor("C50.911", "J9271"));
+        assertEquals(List.of(drug(1), drug(3)), crosswalk.drugsFor(null, "96413"));
+        assertEquals(List.of(), crosswalk.drugsFor("I10", null));
+        assertEquals(List.of(), crosswalk.drugsFor(null, null));
+        assertEquals(List.of("96413", "J9271"), crosswalk.cptCodesWithIcd("C50.911"));
+        assertEquals(List.of(), crosswalk.icdCodesOf(42));
+    }
+
+    @Test
+    void withDrugAddsReplacesAndRemoves() {
+        DrugCrosswalk original = sample();
+
+        DrugCrosswalk added = original.withDrug(0, drug(0), List.of("I10", "E11.9"), List.of("99213"));
+        assertEquals(List.of(drug(0), drug(2)), added.drugsFor("E11.9", null));
+        assertEquals(List.of(drug(0)), added.drugsFor("I10", "99213"));
+        // Copy-on-write: the original still answers as before
+        assertEquals(List.of(drug(2)), original.drugsFor("E11.9", null));
+        assertNull(original.getDrug(0));
+
+        DrugCrosswalk replaced = added.withDrug(3, drug(3), List.of("I10"), List.of());
+        assertEquals(List.of(drug(1)), replaced.drugsFor("C50.911", null));
+        assertEquals(List.of(drug(0), drug(3)), replaced.drugsFor("I10", null));
+        assertEquals(List.of(), replaced.cptCodesOf(3));
+        // J9271 lost its only drug but keeps its slot until the next build
+        assertEquals(added.cptCodeCount(), replaced.cptCodeCount());
+
+        DrugCrosswalk removed = replaced.withDrug(1, null, List.of(), List.of());
+        assertEquals(3, removed.drugCount());
+        assertNull(removed.getDrug(1));
+        assertEquals(List.of(), removed.drugsFor("C50.911", null));
+        assertSame(removed, removed.withDrug(1, null, List.of(), List.of()));
+    }
+
+    // Any sequence of splices answers exactly as a crosswalk built from scratch
+    @Test
+    void splicesMatchAFullBuild() {
+        Random random = new Random(7);
+        Map<Long, Set<String>> icd = new TreeMap<>();
+        Map<Long, Set<String>> cpt = new TreeMap<>();
+        DrugCrosswalk spliced = DrugCrosswalk.build(List.of(), List.of(), List.of());
+
+        for (int step = 0; step < 400; step++) {
+            long id = random.nextInt(25);
+            if (random.nextInt(4) == 0) {
+                icd.remove(id);
+                cpt.remove(id);
+                spliced = spliced.withDrug(id, null, List.of(), List.of());
+            } else {
+                Set<String> icdCodes = pick(random, ICD);
+                Set<String> cptCodes = pick(random, CPT);
+                icd.put(id, icdCodes);
+                cpt.put(id, cptCodes);
+                spliced = spliced.withDrug(id, drug(id), icdCodes, cptCodes);
+            }
+            assertSameAnswers(build(icd, cpt), spliced, "step " + step);
+        }
+    }
+
+    private static Set<String> pick(Random random, String[] codes) {
+        Set<String> picked = new TreeSet<>();
+        for (String code : codes) {
+            if (random.nextInt(3) == 0) {
+                picked.add(code);
+            }
+        }
+        return picked;
+    }
+
+    private static DrugCrosswalk build(Map<Long, Set<String>> icd, Map<Long, Set<String>> cpt) {
+        List<DrugSummaryDTO> drugs = new ArrayList<>();
+        List<DrugCrosswalk.Link> icdLinks = new ArrayList<>();
+        List<DrugCrosswalk.Link> cptLinks = new ArrayList<>();
+        for (long id : icd.keySet()) {
+            drugs.add(drug(id));
+            icd.get(id).forEach(code -> icdLinks.add(new DrugCrosswalk.Link(id, code)));
+            cpt.get(id).forEach(code -> cptLinks.add(new DrugCrosswalk.Link(id, code)));
+        }
+        return DrugCrosswalk.build(drugs, icdLinks, cptLinks);
+    }
+
+    private static void assertSameAnswers(DrugCrosswalk expected, DrugCrosswalk actual, String message) {
+        assertEquals(expected.drugCount(), actual.drugCount(), message);
+        for (long id = 0; id < 25; id++) {
+            assertEquals(expected.getDrug(id), actual.getDrug(id), message);
+            assertEquals(expected.icdCodesOf(id), actual.icdCodesOf(id), message);
+            assertEquals(expected.cptCodesOf(id), actual.cptCodesOf(id), message);
+        }
+        for (String icdCode : ICD) {
+            assertEquals(expected.drugsFor(icdCode, null), actual.drugsFor(icdCode, null), message);
+            assertEquals(expected.cptCodesWithIcd(icdCode), actual.cptCodesWithIcd(icdCode), message);
+            for (String cptCode : CPT) {
+                assertEquals(expected.drugsFor(icdCode, cptCode), actual.drugsFor(icdCode, cptCode), message);
+            }
+        }
+        for (String cptCode : CPT) {
+            assertEquals(expected.drugsFor(null, cptCode), actual.drugsFor(null, cptCode), message);
+        }
+    }
+}
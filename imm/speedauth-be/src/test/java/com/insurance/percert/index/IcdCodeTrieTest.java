@@ -0,0 +1,71 @@
+package com.insurance.percert.index;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.insurance.percert.model.IcdCodeDTO;
+
+class IcdCodeTrieTest {
+
+    private final IcdCodeTrie trie = new IcdCodeTrie(List.of(
+            new IcdCodeTrie.Row("S72", "Fracture of femur", null, false),
+            new IcdCodeTrie.Row("S72.0", "Fracture of head and neck of femur", null, false),
+            new IcdCodeTrie.Row("S72.00", "Fracture of unspecified part of neck of femur", null, false),
+            new IcdCodeTrie.Row("S72.001", "Fracture of unspecified part of neck of right femur", null, null),
+            new IcdCodeTrie.Row("S72.002", "Fracture of unspecified part of neck of left femur", null, null),
+            new IcdCodeTrie.Row("S72.1", "Pertrochanteric fracture", null, false),
+            new IcdCodeTrie.Row("E11", "Type 2 diabetes mellitus", null, false),
+            new IcdCodeTrie.Row("E11.9", "Type 2 diabetes mellitus without complications", null, true),
+            new IcdCodeTrie.Row("e119", null, null, null)));
+
+    private static List<String> codes(List<IcdCodeDTO> entries) {
+        return entries.stream().map(IcdCodeDTO::getIcdCode).toList();
+    }
+
+    @Test
+    void collapsesSpellingsOfOneCode() {
+        assertEquals(8, trie.size());
+        assertEquals("Type 2 diabetes mellitus without complications", trie.get("E119").getDescription());
+    }
+
+    @Test
+    void completesCodePrefixesInCodeOrder() {
+        assertEquals(List.of("S72", "S72.0", "S72.00", "S72.001", "S72.002", "S72.1"), codes(trie.suggest("s72", 10, false)));
+        assertEquals(List.of("S72.00", "S72.001", "S72.002"), codes(trie.suggest("S72.00", 10, false)));
+        assertEquals(List.of("S72.001", "S72.002"), codes(trie.suggest("S72", 10, true)));
+        assertEquals(List.of("S72", "S72.0"), codes(trie.suggest("S7", 2, false)));
+        assertTrue(trie.suggest("S73", 10, false).isEmpty());
+        assertTrue(trie.suggest("S72", 0, false).isEmpty());
+    }
+
+    @Test
+    void completesDescriptionWords() {
+        assertEquals(List.of("S72.002"), codes(trie.suggest("left fem", 10, false)));
+        assertEquals(List.of("E11", "E11.9"), codes(trie.suggest("diabetes", 10, false)));
+    }
+
+    @Test
+    void walksTheHierarchy() {
+        assertEquals("S72.00", trie.parent("S72.001").getIcdCode());
+        assertEquals("S72", trie.parent("S72.1").getIcdCode());
+        assertNull(trie.parent("S72"));
+        assertEquals(List.of("S72", "S72.0", "S72.00", "S72.002"), codes(trie.path("S72002")));
+        assertEquals(List.of("S72.0", "S72.1"), codes(trie.children("S72", false)));
+        assertEquals(List.of(), codes(trie.children("S72", true)));
+        assertNull(trie.children("X99", false));
+        assertEquals(2, trie.get("S72").getChildCount());
+    }
+
+    @Test
+    void leafWithUnknownFlagCountsAsBillable() {
+        assertTrue(trie.get("S72.001").isBillable());
+        assertFalse(trie.get("S72.00").isBillable());
+        assertTrue(trie.get("E11.9").isBillable());
+    }
+}
@@ -0,0 +1,87 @@
+package com.insurance.percert.index;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.insurance.percert.util.TextTokens;
+
+class PatientDocumentIndexTest {
+
+    private static PatientDocumentIndex index() {
+        PatientDocumentIndex index = new PatientDocumentIndex(2);
+        index.load(1L, Map.of(
+                10L, "Pathology report: invasive ductal carcinoma, left breast. Carcinoma grade 2.",
+                11L, "Infusion log - paclitaxel 80 mg/m2 weekly; carcinoma follow-up",
+                12L, "MRI of the lumbar spine, no acute findings"));
+        return index;
+    }
+
+    @Test
+    void tokenizesToLowerCaseTermsWithinTheLengthLimits() {
+        assertEquals(List.of("mri", "l4", "l5", "disc"), TextTokens.tokenize("MRI: L4-L5 disc, a x"));
+        assertEquals(List.of(), TextTokens.tokenize(null));
+        assertEquals(List.of("ok"), TextTokens.tokenize("ok " + "z".repeat(TextTokens.MAX_TOKEN_LENGTH + 1)));
+    }
+
+    @Test
+    void findsFilesWithEveryTermRankedByFrequency() {
+        PatientDocumentIndex index = index();
+
+        assertEquals(List.of(10L, 11L), index.search(1L, "carcinoma", 10));
+        assertEquals(List.of(11L), index.search(1L, "CARCINOMA paclitaxel", 10));
+        // The last term also matches as a prefix
+        assertEquals(List.of(11L), index.search(1L, "carcinoma pacli", 10));
+        assertEquals(List.of(12L), index.search(1L, "lumb", 10));
+        assertEquals(List.of(), index.search(1L, "lumb spine", 10));
+        assertEquals(List.of(10L), index.search(1L, "carcinoma", 1));
+        assertEquals(List.of(), index.search(1L, "-", 10));
+        assertEquals(List.of(), index.search(2L, "carcinoma", 10));
+    }
+
+    @Test
+    void documentsCanBeReplacedAndRemoved() {
+        PatientDocumentIndex index = index();
+
+        index.addDocument(1L, 12L, "Carcinoma staging CT");
+        assertEquals(List.of(), index.search(1L, "lumbar", 10));
+        assertEquals(List.of(12L), index.search(1L, "staging", 10));
+
+        index.removeDocument(1L, 10L);
+        assertEquals(List.of(11L, 12L), index.search(1L, "carcinoma", 10).stream().sorted().toList());
+        index.removePatient(1L);
+        assertFalse(index.isLoaded(1L));
+    }
+
+    @Test
+    void loadingKeepsDocumentsIndexedWhileItRead() {
+        PatientDocumentIndex index = new PatientDocumentIndex(2);
+        index.addDocument(1L, 20L, "new discharge summary");
+        assertFalse(index.isLoaded(1L));
+
+        index.load(1L, Map.of(20L, "stale text", 21L, "older discharge note"));
+
+        assertTrue(index.isLoaded(1L));
+        assertEquals(List.of(20L), index.search(1L, "summary", 10));
+        assertEquals(List.of(), index.search(1L, "stale", 10));
+        assertEquals(List.of(20L, 21L), index.search(1L, "discharge", 10).stream().sorted().toList());
+    }
+
+    @Test
+    void evictsTheLeastRecentlyUsedPatient() {
+        PatientDocumentIndex index = index();
+        index.load(2L, Map.of(30L, "echo"));
+        index.search(1L, "mri", 10);
+
+        index.load(3L, Map.of(40L, "ekg"));
+
+        assertTrue(index.isLoaded(1L));
+        assertFalse(index.isLoaded(2L));
+        assertTrue(index.isLoaded(3L));
+    }
+}
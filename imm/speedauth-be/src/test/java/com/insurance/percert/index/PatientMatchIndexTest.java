@@ -0,0 +1,95 @@
+package com.insurance.percert.index;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.insurance.percert.model.PatientMatchDTO;
+
+class PatientMatchIndexTest {
+
+    private static final LocalDate BORN = LocalDate.of(1984, 3, 7);
+
+    private static PatientMatchIndex patients() {
+        PatientMatchIndex index = new PatientMatchIndex();
+        index.put(1, "PAT001", "Catherine Smith", "Catherine", "Smith", BORN);
+        index.put(2, "PAT002", "Jon Smyth", null, null, LocalDate.of(1990, 1, 1));
+        index.put(3, "PAT003", "Robert Jones", "Robert", "Jones", BORN.plusYears(10));
+        index.put(4, "PAT004", "O'Brien, Maeve", null, null, null);
+        index.put(5, "PAT005", "Smith Katherine", "Smith", "Katherine", BORN);
+        return index;
+    }
+
+    private static List<String> ids(List<PatientMatchDTO> matches) {
+        return matches.stream().map(PatientMatchDTO::getCustomPatientId).toList();
+    }
+
+    @Test
+    void findsTyposAndSoundAlikes() {
+        PatientMatchIndex index = patients();
+
+        List<PatientMatchDTO> matches = index.match("Katherine Smyth", null, 10);
+        // Sound-alike first name, one-letter typo in the last; the swapped record and a
+        // same-surname patient follow
+        assertEquals(List.of("PAT001", "PAT005", "PAT002"), ids(matches));
+        assertTrue(matches.get(0).getScore() < 1);
+        assertEquals(List.of("PAT004"), ids(index.match("maeve obrian", null, 10)));
+        assertEquals(List.of(), index.match("Zzyzx Quade", null, 10));
+    }
+
+    @Test
+    void findsRecordsWithFirstAndLastNamesSwapped() {
+        List<PatientMatchDTO> matches = patients().match("Catherine Smith", BORN, 10);
+
+        assertEquals(List.of("PAT001", "PAT005"), ids(matches));
+        assertEquals(1.0, matches.get(0).getScore());
+        assertTrue(matches.get(1).getScore() < matches.get(0).getScore());
+    }
+
+    @Test
+    void birthDateNarrowsByYearAndAcceptsDayMonthTransposed() {
+        PatientMatchIndex index = patients();
+
+        // Same name block but another birth year, and no date match: not a candidate
+        assertEquals(List.of(), index.match("Robert Jones", BORN, 10));
+        List<PatientMatchDTO> transposed = index.match("Robert Jones", LocalDate.of(1994, 7, 3), 10);
+        assertEquals(List.of("PAT003"), ids(transposed));
+        assertTrue(transposed.get(0).getScore() < index.match("Robert Jones", BORN.plusYears(10), 10).get(0)
+                .getScore());
+        // Patients without a date of birth stay candidates
+        assertEquals(List.of("PAT004"), ids(index.match("Maeve O'Brien", BORN, 10)));
+    }
+
+    @Test
+    void singleNamesMatchEitherName() {
+        PatientMatchIndex index = patients();
+
+        assertEquals(List.of("PAT003"), ids(index.match("jones", null, 10)));
+        assertEquals(List.of("PAT003"), ids(index.match("Robert", null, 10)));
+        assertEquals(1, index.match("smith", null, 1).size());
+    }
+
+    @Test
+    void updatesAndRemovalsLeaveTheOldBlocks() {
+        PatientMatchIndex index = patients();
+
+        index.put(3, "PAT003", "Roberta Quinn", "Roberta", "Quinn", BORN.plusYears(10));
+        assertEquals(List.of(), index.match("Robert Jones", null, 10));
+        assertEquals(List.of("PAT003"), ids(index.match("Roberta Quin", null, 10)));
+        index.remove(3);
+        assertEquals(List.of(), index.match("Roberta Quinn", null, 10));
+    }
+
+    @Test
+    void swapsDayAndMonthOnlyWhenThatIsAnotherValidDate() {
+        assertEquals(LocalDate.of(1984, 7, 3), PatientMatchIndex.swapDayAndMonth(BORN));
+        assertNull(PatientMatchIndex.swapDayAndMonth(LocalDate.of(1984, 3, 13)));
+        assertNull(PatientMatchIndex.swapDayAndMonth(LocalDate.of(1984, 5, 5)));
+        assertNull(PatientMatchIndex.swapDayAndMonth(null));
+    }
+}
@@ -0,0 +1,113 @@
+package com.insurance.percert.index;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeSet;
+
+import org.junit.jupiter.api.Test;
+
+class TrigramIndexTest {
+
+    private static TrigramIndex<String> practices() {
+        TrigramIndex<String> index = new TrigramIndex<>();
+        index.put(1, "Sunrise Oncology", "a");
+        index.put(2, "Sunrise", "b");
+        index.put(3, "Sunrise Oncology Associates", "c");
+        index.put(4, "North Shore Oncology", "d");
+        index.put(5, "Bayside Sunrise Clinic", "e");
+        index.put(6, "Oncologix Labs", "f");
+        return index;
+    }
+
+    private static List<Long> ids(List<TrigramIndex.Match<String>> matches) {
+        return matches.stream().map(TrigramIndex.Match::id).toList();
+    }
+
+    @Test
+    void normalizesToLowerCaseWords() {
+        assertEquals("st mary s clinic 2", TrigramIndex.normalize("  St. Mary's -- Clinic #2 "));
+        assertEquals("", TrigramIndex.normalize(null));
+        assertEquals("", TrigramIndex.normalize("--"));
+    }
+
+    @Test
+    void ranksExactThenPrefixThenWordStartThenSubstring() {
+        TrigramIndex<String> index = practices();
+
+        List<TrigramIndex.Match<String>> matches = index.search("SUNRISE", 10);
+        assertEquals(List.of(2L, 1L, 3L, 5L), ids(matches));
+        assertEquals(TrigramIndex.EXACT, matches.get(0).quality());
+        assertEquals(TrigramIndex.PREFIX, matches.get(1).quality());
+        assertEquals(TrigramIndex.WORD_START, matches.get(3).quality());
+
+        // The prefix match, then word starts with the shorter text first
+        assertEquals(List.of(6L, 1L, 4L, 3L), ids(index.search("oncolog", 10)));
+        assertEquals(List.of(6L), ids(index.search("ogix", 10)));
+        assertEquals(TrigramIndex.SUBSTRING, index.search("ogix", 10).get(0).quality());
+        assertEquals(List.of(2L, 1L), ids(index.search("sunrise", 2)));
+    }
+
+    @Test
+    void shortQueriesOnlyMatchAtWordStarts() {
+        TrigramIndex<String> index = practices();
+
+        assertEquals(List.of(4L), ids(index.search("sh", 10)));
+        assertTrue(index.search("ri", 10).isEmpty());
+        assertEquals(List.of(6L), ids(index.search("l", 10)));
+        assertTrue(index.search("x", 10).isEmpty());
+    }
+
+    @Test
+    void updatesAndRemovalsReplaceOldText() {
+        TrigramIndex<String> index = practices();
+
+        index.put(2, "Dawn Medical", "b");
+        assertEquals(List.of(1L, 3L, 5L), ids(index.search("sunrise", 10)));
+        assertTrue(index.remove(6));
+        assertFalse(index.remove(6));
+        assertEquals(List.of(1L, 4L, 3L), ids(index.search("oncolog", 10)));
+        assertFalse(index.putIfAbsent(1, "Other", "z"));
+        assertEquals(5, index.size());
+        assertEquals(6, index.maxId()); // the highest id ever added, removed or not
+    }
+
+    // Candidates from the trigram postings match a plain scan, before and after compaction
+    @Test
+    void matchesABruteForceScan() {
+        Random random = new Random(42);
+        String[] words = { "care", "cardio", "oncology", "north", "shore", "medical", "group", "ortho", "pedi", "arc" };
+        TrigramIndex<String> index = new TrigramIndex<>();
+        Map<Long, String> live = new HashMap<>();
+        for (long id = 0; id < 3000; id++) {
+            String text = words[random.nextInt(words.length)] + " " + words[random.nextInt(words.length)]
+                    + (random.nextBoolean() ? "" : " " + words[random.nextInt(words.length)]);
+            index.put(id, text, text);
+            live.put(id, text);
+        }
+        for (long id = 0; id < 2000; id += 1 + random.nextInt(2)) {
+            index.remove(id);
+            live.remove(id);
+        }
+
+        for (String query : List.of("car", "ca", "c", "rdi", "ology", "re ca", "th sh", "dical gr", "zz", "o")) {
+            TreeSet<Long> expected = new TreeSet<>();
+            for (Map.Entry<Long, String> entry : live.entrySet()) {
+                String text = entry.getValue();
+                boolean match = query.length() >= 3 ? text.contains(query)
+                        : text.startsWith(query) || text.contains(" " + query);
+                if (match) {
+                    expected.add(entry.getKey());
+                }
+            }
+            assertEquals(expected, new TreeSet<>(ids(index.search(query, Integer.MAX_VALUE))), query);
+        }
+        assertEquals(live.size(), index.size());
+        assertEquals(2999, index.maxId());
+    }
+}
@@ -0,0 +1,165 @@
+package com.insurance.percert.serviceImplementation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.insurance.percert.Repository.PatientRepository;
+import com.insurance.percert.model.Order;
+import com.insurance.percert.service.ClaimPreAdjudicationService;
+
+@ExtendWith(MockitoExtension.class)
+class AuthorizationUnitsServiceImplTest {
+
+    private static final LocalDate FROM = LocalDate.of(2026, 3, 2);
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PatientRepository patientRepository;
+
+    @Mock
+    private ClaimPreAdjudicationService claimPreAdjudicationService;
+
+    @InjectMocks
+    private AuthorizationUnitsServiceImpl unitsService;
+
+    // authorizationId -> approved units (null for unlimited) and units used, standing in for the table
+    private final Map<Long, Integer> approved = new HashMap<>();
+    private final Map<Long, Integer> used = new HashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        // Applies the conditional UPDATEs as the database would; unused by tests that take nothing
+        lenient().doAnswer(invocation -> {
+            String sql = invocation.getArgument(0);
+            if (sql.contains("CASE")) {
+                int consumed = invocation.getArgument(1);
+                long id = invocation.getArgument(3);
+                used.put(id, Math.max(0, used.getOrDefault(id, 0) - consumed));
+                return 1;
+            }
+            int units = invocation.getArgument(1);
+            long id = invocation.getArgument(2);
+            Integer cap = approved.get(id);
+            if (!approved.containsKey(id) || (cap != null && used.getOrDefault(id, 0) + units > cap)) {
+                return 0;
+            }
+            used.merge(id, units, Integer::sum);
+            return 1;
+        }).when(jdbcTemplate).update(anyString(), any(), any(), any());
+    }
+
+    private static Order order(String cpt, String jCode, int units) {
+        Order order = new Order();
+        order.setUniquepatientI("P-100");
+        order.setOrderCptCode(cpt);
+        order.setOrderJCode(jCode);
+        order.setUnits(units);
+        order.setFromDateOfService(FROM);
+        return order;
+    }
+
+    @Test
+    void takesUnitsFromTheFirstAuthorizationWithRoom() {
+        approved.put(11L, 4);
+        approved.put(12L, 10);
+        used.put(11L, 2);
+        when(claimPreAdjudicationService.coveringAuthorizations(7, "96413", FROM, FROM)).thenReturn(List.of(11L, 12L));
+
+        Order order = order("96413", null, 3);
+        unitsService.consume(order, 7);
+
+        assertEquals(12L, order.getConsumedAuthorizationId());
+        assertEquals(3, order.getConsumedUnits());
+        assertEquals(2, used.get(11L));
+        assertEquals(3, used.get(12L));
+
+        // Already consumed: a second call takes nothing more
+        unitsService.consume(order, 7);
+        assertEquals(3, used.get(12L));
+    }
+
+    @Test
+    void drugOrdersTryTheJCodeAuthorizationsFirst() {
+        approved.put(21L, null);
+        approved.put(22L, 5);
+        when(claimPreAdjudicationService.coveringAuthorizations(7, "J9271", FROM, FROM.plusDays(5))).thenReturn(List.of(21L));
+        when(claimPreAdjudicationService.coveringAuthorizations(7, "96413", FROM, FROM.plusDays(5))).thenReturn(List.of(22L, 21L));
+
+        Order order = order("96413", "J9271", 200);
+        order.setToDateOfService(FROM.plusDays(5));
+        unitsService.consume(order, 7);
+
+        assertEquals(21L, order.getConsumedAuthorizationId());
+        assertEquals(200, used.get(21L));
+    }
+
+    @Test
+    void refusesWhenEveryCoveringAuthorizationIsUsedUp() {
+        approved.put(11L, 4);
+        used.put(11L, 3);
+        when(claimPreAdjudicationService.coveringAuthorizations(7, "96413", FROM, FROM)).thenReturn(List.of(11L));
+
+        Order order = order("96413", null, 2);
+        ResponseStatusException e = assertThrows(ResponseStatusException.class, () -> unitsService.consume(order, 7));
+
+        assertEquals(HttpStatus.CONFLICT, e.getStatusCode());
+        assertNull(order.getConsumedAuthorizationId());
+        assertEquals(3, used.get(11L));
+    }
+
+    @Test
+    void ordersWithoutUnitsOrCoverageTakeNothing() {
+        unitsService.consume(order("96413", null, 0), 7);
+        Order undated = order("96413", null, 2);
+        undated.setFromDateOfService(null);
+        unitsService.consume(undated, 7);
+        verifyNoInteractions(claimPreAdjudicationService);
+
+        when(claimPreAdjudicationService.coveringAuthorizations(7, "96413", FROM, FROM)).thenReturn(List.of());
+        Order uncovered = order("96413", null, 2);
+        unitsService.consume(uncovered, 7);
+        assertNull(uncovered.getConsumedAuthorizationId());
+    }
+
+    @Test
+    void releaseGivesTheUnitsBack() {
+        approved.put(11L, 4);
+        when(claimPreAdjudicationService.coveringAuthorizations(7, "96413", FROM, FROM)).thenReturn(List.of(11L));
+        Order order = order("96413", null, 4);
+        unitsService.consume(order, 7);
+        assertEquals(4, used.get(11L));
+
+        unitsService.release(order);
+
+        assertEquals(0, used.get(11L));
+        assertNull(order.getConsumedAuthorizationId());
+        assertNull(order.getConsumedUnits());
+        // The units are free again for the next order
+        Order next = order("96413", null, 4);
+        unitsService.consume(next, 7);
+        assertEquals(11L, next.getConsumedAuthorizationId());
+    }
+}
@@ -0,0 +1,236 @@
+package com.insurance.percert.serviceImplementation;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.insurance.percert.Repository.EDIRepo;
+import com.insurance.percert.model.EDIEntity;
+import com.insurance.percert.service.Claim837Service;
+import com.insurance.percert.util.X12Reader;
+
+@ExtendWith(MockitoExtension.class)
+class Claim837ServiceImplTest {
+
+    private static final LocalDate FROM = LocalDate.of(2026, 9, 1);
+    private static final LocalDate TO = LocalDate.of(2026, 9, 30);
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private EDIRepo ediRepository;
+
+    @InjectMocks
+    private Claim837ServiceImpl claim837Service;
+
+    // Rows of the claim query, columns 1-34 at the same indexes
+    private final List<Object[]> rows = new ArrayList<>();
+    private final List<String> savedContent = new ArrayList<>();
+    private Object[] current;
+    private boolean lastNull;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(claim837Service, "senderId", "SPEEDAUTH");
+        ReflectionTestUtils.setField(claim837Service, "receiverId", "CLEARHOUSE");
+        ReflectionTestUtils.setField(claim837Service, "submitterName", "SPEEDAUTH");
+        ReflectionTestUtils.setField(claim837Service, "submitterPhone", "5555550100");
+        ReflectionTestUtils.setField(claim837Service, "usageIndicator", "T");
+        claim837Service.init();
+        when(ediRepository.save(any())).thenAnswer(invocation -> {
+            EDIEntity record = invocation.getArgument(0);
+            record.setId(42L);
+            savedContent.add(record.getDocumentContent());
+            return record;
+        });
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            ResultSet rs = resultSet();
+            for (Object[] row : rows) {
+                current = row;
+                handler.processRow(rs);
+            }
+            return null;
+        }).when(jdbcTemplate).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+    }
+
+    // Answers the typed getters from the current row, tracking wasNull as JDBC does
+    private ResultSet resultSet() {
+        return mock(ResultSet.class, invocation -> {
+            String method = invocation.getMethod().getName();
+            if (method.equals("wasNull")) {
+                return lastNull;
+            }
+            Object value = current[(Integer) invocation.getArgument(0)];
+            lastNull = value == null;
+            return switch (method) {
+                case "getString" -> value == null ? null : value.toString();
+                case "getLong" -> value == null ? 0L : ((Number) value).longValue();
+                case "getInt" -> value == null ? 0 : ((Number) value).intValue();
+                default -> value;
+            };
+        });
+    }
+
+    private Object[] claim(long claimId, String cpt, String payerId, long insuranceId, Long practiceId, long patientId) {
+        Object[] row = new Object[35];
+        row[1] = claimId;
+        row[2] = cpt;
+        row[3] = 2;
+        row[4] = Date.valueOf(FROM.plusDays(4));
+        row[5] = Date.valueOf(FROM.plusDays(4));
+        row[6] = new BigDecimal("125.50");
+        row[7] = 700 + claimId;
+        row[8] = "AUTH" + claimId;
+        row[9] = "S72.001A";
+        row[10] = "E11.9, S72.001A;I10";
+        row[11] = insuranceId;
+        row[12] = payerId;
+        row[13] = "Payer " + insuranceId;
+        row[15] = 9L;
+        row[16] = "Dr Lee";
+        row[17] = "Ana";
+        row[18] = "Lee";
+        row[19] = "1234567893";
+        row[20] = "12-3456789";
+        row[21] = practiceId;
+        row[22] = "Practice " + practiceId;
+        row[23] = "1999999984";
+        row[24] = "98-7654321";
+        row[25] = "1 Main St";
+        row[26] = patientId;
+        row[27] = "Jane";
+        row[28] = "Doe" + patientId;
+        row[30] = Date.valueOf("1970-05-17");
+        row[31] = "female";
+        row[33] = "MEM" + patientId;
+        rows.add(row);
+        return row;
+    }
+
+    private List<String[]> write(String type) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        claim837Service.write837(type, FROM, TO, null, out);
+        X12Reader reader = new X12Reader(new StringReader(out.toString(StandardCharsets.US_ASCII)));
+        List<String[]> segments = new ArrayList<>();
+        for (String[] segment = reader.next(); segment != null; segment = reader.next()) {
+            segments.add(segment);
+        }
+        return segments;
+    }
+
+    private static List<String> elements(List<String[]> segments, String id, int element) {
+        return segments.stream().filter(s -> s[0].equals(id)).map(s -> X12Reader.element(s, element)).toList();
+    }
+
+    @Test
+    void professionalFileNestsPatientsUnderBillingProvidersPerPayer() throws IOException {
+        claim(1, "99213", "87726", 1, 5L, 100);
+        claim(2, "99214", "87726", 1, 5L, 100);
+        claim(3, "99213", "87726", 1, 5L, 101);
+        claim(4, "97110", "87726", 1, null, 101);
+        claim(5, "99213", null, 3, 5L, 100);
+
+        List<String[]> segments = write("P");
+
+        assertEquals("000000042", segments.get(0)[13]);
+        assertEquals("005010X222A1", segments.get(1)[8]);
+        // HL id, parent and level for each transaction set in turn; the HL counter restarts per payer
+        List<String> hls = segments.stream().filter(s -> s[0].equals("HL")).map(s -> s[1] + "/" + s[2] + "/" + s[3])
+                .toList();
+        assertEquals(List.of("1//20", "2/1/22", "3/1/22", "4//20", "5/4/22", "1//20", "2/1/22"), hls);
+        assertEquals(List.of("1", "2", "3", "4", "5"), elements(segments, "CLM", 1));
+        assertEquals(List.of("11:B:1"), elements(segments, "CLM", 5).stream().distinct().toList());
+        assertEquals(List.of("AUTH1", "AUTH2", "AUTH3", "AUTH4", "AUTH5"), elements(segments, "REF", 2).stream()
+                .filter(ref -> ref.startsWith("AUTH")).toList());
+        // The practice bills the first claims; the provider bills claim 4 itself
+        assertEquals(List.of("Practice 5", "Dr Lee", "Practice 5"), segments.stream()
+                .filter(s -> s[0].equals("NM1") && s[1].equals("85")).map(s -> s[3]).toList());
+        // Payer 3 has no payer id, so its insurance id stands in
+        assertEquals(List.of("87726", "87726", "87726", "3"), segments.stream()
+                .filter(s -> s[0].equals("NM1") && s[1].equals("PR")).map(s -> s[9]).toList());
+
+        String[] hi = segments.stream().filter(s -> s[0].equals("HI")).findFirst().orElseThrow();
+        assertArrayEquals(new String[] { "HI", "ABK:S72001A", "ABF:E119", "ABF:I10" }, hi);
+        String[] sv1 = segments.stream().filter(s -> s[0].equals("SV1")).findFirst().orElseThrow();
+        assertArrayEquals(new String[] { "SV1", "HC:99213", "125.5", "UN", "2", "", "", "1" }, sv1);
+        assertEquals("F", segments.stream().filter(s -> s[0].equals("DMG")).findFirst().orElseThrow()[3]);
+
+        assertTransactionCounts(segments, 2);
+        assertEquals("5 claims, 2 payers", savedContent.get(savedContent.size() - 1).replaceAll(".*: ", ""));
+    }
+
+    @Test
+    void institutionalFileUsesTheInstitutionalLoops() throws IOException {
+        claim(7, "J9271", "87726", 1, 5L, 100);
+
+        List<String[]> segments = write(Claim837Service.INSTITUTIONAL);
+
+        assertEquals("005010X223A2", segments.get(1)[8]);
+        assertEquals(List.of("13:A:1"), elements(segments, "CLM", 5));
+        assertEquals(List.of("3"), elements(segments, "CL1", 1));
+        assertEquals(List.of("0636"), elements(segments, "SV2", 1));
+        assertEquals(List.of("71"), segments.stream().filter(s -> s[0].equals("NM1") && s[4].equals("Ana"))
+                .map(s -> s[1]).toList());
+        assertTransactionCounts(segments, 1);
+    }
+
+    @Test
+    void noClaimsWritesNothing() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        claim837Service.write837("P", FROM, TO, null, out);
+
+        assertEquals(0, out.size());
+        assertEquals("0 claims, 0 payers", savedContent.get(savedContent.size() - 1).replaceAll(".*: ", ""));
+    }
+
+    // Each SE counts its transaction set's segments, and GE and IEA close the interchange
+    private static void assertTransactionCounts(List<String[]> segments, int transactionSets) {
+        int start = -1;
+        int sets = 0;
+        for (int i = 0; i < segments.size(); i++) {
+            String id = segments.get(i)[0];
+            if (id.equals("ST")) {
+                start = i;
+            } else if (id.equals("SE")) {
+                sets++;
+                assertEquals(String.valueOf(i - start + 1), segments.get(i)[1]);
+                assertEquals(segments.get(start)[2], segments.get(i)[2]);
+            }
+        }
+        assertEquals(transactionSets, sets);
+        String[] ge = segments.get(segments.size() - 2);
+        assertArrayEquals(new String[] { "GE", String.valueOf(transactionSets), "42" }, ge);
+        assertArrayEquals(new String[] { "IEA", "1", "000000042" }, segments.get(segments.size() - 1));
+    }
+}
@@ -0,0 +1,138 @@
+package com.insurance.percert.serviceImplementation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.insurance.percert.model.IcdLoadResultDTO;
+import com.insurance.percert.service.CatalogSnapshotService;
+import com.insurance.percert.service.IcdLookupService;
+
+@ExtendWith(MockitoExtension.class)
+class IcdCodeSetServiceImplTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private IcdLookupService icdLookupService;
+
+    @Mock
+    private CatalogSnapshotService catalogSnapshotService;
+
+    @InjectMocks
+    private IcdCodeSetServiceImpl icdCodeSetService;
+
+    @TempDir
+    private Path dir;
+
+    // Rows handed to each batch statement, keyed by its SQL
+    private final Map<String, List<List<Object>>> batches = new LinkedHashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(icdCodeSetService, "codeSetDir", dir.toString());
+        icdCodeSetService.init();
+        lenient().when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        lenient().when(jdbcTemplate.execute(any(ConnectionCallback.class))).thenReturn("`");
+        lenient().doAnswer(invocation -> {
+            Collection<Object[]> rows = invocation.getArgument(1);
+            List<List<Object>> copies = new ArrayList<>();
+            rows.forEach(row -> copies.add(Arrays.asList(row)));
+            batches.put(invocation.getArgument(0), copies);
+            int[] counts = new int[rows.size()];
+            Arrays.fill(counts, 1);
+            return new int[][] { counts };
+        }).when(jdbcTemplate).batchUpdate(anyString(), anyCollection(), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class));
+    }
+
+    @Test
+    void updatesEveryStoredSpellingAndInsertsNewCodes() throws IOException {
+        Files.write(dir.resolve("icd10cm_order_2026.txt"), List.of(
+                String.format("%05d %-7s %d %-60s %s", 1, "A00", 0, "Cholera", "Cholera"),
+                String.format("%05d %-7s %d %-60s %s", 2, "A000", 1, "Cholera d/t Vibrio cholerae 01, biovar cholerae",
+                        "Cholera due to Vibrio cholerae 01, biovar cholerae"),
+                "",
+                String.format("%05d %-7s %d %-60s %s", 3, "S72001A", 1, "Fx unsp part of neck of right femur, init",
+                        "Fracture of unspecified part of neck of right femur, initial encounter")));
+        // Both spellings of A00.0 are stored, each possibly linked to a drug
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class))).thenReturn(List.of("A00.0", "a000", "B20"));
+
+        IcdLoadResultDTO result = icdCodeSetService.load("icd10cm_order_2026.txt");
+
+        assertEquals(3, result.getCodes());
+        assertEquals(2, result.getBillable());
+        assertEquals(2, result.getUpdated());
+        assertEquals(2, result.getInserted());
+        assertEquals(List.of(
+                "UPDATE `icd_master` SET `description` = ?, `shortDescription` = ?, `billable` = ? WHERE `icdCode` = ?",
+                "INSERT INTO `icd_master` (`icdCode`, `description`, `shortDescription`, `billable`) VALUES (?, ?, ?, ?)"),
+                List.copyOf(batches.keySet()));
+        List<List<Object>> updates = batches.values().iterator().next();
+        assertEquals(List.of("A00.0", "a000"), updates.stream().map(row -> row.get(3)).toList());
+        assertEquals(List.of(List.of("A00", "Cholera", "Cholera", false),
+                List.of("S72.001A", "Fracture of unspecified part of neck of right femur, initial encounter",
+                        "Fx unsp part of neck of right femur, init", true)),
+                batches.values().stream().skip(1).findFirst().orElseThrow());
+        verify(transactionManager).commit(any());
+        verify(icdLookupService).reload();
+        verify(catalogSnapshotService).icdChanged();
+    }
+
+    @Test
+    void aFileWithoutCodesIsRefusedBeforeTouchingTheTable() throws IOException {
+        Files.write(dir.resolve("empty.txt"), List.of("", "  "));
+
+        assertEquals(HttpStatus.BAD_REQUEST, assertThrows(ResponseStatusException.class,
+                () -> icdCodeSetService.load("empty.txt")).getStatusCode());
+        assertEquals(HttpStatus.NOT_FOUND, assertThrows(ResponseStatusException.class,
+                () -> icdCodeSetService.load("missing.txt")).getStatusCode());
+        verifyNoInteractions(jdbcTemplate);
+        verify(icdLookupService, never()).reload();
+
+        // The load guard is released after a refusal
+        Files.write(dir.resolve("codes.txt"), List.of("A0100   Typhoid fever, unspecified"));
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class))).thenReturn(List.of());
+        assertEquals(1, icdCodeSetService.load("codes.txt").getInserted());
+    }
+}
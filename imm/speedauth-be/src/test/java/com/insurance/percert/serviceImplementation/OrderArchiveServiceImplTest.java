@@ -0,0 +1,136 @@
+package com.insurance.percert.serviceImplementation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+@ExtendWith(MockitoExtension.class)
+class OrderArchiveServiceImplTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private OrderArchiveServiceImpl archiveService;
+
+    // Arguments of each INSERT ... SELECT and DELETE, in order
+    private final List<List<Object>> inserts = new ArrayList<>();
+    private final List<List<Object>> deletes = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(archiveService, "afterDays", 90);
+        ReflectionTestUtils.setField(archiveService, "batchSize", 2);
+        archiveService.init();
+        lenient().when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        lenient().when(jdbcTemplate.execute(any(ConnectionCallback.class))).thenReturn("`");
+        lenient().when(jdbcTemplate.update(startsWith("INSERT INTO `orders_archive`"), any(Object[].class)))
+                .thenAnswer(invocation -> {
+                    Object[] args = (Object[]) invocation.getRawArguments()[1];
+                    inserts.add(Arrays.asList(args));
+                    return args.length - 1;
+                });
+        lenient().when(jdbcTemplate.update(startsWith("DELETE FROM `orders_details`"), any(Object[].class)))
+                .thenAnswer(invocation -> {
+                    Object[] args = (Object[]) invocation.getRawArguments()[1];
+                    deletes.add(Arrays.asList(args));
+                    return args.length;
+                });
+    }
+
+    @Test
+    void movesDeletedOrdersInBatchesUntilAShortOne() {
+        when(jdbcTemplate.queryForList(anyString(), eq(Long.class), any(Timestamp.class), eq(2)))
+                .thenReturn(List.of(1L, 2L), List.of(3L));
+
+        assertEquals(3, archiveService.archiveDeletedOrders());
+
+        assertEquals(List.of(List.<Object>of(1L, 2L), List.<Object>of(3L)), deletes);
+        assertEquals(List.of(1L, 2L), inserts.get(0).subList(1, 3));
+        assertTrue(inserts.get(0).get(0) instanceof Timestamp);
+        verify(transactionManager, times(2)).commit(any());
+        verify(jdbcTemplate, times(2)).queryForList(anyString(), eq(Long.class), any(Timestamp.class), eq(2));
+    }
+
+    @Test
+    void onlyLongDeletedOrdersWithoutAuthorizationsAreSelected() {
+        when(jdbcTemplate.queryForList(anyString(), eq(Long.class), any(Timestamp.class), eq(2)))
+                .thenAnswer(invocation -> {
+                    String sql = invocation.getArgument(0);
+                    Timestamp cutoff = invocation.getArgument(2);
+                    assertTrue(sql.contains("o.`deleted_status` = true AND o.`deleted_at` < ?"), sql);
+                    assertTrue(sql.contains("NOT EXISTS (SELECT 1 FROM `authorization` a WHERE a.`order_id` = o.`order_id`)"),
+                            sql);
+                    LocalDateTime expected = LocalDateTime.now().minusDays(90);
+                    assertTrue(Math.abs(Duration.between(expected, cutoff.toLocalDateTime()).toSeconds()) < 5);
+                    return List.of();
+                });
+
+        assertEquals(0, archiveService.archiveDeletedOrders());
+
+        verify(transactionManager, never()).getTransaction(any());
+        assertEquals(List.of(), deletes);
+    }
+
+    @Test
+    void aFailedBatchRollsBackAndReleasesTheGuard() {
+        when(jdbcTemplate.queryForList(anyString(), eq(Long.class), any(Timestamp.class), eq(2)))
+                .thenReturn(List.of(1L, 2L), List.of());
+        doThrow(new DataIntegrityViolationException("order 2 is referenced")).when(jdbcTemplate)
+                .update(startsWith("DELETE FROM `orders_details`"), any(Object[].class));
+
+        assertThrows(DataIntegrityViolationException.class, () -> archiveService.archiveDeletedOrders());
+        verify(transactionManager).rollback(any());
+        verify(transactionManager, never()).commit(any());
+
+        assertEquals(0, archiveService.archiveDeletedOrders());
+    }
+
+    @Test
+    void refusesToRunTwiceAtOnce() {
+        when(jdbcTemplate.queryForList(anyString(), eq(Long.class), any(Timestamp.class), eq(2)))
+                .thenAnswer(invocation -> {
+                    ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                            () -> archiveService.archiveDeletedOrders());
+                    assertEquals(HttpStatus.CONFLICT, e.getStatusCode());
+                    return List.of();
+                });
+
+        assertEquals(0, archiveService.archiveDeletedOrders());
+    }
+}
@@ -0,0 +1,264 @@
+package com.insurance.percert.serviceImplementation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.BatchUpdateException;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.insurance.percert.model.Order;
+import com.insurance.percert.service.AuthorizationUnitsService;
+import com.insurance.percert.service.NameSearchService;
+import com.insurance.percert.service.OrderImportService;
+import com.insurance.percert.service.OrderOutboxService;
+
+@ExtendWith(MockitoExtension.class)
+class OrderImportServiceImplTest {
+
+    // provider_name is parameter 15 of the insert; a row with REFUSED there fails its batch
+    private static final int PROVIDER_NAME = 15;
+    private static final String REFUSED = "Refused Clinic";
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    @Mock
+    private NameSearchService nameSearchService;
+
+    @Mock
+    private AuthorizationUnitsService authorizationUnitsService;
+
+    @Mock
+    private OrderOutboxService orderOutboxService;
+
+    @InjectMocks
+    private OrderImportServiceImpl importService;
+
+    private long nextId = 500;
+    // Each executeBatch call, as the provider names of its rows
+    private final List<List<String>> batches = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        ReflectionTestUtils.setField(importService, "batchSize", 10);
+        ReflectionTestUtils.setField(importService, "keyCacheMs", 60000L);
+        importService.init();
+        lenient().when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+
+        Connection connection = mock(Connection.class);
+        DatabaseMetaData metaData = mock(DatabaseMetaData.class);
+        when(connection.getMetaData()).thenReturn(metaData);
+        when(metaData.getIdentifierQuoteString()).thenReturn("`");
+        lenient().when(connection.prepareStatement(anyString(), any(String[].class)))
+                .thenAnswer(invocation -> statement());
+        when(jdbcTemplate.execute(any(ConnectionCallback.class))).thenAnswer(invocation -> {
+            try {
+                return invocation.<ConnectionCallback<?>>getArgument(0).doInConnection(connection);
+            } catch (SQLException e) {
+                throw new DataIntegrityViolationException("Batch failed", e);
+            }
+        });
+
+        Map<String, List<Object[]>> tables = Map.of(
+                "patient_details", List.of(new Object[] { "P-1 ", 1L }, new Object[] { "P-2", 2L }),
+                "provider_details", List.<Object[]>of(new Object[] { "1234567893" }),
+                "insurance_details", List.<Object[]>of(new Object[] { "INS-1" }));
+        doAnswer(invocation -> {
+            String sql = invocation.getArgument(0);
+            RowCallbackHandler handler = invocation.getArgument(1);
+            for (Map.Entry<String, List<Object[]>> table : tables.entrySet()) {
+                if (sql.contains("`" + table.getKey() + "`")) {
+                    for (Object[] row : table.getValue()) {
+                        ResultSet rs = mock(ResultSet.class);
+                        lenient().when(rs.getString(1)).thenReturn((String) row[0]);
+                        lenient().when(rs.getLong(2)).thenReturn(row.length > 1 ? (Long) row[1] : 0L);
+                        handler.processRow(rs);
+                    }
+                }
+            }
+            return null;
+        }).when(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class));
+    }
+
+    // A statement that keeps the bound rows and refuses the whole batch if any row is REFUSED
+    private PreparedStatement statement() throws SQLException {
+        PreparedStatement ps = mock(PreparedStatement.class);
+        Map<Integer, Object> bound = new HashMap<>();
+        List<String> rows = new ArrayList<>();
+        List<Long> ids = new ArrayList<>();
+        lenient().doAnswer(invocation -> bound.put(invocation.getArgument(0), invocation.getArgument(1)))
+                .when(ps).setString(any(Integer.class), any());
+        doAnswer(invocation -> rows.add((String) bound.get(PROVIDER_NAME))).when(ps).addBatch();
+        when(ps.executeBatch()).thenAnswer(invocation -> {
+            batches.add(List.copyOf(rows));
+            if (rows.contains(REFUSED)) {
+                throw new BatchUpdateException("Duplicate entry", new int[0]);
+            }
+            rows.forEach(row -> ids.add(nextId++));
+            return new int[rows.size()];
+        });
+        lenient().when(ps.getGeneratedKeys()).thenAnswer(invocation -> {
+            Iterator<Long> next = ids.iterator();
+            long[] current = new long[1];
+            ResultSet keys = mock(ResultSet.class);
+            when(keys.next()).thenAnswer(i -> {
+                if (!next.hasNext()) {
+                    return false;
+                }
+                current[0] = next.next();
+                return true;
+            });
+            lenient().when(keys.getLong(1)).thenAnswer(i -> current[0]);
+            return keys;
+        });
+        return ps;
+    }
+
+    private static String order(String patient, String providerName) {
+        return "{\"orderDate\":\"2026-10-01\",\"fromDateOfService\":\"2026-10-05\",\"toDateOfService\":\"2026-10-06\","
+                + "\"orderType\":\"Infusion\",\"units\":2,\"uniquepatientI\":\"" + patient + "\","
+                + "\"providerNpiNumber\":\"1234567893\",\"insuranceId\":\"INS-1\",\"providerName\":\"" + providerName
+                + "\"}";
+    }
+
+    private List<JsonNode> importLines(String format, String input) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        importService.importOrders(new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)), format, out);
+        List<JsonNode> lines = new ArrayList<>();
+        for (String line : out.toString(StandardCharsets.UTF_8).split("\n")) {
+            lines.add(objectMapper.readTree(line));
+        }
+        return lines;
+    }
+
+    @Test
+    void insertsValidRecordsAsOneBatchAndRejectsTheRest() throws IOException {
+        List<JsonNode> lines = importLines(OrderImportService.NDJSON, String.join("\n",
+                order("P-1", "A"),
+                "{not json",
+                "",
+                order("P-9", "B"),
+                order("P-2", "C")));
+
+        assertEquals(List.of(List.of("A", "C")), batches);
+        assertEquals("CREATED", lines.get(0).get("status").asText());
+        assertEquals(500, lines.get(0).get("orderId").asLong());
+        assertEquals(2, lines.get(1).get("line").asLong());
+        assertTrue(lines.get(1).get("errors").get(0).asText().startsWith("Invalid JSON"));
+        assertEquals(4, lines.get(2).get("line").asLong());
+        assertEquals("Unknown uniquepatientI: P-9", lines.get(2).get("errors").get(0).asText());
+        assertEquals(501, lines.get(3).get("orderId").asLong());
+        assertEquals(4, lines.get(4).get("summary").get("records").asLong());
+        assertEquals(2, lines.get(4).get("summary").get("created").asLong());
+
+        verify(transactionManager, times(1)).commit(any());
+        verify(orderOutboxService).ordersCreated(List.of(500L, 501L));
+        verify(nameSearchService, times(2)).orderSaved(any());
+    }
+
+    @Test
+    void aFailedBatchIsRetriedRowByRow() throws IOException {
+        List<JsonNode> lines = importLines(OrderImportService.NDJSON, String.join("\n",
+                order("P-1", "A"),
+                order("P-2", REFUSED),
+                order("P-1", "C")));
+
+        assertEquals(List.of(List.of("A", REFUSED, "C"), List.of("A"), List.of(REFUSED), List.of("C")), batches);
+        assertEquals(List.of("CREATED", "REJECTED", "CREATED"),
+                lines.subList(0, 3).stream().map(line -> line.get("status").asText()).toList());
+        assertEquals(500, lines.get(0).get("orderId").asLong());
+        assertFalse(lines.get(1).has("orderId"));
+        assertTrue(lines.get(1).get("errors").get(0).asText().startsWith("Insert failed: Duplicate entry"));
+        assertEquals(501, lines.get(2).get("orderId").asLong());
+
+        // The batch and the refused row roll back; units are taken again for each retried row
+        verify(transactionManager, times(2)).rollback(any());
+        verify(transactionManager, times(2)).commit(any());
+        verify(authorizationUnitsService, times(6)).consume(any(Order.class), anyLong());
+        verify(orderOutboxService).ordersCreated(List.of(500L));
+        verify(orderOutboxService).ordersCreated(List.of(501L));
+    }
+
+    @Test
+    void anOrderThatWouldOverdrawItsUnitsIsRejectedAlone() throws IOException {
+        doAnswer(invocation -> {
+            if (invocation.<Order>getArgument(0).getProviderName().equals("B")) {
+                throw new ResponseStatusException(HttpStatus.CONFLICT, "No authorization has 2 units left");
+            }
+            return null;
+        }).when(authorizationUnitsService).consume(any(Order.class), anyLong());
+
+        List<JsonNode> lines = importLines(OrderImportService.NDJSON, String.join("\n",
+                order("P-1", "A"),
+                order("P-1", "B")));
+
+        assertEquals(List.of(List.of("A")), batches);
+        assertEquals("No authorization has 2 units left", lines.get(1).get("errors").get(0).asText());
+        assertEquals(1, lines.get(2).get("summary").get("created").asLong());
+    }
+
+    @Test
+    void readsCsvByHeaderAndRefusesUnknownColumns() throws IOException {
+        List<JsonNode> lines = importLines(OrderImportService.CSV, """
+                orderDate,fromDateOfService,toDateOfService,orderType,units,uniquepatientI,providerNpiNumber,providerName
+                2026-10-01,2026-10-05,2026-10-06,Infusion,2,P-1,1234567893,"Sunrise, Oncology"
+                2026-10-01,2026-10-06,2026-10-05,Infusion,2,P-1,1234567893,B
+                """);
+
+        assertEquals(List.of(List.of("Sunrise, Oncology")), batches);
+        assertEquals("toDateOfService is before fromDateOfService", lines.get(1).get("errors").get(0).asText());
+
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> importLines(OrderImportService.CSV, "orderDate,favouriteColour\n"));
+        assertEquals(HttpStatus.BAD_REQUEST, e.getStatusCode());
+    }
+}
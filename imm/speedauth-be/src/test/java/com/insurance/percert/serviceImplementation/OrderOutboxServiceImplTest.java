@@ -0,0 +1,267 @@
+package com.insurance.percert.serviceImplementation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import com.insurance.percert.Repository.AuthorizationRepository;
+import com.insurance.percert.Repository.InsuranceRepository;
+import com.insurance.percert.Repository.OrderOutboxRepository;
+import com.insurance.percert.Repository.OrderRepository;
+import com.insurance.percert.Repository.PatientRepository;
+import com.insurance.percert.Repository.ProviderRepository;
+import com.insurance.percert.model.Authorization;
+import com.insurance.percert.model.Insurance;
+import com.insurance.percert.model.Order;
+import com.insurance.percert.model.OrderOutboxEntity;
+import com.insurance.percert.model.PatientEntity;
+import com.insurance.percert.model.ProviderEntity;
+import com.insurance.percert.service.AuthorizationService;
+import com.insurance.percert.service.CptAuthMatrixService;
+
+@ExtendWith(MockitoExtension.class)
+class OrderOutboxServiceImplTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private OrderOutboxRepository orderOutboxRepository;
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private PatientRepository patientRepository;
+
+    @Mock
+    private ProviderRepository providerRepository;
+
+    @Mock
+    private InsuranceRepository insuranceRepository;
+
+    @Mock
+    private AuthorizationRepository authorizationRepository;
+
+    @Mock
+    private AuthorizationService authorizationService;
+
+    @Mock
+    private CptAuthMatrixService cptAuthMatrixService;
+
+    @InjectMocks
+    private OrderOutboxServiceImpl outboxService;
+
+    // Pending events by id, standing in for order_outbox; each read hands out a fresh copy
+    // as a new persistence context would
+    private final Map<Long, Long> pending = new LinkedHashMap<>();
+    private final Map<Long, Order> orders = new HashMap<>();
+    private final Map<Long, OrderOutboxEntity> saved = new HashMap<>();
+    private final List<List<Long>> draftBatches = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(outboxService, "batchSize", 10);
+        ReflectionTestUtils.setField(outboxService, "maxAttempts", 5);
+        outboxService.init();
+        lenient().when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        lenient().when(orderOutboxRepository.findPending(anyInt(), any())).thenAnswer(invocation -> {
+            List<OrderOutboxEntity> events = new ArrayList<>();
+            pending.keySet().forEach(id -> events.add(event(id)));
+            return events;
+        });
+        lenient().when(orderOutboxRepository.findById(anyLong())).thenAnswer(invocation -> {
+            Long id = invocation.getArgument(0);
+            return pending.containsKey(id) ? Optional.of(event(id)) : Optional.empty();
+        });
+        lenient().when(orderOutboxRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<OrderOutboxEntity> events = invocation.getArgument(0);
+            events.forEach(event -> saved.put(event.getId(), event));
+            return events;
+        });
+        lenient().when(orderRepository.findAllById(anyCollection())).thenAnswer(invocation -> {
+            List<Order> found = new ArrayList<>();
+            for (Object id : invocation.<Iterable<?>>getArgument(0)) {
+                if (orders.containsKey(id)) {
+                    found.add(orders.get(id));
+                }
+            }
+            return found;
+        });
+        lenient().when(authorizationRepository.findOrderIdsWithAuthorization(anyCollection())).thenReturn(List.of(4L));
+        lenient().when(patientRepository.findByCustomPatientIdIn(anyCollection())).thenAnswer(invocation -> {
+            PatientEntity patient = new PatientEntity();
+            patient.setCustomPatientId("PAT001");
+            return List.of(patient);
+        });
+        lenient().when(providerRepository.findByNpiNumberIn(anyCollection())).thenAnswer(invocation -> {
+            ProviderEntity provider = new ProviderEntity();
+            provider.setNpiNumber("1234567893");
+            provider.setProviderName("Dr Lee");
+            return List.of(provider);
+        });
+        lenient().when(insuranceRepository.findByCustomInsuranceIdIn(anyCollection())).thenAnswer(invocation -> {
+            Insurance insurance = new Insurance();
+            insurance.setCustomInsuranceId("INS-1");
+            insurance.setPayerId("87726");
+            return List.of(insurance);
+        });
+        // Office visits need no prior auth from this payer; infusions do
+        lenient().when(cptAuthMatrixService.authRequired(any(), anyString()))
+                .thenAnswer(invocation -> !invocation.<String>getArgument(1).startsWith("99213"));
+        lenient().when(authorizationService.createDraftAuthorizations(anyList())).thenAnswer(invocation -> {
+            List<Authorization> drafts = invocation.getArgument(0);
+            List<Long> orderIds = drafts.stream().map(draft -> draft.getOrder().getOrderId()).toList();
+            draftBatches.add(orderIds);
+            if (orderIds.contains(13L)) {
+                throw new IllegalStateException("Order 13 has no patient");
+            }
+            for (Authorization draft : drafts) {
+                draft.setAuthorizationId(900 + draft.getOrder().getOrderId());
+            }
+            return drafts;
+        });
+    }
+
+    private OrderOutboxEntity event(Long id) {
+        OrderOutboxEntity event = new OrderOutboxEntity();
+        event.setId(id);
+        event.setOrderId(pending.get(id));
+        event.setEventType(OrderOutboxEntity.ORDER_CREATED);
+        return event;
+    }
+
+    private void order(long orderId, String cpt) {
+        Order order = new Order();
+        order.setOrderId(orderId);
+        order.setOrderCptCode(cpt);
+        order.setUniquepatientI("PAT001");
+        order.setProviderNpiNumber(" 1234567893");
+        order.setInsuranceId("INS-1");
+        order.setOrderType("Infusion");
+        order.setUnits(3);
+        orders.put(orderId, order);
+    }
+
+    private String outcome(long eventId) {
+        return saved.get(eventId).getOutcome();
+    }
+
+    @Test
+    void draftsTheOrdersThatNeedAnAuthorizationInOneBatch() {
+        order(1, "96413");
+        order(2, "99213");
+        order(4, "96413");
+        order(5, "96413");
+        orders.get(5L).setDeletedStatus(true);
+        order(6, "96415");
+        pending.put(11L, 1L);
+        pending.put(12L, 2L);
+        pending.put(13L, 3L); // no such order
+        pending.put(14L, 4L); // already authorized
+        pending.put(15L, 5L);
+        pending.put(16L, 1L); // a second event for order 1
+        pending.put(17L, 6L);
+
+        assertEquals(7, outboxService.processPending());
+
+        assertEquals(List.of(List.of(1L, 6L)), draftBatches);
+        assertEquals(OrderOutboxEntity.CREATED, outcome(11));
+        assertEquals(901L, saved.get(11L).getAuthorizationId());
+        assertEquals(OrderOutboxEntity.NOT_REQUIRED, outcome(12));
+        assertEquals(OrderOutboxEntity.SKIPPED, outcome(13));
+        assertEquals(OrderOutboxEntity.EXISTS, outcome(14));
+        assertEquals(OrderOutboxEntity.SKIPPED, outcome(15));
+        assertEquals(OrderOutboxEntity.EXISTS, outcome(16));
+        assertEquals(906L, saved.get(17L).getAuthorizationId());
+        saved.values().forEach(event -> assertNotNull(event.getProcessedAt()));
+        verify(transactionManager, times(1)).commit(any());
+    }
+
+    @Test
+    void draftsFilledInFromTheOrder() {
+        order(1, "96413");
+        pending.put(11L, 1L);
+        List<Authorization> drafts = new ArrayList<>();
+        when(authorizationService.createDraftAuthorizations(anyList())).thenAnswer(invocation -> {
+            drafts.addAll(invocation.getArgument(0));
+            return drafts;
+        });
+
+        outboxService.processPending();
+
+        Authorization draft = drafts.get(0);
+        assertSame(orders.get(1L), draft.getOrder());
+        assertEquals("PAT001", draft.getPatient().getCustomPatientId());
+        assertEquals("Dr Lee", draft.getProviderName());
+        assertEquals("87726", draft.getInsurance().getPayerId());
+        assertEquals("draft", draft.getRequestType());
+        assertEquals(3, draft.getUnits());
+    }
+
+    @Test
+    void aFailedBatchIsRetriedEventByEvent() {
+        order(12, "96413");
+        order(13, "96413");
+        order(14, "96413");
+        pending.put(21L, 12L);
+        pending.put(22L, 13L);
+        pending.put(23L, 14L);
+
+        assertEquals(3, outboxService.processPending());
+
+        assertEquals(List.of(List.of(12L, 13L, 14L), List.of(12L), List.of(13L), List.of(14L)), draftBatches);
+        assertEquals(OrderOutboxEntity.CREATED, outcome(21));
+        assertEquals(OrderOutboxEntity.CREATED, outcome(23));
+        verify(orderOutboxRepository).recordFailure(22L, "Order 13 has no patient");
+        verify(orderOutboxRepository, never()).recordFailure(eq(21L), anyString());
+        verify(transactionManager, times(2)).rollback(any());
+    }
+
+    @Test
+    void aFailureBeforeAnythingIsClaimedPropagates() {
+        when(orderOutboxRepository.findPending(anyInt(), any())).thenThrow(new QueryTimeoutException("locked"));
+
+        assertThrows(QueryTimeoutException.class, outboxService::processPending);
+
+        // The guard is released, so the next poll runs
+        doReturn(List.of()).when(orderOutboxRepository).findPending(anyInt(), any());
+        assertEquals(0, outboxService.processPending());
+    }
+}
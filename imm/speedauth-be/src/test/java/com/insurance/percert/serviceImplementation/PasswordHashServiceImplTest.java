@@ -0,0 +1,55 @@
+package com.insurance.percert.serviceImplementation;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class PasswordHashServiceImplTest {
+
+    // A service at a fixed cost on one daemon thread; low costs keep the tests fast
+    static PasswordHashServiceImpl withStrength(int strength) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setDaemon(true);
+        executor.initialize();
+        PasswordHashServiceImpl service = new PasswordHashServiceImpl();
+        ReflectionTestUtils.setField(service, "executor", executor);
+        ReflectionTestUtils.setField(service, "fixedStrength", strength);
+        service.init();
+        return service;
+    }
+
+    @Test
+    void legacyPlaintextMatchesAndNeedsRehash() {
+        PasswordHashServiceImpl service = withStrength(4);
+
+        assertTrue(service.matches("secret", "secret"));
+        assertFalse(service.matches("Secret", "secret"));
+        assertTrue(service.needsRehash("secret"));
+    }
+
+    @Test
+    void lowerCostHashNeedsRehash() {
+        PasswordHashServiceImpl service = withStrength(5);
+        String weaker = new BCryptPasswordEncoder(4).encode("secret");
+
+        assertTrue(service.matches("secret", weaker));
+        assertTrue(service.needsRehash(weaker));
+    }
+
+    @Test
+    void currentCostHashIsKept() {
+        PasswordHashServiceImpl service = withStrength(5);
+        String current = service.hash("secret");
+
+        assertTrue(current.startsWith("$2a$05$"));
+        assertTrue(service.matches("secret", current));
+        assertFalse(service.matches("wrong", current));
+        assertFalse(service.needsRehash(current));
+    }
+}
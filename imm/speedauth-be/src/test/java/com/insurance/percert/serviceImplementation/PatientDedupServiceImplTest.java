@@ -0,0 +1,234 @@
+package com.insurance.percert.serviceImplementation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.insurance.percert.Repository.AuthorizationRepository;
+import com.insurance.percert.Repository.ClaimRepository;
+import com.insurance.percert.Repository.FileTextRepository;
+import com.insurance.percert.Repository.FileUploadRepository;
+import com.insurance.percert.Repository.OrderRepository;
+import com.insurance.percert.Repository.PatientMergeCandidateRepository;
+import com.insurance.percert.Repository.PatientRepository;
+import com.insurance.percert.index.PatientDocumentIndex;
+import com.insurance.percert.model.PatientEntity;
+import com.insurance.percert.model.PatientMergeCandidateEntity;
+import com.insurance.percert.service.ClaimPreAdjudicationService;
+import com.insurance.percert.service.NameSearchService;
+
+@ExtendWith(MockitoExtension.class)
+class PatientDedupServiceImplTest {
+
+    private static final LocalDate BORN = LocalDate.of(1980, 5, 6);
+
+    @Mock
+    private PatientRepository patientRepository;
+
+    @Mock
+    private PatientMergeCandidateRepository candidateRepository;
+
+    @Mock
+    private AuthorizationRepository authorizationRepository;
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private ClaimRepository claimRepository;
+
+    @Mock
+    private ClaimPreAdjudicationService claimPreAdjudicationService;
+
+    @Mock
+    private FileUploadRepository fileUploadRepository;
+
+    @Mock
+    private FileTextRepository fileTextRepository;
+
+    @Mock
+    private NameSearchService nameSearchService;
+
+    @Mock
+    private PatientDocumentIndex documentIndex;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private PatientDedupServiceImpl dedupService;
+
+    private final List<List<PatientMergeCandidateEntity>> saved = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(dedupService, "minScore", 0.8);
+        ReflectionTestUtils.setField(dedupService, "maxBlockSize", 500);
+        ReflectionTestUtils.setField(dedupService, "window", 20);
+        ReflectionTestUtils.setField(dedupService, "parallelism", 2);
+        dedupService.init();
+        lenient().when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        lenient().when(candidateRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            saved.add(invocation.getArgument(0));
+            return invocation.getArgument(0);
+        });
+    }
+
+    // id, customPatientId, fullName, firstName, lastName, dateOfBirth, gender, primary and secondary policy
+    private static Object[] row(long id, String fullName, String first, String last, LocalDate born, String gender,
+            String policy) {
+        return new Object[] { id, String.format("PAT%03d", id), fullName, first, last, born, gender, policy, null };
+    }
+
+    private static List<String> summary(List<PatientMergeCandidateEntity> candidates) {
+        return candidates.stream()
+                .sorted(Comparator.comparing(PatientMergeCandidateEntity::getSurvivorPatientId)
+                        .thenComparing(PatientMergeCandidateEntity::getDuplicatePatientId))
+                .map(c -> c.getSurvivorCustomPatientId() + "<" + c.getDuplicateCustomPatientId() + " " + c.getScore()
+                        + " " + c.getReasons())
+                .toList();
+    }
+
+    @Test
+    void proposesScoredPairsFromSharedBlocks() {
+        when(patientRepository.findDedupRows()).thenReturn(List.of(
+                row(5, "Jon Smyth", null, null, null, null, null),
+                row(1, "John Smith", "John", "Smith", BORN, "Male", "ABC-12345"),
+                row(2, "Jon Smyth", "Jon", "Smyth", BORN, "M", null),
+                // Name only in the full name, the other way round, and day and month transposed
+                row(3, "Smith, John", null, null, LocalDate.of(1980, 6, 5), "f", "abc12345"),
+                row(4, "Mary Jones", "Mary", "Jones", BORN, "F", null),
+                row(6, "Johnny Smith", "Johnny", "Smith", BORN, null, null)));
+        when(candidateRepository.findRejectedPairs()).thenReturn(List.<Object[]>of(new Object[] { 1L, 6L }));
+
+        assertEquals(4, dedupService.detectDuplicates());
+
+        InOrder order = inOrder(candidateRepository);
+        order.verify(candidateRepository).deletePending();
+        order.verify(candidateRepository).saveAll(anyList());
+        assertEquals(1, saved.size());
+        // The older record survives whichever way round the pair was found, and the
+        // rejected PAT001/PAT006 pair is not proposed again
+        assertEquals(List.of(
+                "PAT001<PAT002 0.857 name 0.78, dob exact",
+                "PAT001<PAT003 0.858 name 1.00, dob day/month swapped, policy, gender differs",
+                "PAT002<PAT005 0.825 name 1.00, dob missing",
+                "PAT002<PAT006 0.857 name 0.78, dob exact"), summary(saved.get(0)));
+        assertEquals("PENDING", saved.get(0).get(0).getStatus());
+        assertEquals("John Smith", saved.get(0).get(0).getSurvivorName());
+    }
+
+    // Windowed blocks must find every pair the exhaustive comparison does
+    // when the window spans the whole block, on one worker or several
+    @Test
+    void windowedBlocksAgreeWithExhaustiveComparison() {
+        String[] firsts = { "John", "Jon", "Mary", "Marie", "Ann", "Anne", "Robert", "Rob" };
+        String[] lasts = { "Smith", "Smyth", "Jones", "Johns", "Brown", "Browne" };
+        Random random = new Random(3);
+        List<Object[]> rows = new ArrayList<>();
+        for (long id = 1; id <= 120; id++) {
+            LocalDate born = random.nextInt(5) == 0 ? null : BORN.plusDays(random.nextInt(4));
+            rows.add(row(id, null, firsts[random.nextInt(firsts.length)], lasts[random.nextInt(lasts.length)], born,
+                    random.nextBoolean() ? "M" : "F", random.nextInt(6) == 0 ? "POL-" + (10000 + random.nextInt(3)) : null));
+        }
+        when(patientRepository.findDedupRows()).thenReturn(rows);
+        when(candidateRepository.findRejectedPairs()).thenReturn(List.of());
+
+        dedupService.detectDuplicates();
+        ReflectionTestUtils.setField(dedupService, "maxBlockSize", 4);
+        ReflectionTestUtils.setField(dedupService, "window", 200);
+        dedupService.detectDuplicates();
+        ReflectionTestUtils.setField(dedupService, "parallelism", 1);
+        dedupService.detectDuplicates();
+
+        Set<String> exhaustive = new TreeSet<>(summary(saved.get(0)));
+        assertEquals(98, saved.get(0).size());
+        assertEquals(98, exhaustive.size());
+        assertEquals(exhaustive, new TreeSet<>(summary(saved.get(1))));
+        assertEquals(exhaustive, new TreeSet<>(summary(saved.get(2))));
+    }
+
+    @Test
+    void mergeRepointsRecordsAndFillsBlanksFromTheDuplicate() {
+        PatientEntity survivor = new PatientEntity();
+        survivor.setPatientId(1L);
+        survivor.setCustomPatientId("PAT001");
+        survivor.setFirstName("John");
+        PatientEntity duplicate = new PatientEntity();
+        duplicate.setPatientId(2L);
+        duplicate.setCustomPatientId("PAT002");
+        duplicate.setFirstName("Jon");
+        duplicate.setContactNumber("555-0100");
+        when(candidateRepository.findById(9L)).thenReturn(Optional.of(new PatientMergeCandidateEntity(9L, 1L,
+                "PAT001", "John Smith", 2L, "PAT002", "Jon Smyth", 0.86, "name 0.78, dob exact", "PENDING",
+                LocalDateTime.now(), null)));
+        when(patientRepository.findById(1L)).thenReturn(Optional.of(survivor));
+        when(patientRepository.findById(2L)).thenReturn(Optional.of(duplicate));
+        when(candidateRepository.resolve(eq(9L), eq("MERGED"), any())).thenReturn(1);
+        when(authorizationRepository.reassignPatient(duplicate, survivor)).thenReturn(3);
+        when(orderRepository.reassignPatient("PAT002", "PAT001")).thenReturn(0);
+
+        assertSame(survivor, dedupService.merge(9L));
+
+        assertEquals("John", survivor.getFirstName());
+        assertEquals("555-0100", survivor.getContactNumber());
+        InOrder order = inOrder(patientRepository, fileUploadRepository);
+        order.verify(patientRepository).save(survivor);
+        order.verify(fileUploadRepository).reassignPatient(duplicate, survivor);
+        order.verify(patientRepository).deleteById(2L);
+        verify(claimRepository).reassignPatient(2L, 1L);
+        verify(fileTextRepository).reassignPatient(2L, 1L);
+        verify(candidateRepository).supersedePendingFor(eq(2L), any());
+        verify(claimPreAdjudicationService).authorizationsChanged();
+        verify(nameSearchService).patientDeleted(2L);
+        verify(nameSearchService).patientSaved(survivor);
+    }
+
+    @Test
+    void resolvedOrRacedCandidatesAreConflicts() {
+        when(candidateRepository.findById(9L)).thenReturn(Optional.of(new PatientMergeCandidateEntity(9L, 1L,
+                "PAT001", null, 2L, "PAT002", null, 0.9, null, "REJECTED", LocalDateTime.now(), LocalDateTime.now())));
+        when(candidateRepository.findById(10L)).thenReturn(Optional.of(new PatientMergeCandidateEntity(10L, 1L,
+                "PAT001", null, 2L, "PAT002", null, 0.9, null, "PENDING", LocalDateTime.now(), null)));
+        when(candidateRepository.resolve(eq(10L), eq("REJECTED"), any())).thenReturn(0);
+
+        assertEquals(HttpStatus.CONFLICT,
+                assertThrows(ResponseStatusException.class, () -> dedupService.merge(9L)).getStatusCode());
+        assertEquals(HttpStatus.CONFLICT,
+                assertThrows(ResponseStatusException.class, () -> dedupService.reject(10L)).getStatusCode());
+        assertEquals(HttpStatus.NOT_FOUND,
+                assertThrows(ResponseStatusException.class, () -> dedupService.reject(11L)).getStatusCode());
+        verify(patientRepository, never()).findById(any());
+    }
+}
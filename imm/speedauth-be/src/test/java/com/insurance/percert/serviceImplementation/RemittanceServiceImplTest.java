@@ -0,0 +1,156 @@
+package com.insurance.percert.serviceImplementation;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.insurance.percert.Repository.EDIRepo;
+import com.insurance.percert.model.EDIEntity;
+import com.insurance.percert.model.RemittanceResultDTO;
+
+@ExtendWith(MockitoExtension.class)
+class RemittanceServiceImplTest {
+
+    private static final String ISA = "ISA*00*          *00*          *ZZ*PAYER          *ZZ*SENDER         "
+            + "*261019*1200*^*00501*000000077*0*P*:~";
+
+    // Two payments; the second has no BPR16 date, so DTM*405 dates its claims
+    private static final String REMITTANCE = ISA + """
+            GS*HP*PAYER*SENDER*20261019*1200*77*X*005010X221A1~
+            ST*835*0001~
+            BPR*I*55*C*ACH*CCP*01*999999999*DA*123456*1512345678**01*999999999*DA*654321*20261015~
+            TRN*1*EFT123*1512345678~
+            DTM*405*20261014~
+            LX*1~
+            CLP*1001*1*200*150*20*12*PAYERCLM1~
+            CAS*CO*45*25*1*97*5~
+            CAS*PR*1*20~
+            SVC*HC:99213*200*150~
+            CAS*OA*23*4.50~
+            CLP*1002*4*80*0*0*12*PAYERCLM2~
+            CAS*CO*50*80~
+            CLP*ABC*1*10*10*0*12~
+            CLP*1003*22*-200*-150*0*12*PAYERCLM1~
+            CLP*1004*2*30*0*0*12~
+            CLP*9999*1*5*5*0*12~
+            SE*18*0001~
+            ST*835*0002~
+            BPR*H*0*C*NON~
+            TRN*1*TRC2~
+            DTM*405*20261001~
+            CLP*1005*1*50*40*10*12~
+            SE*6*0002~
+            GE*2*77~
+            IEA*1*000000077~
+            """;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private EDIRepo ediRepository;
+
+    @InjectMocks
+    private RemittanceServiceImpl remittanceService;
+
+    @Captor
+    private ArgumentCaptor<List<Object[]>> updates;
+
+    @BeforeEach
+    void setUp() {
+        // Small batches, so the file is applied over several flushes
+        ReflectionTestUtils.setField(remittanceService, "batchSize", 2);
+        remittanceService.init();
+        Set<Long> existing = Set.of(1001L, 1002L, 1003L, 1004L, 1005L);
+        when(jdbcTemplate.queryForList(anyString(), eq(Long.class), any(Object[].class))).thenAnswer(invocation -> {
+            List<Object> args = Arrays.asList(invocation.getArguments());
+            return args.subList(2, args.size()).stream().filter(existing::contains).toList();
+        });
+    }
+
+    private static Object[] row(String status, String paidOn, String paid, String adjustments, String patientResp,
+            String payerClaimNumber, String trace, long claimId) {
+        return new Object[] { status, Date.valueOf(LocalDate.parse(paidOn)), new BigDecimal(paid),
+                new BigDecimal(adjustments), new BigDecimal(patientResp), payerClaimNumber, trace, claimId };
+    }
+
+    @Test
+    void appliesClaimPaymentsAndAdjustments() throws IOException {
+        RemittanceResultDTO result = remittanceService.ingest835(
+                new ByteArrayInputStream(REMITTANCE.replace("\n", "").getBytes(StandardCharsets.ISO_8859_1)));
+
+        verify(jdbcTemplate, atLeastOnce()).batchUpdate(anyString(), updates.capture());
+        List<Object[]> rows = new ArrayList<>();
+        updates.getAllValues().forEach(rows::addAll);
+        List<Object[]> expected = List.of(
+                // CO and OA adjustments at claim and service level; PR is already in CLP05
+                row("PAID", "2026-10-15", "150", "34.50", "20", "PAYERCLM1", "EFT123", 1001),
+                row("DENIED", "2026-10-15", "0", "80", "0", "PAYERCLM2", "EFT123", 1002),
+                row("REVERSED", "2026-10-15", "-150", "0", "0", "PAYERCLM1", "EFT123", 1003),
+                row("PROCESSED", "2026-10-15", "0", "0", "0", null, "EFT123", 1004),
+                row("PAID", "2026-10-01", "40", "0", "10", null, "TRC2", 1005));
+        assertEquals(expected.size(), rows.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertArrayEquals(expected.get(i), rows.get(i), "row " + i);
+        }
+
+        assertEquals(2, result.getPayments());
+        assertEquals(7, result.getClaims());
+        assertEquals(1, result.getServiceLines());
+        assertEquals(5, result.getMatched());
+        assertEquals(2, result.getUnmatched());
+        assertEquals(List.of("ABC", "9999"), result.getUnmatchedClaimIds());
+        assertEquals(0, new BigDecimal("55").compareTo(result.getTotalPaid()));
+
+        ArgumentCaptor<EDIEntity> record = ArgumentCaptor.forClass(EDIEntity.class);
+        verify(ediRepository).save(record.capture());
+        assertEquals("835", record.getValue().getTransactionType());
+        assertEquals("TRN-EFT123", record.getValue().getTransactionId());
+    }
+
+    @Test
+    void fileWithoutKnownClaimsUpdatesNothing() throws IOException {
+        String unknown = ISA + "ST*835*0001~BPR*I*5*C*ACH~TRN*1*T1~CLP*8888*1*5*5*0*12~SE*5*0001~IEA*1*000000077~";
+
+        RemittanceResultDTO result = remittanceService.ingest835(
+                new ByteArrayInputStream(unknown.getBytes(StandardCharsets.ISO_8859_1)));
+
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+        assertEquals(1, result.getClaims());
+        assertEquals(0, result.getMatched());
+        assertEquals(List.of("8888"), result.getUnmatchedClaimIds());
+    }
+}
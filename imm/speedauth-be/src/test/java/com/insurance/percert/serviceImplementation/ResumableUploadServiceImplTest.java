@@ -0,0 +1,192 @@
+package com.insurance.percert.serviceImplementation;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.insurance.percert.Repository.PatientRepository;
+import com.insurance.percert.Repository.UploadSessionRepository;
+import com.insurance.percert.model.FileEntity;
+import com.insurance.percert.model.PatientEntity;
+import com.insurance.percert.model.UploadSessionEntity;
+import com.insurance.percert.service.FileStorageService;
+
+@ExtendWith(MockitoExtension.class)
+class ResumableUploadServiceImplTest {
+
+    @TempDir
+    Path storageDir;
+
+    @Mock
+    private UploadSessionRepository uploadSessionRepository;
+
+    @Mock
+    private PatientRepository patientRepository;
+
+    @Mock
+    private FileStorageService fileStorageService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private ResumableUploadServiceImpl uploadService;
+
+    // Standing in for the upload_session table
+    private final Map<String, UploadSessionEntity> sessions = new HashMap<>();
+    private byte[] stored;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        ReflectionTestUtils.setField(uploadService, "storageDir", storageDir.toString());
+        ReflectionTestUtils.setField(uploadService, "maxUploadSize", 16L);
+        uploadService.init();
+        lenient().when(patientRepository.existsById(anyLong())).thenReturn(true);
+        lenient().when(uploadSessionRepository.save(any())).thenAnswer(invocation -> {
+            UploadSessionEntity session = invocation.getArgument(0);
+            sessions.put(session.getUploadId(), session);
+            return session;
+        });
+        lenient().when(uploadSessionRepository.findById(any()))
+                .thenAnswer(invocation -> Optional.ofNullable(sessions.get(invocation.<String>getArgument(0))));
+        lenient().when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+    }
+
+    private static InputStream bytes(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private Path part(UploadSessionEntity session) {
+        return storageDir.resolve("uploads").resolve(session.getUploadId() + ".part");
+    }
+
+    private UploadSessionEntity append(UploadSessionEntity session, long offset, String text) throws IOException {
+        return uploadService.appendChunk(session.getUploadId(), offset, bytes(text));
+    }
+
+    @Test
+    void retriedChunksOnlyAddTheBytesPastTheCommittedOffset() throws IOException {
+        UploadSessionEntity session = uploadService.createSession(1L, "scan.pdf", "application/pdf", "lab", 10L);
+
+        assertEquals(5, append(session, 0, "hello").getCommittedOffset());
+        // Resent from offset 3: "lo" is already here, only "wor" is new
+        assertEquals(8, append(session, 3, "lowor").getCommittedOffset());
+        // Entirely behind the committed offset: nothing changes
+        assertEquals(8, append(session, 2, "llo").getCommittedOffset());
+        assertEquals(10, append(session, 8, "ld").getCommittedOffset());
+
+        assertEquals("helloworld", Files.readString(part(session), StandardCharsets.US_ASCII));
+    }
+
+    @Test
+    void refusesAnOffsetPastTheCommittedOne() throws IOException {
+        UploadSessionEntity session = uploadService.createSession(1L, "scan.pdf", "application/pdf", "lab", 10L);
+        append(session, 0, "abc");
+
+        ResponseStatusException e = assertThrows(ResponseStatusException.class, () -> append(session, 4, "e"));
+
+        assertEquals(HttpStatus.CONFLICT, e.getStatusCode());
+        assertEquals(3, sessions.get(session.getUploadId()).getCommittedOffset());
+    }
+
+    @Test
+    void stopsAtTheDeclaredSizeOrTheConfiguredLimit() throws IOException {
+        UploadSessionEntity declared = uploadService.createSession(1L, "a.pdf", "application/pdf", "lab", 4L);
+        ResponseStatusException pastDeclared = assertThrows(ResponseStatusException.class,
+                () -> append(declared, 0, "abcde"));
+        assertEquals(HttpStatus.PAYLOAD_TOO_LARGE, pastDeclared.getStatusCode());
+
+        UploadSessionEntity undeclared = uploadService.createSession(1L, "b.pdf", "application/pdf", "lab", null);
+        assertEquals(16, append(undeclared, 0, "0123456789abcdef").getCommittedOffset());
+        ResponseStatusException pastLimit = assertThrows(ResponseStatusException.class,
+                () -> append(undeclared, 16, "g"));
+        assertEquals(HttpStatus.PAYLOAD_TOO_LARGE, pastLimit.getStatusCode());
+
+        ResponseStatusException tooBig = assertThrows(ResponseStatusException.class,
+                () -> uploadService.createSession(1L, "c.pdf", "application/pdf", "lab", 17L));
+        assertEquals(HttpStatus.PAYLOAD_TOO_LARGE, tooBig.getStatusCode());
+    }
+
+    @Test
+    void completingStoresThePartFileOnce() throws IOException {
+        when(patientRepository.findById(1L)).thenReturn(Optional.of(new PatientEntity()));
+        when(fileStorageService.store(any(), any())).thenAnswer(invocation -> {
+            stored = invocation.<InputStream>getArgument(1).readAllBytes();
+            FileEntity file = invocation.getArgument(0);
+            file.setId(77L);
+            return file;
+        });
+        UploadSessionEntity session = uploadService.createSession(1L, "scan.pdf", "application/pdf", "lab", 6L);
+        append(session, 0, "abcdef");
+
+        UploadSessionEntity completed = uploadService.completeSession(session.getUploadId());
+
+        assertEquals("completed", completed.getStatus());
+        assertEquals(77L, completed.getFileId());
+        assertArrayEquals("abcdef".getBytes(StandardCharsets.US_ASCII), stored);
+        assertFalse(Files.exists(part(session)));
+        // A retried complete answers from the session instead of storing again
+        assertSame(completed, uploadService.completeSession(session.getUploadId()));
+        verify(fileStorageService, times(1)).store(any(), any());
+    }
+
+    @Test
+    void failedStoreLeavesTheSessionOpenWithItsPartFile() throws IOException {
+        when(patientRepository.findById(1L)).thenReturn(Optional.of(new PatientEntity()));
+        when(fileStorageService.store(any(), any())).thenThrow(new IOException("disk full"));
+        UploadSessionEntity session = uploadService.createSession(1L, "scan.pdf", "application/pdf", "lab", 3L);
+        append(session, 0, "abc");
+
+        IOException e = assertThrows(IOException.class, () -> uploadService.completeSession(session.getUploadId()));
+
+        assertEquals("disk full", e.getMessage());
+        assertEquals("open", sessions.get(session.getUploadId()).getStatus());
+        assertNull(sessions.get(session.getUploadId()).getFileId());
+        assertTrue(Files.exists(part(session)));
+        verify(transactionManager).rollback(any());
+    }
+
+    @Test
+    void refusesToCompleteAShortUpload() throws IOException {
+        UploadSessionEntity session = uploadService.createSession(1L, "scan.pdf", "application/pdf", "lab", 10L);
+        append(session, 0, "abc");
+
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> uploadService.completeSession(session.getUploadId()));
+
+        assertEquals(HttpStatus.CONFLICT, e.getStatusCode());
+    }
+}
@@ -0,0 +1,90 @@
+package com.insurance.percert.serviceImplementation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.AdditionalAnswers;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.insurance.percert.Repository.UserRepository;
+import com.insurance.percert.model.UserEntity;
+
+@ExtendWith(MockitoExtension.class)
+class UserServiceImplTest {
+
+    @Mock
+    private UserRepository userRepo;
+
+    @InjectMocks
+    private UserServiceImpl userService;
+
+    // One cost above the hashes the rehash tests start from
+    private final PasswordHashServiceImpl passwordHashService = PasswordHashServiceImplTest.withStrength(5);
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(userService, "passwordHashService", passwordHashService);
+    }
+
+    private UserEntity user(String storedPassword) {
+        UserEntity user = new UserEntity();
+        user.setEmail("nurse@example.com");
+        user.setPassword(storedPassword);
+        when(userRepo.findByEmail("nurse@example.com")).thenReturn(user);
+        return user;
+    }
+
+    @Test
+    void signInReplacesPlaintextWithHash() {
+        user("secret");
+        when(userRepo.save(any(UserEntity.class))).then(AdditionalAnswers.returnsFirstArg());
+
+        UserEntity signedIn = userService.signInUser("nurse@example.com", "secret");
+
+        assertTrue(signedIn.getPassword().startsWith("$2a$05$"));
+        assertTrue(passwordHashService.matches("secret", signedIn.getPassword()));
+        verify(userRepo).save(signedIn);
+    }
+
+    @Test
+    void signInRaisesLowerCostHashToCurrentCost() {
+        user(new BCryptPasswordEncoder(4).encode("secret"));
+        when(userRepo.save(any(UserEntity.class))).then(AdditionalAnswers.returnsFirstArg());
+
+        UserEntity signedIn = userService.signInUser("nurse@example.com", "secret");
+
+        assertTrue(signedIn.getPassword().startsWith("$2a$05$"));
+        assertTrue(passwordHashService.matches("secret", signedIn.getPassword()));
+    }
+
+    @Test
+    void signInKeepsCurrentCostHash() {
+        String current = passwordHashService.hash("secret");
+        user(current);
+
+        UserEntity signedIn = userService.signInUser("nurse@example.com", "secret");
+
+        assertEquals(current, signedIn.getPassword());
+        verify(userRepo, never()).save(any());
+    }
+
+    @Test
+    void wrongPasswordIsRejectedWithoutRehash() {
+        user("secret");
+
+        assertNull(userService.signInUser("nurse@example.com", "guess"));
+        verify(userRepo, never()).save(any());
+    }
+}
@@ -0,0 +1,94 @@
+package com.insurance.percert.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+class CatalogSnapshotTest {
+
+    private static final String JSON = "[{\"code\":\"E11.9\"},{\"code\":\"I10\"}]";
+
+    private static CatalogSnapshot snapshot() {
+        return CatalogSnapshot.of(new ObjectMapper(), List.of(Map.of("code", "E11.9"), Map.of("code", "I10")));
+    }
+
+    private static String gunzip(byte[] body) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    @Test
+    void servesPlainJsonWithoutGzipInAcceptEncoding() {
+        ResponseEntity<byte[]> response = snapshot().toResponse(null, "deflate, br");
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(JSON, new String(response.getBody(), StandardCharsets.UTF_8));
+        assertNull(response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(snapshot().getEtag(), response.getHeaders().getETag());
+        assertEquals(JSON.length(), response.getHeaders().getContentLength());
+        assertEquals(List.of(HttpHeaders.ACCEPT_ENCODING), response.getHeaders().getVary());
+        assertEquals("no-cache", response.getHeaders().getCacheControl());
+    }
+
+    @Test
+    void gzipsForClientsThatAcceptIt() throws IOException {
+        CatalogSnapshot snapshot = snapshot();
+
+        ResponseEntity<byte[]> response = snapshot.toResponse(null, "br;q=1.0, GZIP;q=0.5");
+
+        assertEquals("gzip", response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(JSON, gunzip(response.getBody()));
+        assertEquals(snapshot.gzipSize(), response.getHeaders().getContentLength());
+        // The compressed copy is a different representation, so it has its own tag
+        assertNotEquals(snapshot.getEtag(), response.getHeaders().getETag());
+        assertEquals(snapshot.getEtag().replaceAll("\"$", "-gz\""), response.getHeaders().getETag());
+    }
+
+    @Test
+    void gzipWithZeroQualityIsRefused() {
+        assertNull(snapshot().toResponse(null, "gzip;q=0").getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertNull(snapshot().toResponse(null, "gzip; q=0.000").getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertEquals("gzip", snapshot().toResponse(null, "gzip;q=0.1").getHeaders()
+                .getFirst(HttpHeaders.CONTENT_ENCODING));
+    }
+
+    @Test
+    void revalidationWithEitherTagIsNotModified() {
+        CatalogSnapshot snapshot = snapshot();
+        String plainTag = snapshot.getEtag();
+        String gzipTag = snapshot.toResponse(null, "gzip").getHeaders().getETag();
+
+        for (String ifNoneMatch : List.of(plainTag, gzipTag, "W/" + plainTag, "\"other\", " + gzipTag, "*")) {
+            ResponseEntity<byte[]> response = snapshot.toResponse(ifNoneMatch, "gzip");
+            assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode(), ifNoneMatch);
+            assertNull(response.getBody());
+            assertEquals(gzipTag, response.getHeaders().getETag());
+        }
+        assertEquals(HttpStatus.OK, snapshot.toResponse("\"other\"", null).getStatusCode());
+        assertEquals(HttpStatus.OK, snapshot.toResponse(" ", null).getStatusCode());
+    }
+
+    @Test
+    void differentContentGetsADifferentTag() {
+        CatalogSnapshot other = CatalogSnapshot.of(new ObjectMapper(), List.of(Map.of("code", "E11.9")));
+
+        assertNotEquals(snapshot().getEtag(), other.getEtag());
+        assertEquals(snapshot().getEtag(), snapshot().getEtag());
+        assertEquals(HttpStatus.OK, other.toResponse(snapshot().getEtag(), null).getStatusCode());
+    }
+}
@@ -0,0 +1,75 @@
+package com.insurance.percert.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.insurance.percert.util.CodeSetFiles.CodeRow;
+
+class CodeSetFilesTest {
+
+    // Fixed width as in icd10cm_order_YYYY.txt
+    private static String orderLine(int order, String code, boolean billable, String shortDescription, String description) {
+        return String.format("%05d %-7s %d %-60s %s", order, code, billable ? 1 : 0, shortDescription, description);
+    }
+
+    @Test
+    void readsTheOrderFileLayout() {
+        assertEquals(new CodeRow("S72.001A", true, "Fx unsp part of neck of right femur, init",
+                "Fracture of unspecified part of neck of right femur, initial encounter for closed fracture"),
+                CodeSetFiles.parseIcdLine(orderLine(42, "S72001A", true, "Fx unsp part of neck of right femur, init",
+                        "Fracture of unspecified part of neck of right femur, initial encounter for closed fracture")));
+        assertEquals(new CodeRow("A00", false, "Cholera", "Cholera"),
+                CodeSetFiles.parseIcdLine(orderLine(1, "A00", false, "Cholera", "Cholera")));
+        // A line cut short after the short description keeps it as the description
+        assertEquals(new CodeRow("A00.0", true, "Cholera d/t Vibrio cholerae", "Cholera d/t Vibrio cholerae"),
+                CodeSetFiles.parseIcdLine("00002 A000    1 Cholera d/t Vibrio cholerae"));
+        assertNull(CodeSetFiles.parseIcdLine("00003         1 no code here"));
+    }
+
+    @Test
+    void readsTheCodesFileLayout() {
+        assertEquals(new CodeRow("A01.00", true, null, "Typhoid fever, unspecified"),
+                CodeSetFiles.parseIcdLine("A0100   Typhoid fever, unspecified"));
+        assertEquals(new CodeRow("Z99.89", true, null, "Dependence on other enabling machines"),
+                CodeSetFiles.parseIcdLine("  z9989\tDependence on other enabling machines  "));
+        assertNull(CodeSetFiles.parseIcdLine(""));
+        assertNull(CodeSetFiles.parseIcdLine("A0 short"));
+        assertNull(CodeSetFiles.parseIcdLine("A0100"));
+    }
+
+    @Test
+    void readsProcedureCodesWithAnySeparator() {
+        assertEquals(new CodeRow("99213", true, null, "Office visit, established patient"),
+                CodeSetFiles.parseProcedureLine("99213,Office visit, established patient"));
+        assertEquals(new CodeRow("J9267", true, null, "Injection, paclitaxel, 1 mg"),
+                CodeSetFiles.parseProcedureLine("j9267 | Injection, paclitaxel, 1 mg"));
+        assertEquals(new CodeRow("0001U", true, null, "Red cell antigen typing"),
+                CodeSetFiles.parseProcedureLine("0001U\tRed cell antigen typing"));
+        assertNull(CodeSetFiles.parseProcedureLine("CODE,DESCRIPTION"));
+        assertNull(CodeSetFiles.parseProcedureLine("992134 too long"));
+        assertNull(CodeSetFiles.parseProcedureLine("9921"));
+    }
+
+    @Test
+    void resolvesOnlyExistingFilesInsideTheDirectory(@TempDir Path dir) throws IOException {
+        Path file = Files.writeString(dir.resolve("icd10cm_order_2026.txt"), "");
+
+        assertEquals(file, CodeSetFiles.resolve(dir.toString(), "icd10cm_order_2026.txt"));
+        assertEquals(HttpStatus.BAD_REQUEST, assertThrows(ResponseStatusException.class,
+                () -> CodeSetFiles.resolve(dir.resolve("sub").toString(), "../icd10cm_order_2026.txt")).getStatusCode());
+        assertEquals(HttpStatus.NOT_FOUND, assertThrows(ResponseStatusException.class,
+                () -> CodeSetFiles.resolve(dir.toString(), "icd10cm_order_2025.txt")).getStatusCode());
+        assertEquals(HttpStatus.NOT_FOUND, assertThrows(ResponseStatusException.class,
+                () -> CodeSetFiles.resolve(dir.getParent().toString(), dir.getFileName().toString())).getStatusCode());
+    }
+}
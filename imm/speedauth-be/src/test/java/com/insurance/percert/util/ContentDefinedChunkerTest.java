@@ -0,0 +1,103 @@
+package com.insurance.percert.util;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+class ContentDefinedChunkerTest {
+
+    private static byte[] random(int length, long seed) {
+        byte[] data = new byte[length];
+        new Random(seed).nextBytes(data);
+        return data;
+    }
+
+    private static List<byte[]> chunks(InputStream in) throws IOException {
+        List<byte[]> chunks = new ArrayList<>();
+        ContentDefinedChunker.split(in, (buffer, offset, length) ->
+                chunks.add(Arrays.copyOfRange(buffer, offset, offset + length)));
+        return chunks;
+    }
+
+    @Test
+    void chunksReassembleToTheInputWithinSizeBounds() throws IOException {
+        byte[] data = random(3 * 1024 * 1024 + 17, 1);
+
+        List<byte[]> chunks = chunks(new ByteArrayInputStream(data));
+
+        ByteArrayOutputStream joined = new ByteArrayOutputStream();
+        for (int i = 0; i < chunks.size(); i++) {
+            byte[] chunk = chunks.get(i);
+            assertTrue(chunk.length <= ContentDefinedChunker.MAX_SIZE);
+            if (i < chunks.size() - 1) {
+                assertTrue(chunk.length >= ContentDefinedChunker.MIN_SIZE);
+            }
+            joined.write(chunk);
+        }
+        assertArrayEquals(data, joined.toByteArray());
+        assertTrue(chunks.size() > 10, "expected chunks around the average size, got " + chunks.size());
+    }
+
+    @Test
+    void smallAndEmptyInputs() throws IOException {
+        assertEquals(0, chunks(new ByteArrayInputStream(new byte[0])).size());
+        byte[] small = random(1000, 2);
+        List<byte[]> chunks = chunks(new ByteArrayInputStream(small));
+        assertEquals(1, chunks.size());
+        assertArrayEquals(small, chunks.get(0));
+    }
+
+    // Cut points depend on content, not on how the stream delivers it
+    @Test
+    void cutPointsDoNotDependOnReadSizes() throws IOException {
+        byte[] data = random(1024 * 1024, 3);
+        InputStream trickle = new ByteArrayInputStream(data) {
+            @Override
+            public synchronized int read(byte[] b, int off, int len) {
+                return super.read(b, off, Math.min(len, 1000));
+            }
+        };
+
+        List<byte[]> whole = chunks(new ByteArrayInputStream(data));
+        List<byte[]> trickled = chunks(trickle);
+
+        assertEquals(whole.size(), trickled.size());
+        for (int i = 0; i < whole.size(); i++) {
+            assertArrayEquals(whole.get(i), trickled.get(i));
+        }
+    }
+
+    // An insertion near the start only changes the chunks around it
+    @Test
+    void insertionLeavesLaterChunksUnchanged() throws IOException {
+        byte[] data = random(2 * 1024 * 1024, 4);
+        byte[] edited = new byte[data.length + 100];
+        System.arraycopy(data, 0, edited, 0, 5000);
+        System.arraycopy(random(100, 5), 0, edited, 5000, 100);
+        System.arraycopy(data, 5000, edited, 5100, data.length - 5000);
+
+        Set<String> original = new HashSet<>();
+        for (byte[] chunk : chunks(new ByteArrayInputStream(data))) {
+            original.add(Arrays.toString(chunk));
+        }
+        List<byte[]> after = chunks(new ByteArrayInputStream(edited));
+        int shared = 0;
+        for (byte[] chunk : after) {
+            shared += original.contains(Arrays.toString(chunk)) ? 1 : 0;
+        }
+        assertTrue(shared >= after.size() - 2, shared + " of " + after.size() + " chunks shared");
+    }
+}
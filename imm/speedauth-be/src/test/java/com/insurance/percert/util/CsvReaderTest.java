@@ -0,0 +1,53 @@
+package com.insurance.percert.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class CsvReaderTest {
+
+    @Test
+    void readsPlainAndQuotedFields() throws IOException {
+        CsvReader reader = new CsvReader(new StringReader(
+                "id,name,notes\r\n1,\"Doe, Jane\",\"said \"\"hi\"\"\"\n2,,\"two\nlines\"\n"));
+
+        assertEquals(List.of("id", "name", "notes"), reader.next());
+        assertEquals(1, reader.recordLine());
+        assertEquals(List.of("1", "Doe, Jane", "said \"hi\""), reader.next());
+        assertEquals(2, reader.recordLine());
+        assertEquals(List.of("2", "", "two\nlines"), reader.next());
+        assertEquals(3, reader.recordLine());
+        assertNull(reader.next());
+    }
+
+    @Test
+    void skipsBlankLinesAndKeepsLineNumbers() throws IOException {
+        CsvReader reader = new CsvReader(new StringReader("a,b\n\n\r\nc,d"));
+
+        assertEquals(List.of("a", "b"), reader.next());
+        assertEquals(List.of("c", "d"), reader.next());
+        assertEquals(4, reader.recordLine());
+        assertNull(reader.next());
+    }
+
+    @Test
+    void keepsTrailingEmptyField() throws IOException {
+        CsvReader reader = new CsvReader(new StringReader("a,\n"));
+
+        assertEquals(List.of("a", ""), reader.next());
+    }
+
+    @Test
+    void rejectsUnterminatedQuote() {
+        CsvReader reader = new CsvReader(new StringReader("1,\"open\n2,3\n"));
+
+        IOException e = assertThrows(IOException.class, reader::next);
+        assertEquals("Unterminated quoted field starting on line 1", e.getMessage());
+    }
+}
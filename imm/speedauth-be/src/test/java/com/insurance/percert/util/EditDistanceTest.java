@@ -0,0 +1,80 @@
+package com.insurance.percert.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class EditDistanceTest {
+
+    @Test
+    void countsEditsUpToTheBound() {
+        assertEquals(0, EditDistance.bounded("smith", "smith", 2));
+        assertEquals(1, EditDistance.bounded("smith", "smyth", 2));
+        assertEquals(2, EditDistance.bounded("kathrine", "catherine", 2));
+        assertEquals(3, EditDistance.bounded("jones", "jonestown", 2));
+        assertEquals(3, EditDistance.bounded("abcdef", "uvwxyz", 2));
+        assertEquals(4, EditDistance.bounded("", "abcd", 5));
+    }
+
+    // The banded scan agrees with the full Levenshtein table wherever the answer is within the bound
+    @Test
+    void matchesTheFullTable() {
+        Random random = new Random(11);
+        for (int round = 0; round < 2000; round++) {
+            String a = randomWord(random);
+            String b = random.nextBoolean() ? randomWord(random) : mutate(random, a);
+            int max = random.nextInt(5);
+            int expected = levenshtein(a, b);
+            assertEquals(Math.min(expected, max + 1), EditDistance.bounded(a, b, max), a + " / " + b + " @ " + max);
+        }
+    }
+
+    private static String randomWord(Random random) {
+        StringBuilder word = new StringBuilder();
+        int length = random.nextInt(9);
+        for (int i = 0; i < length; i++) {
+            word.append((char) ('a' + random.nextInt(4)));
+        }
+        return word.toString();
+    }
+
+    private static String mutate(Random random, String word) {
+        StringBuilder out = new StringBuilder(word);
+        for (int edits = random.nextInt(4); edits > 0; edits--) {
+            int at = out.length() == 0 ? 0 : random.nextInt(out.length());
+            switch (random.nextInt(3)) {
+                case 0 -> out.insert(at, 'c');
+                case 1 -> {
+                    if (out.length() > 0) {
+                        out.deleteCharAt(at);
+                    }
+                }
+                default -> {
+                    if (out.length() > 0) {
+                        out.setCharAt(at, 'd');
+                    }
+                }
+            }
+        }
+        return out.toString();
+    }
+
+    private static int levenshtein(String a, String b) {
+        int[][] d = new int[a.length() + 1][b.length() + 1];
+        for (int i = 0; i <= a.length(); i++) {
+            d[i][0] = i;
+        }
+        for (int j = 0; j <= b.length(); j++) {
+            d[0][j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                d[i][j] = Math.min(Math.min(d[i - 1][j] + 1, d[i][j - 1] + 1), d[i - 1][j - 1] + cost);
+            }
+        }
+        return d[a.length()][b.length()];
+    }
+}
@@ -0,0 +1,70 @@
+package com.insurance.percert.util;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import javax.crypto.SecretKey;
+
+import org.junit.jupiter.api.Test;
+
+class EnvelopeCipherTest {
+
+    private static final byte[] MASTER = new byte[32];
+    private static final byte[] BLOCK = "scanned referral, page one of three".getBytes(StandardCharsets.UTF_8);
+
+    static {
+        Arrays.fill(MASTER, (byte) 7);
+    }
+
+    @Test
+    void sealedBlocksOpenWithTheUnwrappedKey() {
+        EnvelopeCipher cipher = new EnvelopeCipher(MASTER);
+        SecretKey dataKey = cipher.newDataKey();
+
+        byte[] sealed = cipher.seal(dataKey, "abc123", BLOCK, 6, 8);
+
+        assertEquals(EnvelopeCipher.OVERHEAD + 8, sealed.length);
+        SecretKey unwrapped = new EnvelopeCipher(MASTER).unwrap(cipher.wrap(dataKey));
+        assertArrayEquals(Arrays.copyOfRange(BLOCK, 6, 14), cipher.open(unwrapped, "abc123", sealed));
+    }
+
+    @Test
+    void eachSealUsesAFreshIv() {
+        EnvelopeCipher cipher = new EnvelopeCipher(MASTER);
+        SecretKey dataKey = cipher.newDataKey();
+
+        byte[] first = cipher.seal(dataKey, "abc123", BLOCK, 0, BLOCK.length);
+        byte[] second = cipher.seal(dataKey, "abc123", BLOCK, 0, BLOCK.length);
+
+        assertFalse(Arrays.equals(first, second));
+    }
+
+    @Test
+    void tamperedSwappedOrTruncatedBlocksAreRefused() {
+        EnvelopeCipher cipher = new EnvelopeCipher(MASTER);
+        SecretKey dataKey = cipher.newDataKey();
+        byte[] sealed = cipher.seal(dataKey, "abc123", BLOCK, 0, BLOCK.length);
+
+        byte[] flipped = sealed.clone();
+        flipped[EnvelopeCipher.IV_LENGTH + 3] ^= 1;
+        assertThrows(IllegalStateException.class, () -> cipher.open(dataKey, "abc123", flipped));
+        // The label is bound in, so a block moved to another chunk's file does not open
+        assertThrows(IllegalStateException.class, () -> cipher.open(dataKey, "def456", sealed));
+        assertThrows(IllegalStateException.class, () -> cipher.open(dataKey, "abc123", new byte[10]));
+        assertThrows(IllegalStateException.class, () -> cipher.open(cipher.newDataKey(), "abc123", sealed));
+    }
+
+    @Test
+    void aWrongMasterKeyCannotUnwrap() {
+        EnvelopeCipher cipher = new EnvelopeCipher(MASTER);
+        byte[] wrapped = cipher.wrap(cipher.newDataKey());
+
+        assertThrows(IllegalStateException.class, () -> new EnvelopeCipher(new byte[32]).unwrap(wrapped));
+        assertThrows(IllegalArgumentException.class, () -> new EnvelopeCipher(new byte[20]));
+    }
+}
@@ -0,0 +1,54 @@
+package com.insurance.percert.util;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class NameSimilarityTest {
+
+    private static double similarity(String a, String b) {
+        return NameSimilarity.similarity(a, NameSimilarity.codes(a), b, NameSimilarity.codes(b));
+    }
+
+    private static double fullName(String first1, String last1, String first2, String last2) {
+        return NameSimilarity.fullName(first1, NameSimilarity.codes(first1), last1, NameSimilarity.codes(last1),
+                first2, NameSimilarity.codes(first2), last2, NameSimilarity.codes(last2));
+    }
+
+    @Test
+    void normalizesToLowerCaseLetters() {
+        assertEquals("obriensmith", NameSimilarity.lettersOnly(" O'Brien-Smith 2"));
+        assertEquals("", NameSimilarity.lettersOnly(null));
+        assertTrue(NameSimilarity.codes("").isEmpty());
+    }
+
+    @Test
+    void splitsTheFullNameOnlyWhenBothNamesAreBlank() {
+        assertArrayEquals(new String[] { "john", "smith" }, NameSimilarity.splitName("Smith, John", null, null));
+        assertArrayEquals(new String[] { "mary", "jones" }, NameSimilarity.splitName("Mary Ann Jones", " ", null));
+        assertArrayEquals(new String[] { "cher", "" }, NameSimilarity.splitName("Cher", null, null));
+        assertArrayEquals(new String[] { "ann", "" }, NameSimilarity.splitName("Mary Jones", "Ann", null));
+    }
+
+    @Test
+    void scoresTyposInitialsAndSoundAlikes() {
+        assertEquals(1.0, similarity("smith", "smith"));
+        assertEquals(0.8, similarity("smith", "smyth"), 1e-9);
+        assertEquals(0.7, similarity("j", "john"));
+        assertEquals(0.0, similarity("k", "john"));
+        // Too many edits apart, but the same Double Metaphone code
+        assertEquals(0.75, similarity("catherine", "kathryn"));
+        assertEquals(0.0, similarity("smith", "jones"));
+        assertEquals(0.0, similarity("", "smith"));
+    }
+
+    @Test
+    void namesEnteredTheWrongWayRoundStillScore() {
+        assertEquals(1.0, fullName("john", "smith", "john", "smith"));
+        assertEquals(0.9, fullName("john", "smith", "smith", "john"), 1e-9);
+        // The last name carries more weight than the first
+        assertTrue(fullName("john", "smith", "jane", "smith") > fullName("john", "smith", "john", "jones"));
+    }
+}
@@ -0,0 +1,81 @@
+package com.insurance.percert.util;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+class TokenSignerTest {
+
+    private static final byte[] PAYLOAD = "{\"sub\":\"7\"}".getBytes(StandardCharsets.UTF_8);
+
+    private static byte[] secret(int fill) {
+        byte[] secret = new byte[32];
+        Arrays.fill(secret, (byte) fill);
+        return secret;
+    }
+
+    private static Map<String, byte[]> ring(String... kids) {
+        Map<String, byte[]> ring = new LinkedHashMap<>();
+        for (int i = 0; i < kids.length; i++) {
+            ring.put(kids[i], secret(i + 1));
+        }
+        return ring;
+    }
+
+    @Test
+    void signsAndVerifies() {
+        TokenSigner signer = new TokenSigner(ring("k1"), "k1");
+
+        String token = signer.sign(PAYLOAD);
+
+        assertEquals(3, token.split("\\.").length);
+        String header = new String(Base64.getUrlDecoder().decode(token.substring(0, token.indexOf('.'))),
+                StandardCharsets.UTF_8);
+        assertEquals("{\"alg\":\"HS256\",\"typ\":\"JWT\",\"kid\":\"k1\"}", header);
+        assertArrayEquals(PAYLOAD, signer.verify(token));
+    }
+
+    @Test
+    void tokensFromTheOldKeyVerifyAfterRotation() {
+        String old = new TokenSigner(ring("k1", "k2"), "k1").sign(PAYLOAD);
+        TokenSigner rotated = new TokenSigner(ring("k1", "k2"), "k2");
+
+        assertArrayEquals(PAYLOAD, rotated.verify(old));
+        assertEquals("k2", rotated.currentKid());
+        // Once the old key is dropped from the ring its tokens stop verifying
+        assertNull(new TokenSigner(Map.of("k2", secret(2)), "k2").verify(old));
+    }
+
+    @Test
+    void rejectsTamperedAndMalformedTokens() {
+        TokenSigner signer = new TokenSigner(ring("k1"), "k1");
+        String token = signer.sign(PAYLOAD);
+        String[] parts = token.split("\\.");
+        String otherPayload = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString("{\"sub\":\"8\"}".getBytes(StandardCharsets.UTF_8));
+
+        assertNull(signer.verify(parts[0] + "." + otherPayload + "." + parts[2]));
+        assertNull(signer.verify(parts[0] + "." + parts[1] + "." + parts[2].substring(1)));
+        assertNull(signer.verify(parts[0] + "." + parts[1]));
+        assertNull(signer.verify(token + ".extra"));
+        assertNull(signer.verify(parts[0] + "." + parts[1] + ".!!!"));
+        // Same kid, different secret
+        assertNull(signer.verify(new TokenSigner(Map.of("k1", secret(9)), "k1").sign(PAYLOAD)));
+    }
+
+    @Test
+    void rejectsBadKeyRings() {
+        assertThrows(IllegalArgumentException.class, () -> new TokenSigner(Map.of("k1", new byte[16]), "k1"));
+        assertThrows(IllegalArgumentException.class, () -> new TokenSigner(Map.of("k\"1", secret(1)), "k\"1"));
+        assertThrows(IllegalArgumentException.class, () -> new TokenSigner(ring("k1"), "k2"));
+    }
+}
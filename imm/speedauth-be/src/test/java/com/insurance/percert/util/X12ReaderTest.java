@@ -0,0 +1,70 @@
+package com.insurance.percert.util;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import org.junit.jupiter.api.Test;
+
+class X12ReaderTest {
+
+    // 106 characters: element separator at 3, component separator at 104, terminator at 105
+    static String isa(char element, char component, char terminator) {
+        String isa = String.join(String.valueOf(element), "ISA", "00", "          ", "00", "          ", "ZZ",
+                "SENDER         ", "ZZ", "RECEIVER       ", "261019", "1200", "^", "00501", "000000042", "0", "P",
+                String.valueOf(component)) + terminator;
+        assertEquals(106, isa.length());
+        return isa;
+    }
+
+    @Test
+    void readsSegmentsWithSeparatorsFromTheHeader() throws IOException {
+        X12Reader reader = new X12Reader(new StringReader(isa('*', ':', '~')
+                + "\nGS*HP*SENDER*RECEIVER~\r\nCLP*1001*1*150*100*20**PAYER1~\nSVC*HC:99213*150*100~"));
+
+        String[] isa = reader.next();
+        assertEquals("ISA", isa[0]);
+        assertEquals("000000042", X12Reader.element(isa, 13));
+        assertArrayEquals(new String[] { "GS", "HP", "SENDER", "RECEIVER" }, reader.next());
+        String[] clp = reader.next();
+        assertEquals("1001", X12Reader.element(clp, 1));
+        assertEquals("", X12Reader.element(clp, 6));
+        assertEquals("PAYER1", X12Reader.element(clp, 7));
+        assertEquals("", X12Reader.element(clp, 12));
+        String[] svc = reader.next();
+        assertArrayEquals(new String[] { "HC", "99213" }, reader.components(svc[1]));
+        assertNull(reader.next());
+        assertEquals(4, reader.segmentsRead());
+    }
+
+    @Test
+    void honoursNonDefaultSeparators() throws IOException {
+        X12Reader reader = new X12Reader(new StringReader("  " + isa('|', '>', '^') + "CAS|CO|45|10.50^SE|3|0001^"));
+
+        reader.next();
+        String[] cas = reader.next();
+        assertArrayEquals(new String[] { "CAS", "CO", "45", "10.50" }, cas);
+        assertArrayEquals(new String[] { "HC", "J1234", "JW" }, reader.components("HC>J1234>JW"));
+        assertEquals("3", reader.next()[1]);
+        assertNull(reader.next());
+    }
+
+    @Test
+    void returnsATrailingSegmentWithoutTerminator() throws IOException {
+        X12Reader reader = new X12Reader(new StringReader(isa('*', ':', '~') + "IEA*1*000000042\n"));
+
+        reader.next();
+        assertArrayEquals(new String[] { "IEA", "1", "000000042" }, reader.next());
+        assertNull(reader.next());
+    }
+
+    @Test
+    void rejectsInputWithoutAnIsaHeader() {
+        assertThrows(IOException.class, () -> new X12Reader(new StringReader("GS*HP*SENDER*RECEIVER~")));
+        assertThrows(IOException.class, () -> new X12Reader(new StringReader("ISA*00*")));
+    }
+}
@@ -0,0 +1,84 @@
+package com.insurance.percert.util;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+
+import org.junit.jupiter.api.Test;
+
+class X12WriterTest {
+
+    @Test
+    void writesSegmentsAndCountsThem() throws IOException {
+        StringWriter out = new StringWriter();
+        X12Writer x12 = new X12Writer(out, "~");
+
+        x12.segment("GS", "HC", "SENDER");
+        x12.startTransaction();
+        x12.segment("ST", "837", "0001");
+        x12.segment("NM1", "IL", "1", "DOE", null, "JANE");
+
+        assertEquals("GS*HC*SENDER~ST*837*0001~NM1*IL*1*DOE**JANE~", out.toString());
+        assertEquals(3, x12.segmentsWritten());
+        assertEquals(3, x12.transactionSegmentCountWithTrailer());
+    }
+
+    @Test
+    void replacesSeparatorsInsideValues() throws IOException {
+        StringWriter out = new StringWriter();
+        new X12Writer(out, "~").segment("NTE", "ADD", "knee*left~side\r\nfollow-up");
+
+        assertEquals("NTE*ADD*knee left side  follow-up~", out.toString());
+    }
+
+    @Test
+    void formatsCompositesFixedWidthsAndControlNumbers() {
+        assertEquals("HC:99213", X12Writer.composite("HC", "99213", "", null));
+        assertEquals("11::1", X12Writer.composite("11", null, "1"));
+        assertEquals("AB K", X12Writer.composite("AB:K"));
+        assertEquals("SENDER    ", X12Writer.fixed("SENDER", 10));
+        assertEquals("LONGSENDER", X12Writer.fixed("LONGSENDERNAME", 10));
+        assertEquals("          ", X12Writer.fixed(null, 10));
+        assertEquals("000000042", X12Writer.controlNumber(42, 9));
+        assertEquals("2345", X12Writer.controlNumber(12345, 4));
+    }
+
+    // An 837-shaped interchange written with the writer reads back element for element
+    @Test
+    void roundTripsThroughTheReader() throws IOException {
+        StringWriter out = new StringWriter();
+        X12Writer x12 = new X12Writer(out, X12Writer.TERMINATOR);
+        x12.segment("ISA", "00", X12Writer.fixed("", 10), "00", X12Writer.fixed("", 10), "ZZ",
+                X12Writer.fixed("SENDER", 15), "ZZ", X12Writer.fixed("RECEIVER", 15), "261019", "1200", "^", "00501",
+                X12Writer.controlNumber(42, 9), "0", "P", ":");
+        x12.segment("GS", "HC", "SENDER", "RECEIVER", "20261019", "1200", "42", "X", "005010X222A1");
+        x12.startTransaction();
+        x12.segment("ST", "837", "0001", "005010X222A1");
+        x12.segment("CLM", "1001", "150", "", "", X12Writer.composite("11", "B", "1"), "Y", "A", "Y", "Y");
+        x12.segment("HI", X12Writer.composite("ABK", "S72001A"), X12Writer.composite("ABF", "E119"));
+        x12.segment("SV1", X12Writer.composite("HC", "99213"), "150", "UN", "1", "", "", "1");
+        x12.segment("SE", String.valueOf(x12.transactionSegmentCountWithTrailer()), "0001");
+        x12.segment("GE", "1", "42");
+        x12.segment("IEA", "1", X12Writer.controlNumber(42, 9));
+
+        X12Reader reader = new X12Reader(new StringReader(out.toString()));
+        assertEquals("000000042", reader.next()[13]);
+        assertEquals("005010X222A1", reader.next()[8]);
+        assertEquals("837", reader.next()[1]);
+        String[] clm = reader.next();
+        assertArrayEquals(new String[] { "11", "B", "1" }, reader.components(clm[5]));
+        String[] hi = reader.next();
+        assertArrayEquals(new String[] { "ABK", "S72001A" }, reader.components(hi[1]));
+        assertArrayEquals(new String[] { "ABF", "E119" }, reader.components(hi[2]));
+        assertEquals("99213", reader.components(reader.next()[1])[1]);
+        assertEquals("5", reader.next()[1]); // ST, CLM, HI, SV1 and SE itself
+        assertEquals("GE", reader.next()[0]);
+        assertEquals("IEA", reader.next()[0]);
+        assertNull(reader.next());
+        assertEquals(x12.segmentsWritten(), reader.segmentsRead());
+    }
+}
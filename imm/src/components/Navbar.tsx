@@ -1,4 +1,5 @@
 import React from 'react';
+import { clearTokens } from '../services/auth';
 
 const colors = {
   bgDark: '#0b1020',
@@ -108,6 +109,7 @@ function Navbar({ active = 'analytics', onNavigate }: NavbarProps) {
               <button
                 onClick={() => {
     try { localStorage.removeItem('userEmail'); } catch {}
+    clearTokens();
     setShowLogout(false);
     onNavigate && onNavigate('signin');   // redirects to sign-in
   }}
@@ -4,6 +4,9 @@ import { BrowserRouter } from 'react-router-dom';
 import './index.css';
 import App from './App';
 import reportWebVitals from './reportWebVitals';
+import { installAuthFetch } from './services/auth';
+
+installAuthFetch();
 
 const root = ReactDOM.createRoot(
   document.getElementById('root') as HTMLElement
@@ -1,4 +1,5 @@
 import React from 'react';
+import { saveTokens } from '../services/auth';
 
 type Props = {
   onNavigate?: (route: any) => void;
@@ -19,13 +20,13 @@ function SignIn({ onNavigate }: Props) {
     if (!validatePassword(formData.password)) { setError('Password must be at least 6 characters long.'); return; }
     try {
       const apiBaseUrl = process.env.REACT_APP_API_BASE_URL || 'http://localhost:8082';
-      const url = new URL(`${apiBaseUrl}/user/signinrole`);
+      const url = new URL(`${apiBaseUrl}/auth/user/signin`);
       url.searchParams.set('email', formData.email);
       url.searchParams.set('password', formData.password);
       const res = await fetch(url.toString(), { method: 'POST' });
       if (!res.ok) throw new Error('Invalid email or password');
-      const data = await res.json();
-      const role = data?.role_name;
+      // Every other backend call needs the access token; see services/auth
+      saveTokens(await res.json());
       try { localStorage.setItem('userEmail', formData.email); } catch {}
       // Optionally fetch username (same as speedauth behavior)
       try {
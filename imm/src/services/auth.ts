@@ -0,0 +1,72 @@
+const API_BASE_URL = (process.env.REACT_APP_API_BASE_URL || 'http://localhost:8082').replace(/\/+$/, '');
+
+const ACCESS_TOKEN = 'accessToken';
+const REFRESH_TOKEN = 'refreshToken';
+
+export interface TokenResponse {
+  accessToken: string;
+  refreshToken: string;
+  tokenType: string;
+  expiresIn: number;
+}
+
+export function saveTokens(tokens: TokenResponse) {
+  try {
+    localStorage.setItem(ACCESS_TOKEN, tokens.accessToken);
+    localStorage.setItem(REFRESH_TOKEN, tokens.refreshToken);
+  } catch {}
+}
+
+export function clearTokens() {
+  try {
+    localStorage.removeItem(ACCESS_TOKEN);
+    localStorage.removeItem(REFRESH_TOKEN);
+  } catch {}
+}
+
+function readToken(key: string): string | null {
+  try { return localStorage.getItem(key); } catch { return null; }
+}
+
+// One refresh at a time; requests that fail together wait for the same one
+let refreshing: Promise<boolean> | null = null;
+
+async function refresh(send: typeof fetch): Promise<boolean> {
+  const refreshToken = readToken(REFRESH_TOKEN);
+  if (!refreshToken) return false;
+  const url = new URL(`${API_BASE_URL}/auth/refresh`);
+  url.searchParams.set('refreshToken', refreshToken);
+  const res = await send(url.toString(), { method: 'POST' });
+  if (!res.ok) {
+    clearTokens();
+    return false;
+  }
+  saveTokens(await res.json());
+  return true;
+}
+
+/**
+ * Sends the access token with every backend request and, when the backend
+ * answers 401, refreshes it once and retries. Sign-in and refresh under
+ * /auth go out untouched.
+ */
+export function installAuthFetch() {
+  const send = window.fetch.bind(window);
+  window.fetch = async (input: RequestInfo | URL, init: RequestInit = {}) => {
+    const url = typeof input === 'string' ? input : input instanceof URL ? input.toString() : input.url;
+    const isBackend = url.startsWith(API_BASE_URL);
+    if (!isBackend || (url.startsWith(`${API_BASE_URL}/auth/`) && !url.startsWith(`${API_BASE_URL}/auth/me`))) {
+      return send(input, init);
+    }
+    const withToken = () => {
+      const headers = new Headers(init.headers || (input instanceof Request ? input.headers : undefined));
+      const token = readToken(ACCESS_TOKEN);
+      if (token) headers.set('Authorization', `Bearer ${token}`);
+      return send(input, { ...init, headers });
+    };
+    const response = await withToken();
+    if (response.status !== 401 || !readToken(REFRESH_TOKEN)) return response;
+    refreshing = refreshing || refresh(send).finally(() => { refreshing = null; });
+    return (await refreshing) ? withToken() : response;
+  };
+}